@@ -28,11 +28,19 @@ sourceSets {
             srcDir("src/functional-test/java")
         }
     }
+    create("jmh") {
+        java {
+            compileClasspath += sourceSets.main.get().output
+            runtimeClasspath += sourceSets.main.get().output
+            srcDir("src/jmh/java")
+        }
+    }
 }
 
 idea {
     module {
         testSources.from(sourceSets["functionalTest"].java.srcDirs)
+        testSources.from(sourceSets["jmh"].java.srcDirs)
     }
 }
 
@@ -40,6 +48,10 @@ val functionalTestImplementation: Configuration by configurations.getting {
     extendsFrom(configurations.implementation.get())
 }
 val functionalTestRuntimeOnly: Configuration by configurations.getting
+val jmhImplementation: Configuration by configurations.getting {
+    extendsFrom(configurations.implementation.get())
+}
+val jmhAnnotationProcessor: Configuration by configurations.getting
 
 configurations {
     configurations["functionalTestImplementation"].extendsFrom(configurations.testImplementation.get())
@@ -62,13 +74,31 @@ val functionalTest = task<Test>("functionalTest") {
     }
 }
 
+val jmh = task<JavaExec>("jmh") {
+    description = "Runs JMH benchmarks, e.g. ./gradlew jmh -PjmhArgs=\"ReadingStoreBenchmark -prof gc\"."
+    group = "benchmark"
+
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args((project.findProperty("jmhArgs") as String?)?.split(" ") ?: listOf<String>())
+}
+
+val jmh_version: String by project
 
 dependencies {
     /* Spring Boot */
     implementation ("org.springframework.boot:spring-boot-starter-web")
+    implementation ("org.springframework.boot:spring-boot-starter-actuator")
+
+    /* Indexes */
+    implementation ("org.roaringbitmap:RoaringBitmap:0.9.45")
     testImplementation("org.springframework.boot:spring-boot-starter-test") {
         exclude (group = "org.junit.vintage", module = "junit-vintage-engine")
     }
+
+    /* Benchmarks */
+    jmhImplementation("org.openjdk.jmh:jmh-core:$jmh_version")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:$jmh_version")
 }
 
 tasks.named<Test>("test") {
@@ -159,9 +159,9 @@ echo "OK reading data"
 expected='
 {
   "pricePlanComparisons": {
-    "price-plan-2": 6.0,
-    "price-plan-1": 12.0,
-    "price-plan-0": 60.0
+    "price-plan-2": 0.0125,
+    "price-plan-1": 0.0250,
+    "price-plan-0": 0.1250
   },
   "pricePlanId": null
 }'
@@ -175,10 +175,10 @@ echo "OK comparing all price plans"
 
 expected='[
   {
-    "price-plan-2": 6.0
+    "price-plan-2": 0.0125
   },
   {
-    "price-plan-1": 12.0
+    "price-plan-1": 0.0250
   }
 ]'
 
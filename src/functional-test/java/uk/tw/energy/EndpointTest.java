@@ -28,6 +28,7 @@ import uk.tw.energy.domain.MeterReadings;
  * 2. Retrieving meter readings for a specific smart meter
  * 3. Calculating and comparing prices for all available price plans
  * 4. Recommending the cheapest price plans for a given smart meter
+ * 5. Comparing price plans for every smart meter of a portfolio
  *
  * The tests use a TestRestTemplate to make HTTP requests to the application's endpoints
  * and verify the responses. They cover both successful scenarios and edge cases to
@@ -101,7 +102,11 @@ public class EndpointTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody())
                 .isEqualTo(new CompareAllResponse(
-                        Map.of("price-plan-0", 36000, "price-plan-1", 7200, "price-plan-2", 3600), null));
+                        Map.of(
+                                "price-plan-0", new BigDecimal("1.1111"),
+                                "price-plan-1", new BigDecimal("0.2222"),
+                                "price-plan-2", new BigDecimal("0.1111")),
+                        null));
     }
 
     /**
@@ -119,7 +124,22 @@ public class EndpointTest {
         populateReadingsForMeter(smartMeterId, data);
         ResponseEntity<Map[]> response =
                 restTemplate.getForEntity("/price-plans/recommend/" + smartMeterId + "?limit=2", Map[].class);
-        assertThat(response.getBody()).containsExactly(Map.of("price-plan-2", 3600), Map.of("price-plan-1", 7200));
+        assertThat(response.getBody()).containsExactly(Map.of("price-plan-2", 0.1111), Map.of("price-plan-1", 0.2222));
+    }
+
+    /**
+     * Tests the comparison of price plans for a portfolio.
+     * Verifies that the /price-plans/portfolio/compare-all/{accountId} endpoint costs every meter of the portfolio.
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void givenAccountIdShouldCompareAllPricePlansForItsPortfolio() {
+        ResponseEntity<Map> response =
+                restTemplate.getForEntity("/price-plans/portfolio/compare-all/account-1", Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("smartMeterCount")).isEqualTo(2);
+        assertThat((Map) response.getBody().get("pricePlanComparisons"))
+                .containsKeys("price-plan-0", "price-plan-1", "price-plan-2");
     }
 
     /**
@@ -137,6 +157,6 @@ public class EndpointTest {
     /**
      * Record class to represent the response from the compare-all endpoint.
      */
-    record CompareAllResponse(Map<String, Integer> pricePlanComparisons, String pricePlanId) {}
+    record CompareAllResponse(Map<String, BigDecimal> pricePlanComparisons, String pricePlanId) {}
 }
 
@@ -0,0 +1,100 @@
+package uk.tw.energy.replication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import uk.tw.energy.App;
+
+/**
+ * Test harness running a primary and its followers as separate application contexts on localhost.
+ * Rate limiting is turned off, so throughput measurements are not throttled.
+ */
+public class LocalCluster implements AutoCloseable {
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final int replicationPort;
+
+    /**
+     * Starts a primary owning every smart meter and a number of followers.
+     *
+     * @param followers The number of followers to start
+     */
+    public LocalCluster(int followers) {
+        replicationPort = freePort();
+        start(Map.of(
+                "energy.replication.role",
+                "primary",
+                "energy.replication.port",
+                replicationPort,
+                "energy.rate-limit.enabled",
+                false));
+        for (int i = 0; i < followers; i++) {
+            start(Map.of(
+                    "energy.replication.role",
+                    "follower",
+                    "energy.replication.primaries",
+                    "localhost:" + replicationPort,
+                    "energy.replication.reconnect-delay",
+                    "PT0.1S",
+                    "energy.rate-limit.enabled",
+                    false));
+        }
+    }
+
+    /**
+     * @return A client for the primary
+     */
+    public RestTemplate primary() {
+        return client(nodes.get(0));
+    }
+
+    /**
+     * @return Clients for the followers
+     */
+    public List<RestTemplate> followers() {
+        return nodes.subList(1, nodes.size()).stream().map(LocalCluster::client).toList();
+    }
+
+    /**
+     * @return Clients for every node, the primary first
+     */
+    public List<RestTemplate> nodes() {
+        return nodes.stream().map(LocalCluster::client).toList();
+    }
+
+    @Override
+    public void close() {
+        // Followers first, so they don't spend the shutdown reconnecting.
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            nodes.get(i).close();
+        }
+    }
+
+    private void start(Map<String, Object> properties) {
+        nodes.add(new SpringApplicationBuilder(App.class)
+                .properties("server.port=0")
+                .properties(properties)
+                .run());
+    }
+
+    private static RestTemplate client(ConfigurableApplicationContext node) {
+        String port = node.getEnvironment().getProperty("local.server.port");
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:" + port));
+        return restTemplate;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
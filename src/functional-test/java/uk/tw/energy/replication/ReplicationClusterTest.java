@@ -0,0 +1,148 @@
+package uk.tw.energy.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import uk.tw.energy.builders.MeterReadingsBuilder;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.MeterReadings;
+import uk.tw.energy.statistics.ConsumptionStatistics;
+
+/**
+ * Functional test running a primary and two followers on localhost.
+ *
+ * Verifies that readings stored on the primary reach every follower, that followers answer reads and price plan
+ * queries exactly like the primary, and logs read throughput when reads are spread over the cluster.
+ */
+public class ReplicationClusterTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationClusterTest.class);
+    private static final int FOLLOWERS = 2;
+    private static final long CONVERGENCE_TIMEOUT_MILLIS = 10_000;
+    private static final int READS = 2_000;
+    private static final int READ_THREADS = 8;
+
+    private static LocalCluster cluster;
+
+    @BeforeAll
+    public static void startCluster() {
+        cluster = new LocalCluster(FOLLOWERS);
+    }
+
+    @AfterAll
+    public static void stopCluster() {
+        cluster.close();
+    }
+
+    /**
+     * Tests that every follower ends up with the readings stored on the primary, including the seeded ones, and with
+     * no other meters.
+     */
+    @Test
+    public void givenReadingsStoredOnPrimaryShouldConvergeOnFollowers() throws InterruptedException {
+        List<String> smartMeterIds = new ArrayList<>(List.of("smart-meter-0", "smart-meter-3"));
+        for (int meter = 0; meter < 20; meter++) {
+            MeterReadings meterReadings = new MeterReadingsBuilder()
+                    .setSmartMeterId("cluster-meter-" + meter)
+                    .generateElectricityReadings(10)
+                    .build();
+            cluster.primary().postForEntity("/readings/store", meterReadings, String.class);
+            smartMeterIds.add(meterReadings.smartMeterId());
+        }
+
+        for (RestTemplate follower : cluster.followers()) {
+            for (String smartMeterId : smartMeterIds) {
+                awaitSameResponse(follower, "/readings/read/" + smartMeterId);
+                awaitSameResponse(follower, "/price-plans/compare-all/" + smartMeterId);
+            }
+            ConsumptionStatistics primaryFleet =
+                    cluster.primary().getForObject("/readings/statistics", ConsumptionStatistics.class);
+            ConsumptionStatistics followerFleet =
+                    follower.getForObject("/readings/statistics", ConsumptionStatistics.class);
+            assertThat(followerFleet.meterCount()).isEqualTo(primaryFleet.meterCount());
+            assertThat(followerFleet.readingCount()).isEqualTo(primaryFleet.readingCount());
+        }
+    }
+
+    /**
+     * Tests that followers refuse readings, which must go to the primary.
+     */
+    @Test
+    public void givenReadingsSentToFollowerShouldRejectThem() {
+        RestTemplate follower = cluster.followers().get(0);
+        MeterReadings meterReadings =
+                new MeterReadingsBuilder().generateElectricityReadings().build();
+
+        assertThatThrownBy(() -> follower.postForEntity("/readings/store", meterReadings, String.class))
+                .isInstanceOf(HttpClientErrorException.Conflict.class);
+    }
+
+    /**
+     * Measures read throughput against the primary alone and spread over every node, and logs it. Only the answers
+     * are checked, as throughput on a shared machine is too noisy to assert on; the JMH benchmarks are the place for
+     * numbers that are compared.
+     */
+    @Test
+    public void measureReadScaleOut() throws Exception {
+        double primaryOnly = readsPerSecond(List.of(cluster.primary()));
+        double wholeCluster = readsPerSecond(cluster.nodes());
+
+        LOGGER.info(
+                "Reads per second: primary only {}, {} nodes {} ({}x)",
+                Math.round(primaryOnly),
+                FOLLOWERS + 1,
+                Math.round(wholeCluster),
+                String.format("%.2f", wholeCluster / primaryOnly));
+    }
+
+    private static void awaitSameResponse(RestTemplate follower, String path) throws InterruptedException {
+        String expected = cluster.primary().getForObject(path, String.class);
+        long deadline = System.currentTimeMillis() + CONVERGENCE_TIMEOUT_MILLIS;
+        String actual = read(follower, path);
+        while (!expected.equals(actual) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            actual = read(follower, path);
+        }
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private static String read(RestTemplate node, String path) {
+        try {
+            return node.getForObject(path, String.class);
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+    }
+
+    private static double readsPerSecond(List<RestTemplate> nodes) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(READ_THREADS);
+        try {
+            List<Future<ElectricityReading[]>> reads = new ArrayList<>(READS);
+            long start = System.nanoTime();
+            for (int i = 0; i < READS; i++) {
+                RestTemplate node = nodes.get(i % nodes.size());
+                String path = "/readings/read/smart-meter-" + (i % 5);
+                reads.add(executor.submit(() -> node.getForObject(path, ElectricityReading[].class)));
+            }
+            for (Future<ElectricityReading[]> read : reads) {
+                assertThat(Arrays.asList(read.get(1, TimeUnit.MINUTES))).isNotEmpty();
+            }
+            return READS / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package uk.tw.energy.archive;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.OffHeapReadingStore;
+
+/**
+ * Measures exporting every stored reading to an archive and importing it into an empty store.
+ *
+ * <p>Divide {@code meters * readingsPerMeter} by the time taken for the rows per second, for example with
+ * {@code ./gradlew jmh -PjmhArgs="ReadingArchiveBenchmark -p importThreads=1,4,8"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReadingArchiveBenchmark {
+    private static final String ARCHIVE = "benchmark.erca";
+
+    @Param({"2000"})
+    public int meters;
+
+    @Param({"2500"})
+    public int readingsPerMeter;
+
+    @Param({"4"})
+    public int importThreads;
+
+    private Path directory;
+    private ReadingArchiveService exportService;
+    private ReadingArchiveService importService;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("reading-archive-benchmark");
+        MeterReadingService meterReadingService = new MeterReadingService(new OffHeapReadingStore(1024, 64));
+        Random random = new Random(1);
+        Instant start = Instant.parse("2020-01-01T00:00:00Z");
+        for (int meter = 0; meter < meters; meter++) {
+            List<ElectricityReading> readings = new ArrayList<>(readingsPerMeter);
+            for (int i = 0; i < readingsPerMeter; i++) {
+                readings.add(new ElectricityReading(
+                        start.plusSeconds(i * 300L), BigDecimal.valueOf(random.nextInt(100_000), 4)));
+            }
+            meterReadingService.storeAcceptedReadings("smart-meter-" + meter, readings);
+        }
+        exportService = new ReadingArchiveService(meterReadingService, directory.toString(), importThreads, 4096);
+        exportService.exportReadings(ARCHIVE);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyStore() {
+        importService = new ReadingArchiveService(
+                new MeterReadingService(new OffHeapReadingStore(1024, 64)), directory.toString(), importThreads, 4096);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve(ARCHIVE));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public ArchiveTransfer exportArchive() throws IOException {
+        return exportService.exportReadings(ARCHIVE);
+    }
+
+    @Benchmark
+    public ArchiveTransfer importArchive() throws IOException {
+        return importService.importReadings(ARCHIVE);
+    }
+}
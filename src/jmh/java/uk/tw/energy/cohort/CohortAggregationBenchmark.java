@@ -0,0 +1,95 @@
+package uk.tw.energy.cohort;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.index.PlanMembershipIndex;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.ConsumptionCostCalculator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
+import uk.tw.energy.storage.MapReadingStore;
+
+/**
+ * Measures the latency of costing cohorts once every meter's costs are precomputed, as the number of meters grows.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="CohortAggregationBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CohortAggregationBenchmark {
+    private static final int PRICE_PLANS = 3;
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Param({"100000", "1000000"})
+    public int meters;
+
+    private CohortCostService cohortCostService;
+
+    @Setup
+    public void setUp() {
+        List<PricePlan> pricePlans = new ArrayList<>();
+        for (int plan = 0; plan < PRICE_PLANS; plan++) {
+            pricePlans.add(new PricePlan("price-plan-" + plan, "supplier-" + plan % 2, BigDecimal.ONE, null));
+        }
+        Map<String, String> pricePlanAccounts = new HashMap<>();
+        for (int meter = 0; meter < meters; meter++) {
+            pricePlanAccounts.put("smart-meter-" + meter, "price-plan-" + meter % PRICE_PLANS);
+        }
+        PricePlanCatalogue pricePlanCatalogue = new PricePlanCatalogue(pricePlans);
+        MeterReadingService meterReadingService = new MeterReadingService(new MapReadingStore(new HashMap<>()));
+        cohortCostService = new CohortCostService(
+                meterReadingService,
+                pricePlanCatalogue,
+                new ConsumptionCostCalculator(),
+                new PlanMembershipIndex(new AccountService(pricePlanAccounts), pricePlanCatalogue));
+        Random random = new Random(42);
+        for (int meter = 0; meter < meters; meter++) {
+            BigDecimal kw = BigDecimal.valueOf(random.nextDouble());
+            meterReadingService.storeReadings(
+                    "smart-meter-" + meter,
+                    List.of(
+                            new ElectricityReading(START, kw),
+                            new ElectricityReading(START.plus(Duration.ofHours(1)), kw)));
+        }
+        cohortCostService.refreshStaleCosts();
+    }
+
+    @Benchmark
+    public CohortComparison pricePlanCohort() {
+        return cohortCostService.compareAllPricePlans("price-plan-0", null);
+    }
+
+    @Benchmark
+    public CohortComparison energySupplierCohort() {
+        return cohortCostService.compareAllPricePlans(null, "supplier-0");
+    }
+
+    @Benchmark
+    public CohortComparison pricePlanAndEnergySupplierCohort() {
+        return cohortCostService.compareAllPricePlans("price-plan-2", "supplier-0");
+    }
+}
@@ -0,0 +1,90 @@
+package uk.tw.energy.index;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
+import uk.tw.energy.storage.MapReadingStore;
+
+/**
+ * Measures the latency of meter queries against the secondary indexes as the number of meters grows.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="MeterIndexBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class MeterIndexBenchmark {
+    private static final int LIMIT = 1_000;
+    private static final int PRICE_PLANS = 3;
+    private static final Instant NOW = Instant.parse("2024-01-08T00:00:00Z");
+
+    @Param({"100000", "1000000"})
+    public int meters;
+
+    private MeterIndexService meterIndexService;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> pricePlanAccounts = new HashMap<>();
+        for (int meter = 0; meter < meters; meter++) {
+            pricePlanAccounts.put("smart-meter-" + meter, "price-plan-" + meter % PRICE_PLANS);
+        }
+        MeterReadingService meterReadingService = new MeterReadingService(new MapReadingStore(new HashMap<>()));
+        meterIndexService = new MeterIndexService(
+                meterReadingService,
+                new PlanMembershipIndex(new AccountService(pricePlanAccounts), new PricePlanCatalogue(List.of())),
+                7,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        Random random = new Random(42);
+        for (int meter = 0; meter < meters; meter++) {
+            // Spread the latest readings over the last two days, so about half the meters are silent for a day.
+            Instant last = NOW.minusSeconds(random.nextInt(2 * 86_400));
+            BigDecimal kw = BigDecimal.valueOf(random.nextDouble());
+            meterReadingService.storeReadings(
+                    "smart-meter-" + meter,
+                    List.of(
+                            new ElectricityReading(last.minus(Duration.ofHours(1)), kw),
+                            new ElectricityReading(last, kw)));
+        }
+    }
+
+    @Benchmark
+    public List<MeterConsumption> topConsumers() {
+        return meterIndexService.getTopConsumers(LIMIT, null);
+    }
+
+    @Benchmark
+    public List<MeterConsumption> topConsumersOnPricePlan() {
+        return meterIndexService.getTopConsumers(LIMIT, "price-plan-1");
+    }
+
+    @Benchmark
+    public List<MeterLastSeen> metersNotSeenForADay() {
+        return meterIndexService.getMetersNotSeenFor(Duration.ofDays(1), LIMIT, null);
+    }
+}
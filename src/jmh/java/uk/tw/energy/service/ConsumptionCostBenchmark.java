@@ -0,0 +1,83 @@
+package uk.tw.energy.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+
+/**
+ * Compares the single-pass integrating cost calculator with the previous multi-stream averaging implementation.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="ConsumptionCostBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsumptionCostBenchmark {
+
+    @Param({"20", "10000"})
+    public int readings;
+
+    private List<ElectricityReading> electricityReadings;
+    private List<PricePlan> pricePlans;
+    private ConsumptionCostCalculator calculator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        electricityReadings = new ElectricityReadingsGenerator().generate(readings);
+        pricePlans = List.of(
+                new PricePlan("price-plan-0", "Dr Evil's Dark Energy", BigDecimal.TEN, List.of()),
+                new PricePlan("price-plan-1", "The Green Eco", BigDecimal.valueOf(2), List.of()),
+                new PricePlan("price-plan-2", "Power for Everyone", BigDecimal.ONE, List.of()));
+        calculator = new ConsumptionCostCalculator(ConsumptionCostCalculator.GapPolicy.INTEGRATE, Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> singlePassIntegration() {
+        return calculator.calculateCosts(electricityReadings, pricePlans);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> multiStreamAverage() {
+        return pricePlans.stream()
+                .collect(Collectors.toMap(PricePlan::getPlanName, plan -> averagedCost(electricityReadings, plan)));
+    }
+
+    private static BigDecimal averagedCost(List<ElectricityReading> electricityReadings, PricePlan pricePlan) {
+        BigDecimal summedReadings = electricityReadings.stream()
+                .map(ElectricityReading::reading)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal average = summedReadings.divide(BigDecimal.valueOf(electricityReadings.size()), RoundingMode.HALF_UP);
+        ElectricityReading first = electricityReadings.stream()
+                .min(Comparator.comparing(ElectricityReading::time))
+                .get();
+        ElectricityReading last = electricityReadings.stream()
+                .max(Comparator.comparing(ElectricityReading::time))
+                .get();
+        BigDecimal timeElapsed =
+                BigDecimal.valueOf(Duration.between(first.time(), last.time()).getSeconds() / 3600.0);
+        return average.divide(timeElapsed, RoundingMode.HALF_UP).multiply(pricePlan.getUnitRate());
+    }
+}
@@ -0,0 +1,115 @@
+package uk.tw.energy.storage;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+
+/**
+ * Compares the on-heap and off-heap reading stores while the data set keeps growing.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="ReadingStoreBenchmark -prof gc"}. Besides the JMH GC profiler output,
+ * every trial prints the heap and direct memory in use and the GC pauses accumulated since the store was filled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:+UseG1GC", "-XX:MaxDirectMemorySize=8g"})
+public class ReadingStoreBenchmark {
+
+    @Param({"heap", "off-heap"})
+    public String store;
+
+    @Param({"10000"})
+    public int meters;
+
+    @Param({"500"})
+    public int readingsPerMeter;
+
+    private ReadingStore readingStore;
+    private String[] smartMeterIds;
+    private List<ElectricityReading> batch;
+    private int nextMeter;
+    private long baselineGcCount;
+    private long baselineGcMillis;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        readingStore = "off-heap".equals(store) ? new OffHeapReadingStore(64, 1024) : new MapReadingStore(new HashMap<>());
+        ElectricityReadingsGenerator generator = new ElectricityReadingsGenerator();
+        List<ElectricityReading> history = generator.generate(readingsPerMeter);
+        smartMeterIds = new String[meters];
+        for (int i = 0; i < meters; i++) {
+            smartMeterIds[i] = "smart-meter-" + i;
+            readingStore.storeReadings(smartMeterIds[i], history);
+        }
+        batch = generator.generate(10);
+        System.gc();
+        baselineGcCount = gcCount();
+        baselineGcMillis = gcMillis();
+    }
+
+    @Benchmark
+    public void storeBatch() {
+        readingStore.storeReadings(nextMeterId(), batch);
+    }
+
+    @Benchmark
+    public Optional<List<ElectricityReading>> readMeter() {
+        return readingStore.getReadings(nextMeterId());
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long directUsed = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+        System.out.printf(
+                "%n[%s] heap used: %d MB, direct used: %d MB, GC pauses: %d totalling %d ms%n",
+                store,
+                heapUsed >> 20,
+                directUsed >> 20,
+                gcCount() - baselineGcCount,
+                gcMillis() - baselineGcMillis);
+    }
+
+    private String nextMeterId() {
+        String smartMeterId = smartMeterIds[nextMeter];
+        nextMeter = (nextMeter + 1) % smartMeterIds.length;
+        return smartMeterId;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+}
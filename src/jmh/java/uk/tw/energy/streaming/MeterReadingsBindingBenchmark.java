@@ -0,0 +1,108 @@
+package uk.tw.energy.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.tw.energy.cohort.CohortCostService;
+import uk.tw.energy.domain.MeterReadings;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.forecast.ConsumptionProfileService;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+import uk.tw.energy.index.MeterIndexService;
+import uk.tw.energy.index.PlanMembershipIndex;
+import uk.tw.energy.retention.ReadingSummaryService;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.ConsumptionCostCalculator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
+import uk.tw.energy.statistics.MeterStatisticsService;
+import uk.tw.energy.storage.MapReadingStore;
+import uk.tw.energy.storage.OffHeapReadingStore;
+
+/**
+ * Compares binding a {@code /readings/store} body with the default record deserializer against the streaming
+ * deserializer of {@link ReadingsJsonModule}, alone and followed by storing the readings. The readings are stored
+ * either off-heap, or as by default on the heap with the listeners the application registers by default.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="MeterReadingsBindingBenchmark -prof gc"} to see the allocation rate and
+ * the bytes allocated per body next to the time taken.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeterReadingsBindingBenchmark {
+    private static final String SMART_METER_ID = "smart-meter";
+
+    @Param({"default", "streaming"})
+    public String binding;
+
+    @Param({"288", "10000"})
+    public int readings;
+
+    @Param({"off-heap", "heap"})
+    public String store;
+
+    private ObjectMapper objectMapper;
+    private byte[] body;
+    private MeterReadingService meterReadingService;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper defaultMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        objectMapper = "streaming".equals(binding)
+                ? defaultMapper.copy().registerModule(new ReadingsJsonModule())
+                : defaultMapper;
+        body = defaultMapper.writeValueAsBytes(
+                new MeterReadings(SMART_METER_ID, new ElectricityReadingsGenerator().generate(readings)));
+        if ("heap".equals(store)) {
+            meterReadingService = new MeterReadingService(new MapReadingStore(new HashMap<>()));
+            PricePlanCatalogue pricePlanCatalogue = new PricePlanCatalogue(
+                    List.of(new PricePlan("price-plan-0", "supplier-0", BigDecimal.ONE, null)));
+            PlanMembershipIndex planMembershipIndex = new PlanMembershipIndex(
+                    new AccountService(Map.of(SMART_METER_ID, "price-plan-0")), pricePlanCatalogue);
+            new MeterStatisticsService(meterReadingService, 0.01, Duration.ofDays(400));
+            new MeterIndexService(meterReadingService, planMembershipIndex, 7);
+            new ReadingSummaryService(meterReadingService);
+            new ConsumptionProfileService(meterReadingService);
+            new CohortCostService(
+                    meterReadingService, pricePlanCatalogue, new ConsumptionCostCalculator(), planMembershipIndex);
+        } else {
+            meterReadingService = new MeterReadingService(new OffHeapReadingStore(1024, 64));
+        }
+    }
+
+    @Benchmark
+    public MeterReadings bind() throws IOException {
+        return objectMapper.readValue(body, MeterReadings.class);
+    }
+
+    @Benchmark
+    public boolean bindAndStore() throws IOException {
+        MeterReadings meterReadings = objectMapper.readValue(body, MeterReadings.class);
+        meterReadingService.storeReadings(meterReadings.smartMeterId(), meterReadings.electricityReadings());
+        return meterReadingService.removeReadings(meterReadings.smartMeterId());
+    }
+}
@@ -0,0 +1,74 @@
+package uk.tw.energy.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.MapReadingStore;
+import uk.tw.energy.storage.OffHeapReadingStore;
+
+/**
+ * Compares serializing a meter's whole history through the {@code ObjectMapper} with streaming it chunk by chunk.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="ReadingsJsonWriterBenchmark -prof gc"} to see the bytes allocated per
+ * response next to the time taken.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReadingsJsonWriterBenchmark {
+    private static final String SMART_METER_ID = "smart-meter";
+    private static final OutputStream DISCARD = OutputStream.nullOutputStream();
+
+    @Param({"heap", "off-heap"})
+    public String store;
+
+    @Param({"1000000"})
+    public int readings;
+
+    private MeterReadingService meterReadingService;
+    private ReadingsJsonWriter readingsJsonWriter;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        meterReadingService = new MeterReadingService(
+                "off-heap".equals(store) ? new OffHeapReadingStore(64, 1024) : new MapReadingStore(new HashMap<>()));
+        meterReadingService.storeReadings(SMART_METER_ID, new ElectricityReadingsGenerator().generate(readings));
+        readingsJsonWriter = new ReadingsJsonWriter(meterReadingService, 4096);
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    }
+
+    @Benchmark
+    public void objectMapper() throws IOException {
+        objectMapper.writeValue(DISCARD, meterReadingService.getReadings(SMART_METER_ID).orElseThrow());
+    }
+
+    @Benchmark
+    public void streamed() throws IOException {
+        readingsJsonWriter.stream(SMART_METER_ID).orElseThrow().writeTo(DISCARD);
+    }
+}
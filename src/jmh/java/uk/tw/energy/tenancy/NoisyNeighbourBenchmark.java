@@ -0,0 +1,134 @@
+package uk.tw.energy.tenancy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
+import uk.tw.energy.storage.OffHeapReadingStore;
+import uk.tw.energy.storage.ReadingStore;
+
+/**
+ * Measures the latency of a quiet supplier's small batches while another supplier backfills large batches from
+ * several threads, with one shared off-heap store and with a store partitioned per supplier plus a bulkhead bounding
+ * the backfilling supplier's requests in flight.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="NoisyNeighbourBenchmark"} and compare the percentiles of
+ * {@code noisyNeighbour:quiet} between the two settings of {@code tenancy}. A refused backfill request waits a
+ * millisecond before retrying, as a client honouring {@code Retry-After} would.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NoisyNeighbourBenchmark {
+    private static final int BACKFILL_THREADS = 7;
+    private static final int BACKFILL_READINGS = 10_000;
+    private static final int QUIET_READINGS = 288;
+    private static final int BACKFILL_CONCURRENT_REQUESTS = 2;
+    private static final long BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Param({"shared", "isolated"})
+    public String tenancy;
+
+    private MeterReadingService meterReadingService;
+    private TenantBulkhead tenantBulkhead;
+    private List<ElectricityReading> backfillReadings;
+    private List<ElectricityReading> quietReadings;
+    private final AtomicInteger backfillMeters = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        Map<String, String> pricePlanIds = new HashMap<>();
+        for (int i = 0; i < BACKFILL_THREADS; i++) {
+            pricePlanIds.put("backfill-meter-" + i, "backfill-plan");
+        }
+        pricePlanIds.put("quiet-meter", "quiet-plan");
+        TenantResolver tenantResolver = new TenantResolver(
+                new AccountService(pricePlanIds),
+                new PricePlanCatalogue(List.of(
+                        new PricePlan("backfill-plan", "backfill-supplier", BigDecimal.ONE, null),
+                        new PricePlan("quiet-plan", "quiet-supplier", BigDecimal.ONE, null))));
+        ReadingStore readingStore = "isolated".equals(tenancy)
+                ? new TenantPartitionedReadingStore(
+                        tenantResolver,
+                        () -> new OffHeapReadingStore(64, 1024),
+                        Long.MAX_VALUE,
+                        new SimpleMeterRegistry())
+                : new OffHeapReadingStore(64, 1024);
+        meterReadingService = new MeterReadingService(readingStore);
+        tenantBulkhead = "isolated".equals(tenancy)
+                ? new TenantBulkhead(tenantResolver, BACKFILL_CONCURRENT_REQUESTS, new SimpleMeterRegistry())
+                : null;
+        ElectricityReadingsGenerator generator = new ElectricityReadingsGenerator();
+        backfillReadings = generator.generate(BACKFILL_READINGS);
+        quietReadings = generator.generate(QUIET_READINGS);
+    }
+
+    /**
+     * The state of one backfilling thread, which stores and removes readings of a meter of its own.
+     */
+    @State(Scope.Thread)
+    public static class BackfillMeter {
+        private String smartMeterId;
+
+        @Setup
+        public void setUp(NoisyNeighbourBenchmark benchmark) {
+            smartMeterId = "backfill-meter-" + benchmark.backfillMeters.getAndIncrement() % BACKFILL_THREADS;
+        }
+    }
+
+    @Benchmark
+    @Group("noisyNeighbour")
+    @GroupThreads(BACKFILL_THREADS)
+    public void backfill(BackfillMeter meter) {
+        try {
+            request(meter.smartMeterId, backfillReadings);
+        } catch (TenantBusyException e) {
+            LockSupport.parkNanos(BACKOFF_NANOS);
+        }
+    }
+
+    @Benchmark
+    @Group("noisyNeighbour")
+    @GroupThreads(1)
+    public void quiet() {
+        request("quiet-meter", quietReadings);
+    }
+
+    private void request(String smartMeterId, List<ElectricityReading> readings) {
+        Runnable store = () -> {
+            meterReadingService.storeReadings(smartMeterId, readings);
+            meterReadingService.removeReadings(smartMeterId);
+        };
+        if (tenantBulkhead == null) {
+            store.run();
+        } else {
+            tenantBulkhead.run(smartMeterId, store);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package uk.tw.energy.validation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.MapReadingStore;
+
+/**
+ * Measures the ingest throughput of the heap store with and without anomaly detection in the pipeline.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="IngestPipelineBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IngestPipelineBenchmark {
+    private static final int METERS = 1_000;
+    private static final int BATCH_SIZE = 10;
+    private static final int READING_INTERVAL_SECONDS = 10;
+
+    @Param({"none", "anomaly-detection"})
+    public String pipeline;
+
+    private MeterReadingService meterReadingService;
+    private BigDecimal[] values;
+    private long epochSecond;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        List<ReadingsStage> stages = pipeline.equals("none")
+                ? List.of()
+                : List.of(new AnomalyDetectionStage(
+                        new QuarantineStore(1_000),
+                        0.05,
+                        6,
+                        20,
+                        Duration.ofMinutes(5),
+                        Clock.fixed(Instant.parse("2100-01-01T00:00:00Z"), ZoneOffset.UTC)));
+        meterReadingService = new MeterReadingService(new MapReadingStore(new HashMap<>()), stages);
+        Random random = new Random(42);
+        values = new BigDecimal[1_024];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = BigDecimal.valueOf(0.5 + random.nextGaussian() * 0.1).setScale(4, RoundingMode.HALF_UP);
+        }
+        epochSecond = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+    }
+
+    /**
+     * Stores one batch for every meter, each batch later than the previous one so all readings are accepted.
+     */
+    @Benchmark
+    @OperationsPerInvocation(METERS * BATCH_SIZE)
+    public void storeBatches() {
+        for (int meter = 0; meter < METERS; meter++) {
+            List<ElectricityReading> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(new ElectricityReading(
+                        Instant.ofEpochSecond(epochSecond + (long) i * READING_INTERVAL_SECONDS),
+                        values[(meter + i) & (values.length - 1)]));
+            }
+            meterReadingService.storeReadings("smart-meter-" + meter, batch);
+        }
+        epochSecond += (long) BATCH_SIZE * READING_INTERVAL_SECONDS;
+    }
+}
@@ -0,0 +1,116 @@
+package uk.tw.energy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.replication.MeterRange;
+import uk.tw.energy.replication.ReplicatingReadingStore;
+import uk.tw.energy.replication.ReplicationConfiguration;
+import uk.tw.energy.replication.ReplicationLog;
+import uk.tw.energy.storage.MapReadingStore;
+import uk.tw.energy.storage.OffHeapReadingStore;
+import uk.tw.energy.storage.ReadingStore;
+import uk.tw.energy.tenancy.TenantPartitionedReadingStore;
+import uk.tw.energy.tenancy.TenantResolver;
+
+/**
+ * Configuration class selecting where electricity readings are stored.
+ * Set {@code energy.readings.store} to {@code off-heap} to keep readings outside the Java heap.
+ * With tenancy enabled every energy supplier gets a store of its own, with a quota of
+ * {@code energy.tenancy.max-readings-per-tenant} readings.
+ * On a replication primary the store records every change in the replication log. A replication follower starts
+ * without the seeded readings, so it only ever holds what its primaries replicate to it.
+ */
+@Configuration
+public class ReadingStoreConfiguration {
+
+    /**
+     * Creates the default on-heap reading store, backed by the seeded readings.
+     *
+     * @param perMeterElectricityReadings The seeded readings of each smart meter
+     * @param replicationLog The replication log, available on a primary
+     * @param meterRange The smart meters a primary accepts readings for
+     * @param tenantResolver The resolver finding the supplier of each smart meter, available with tenancy enabled
+     * @param maxReadingsPerTenant The most readings each supplier may store
+     * @param meterRegistry The registry the tenancy metrics are published to
+     * @param replicationRole The replication role of this node, blank when it stands alone
+     * @return A ReadingStore keeping readings on the Java heap
+     */
+    @Bean
+    @ConditionalOnProperty(name = "energy.readings.store", havingValue = "heap", matchIfMissing = true)
+    public ReadingStore heapReadingStore(
+            Map<String, List<ElectricityReading>> perMeterElectricityReadings,
+            ObjectProvider<ReplicationLog> replicationLog,
+            @Value("${energy.replication.meter-range:0-0/1}") String meterRange,
+            ObjectProvider<TenantResolver> tenantResolver,
+            @Value("${energy.tenancy.max-readings-per-tenant:50000000}") long maxReadingsPerTenant,
+            MeterRegistry meterRegistry,
+            @Value("${" + ReplicationConfiguration.ROLE_PROPERTY + ":}") String replicationRole) {
+        Map<String, List<ElectricityReading>> seeded = seeded(perMeterElectricityReadings, replicationRole);
+        TenantResolver resolver = tenantResolver.getIfAvailable();
+        if (resolver == null) {
+            return replicated(new MapReadingStore(seeded), replicationLog, meterRange);
+        }
+        ReadingStore readingStore = new TenantPartitionedReadingStore(
+                resolver, () -> new MapReadingStore(new ConcurrentHashMap<>()), maxReadingsPerTenant, meterRegistry);
+        seeded.forEach(readingStore::storeReadings);
+        return replicated(readingStore, replicationLog, meterRange);
+    }
+
+    /**
+     * Creates an off-heap reading store and copies the seeded readings into it.
+     *
+     * @param perMeterElectricityReadings The seeded readings of each smart meter
+     * @param readingsPerBlock The number of readings held by each block
+     * @param blocksPerSlab The number of blocks reserved at once from direct memory
+     * @param replicationLog The replication log, available on a primary
+     * @param meterRange The smart meters a primary accepts readings for
+     * @param tenantResolver The resolver finding the supplier of each smart meter, available with tenancy enabled
+     * @param maxReadingsPerTenant The most readings each supplier may store
+     * @param meterRegistry The registry the tenancy metrics are published to
+     * @param replicationRole The replication role of this node, blank when it stands alone
+     * @return A ReadingStore keeping readings in direct memory
+     */
+    @Bean
+    @ConditionalOnProperty(name = "energy.readings.store", havingValue = "off-heap")
+    public ReadingStore offHeapReadingStore(
+            Map<String, List<ElectricityReading>> perMeterElectricityReadings,
+            @Value("${energy.readings.off-heap.readings-per-block:64}") int readingsPerBlock,
+            @Value("${energy.readings.off-heap.blocks-per-slab:1024}") int blocksPerSlab,
+            ObjectProvider<ReplicationLog> replicationLog,
+            @Value("${energy.replication.meter-range:0-0/1}") String meterRange,
+            ObjectProvider<TenantResolver> tenantResolver,
+            @Value("${energy.tenancy.max-readings-per-tenant:50000000}") long maxReadingsPerTenant,
+            MeterRegistry meterRegistry,
+            @Value("${" + ReplicationConfiguration.ROLE_PROPERTY + ":}") String replicationRole) {
+        Supplier<ReadingStore> storeFactory = () -> new OffHeapReadingStore(readingsPerBlock, blocksPerSlab);
+        TenantResolver resolver = tenantResolver.getIfAvailable();
+        ReadingStore readingStore = resolver == null
+                ? storeFactory.get()
+                : new TenantPartitionedReadingStore(resolver, storeFactory, maxReadingsPerTenant, meterRegistry);
+        seeded(perMeterElectricityReadings, replicationRole).forEach(readingStore::storeReadings);
+        return replicated(readingStore, replicationLog, meterRange);
+    }
+
+    private static Map<String, List<ElectricityReading>> seeded(
+            Map<String, List<ElectricityReading>> perMeterElectricityReadings, String replicationRole) {
+        return "follower".equals(replicationRole) ? Map.of() : perMeterElectricityReadings;
+    }
+
+    private static ReadingStore replicated(
+            ReadingStore readingStore, ObjectProvider<ReplicationLog> replicationLog, String meterRange) {
+        ReplicationLog log = replicationLog.getIfAvailable();
+        if (log == null) {
+            return readingStore;
+        }
+        return new ReplicatingReadingStore(readingStore, log, MeterRange.parse(meterRange));
+    }
+}
@@ -5,17 +5,29 @@ import static java.util.Collections.emptyList;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.Portfolio;
 import uk.tw.energy.domain.PricePlan;
 import uk.tw.energy.generator.ElectricityReadingsGenerator;
+import uk.tw.energy.streaming.ReadingsJsonModule;
 
 /**
  * Configuration class for seeding application data.
@@ -42,16 +54,65 @@ public class SeedingApplicationDataConfiguration {
 
     /**
      * Creates a map of electricity readings for each smart meter.
+     * The meters are seeded in parallel, each from its own random generator, so a given seed gives the same reading
+     * values whatever the number of threads. The latest reading of every meter is taken at startup.
      *
+     * @param readingsPerMeter The number of readings of each smart meter
+     * @param syntheticMeters The number of smart meters seeded beyond those with an account, from
+     *     {@code smart-meter-5} onwards
+     * @param threads The number of threads generating readings, or 0 for one per processor
+     * @param seed Optional seed of the reading values, or blank for different values on every start
      * @return A map of smart meter IDs to lists of ElectricityReading objects
      */
     @Bean
-    public Map<String, List<ElectricityReading>> perMeterElectricityReadings() {
-        final Map<String, List<ElectricityReading>> readings = new HashMap<>();
+    public Map<String, List<ElectricityReading>> perMeterElectricityReadings(
+            @Value("${energy.seeding.readings-per-meter:20}") int readingsPerMeter,
+            @Value("${energy.seeding.synthetic-meters:0}") int syntheticMeters,
+            @Value("${energy.seeding.threads:0}") int threads,
+            @Value("${energy.seeding.seed:}") String seed) {
+        final List<String> smartMeterIds = new ArrayList<>(smartMeterToPricePlanAccounts().keySet());
+        final int accountMeters = smartMeterIds.size();
+        for (int i = 0; i < syntheticMeters; i++) {
+            smartMeterIds.add("smart-meter-" + (accountMeters + i));
+        }
+        final long baseSeed = seed.isBlank() ? new Random().nextLong() : Long.parseLong(seed.trim());
+        final int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
         final ElectricityReadingsGenerator electricityReadingsGenerator = new ElectricityReadingsGenerator();
-        smartMeterToPricePlanAccounts()
-                .keySet()
-                .forEach(smartMeterId -> readings.put(smartMeterId, electricityReadingsGenerator.generate(20)));
+        final Instant now = Instant.now();
+        final AtomicReferenceArray<List<ElectricityReading>> generated =
+                new AtomicReferenceArray<>(smartMeterIds.size());
+        final AtomicInteger nextMeter = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, seedingThreadFactory());
+        try {
+            List<Future<?>> workers = new ArrayList<>(threadCount);
+            for (int i = 0; i < threadCount; i++) {
+                workers.add(executor.submit(() -> {
+                    for (int next = nextMeter.getAndIncrement();
+                            next < smartMeterIds.size();
+                            next = nextMeter.getAndIncrement()) {
+                        Random readingRandomiser = new Random(baseSeed * 31 + smartMeterIds.get(next).hashCode());
+                        generated.set(
+                                next, electricityReadingsGenerator.generate(readingsPerMeter, now, readingRandomiser));
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while seeding readings", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to seed readings", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final Map<String, List<ElectricityReading>> readings = new HashMap<>();
+        for (int i = 0; i < smartMeterIds.size(); i++) {
+            readings.put(smartMeterIds.get(i), generated.get(i));
+        }
         return readings;
     }
 
@@ -72,7 +133,21 @@ public class SeedingApplicationDataConfiguration {
     }
 
     /**
-     * Configures the ObjectMapper for JSON serialization.
+     * Creates the portfolios of the accounts owning more than one smart meter.
+     *
+     * @return A list of Portfolio objects
+     */
+    @Bean
+    public List<Portfolio> portfolios() {
+        final List<Portfolio> portfolios = new ArrayList<>();
+        portfolios.add(new Portfolio("account-0", List.of("smart-meter-0", "smart-meter-1", "smart-meter-2")));
+        portfolios.add(new Portfolio("account-1", List.of("smart-meter-3", "smart-meter-4")));
+        return portfolios;
+    }
+
+    /**
+     * Configures the ObjectMapper for JSON serialization. Readings are bound by the streaming deserializers and
+     * serializer of {@link ReadingsJsonModule}.
      *
      * @param builder The Jackson2ObjectMapperBuilder
      * @return A configured ObjectMapper
@@ -82,6 +157,16 @@ public class SeedingApplicationDataConfiguration {
     public ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
         ObjectMapper objectMapper = builder.createXmlMapper(false).build();
         objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        objectMapper.registerModule(new ReadingsJsonModule());
         return objectMapper;
     }
+
+    private static ThreadFactory seedingThreadFactory() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "seeding-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 }
\ No newline at end of file
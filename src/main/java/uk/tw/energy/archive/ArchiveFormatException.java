@@ -0,0 +1,13 @@
+package uk.tw.energy.archive;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a file is not a valid reading archive.
+ */
+public class ArchiveFormatException extends IOException {
+
+    public ArchiveFormatException(String message) {
+        super(message);
+    }
+}
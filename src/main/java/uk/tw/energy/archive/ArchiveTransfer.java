@@ -0,0 +1,12 @@
+package uk.tw.energy.archive;
+
+/**
+ * The outcome of importing or exporting a reading archive.
+ *
+ * @param fileName The name of the archive
+ * @param meterCount The number of smart meters transferred
+ * @param readingCount The number of readings transferred
+ * @param bytes The size of the archive
+ * @param elapsedMillis How long the transfer took
+ */
+public record ArchiveTransfer(String fileName, int meterCount, long readingCount, long bytes, long elapsedMillis) {}
@@ -0,0 +1,11 @@
+package uk.tw.energy.archive;
+
+/**
+ * The footer entry of a smart meter in a reading archive.
+ *
+ * @param smartMeterId The ID of the smart meter
+ * @param offset The position of the meter's first row group in the archive
+ * @param rowGroupCount The number of row groups holding the meter's readings
+ * @param readingCount The number of readings of the meter
+ */
+public record ArchivedMeter(String smartMeterId, long offset, int rowGroupCount, long readingCount) {}
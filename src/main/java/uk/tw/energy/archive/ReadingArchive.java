@@ -0,0 +1,47 @@
+package uk.tw.energy.archive;
+
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The reading archive format, a columnar file holding the readings of many smart meters for bulk import and export.
+ *
+ * <p>Every number is little-endian. An archive is laid out as
+ *
+ * <pre>
+ * header     magic "ERCA", format version (int32)
+ * row groups one after the other
+ * footer     meter count (int32), then for each meter:
+ *              ID length (int32), UTF-8 ID, offset of its first row group (int64), row group count (int32),
+ *              reading count (int64)
+ * trailer    offset of the footer (int64), magic "ERCA"
+ * </pre>
+ *
+ * <p>A row group holds consecutive readings of one smart meter, a column at a time:
+ *
+ * <pre>
+ * reading count n (int32), length of the wide value section (int32)
+ * epoch seconds              int64 x n
+ * nanosecond adjustments     int32 x n
+ * scales                     int32 x n
+ * unscaled values            int64 x n
+ * wide value section         for each value whose unscaled value doesn't fit an int64: its position in the row group
+ *                            (int32), byte count (int32) and two's-complement unscaled bytes
+ * </pre>
+ *
+ * <p>A reading's value is its unscaled value and scale, so {@code BigDecimal} readings round-trip exactly. The unscaled
+ * value of a wide value is 0 in its column. The row groups of a meter are contiguous and in insertion order, so a
+ * reader finds any meter from the footer and can load meters independently, and each column is a plain array that
+ * analytics tools read without parsing the others.
+ */
+final class ReadingArchive {
+    static final byte[] MAGIC = "ERCA".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int HEADER_BYTES = MAGIC.length + Integer.BYTES;
+    static final int TRAILER_BYTES = Long.BYTES + MAGIC.length;
+    static final int ROW_GROUP_HEADER_BYTES = 2 * Integer.BYTES;
+    static final int READING_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private ReadingArchive() {}
+}
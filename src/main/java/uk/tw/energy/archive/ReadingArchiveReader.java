@@ -0,0 +1,236 @@
+package uk.tw.energy.archive;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * Reads a {@link ReadingArchive}. The footer is read and checked when the archive is opened, after which the readings
+ * of different smart meters can be read from several threads at once.
+ */
+public final class ReadingArchiveReader implements Closeable {
+    private static final int MAX_NANO = 999_999_999;
+    private static final int FOOTER_ENTRY_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final FileChannel channel;
+    private final long footerOffset;
+    private final List<ArchivedMeter> meters;
+
+    private ReadingArchiveReader(FileChannel channel, long footerOffset, List<ArchivedMeter> meters) {
+        this.channel = channel;
+        this.footerOffset = footerOffset;
+        this.meters = meters;
+    }
+
+    /**
+     * Opens an archive and reads its footer.
+     *
+     * @param path The archive file
+     * @return A reader of the archive, to be closed once done with
+     * @throws ArchiveFormatException if the file is not a valid archive
+     * @throws IOException if the file can't be read
+     */
+    public static ReadingArchiveReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < ReadingArchive.HEADER_BYTES + Integer.BYTES + ReadingArchive.TRAILER_BYTES) {
+                throw new ArchiveFormatException("The archive is too short");
+            }
+            ByteBuffer header = read(channel, 0, ReadingArchive.HEADER_BYTES);
+            checkMagic(header);
+            int version = header.getInt();
+            if (version != ReadingArchive.VERSION) {
+                throw new ArchiveFormatException("Unsupported archive version " + version);
+            }
+            ByteBuffer trailer = read(channel, size - ReadingArchive.TRAILER_BYTES, ReadingArchive.TRAILER_BYTES);
+            long footerOffset = trailer.getLong();
+            checkMagic(trailer);
+            long footerEnd = size - ReadingArchive.TRAILER_BYTES;
+            if (footerOffset < ReadingArchive.HEADER_BYTES
+                    || footerOffset > footerEnd - Integer.BYTES
+                    || footerEnd - footerOffset > Integer.MAX_VALUE) {
+                throw new ArchiveFormatException("Footer offset " + footerOffset + " is out of range");
+            }
+            List<ArchivedMeter> meters =
+                    readFooter(read(channel, footerOffset, (int) (footerEnd - footerOffset)), footerOffset);
+            return new ReadingArchiveReader(channel, footerOffset, meters);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The footer entries of every smart meter in the archive, in the order their readings were written
+     */
+    public List<ArchivedMeter> meters() {
+        return meters;
+    }
+
+    /**
+     * Reads the readings of a smart meter a row group at a time.
+     *
+     * @param meter The footer entry of the smart meter
+     * @param rowGroupConsumer Given the readings of each row group in turn, in insertion order
+     * @throws ArchiveFormatException if a row group is malformed or doesn't match the footer
+     * @throws IOException if the archive can't be read
+     */
+    public void readMeter(ArchivedMeter meter, Consumer<List<ElectricityReading>> rowGroupConsumer)
+            throws IOException {
+        long position = meter.offset();
+        long readingsLeft = meter.readingCount();
+        ByteBuffer rowGroup = ByteBuffer.allocate(0);
+        for (int group = 0; group < meter.rowGroupCount(); group++) {
+            ByteBuffer rowGroupHeader = read(channel, position, ReadingArchive.ROW_GROUP_HEADER_BYTES);
+            int size = rowGroupHeader.getInt();
+            int wideBytes = rowGroupHeader.getInt();
+            long bodyBytes = (long) size * ReadingArchive.READING_BYTES + wideBytes;
+            position += ReadingArchive.ROW_GROUP_HEADER_BYTES;
+            if (size < 0
+                    || size > readingsLeft
+                    || wideBytes < 0
+                    || bodyBytes > Integer.MAX_VALUE
+                    || bodyBytes > footerOffset - position) {
+                throw new ArchiveFormatException("Malformed row group " + group + " of " + meter.smartMeterId());
+            }
+            if (rowGroup.capacity() < bodyBytes) {
+                rowGroup = ByteBuffer.allocate((int) bodyBytes).order(ReadingArchive.BYTE_ORDER);
+            }
+            rowGroup.clear().limit((int) bodyBytes);
+            readFully(channel, position, rowGroup);
+            rowGroupConsumer.accept(decodeRowGroup(rowGroup.flip(), size, meter.smartMeterId()));
+            position += bodyBytes;
+            readingsLeft -= size;
+        }
+        if (readingsLeft != 0) {
+            throw new ArchiveFormatException(
+                    meter.readingCount() - readingsLeft + " readings of " + meter.smartMeterId() + " found, "
+                            + meter.readingCount() + " expected");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static List<ElectricityReading> decodeRowGroup(ByteBuffer rowGroup, int size, String smartMeterId)
+            throws ArchiveFormatException {
+        try {
+            long[] epochSeconds = new long[size];
+            int[] nanos = new int[size];
+            int[] scales = new int[size];
+            long[] unscaledValues = new long[size];
+            rowGroup.asLongBuffer().get(epochSeconds);
+            rowGroup.position(rowGroup.position() + size * Long.BYTES);
+            rowGroup.asIntBuffer().get(nanos);
+            rowGroup.position(rowGroup.position() + size * Integer.BYTES);
+            rowGroup.asIntBuffer().get(scales);
+            rowGroup.position(rowGroup.position() + size * Integer.BYTES);
+            rowGroup.asLongBuffer().get(unscaledValues);
+            rowGroup.position(rowGroup.position() + size * Long.BYTES);
+
+            BigDecimal[] wideValues = null;
+            while (rowGroup.hasRemaining()) {
+                int index = rowGroup.getInt();
+                byte[] unscaled = new byte[rowGroup.getInt()];
+                rowGroup.get(unscaled);
+                if (wideValues == null) {
+                    wideValues = new BigDecimal[size];
+                }
+                wideValues[index] = new BigDecimal(new BigInteger(unscaled), scales[index]);
+            }
+
+            ElectricityReading[] readings = new ElectricityReading[size];
+            for (int i = 0; i < size; i++) {
+                if (nanos[i] < 0 || nanos[i] > MAX_NANO) {
+                    throw new ArchiveFormatException(
+                            "Reading " + i + " of " + smartMeterId + " has an invalid nanosecond adjustment");
+                }
+                BigDecimal value = wideValues != null && wideValues[i] != null
+                        ? wideValues[i]
+                        : BigDecimal.valueOf(unscaledValues[i], scales[i]);
+                readings[i] = new ElectricityReading(Instant.ofEpochSecond(epochSeconds[i], nanos[i]), value);
+            }
+            return Arrays.asList(readings);
+        } catch (BufferUnderflowException
+                | IndexOutOfBoundsException
+                | NegativeArraySizeException
+                | NumberFormatException
+                | DateTimeException e) {
+            throw new ArchiveFormatException("Malformed row group of " + smartMeterId + ": " + e);
+        }
+    }
+
+    private static List<ArchivedMeter> readFooter(ByteBuffer footer, long footerOffset) throws ArchiveFormatException {
+        try {
+            int meterCount = footer.getInt();
+            if (meterCount < 0 || meterCount > footer.remaining() / FOOTER_ENTRY_BYTES) {
+                throw new ArchiveFormatException("Footer meter count " + meterCount + " is out of range");
+            }
+            List<ArchivedMeter> meters = new ArrayList<>(meterCount);
+            for (int i = 0; i < meterCount; i++) {
+                byte[] smartMeterId = new byte[footer.getInt()];
+                footer.get(smartMeterId);
+                ArchivedMeter meter = new ArchivedMeter(
+                        new String(smartMeterId, StandardCharsets.UTF_8),
+                        footer.getLong(),
+                        footer.getInt(),
+                        footer.getLong());
+                if (meter.offset() < ReadingArchive.HEADER_BYTES
+                        || meter.offset() > footerOffset
+                        || meter.rowGroupCount() < 0
+                        || meter.readingCount() < 0) {
+                    throw new ArchiveFormatException("Malformed footer entry of " + meter.smartMeterId());
+                }
+                meters.add(meter);
+            }
+            if (footer.hasRemaining()) {
+                throw new ArchiveFormatException(footer.remaining() + " trailing bytes after the footer");
+            }
+            return List.copyOf(meters);
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new ArchiveFormatException("Malformed footer: " + e);
+        }
+    }
+
+    private static void checkMagic(ByteBuffer buffer) throws ArchiveFormatException {
+        byte[] magic = new byte[ReadingArchive.MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, ReadingArchive.MAGIC)) {
+            throw new ArchiveFormatException("Not a reading archive");
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ReadingArchive.BYTE_ORDER);
+        readFully(channel, position, buffer);
+        return buffer.flip();
+    }
+
+    private static void readFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of archive at " + position);
+            }
+            position += read;
+        }
+    }
+}
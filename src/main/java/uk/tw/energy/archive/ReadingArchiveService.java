@@ -0,0 +1,202 @@
+package uk.tw.energy.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.ReadingChunk;
+
+/**
+ * Imports and exports the stored readings as {@link ReadingArchive} files, kept in a single archive directory.
+ *
+ * <p>An export copies every smart meter's readings out of the store a row group at a time, into a temporary file
+ * that replaces the archive once complete, so a half-written archive is never seen under its name. An import loads
+ * meters on several threads at once, each thread taking the next meter from the footer and storing its readings a
+ * row group at a time. The readings of each meter in the archive replace the ones stored for it, so importing the
+ * same archive again, or restoring it over seeded readings, doesn't store any reading twice; meters missing from the
+ * archive are left as they are. Imported readings skip the ingestion pipeline, as they are historical readings that
+ * were accepted before; listeners are notified and a primary replicates them as usual. A malformed archive stops the
+ * import, leaving the meters loaded up to then.
+ */
+@Service
+public class ReadingArchiveService {
+    private final MeterReadingService meterReadingService;
+    private final Path directory;
+    private final int importThreads;
+    private final int rowGroupSize;
+
+    /**
+     * Constructs a new ReadingArchiveService.
+     *
+     * @param meterReadingService The service holding the readings
+     * @param directory The directory archives are read from and written to
+     * @param importThreads The number of smart meters imported at the same time
+     * @param rowGroupSize The maximum number of readings in a row group of an exported archive
+     */
+    public ReadingArchiveService(
+            MeterReadingService meterReadingService,
+            @Value("${energy.archive.directory:archives}") String directory,
+            @Value("${energy.archive.import-threads:4}") int importThreads,
+            @Value("${energy.archive.row-group-size:4096}") int rowGroupSize) {
+        if (importThreads < 1 || rowGroupSize < 1) {
+            throw new IllegalArgumentException("Import threads and row group size must be positive");
+        }
+        this.meterReadingService = meterReadingService;
+        this.directory = Path.of(directory);
+        this.importThreads = importThreads;
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    /**
+     * Writes the readings of every smart meter to an archive, replacing any archive of the same name.
+     *
+     * @param fileName The name of the archive in the archive directory
+     * @return What was exported
+     * @throws IllegalArgumentException if the name is not a plain file name
+     * @throws IOException if the archive can't be written
+     */
+    public ArchiveTransfer exportReadings(String fileName) throws IOException {
+        long start = System.nanoTime();
+        Path archive = resolve(fileName);
+        Files.createDirectories(directory);
+        Path partial = Files.createTempFile(directory, fileName, ".partial");
+        try {
+            int meterCount = 0;
+            long readingCount = 0;
+            long bytes;
+            ReadingChunk chunk = new ReadingChunk(rowGroupSize);
+            try (ReadingArchiveWriter writer = new ReadingArchiveWriter(
+                    FileChannel.open(partial, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+                for (String smartMeterId : meterReadingService.getSmartMeterIds().stream().sorted().toList()) {
+                    int fromIndex = 0;
+                    while (meterReadingService.readChunk(smartMeterId, fromIndex, chunk) && chunk.size() > 0) {
+                        writer.writeRowGroup(smartMeterId, chunk);
+                        fromIndex += chunk.size();
+                        if (!chunk.isFull()) {
+                            break;
+                        }
+                    }
+                    if (fromIndex > 0) {
+                        meterCount++;
+                        readingCount += fromIndex;
+                    }
+                }
+                bytes = writer.finish();
+            }
+            Files.move(partial, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new ArchiveTransfer(fileName, meterCount, readingCount, bytes, elapsedMillis(start));
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Stores the readings of every smart meter in an archive, in place of the readings stored for it. Each meter's
+     * readings are replaced in one store operation once all of its row groups are read, and a meter archived without
+     * readings is removed.
+     *
+     * @param fileName The name of the archive in the archive directory
+     * @return What was imported
+     * @throws IllegalArgumentException if the name is not a plain file name
+     * @throws java.nio.file.NoSuchFileException if there is no such archive
+     * @throws ArchiveFormatException if the file is not a valid archive
+     * @throws IOException if the archive can't be read
+     */
+    public ArchiveTransfer importReadings(String fileName) throws IOException {
+        long start = System.nanoTime();
+        try (ReadingArchiveReader reader = ReadingArchiveReader.open(resolve(fileName))) {
+            List<ArchivedMeter> meters = reader.meters();
+            AtomicInteger nextMeter = new AtomicInteger();
+            LongAdder readingCount = new LongAdder();
+            ExecutorService executor = Executors.newFixedThreadPool(importThreads, importThreadFactory());
+            try {
+                List<Future<?>> workers = new ArrayList<>(importThreads);
+                for (int i = 0; i < importThreads; i++) {
+                    workers.add(executor.submit(() -> {
+                        try {
+                            for (int next = nextMeter.getAndIncrement();
+                                    next < meters.size();
+                                    next = nextMeter.getAndIncrement()) {
+                                ArchivedMeter meter = meters.get(next);
+                                List<ElectricityReading> readings = new ArrayList<>();
+                                reader.readMeter(meter, readings::addAll);
+                                meterReadingService.replaceReadings(meter.smartMeterId(), readings);
+                                readingCount.add(readings.size());
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        } finally {
+                            // Stops the other threads if this one failed, and is a no-op once every meter is taken.
+                            nextMeter.set(meters.size());
+                        }
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    awaitImport(worker);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            return new ArchiveTransfer(
+                    fileName,
+                    meters.size(),
+                    readingCount.sum(),
+                    Files.size(resolve(fileName)),
+                    elapsedMillis(start));
+        }
+    }
+
+    private Path resolve(String fileName) {
+        Path path = Path.of(fileName);
+        if (fileName.isBlank() || path.getNameCount() != 1 || path.isAbsolute() || fileName.startsWith(".")) {
+            throw new IllegalArgumentException("Archive name '" + fileName + "' is not a plain file name");
+        }
+        return directory.resolve(path);
+    }
+
+    private static void awaitImport(Future<?> worker) throws IOException {
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static ThreadFactory importThreadFactory() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "archive-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,179 @@
+package uk.tw.energy.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import uk.tw.energy.storage.ReadingChunk;
+
+/**
+ * Writes a {@link ReadingArchive} one row group at a time, through a reusable buffer.
+ *
+ * <p>Only the footer entries are held until the archive is finished, so the memory needed doesn't grow with the
+ * number of readings written.
+ */
+public final class ReadingArchiveWriter implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final List<ArchivedMeter> meters = new ArrayList<>();
+    private final Set<String> writtenMeters = new HashSet<>();
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ReadingArchive.BYTE_ORDER);
+    private long position;
+    private String currentMeter;
+    private long currentOffset;
+    private int currentRowGroups;
+    private long currentReadings;
+    private boolean finished;
+
+    /**
+     * Constructs a new ReadingArchiveWriter and writes the archive header.
+     *
+     * @param channel The empty file the archive is written to
+     */
+    public ReadingArchiveWriter(FileChannel channel) {
+        this.channel = channel;
+        buffer.put(ReadingArchive.MAGIC).putInt(ReadingArchive.VERSION);
+        position = ReadingArchive.HEADER_BYTES;
+    }
+
+    /**
+     * Appends the readings of a chunk as a row group. The row groups of a smart meter must be written one after the
+     * other.
+     *
+     * @param smartMeterId The ID of the smart meter the readings belong to
+     * @param chunk The readings, in insertion order
+     * @throws IllegalStateException if the archive is finished, or the meter's row groups were interrupted by another
+     *     meter's
+     * @throws IOException if the archive can't be written
+     */
+    public void writeRowGroup(String smartMeterId, ReadingChunk chunk) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The archive is finished");
+        }
+        if (!smartMeterId.equals(currentMeter)) {
+            if (!writtenMeters.add(smartMeterId)) {
+                throw new IllegalStateException(
+                        "The row groups of smart meter " + smartMeterId + " are not contiguous");
+            }
+            endMeter();
+            currentMeter = smartMeterId;
+            currentOffset = position;
+        }
+
+        int size = chunk.size();
+        List<byte[]> wideValues = new ArrayList<>(0);
+        int wideBytes = 0;
+        for (int i = 0; i < size; i++) {
+            if (chunk.wideValue(i) != null) {
+                byte[] unscaled = chunk.wideValue(i).unscaledValue().toByteArray();
+                wideValues.add(unscaled);
+                wideBytes += 2 * Integer.BYTES + unscaled.length;
+            }
+        }
+        int rowGroupBytes = ReadingArchive.ROW_GROUP_HEADER_BYTES + size * ReadingArchive.READING_BYTES + wideBytes;
+        reserve(rowGroupBytes);
+
+        buffer.putInt(size).putInt(wideBytes);
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(chunk.epochSecond(i));
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(chunk.nano(i));
+        }
+        for (int i = 0; i < size; i++) {
+            BigDecimal wideValue = chunk.wideValue(i);
+            buffer.putInt(wideValue != null ? wideValue.scale() : chunk.scale(i));
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(chunk.wideValue(i) != null ? 0 : chunk.unscaledValue(i));
+        }
+        int wideIndex = 0;
+        for (int i = 0; wideIndex < wideValues.size(); i++) {
+            if (chunk.wideValue(i) != null) {
+                byte[] unscaled = wideValues.get(wideIndex++);
+                buffer.putInt(i).putInt(unscaled.length).put(unscaled);
+            }
+        }
+
+        position += rowGroupBytes;
+        currentRowGroups++;
+        currentReadings += size;
+    }
+
+    /**
+     * Writes the footer and trailer and flushes the archive to the file.
+     *
+     * @return The size of the archive
+     * @throws IOException if the archive can't be written
+     */
+    public long finish() throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The archive is finished");
+        }
+        endMeter();
+        finished = true;
+        long footerOffset = position;
+        reserve(Integer.BYTES);
+        buffer.putInt(meters.size());
+        position += Integer.BYTES;
+        for (ArchivedMeter meter : meters) {
+            byte[] smartMeterId = meter.smartMeterId().getBytes(StandardCharsets.UTF_8);
+            int entryBytes = Integer.BYTES + smartMeterId.length + Long.BYTES + Integer.BYTES + Long.BYTES;
+            reserve(entryBytes);
+            buffer.putInt(smartMeterId.length)
+                    .put(smartMeterId)
+                    .putLong(meter.offset())
+                    .putInt(meter.rowGroupCount())
+                    .putLong(meter.readingCount());
+            position += entryBytes;
+        }
+        reserve(ReadingArchive.TRAILER_BYTES);
+        buffer.putLong(footerOffset).put(ReadingArchive.MAGIC);
+        position += ReadingArchive.TRAILER_BYTES;
+        flush();
+        channel.force(false);
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void endMeter() {
+        if (currentMeter != null) {
+            meters.add(new ArchivedMeter(currentMeter, currentOffset, currentRowGroups, currentReadings));
+            currentMeter = null;
+            currentRowGroups = 0;
+            currentReadings = 0;
+        }
+    }
+
+    /**
+     * Makes room in the buffer for the given number of bytes, writing out what it holds and growing it if needed.
+     */
+    private void reserve(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        flush();
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(bytes).order(ReadingArchive.BYTE_ORDER);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
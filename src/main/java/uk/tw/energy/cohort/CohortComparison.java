@@ -0,0 +1,18 @@
+package uk.tw.energy.cohort;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * The cost of the consumption of a cohort of smart meters under each price plan, next to what it costs today.
+ *
+ * @param cohortSize The number of smart meters in the cohort
+ * @param smartMetersWithReadings The number of smart meters of the cohort that have readings and are costed
+ * @param currentCost The summed cost of the cohort's readings, each meter on its own price plan
+ * @param pricePlanComparisons The summed cost of the cohort's readings if every meter moved to each price plan
+ */
+public record CohortComparison(
+        int cohortSize,
+        int smartMetersWithReadings,
+        BigDecimal currentCost,
+        Map<String, BigDecimal> pricePlanComparisons) {}
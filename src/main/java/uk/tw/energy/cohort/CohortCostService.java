@@ -0,0 +1,250 @@
+package uk.tw.energy.cohort;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.index.MeterIdDictionary;
+import uk.tw.energy.index.PlanMembershipIndex;
+import uk.tw.energy.service.ConsumptionCostCalculator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.MeterReadingsListener;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+/**
+ * Answers what-if questions about the cost of whole cohorts of smart meters, such as "what would everyone on
+ * price-plan-0 pay on price-plan-2".
+ *
+ * <p>A cohort is the intersection of the price plan and energy supplier bitmaps of the {@link PlanMembershipIndex}.
+ * Every meter keeps its cost under each price plan of the catalogue, so costing a cohort is a parallel sum over its
+ * ordinals. Costs are kept as whole numbers of the last of their {@value ConsumptionCostCalculator#COST_SCALE} decimal
+ * places and summed exactly, so a cohort's totals don't depend on the order the parallel sum adds them in. A meter's
+ * costs go stale when it stores readings or the catalogue changes version. Stale costs are recomputed by
+ * {@link #refreshStaleCosts()} in the background, or by the first query that needs them.
+ */
+@Service
+public class CohortCostService implements MeterReadingsListener {
+    private static final int INITIAL_CAPACITY = 1_024;
+
+    private final MeterReadingService meterReadingService;
+    private final PricePlanCatalogue pricePlanCatalogue;
+    private final ConsumptionCostCalculator consumptionCostCalculator;
+    private final PlanMembershipIndex planMembershipIndex;
+    private final MeterIdDictionary dictionary;
+    private volatile MeterCosts[] costsByOrdinal = new MeterCosts[INITIAL_CAPACITY];
+
+    /**
+     * Constructs a new CohortCostService, tracking the meters already stored.
+     *
+     * @param meterReadingService The service holding the readings that are costed
+     * @param pricePlanCatalogue The catalogue of price plans the cohorts are costed under
+     * @param consumptionCostCalculator The calculator costing the readings of a single meter
+     * @param planMembershipIndex The bitmaps the cohorts are selected from
+     */
+    public CohortCostService(
+            MeterReadingService meterReadingService,
+            PricePlanCatalogue pricePlanCatalogue,
+            ConsumptionCostCalculator consumptionCostCalculator,
+            PlanMembershipIndex planMembershipIndex) {
+        this.meterReadingService = meterReadingService;
+        this.pricePlanCatalogue = pricePlanCatalogue;
+        this.consumptionCostCalculator = consumptionCostCalculator;
+        this.planMembershipIndex = planMembershipIndex;
+        this.dictionary = planMembershipIndex.getDictionary();
+        for (String smartMeterId : meterReadingService.getSmartMeterIds()) {
+            invalidate(smartMeterId);
+        }
+        meterReadingService.addListener(this);
+    }
+
+    @Override
+    public void onReadingsStored(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        invalidate(smartMeterId);
+    }
+
+    @Override
+    public void onReadingsRemoved(String smartMeterId) {
+        invalidate(smartMeterId);
+    }
+
+    @Override
+    public void onReadingsExpired(String smartMeterId, List<ElectricityReading> expiredReadings) {
+        invalidate(smartMeterId);
+    }
+
+    /**
+     * Costs a cohort of smart meters under every price plan of the catalogue.
+     *
+     * @param pricePlanId Optional price plan the meters are on, or null for any
+     * @param energySupplier Optional energy supplier the meters are with, or null for any
+     * @return The comparison for the meters matching both criteria
+     * @throws IllegalArgumentException if neither criterion is given
+     */
+    public CohortComparison compareAllPricePlans(String pricePlanId, String energySupplier) {
+        if (pricePlanId == null && energySupplier == null) {
+            throw new IllegalArgumentException("A cohort needs a price plan or an energy supplier");
+        }
+        RoaringBitmap cohort = pricePlanId != null ? planMembershipIndex.getPricePlanMembers(pricePlanId) : null;
+        if (energySupplier != null) {
+            RoaringBitmap supplierMembers = planMembershipIndex.getEnergySupplierMembers(energySupplier);
+            cohort = cohort == null ? supplierMembers : RoaringBitmap.and(cohort, supplierMembers);
+        }
+
+        PricePlanCatalogue.Snapshot snapshot = pricePlanCatalogue.getSnapshot();
+        int plans = snapshot.pricePlans().size();
+        // One slot per price plan, then the cost under each meter's own plan, then the number of meters costed.
+        int currentCostSlot = plans;
+        int costedSlot = plans + 1;
+        long[] totals = new long[plans + 2];
+        for (int plan = 0; plan < plans; plan++) {
+            RoaringBitmap onPlan = RoaringBitmap.and(
+                    cohort, planMembershipIndex.getPricePlanMembers(snapshot.pricePlans().get(plan).getPlanName()));
+            long[] planTotals = sum(onPlan, snapshot, plan);
+            for (int slot = 0; slot < totals.length; slot++) {
+                totals[slot] = Math.addExact(totals[slot], planTotals[slot]);
+            }
+        }
+
+        Map<String, BigDecimal> pricePlanComparisons = new HashMap<>();
+        for (int plan = 0; plan < plans; plan++) {
+            pricePlanComparisons.put(snapshot.pricePlans().get(plan).getPlanName(), toCost(totals[plan]));
+        }
+        return new CohortComparison(
+                cohort.getCardinality(),
+                (int) totals[costedSlot],
+                toCost(totals[currentCostSlot]),
+                pricePlanComparisons);
+    }
+
+    /**
+     * Recomputes the costs of every meter whose readings or price plans changed since they were last costed.
+     */
+    @Scheduled(fixedDelayString = "${energy.cohort.refresh-interval-ms:60000}")
+    public void refreshStaleCosts() {
+        PricePlanCatalogue.Snapshot snapshot = pricePlanCatalogue.getSnapshot();
+        MeterCosts[] costs = costsByOrdinal;
+        IntStream.range(0, Math.min(costs.length, dictionary.size()))
+                .parallel()
+                .forEach(ordinal -> {
+                    if (costs[ordinal] != null) {
+                        costs[ordinal].costsFor(dictionary.smartMeterIdOf(ordinal), snapshot);
+                    }
+                });
+    }
+
+    /**
+     * Sums the costs of the meters of a cohort in parallel, all of them on the same current price plan.
+     */
+    private long[] sum(RoaringBitmap cohort, PricePlanCatalogue.Snapshot snapshot, int currentPlan) {
+        int plans = snapshot.pricePlans().size();
+        return Arrays.stream(cohort.toArray())
+                .parallel()
+                .collect(
+                        () -> new long[plans + 2],
+                        (totals, ordinal) -> {
+                            long[] costs = costsFor(ordinal, snapshot);
+                            if (costs != null) {
+                                for (int plan = 0; plan < plans; plan++) {
+                                    totals[plan] = Math.addExact(totals[plan], costs[plan]);
+                                }
+                                totals[plans] = Math.addExact(totals[plans], costs[currentPlan]);
+                                totals[plans + 1]++;
+                            }
+                        },
+                        (totals, other) -> {
+                            for (int slot = 0; slot < totals.length; slot++) {
+                                totals[slot] = Math.addExact(totals[slot], other[slot]);
+                            }
+                        });
+    }
+
+    /**
+     * Starts tracking a smart meter if it isn't tracked yet and marks its costs stale, so they are recomputed when next
+     * needed.
+     */
+    private void invalidate(String smartMeterId) {
+        costsOf(dictionary.ordinalOf(smartMeterId)).invalidate();
+    }
+
+    private long[] costsFor(int ordinal, PricePlanCatalogue.Snapshot snapshot) {
+        MeterCosts[] costs = costsByOrdinal;
+        MeterCosts meterCosts = ordinal < costs.length ? costs[ordinal] : null;
+        return meterCosts == null ? null : meterCosts.costsFor(dictionary.smartMeterIdOf(ordinal), snapshot);
+    }
+
+    private MeterCosts costsOf(int ordinal) {
+        MeterCosts[] costs = costsByOrdinal;
+        if (ordinal < costs.length && costs[ordinal] != null) {
+            return costs[ordinal];
+        }
+        synchronized (this) {
+            costs = costsByOrdinal;
+            if (ordinal >= costs.length) {
+                costs = Arrays.copyOf(costs, Math.max(costs.length * 2, ordinal + 1));
+            }
+            if (costs[ordinal] == null) {
+                costs[ordinal] = new MeterCosts();
+            }
+            // Republished even when not grown, so readers of the array see the new entry.
+            costsByOrdinal = costs;
+            return costs[ordinal];
+        }
+    }
+
+    private static BigDecimal toCost(long cost) {
+        return BigDecimal.valueOf(cost, ConsumptionCostCalculator.COST_SCALE);
+    }
+
+    /**
+     * The cost of one meter's readings under each price plan, valid for one version of its readings and of the
+     * catalogue. Computing it races with new readings, but a result computed from older readings keeps the older
+     * version and is recomputed when next needed.
+     */
+    private final class MeterCosts {
+        private final AtomicLong readingsVersion = new AtomicLong();
+        private volatile CachedCosts cached;
+
+        private void invalidate() {
+            readingsVersion.incrementAndGet();
+        }
+
+        private long[] costsFor(String smartMeterId, PricePlanCatalogue.Snapshot snapshot) {
+            long version = readingsVersion.get();
+            CachedCosts current = cached;
+            if (current != null
+                    && current.readingsVersion() == version
+                    && current.catalogueVersion() == snapshot.version()) {
+                return current.costs();
+            }
+            long[] costs = meterReadingService
+                    .getReadings(smartMeterId)
+                    .map(readings -> {
+                        Map<String, BigDecimal> byPlan =
+                                consumptionCostCalculator.calculateCosts(readings, snapshot.pricePlans());
+                        return snapshot.pricePlans().stream()
+                                .mapToLong(pricePlan -> byPlan.get(pricePlan.getPlanName())
+                                        .movePointRight(ConsumptionCostCalculator.COST_SCALE)
+                                        .longValueExact())
+                                .toArray();
+                    })
+                    .orElse(null);
+            cached = new CachedCosts(version, snapshot.version(), costs);
+            return costs;
+        }
+    }
+
+    /**
+     * @param readingsVersion The version of the meter's readings the costs were computed from
+     * @param catalogueVersion The version of the catalogue the costs were computed with
+     * @param costs The cost under each price plan in catalogue order, in units of the last kept decimal place, or null
+     *     if the meter has no readings
+     */
+    private record CachedCosts(long readingsVersion, long catalogueVersion, long[] costs) {}
+}
@@ -0,0 +1,70 @@
+package uk.tw.energy.controller;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import uk.tw.energy.forecast.BillForecastService;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.tenancy.TenantBulkhead;
+
+@RestController
+@RequestMapping("/price-plans")
+public class BillForecastController {
+    public static final String PRICE_PLAN_ID_KEY = "pricePlanId";
+    public static final String FORECAST_DAYS_KEY = "forecastDays";
+    public static final String PRICE_PLAN_FORECASTS_KEY = "pricePlanForecasts";
+    private static final int MAX_FORECAST_DAYS = 366;
+    private final BillForecastService billForecastService;
+    private final AccountService accountService;
+    private final TenantBulkhead tenantBulkhead;
+
+    public BillForecastController(
+            BillForecastService billForecastService,
+            AccountService accountService,
+            ObjectProvider<TenantBulkhead> tenantBulkhead) {
+        this.billForecastService = billForecastService;
+        this.accountService = accountService;
+        this.tenantBulkhead = tenantBulkhead.getIfAvailable();
+    }
+
+    /**
+     * Projects the bill of a smart meter under each price plan over the coming days.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param days Optional number of days to project, 30 by default
+     * @return ResponseEntity with the projected cost for each price plan, 404 if the meter has no readings, or 400 if
+     *     the number of days is out of range
+     * @throws uk.tw.energy.tenancy.TenantBusyException answered with 429 if the meter's supplier has too many requests
+     *     in flight
+     */
+    @GetMapping("/forecast/{smartMeterId}")
+    public ResponseEntity<Map<String, Object>> forecastCostForEachPricePlan(
+            @PathVariable String smartMeterId, @RequestParam(value = "days", required = false) Integer days) {
+        int forecastDays = days == null ? BillForecastService.DEFAULT_FORECAST_DAYS : days;
+        if (forecastDays < 1 || forecastDays > MAX_FORECAST_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+        Supplier<Optional<Map<String, BigDecimal>>> forecast =
+                () -> billForecastService.getProjectedCostForEachPricePlan(smartMeterId, forecastDays);
+        Optional<Map<String, BigDecimal>> forecasts =
+                tenantBulkhead == null ? forecast.get() : tenantBulkhead.call(smartMeterId, forecast);
+        if (!forecasts.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> pricePlanForecasts = new HashMap<>();
+        pricePlanForecasts.put(PRICE_PLAN_ID_KEY, accountService.getPricePlanIdForSmartMeterId(smartMeterId));
+        pricePlanForecasts.put(FORECAST_DAYS_KEY, forecastDays);
+        pricePlanForecasts.put(PRICE_PLAN_FORECASTS_KEY, forecasts.get());
+        return ResponseEntity.ok(pricePlanForecasts);
+    }
+}
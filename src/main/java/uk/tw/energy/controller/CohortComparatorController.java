@@ -0,0 +1,55 @@
+package uk.tw.energy.controller;
+
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import uk.tw.energy.cohort.CohortComparison;
+import uk.tw.energy.cohort.CohortCostService;
+import uk.tw.energy.tenancy.TenantBulkhead;
+import uk.tw.energy.tenancy.TenantResolver;
+
+@RestController
+@RequestMapping("/price-plans/cohort")
+public class CohortComparatorController {
+    private final CohortCostService cohortCostService;
+    private final TenantBulkhead tenantBulkhead;
+    private final TenantResolver tenantResolver;
+
+    public CohortComparatorController(
+            CohortCostService cohortCostService,
+            ObjectProvider<TenantBulkhead> tenantBulkhead,
+            ObjectProvider<TenantResolver> tenantResolver) {
+        this.cohortCostService = cohortCostService;
+        this.tenantBulkhead = tenantBulkhead.getIfAvailable();
+        this.tenantResolver = tenantResolver.getIfAvailable();
+    }
+
+    /**
+     * Calculates what a cohort of smart meters would pay on each price plan.
+     *
+     * @param pricePlanId Optional price plan the meters are on
+     * @param energySupplier Optional energy supplier the meters are with
+     * @return ResponseEntity with the summed price plan comparisons, or 400 if neither criterion is given
+     * @throws uk.tw.energy.tenancy.TenantBusyException answered with 429 if the energy supplier, or that of the price
+     *     plan, has too many requests in flight
+     */
+    @GetMapping("/compare-all")
+    public ResponseEntity<CohortComparison> calculatedCostForEachPricePlan(
+            @RequestParam(value = "pricePlanId", required = false) String pricePlanId,
+            @RequestParam(value = "energySupplier", required = false) String energySupplier) {
+        if (pricePlanId == null && energySupplier == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Supplier<CohortComparison> comparison =
+                () -> cohortCostService.compareAllPricePlans(pricePlanId, energySupplier);
+        if (tenantBulkhead == null) {
+            return ResponseEntity.ok(comparison.get());
+        }
+        String tenant = energySupplier != null ? energySupplier : tenantResolver.tenantOfPricePlan(pricePlanId);
+        return ResponseEntity.ok(tenantBulkhead.callAs(tenant, comparison));
+    }
+}
@@ -0,0 +1,64 @@
+package uk.tw.energy.controller;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import uk.tw.energy.index.MeterConsumption;
+import uk.tw.energy.index.MeterIndexService;
+import uk.tw.energy.index.MeterLastSeen;
+
+@RestController
+@RequestMapping("/meters")
+public class MeterQueryController {
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 10_000;
+    private static final Duration DEFAULT_SILENCE = Duration.ofHours(24);
+    private final MeterIndexService meterIndexService;
+
+    public MeterQueryController(MeterIndexService meterIndexService) {
+        this.meterIndexService = meterIndexService;
+    }
+
+    /**
+     * Finds the smart meters that consumed the most energy over the consumption window.
+     *
+     * @param limit Optional maximum number of meters, 100 by default
+     * @param pricePlanId Optional price plan the meters must be on
+     * @return ResponseEntity with the meters in descending order of consumption, or 400 if the limit is out of range
+     */
+    @GetMapping("/top-consumers")
+    public ResponseEntity<List<MeterConsumption>> topConsumers(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "pricePlanId", required = false) String pricePlanId) {
+        int maxMeters = limit == null ? DEFAULT_LIMIT : limit;
+        if (maxMeters < 1 || maxMeters > MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(meterIndexService.getTopConsumers(maxMeters, pricePlanId));
+    }
+
+    /**
+     * Finds the smart meters that haven't sent a reading for a while.
+     *
+     * @param within Optional period without readings, such as {@code PT24H}, 24 hours by default
+     * @param limit Optional maximum number of meters, 100 by default
+     * @param pricePlanId Optional price plan the meters must be on
+     * @return ResponseEntity with the meters, the longest silent first, or 400 if a parameter is out of range
+     */
+    @GetMapping("/not-seen")
+    public ResponseEntity<List<MeterLastSeen>> notSeen(
+            @RequestParam(value = "within", required = false) Duration within,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "pricePlanId", required = false) String pricePlanId) {
+        Duration silence = within == null ? DEFAULT_SILENCE : within;
+        int maxMeters = limit == null ? DEFAULT_LIMIT : limit;
+        if (silence.isNegative() || maxMeters < 1 || maxMeters > MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(meterIndexService.getMetersNotSeenFor(silence, maxMeters, pricePlanId));
+    }
+}
@@ -1,8 +1,12 @@
 package uk.tw.energy.controller;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,32 +14,71 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uk.tw.energy.domain.ElectricityReading;
 import uk.tw.energy.domain.MeterReadings;
 import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.streaming.ReadingsJsonWriter;
+import uk.tw.energy.tenancy.TenantBulkhead;
+import uk.tw.energy.tenancy.TenantBusyException;
+import uk.tw.energy.tenancy.TenantLimitException;
+import uk.tw.energy.tenancy.TenantQuotaExceededException;
 
 @RestController
 @RequestMapping("/readings")
 public class MeterReadingController {
+    private static final String ERROR_KEY = "error";
+    private static final String ENERGY_SUPPLIER_KEY = "energySupplier";
+    private static final String STORED_KEY = "stored";
+    private static final String QUARANTINED_KEY = "quarantined";
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+    private static final String BUSY_RETRY_AFTER_SECONDS = "1";
+
     private final MeterReadingService meterReadingService;
+    private final ReadingsJsonWriter readingsJsonWriter;
+    private final TenantBulkhead tenantBulkhead;
 
-    public MeterReadingController(MeterReadingService meterReadingService) {
+    public MeterReadingController(
+            MeterReadingService meterReadingService,
+            ReadingsJsonWriter readingsJsonWriter,
+            ObjectProvider<TenantBulkhead> tenantBulkhead) {
         this.meterReadingService = meterReadingService;
+        this.readingsJsonWriter = readingsJsonWriter;
+        this.tenantBulkhead = tenantBulkhead.getIfAvailable();
     }
 
     /**
-     * Stores meter readings for a smart meter.
+     * Stores meter readings for a smart meter. With tenancy enabled, the readings are stored within the limits of the
+     * meter's energy supplier.
      *
      * @param meterReadings The meter readings to be stored
-     * @return ResponseEntity with HTTP status 200 if successful, 500 if invalid input
+     * @return ResponseEntity with HTTP status 200 and the number of readings stored and quarantined if successful, 500
+     *     if invalid input, 429 if the supplier has too many requests in flight or 507 if the readings would exceed its
+     *     storage quota
      */
     @PostMapping("/store")
     public ResponseEntity storeReadings(@RequestBody MeterReadings meterReadings) {
         if (!isMeterReadingsValid(meterReadings)) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
-        meterReadingService.storeReadings(meterReadings.smartMeterId(), meterReadings.electricityReadings());
-        return ResponseEntity.ok().build();
+        String smartMeterId = meterReadings.smartMeterId();
+        List<ElectricityReading> electricityReadings = meterReadings.electricityReadings();
+        Supplier<Integer> store = () -> meterReadingService.storeReadings(smartMeterId, electricityReadings);
+        try {
+            int stored = tenantBulkhead == null ? store.get() : tenantBulkhead.call(smartMeterId, store);
+            return ResponseEntity.ok()
+                    .body(Map.of(STORED_KEY, stored, QUARANTINED_KEY, electricityReadings.size() - stored));
+        } catch (TenantBusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(RETRY_AFTER_HEADER, BUSY_RETRY_AFTER_SECONDS)
+                    .body(toResponse(e));
+        } catch (TenantQuotaExceededException e) {
+            return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).body(toResponse(e));
+        }
+    }
+
+    private static Map<String, String> toResponse(TenantLimitException e) {
+        return Map.of(ERROR_KEY, e.getMessage(), ENERGY_SUPPLIER_KEY, e.getTenant());
     }
 
     /**
@@ -54,16 +97,16 @@ public class MeterReadingController {
     }
 
     /**
-     * Retrieves meter readings for a specific smart meter.
+     * Retrieves meter readings for a specific smart meter, streamed from storage a chunk at a time.
      *
      * @param smartMeterId The ID of the smart meter
-     * @return ResponseEntity with the readings if found, or 404 if not found
+     * @return ResponseEntity streaming the readings as JSON if found, or 404 if not found
      */
     @GetMapping("/read/{smartMeterId}")
-    public ResponseEntity<List<ElectricityReading>> readReadings(@PathVariable String smartMeterId) {
-        Optional<List<ElectricityReading>> readings = meterReadingService.getReadings(smartMeterId);
+    public ResponseEntity<StreamingResponseBody> readReadings(@PathVariable String smartMeterId) {
+        Optional<StreamingResponseBody> readings = readingsJsonWriter.stream(smartMeterId);
         return readings.isPresent()
-                ? ResponseEntity.ok(readings.get())
+                ? ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(readings.get())
                 : ResponseEntity.notFound().build();
     }
 }
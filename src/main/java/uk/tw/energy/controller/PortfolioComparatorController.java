@@ -0,0 +1,65 @@
+package uk.tw.energy.controller;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.tw.energy.portfolio.PortfolioComparison;
+import uk.tw.energy.portfolio.PortfolioComparisonService;
+import uk.tw.energy.tenancy.TenantBulkhead;
+import uk.tw.energy.tenancy.TenantResolver;
+
+@RestController
+@RequestMapping("/price-plans/portfolio")
+public class PortfolioComparatorController {
+    private final PortfolioComparisonService portfolioComparisonService;
+    private final TenantBulkhead tenantBulkhead;
+    private final TenantResolver tenantResolver;
+
+    public PortfolioComparatorController(
+            PortfolioComparisonService portfolioComparisonService,
+            ObjectProvider<TenantBulkhead> tenantBulkhead,
+            ObjectProvider<TenantResolver> tenantResolver) {
+        this.portfolioComparisonService = portfolioComparisonService;
+        this.tenantBulkhead = tenantBulkhead.getIfAvailable();
+        this.tenantResolver = tenantResolver.getIfAvailable();
+    }
+
+    /**
+     * Calculates and compares the cost for each price plan for every smart meter of an account.
+     * The request thread is released while the smart meters are costed.
+     *
+     * @param accountId The ID of the account owning the portfolio
+     * @return A future ResponseEntity with the summed price plan comparisons, 404 if the account has no portfolio, or
+     *     503 if the portfolio could not be costed in time
+     * @throws uk.tw.energy.tenancy.TenantBusyException answered with 429 if the account's supplier has too many
+     *     requests in flight. The portfolio counts as one of them until it is costed.
+     */
+    @GetMapping("/compare-all/{accountId}")
+    public CompletableFuture<ResponseEntity<PortfolioComparison>> calculatedCostForEachPricePlan(
+            @PathVariable String accountId) {
+        CompletableFuture<Optional<PortfolioComparison>> costed = tenantBulkhead == null
+                ? portfolioComparisonService.compareAllPricePlans(accountId)
+                : tenantBulkhead.callAsyncAs(
+                        tenantResolver.tenantOfAccount(accountId),
+                        () -> portfolioComparisonService.compareAllPricePlans(accountId));
+        return costed.handle((comparison, failure) -> {
+            if (failure == null) {
+                return comparison.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+            }
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause instanceof RejectedExecutionException || cause instanceof TimeoutException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            throw new CompletionException(cause);
+        });
+    }
+}
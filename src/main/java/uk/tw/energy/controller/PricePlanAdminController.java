@@ -0,0 +1,81 @@
+package uk.tw.energy.controller;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.tw.energy.domain.PricePlanDefinition;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+@RestController
+@RequestMapping("/admin/price-plans")
+public class PricePlanAdminController {
+    public static final String VERSION_KEY = "version";
+    public static final String PRICE_PLANS_KEY = "pricePlans";
+    private final PricePlanCatalogue pricePlanCatalogue;
+
+    public PricePlanAdminController(PricePlanCatalogue pricePlanCatalogue) {
+        this.pricePlanCatalogue = pricePlanCatalogue;
+    }
+
+    /**
+     * Retrieves the price plans currently in use.
+     *
+     * @return ResponseEntity with the catalogue version and its price plan definitions
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getPricePlans() {
+        return ResponseEntity.ok(toResponse(pricePlanCatalogue.getSnapshot()));
+    }
+
+    /**
+     * Replaces every price plan without interrupting pricing requests.
+     *
+     * @param definitions The definitions of the new price plans
+     * @return ResponseEntity with the new catalogue version, or 400 if the definitions are invalid
+     */
+    @PutMapping
+    public ResponseEntity<Map<String, Object>> replacePricePlans(@RequestBody List<PricePlanDefinition> definitions) {
+        try {
+            PricePlanCatalogue.Snapshot snapshot = pricePlanCatalogue.replace(
+                    definitions.stream().map(PricePlanDefinition::toPricePlan).toList());
+            return ResponseEntity.ok(toResponse(snapshot));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Reloads the price plans from the configured price plan file.
+     *
+     * @return ResponseEntity with the new catalogue version, 404 if no price plan file is configured, or 400 if the
+     *     file can't be read or its definitions are invalid
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reloadPricePlans() {
+        Optional<PricePlanCatalogue.Snapshot> snapshot;
+        try {
+            snapshot = pricePlanCatalogue.reloadFromFile();
+        } catch (UncheckedIOException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return snapshot.isPresent()
+                ? ResponseEntity.ok(toResponse(snapshot.get()))
+                : ResponseEntity.notFound().build();
+    }
+
+    private static Map<String, Object> toResponse(PricePlanCatalogue.Snapshot snapshot) {
+        return Map.of(
+                VERSION_KEY,
+                snapshot.version(),
+                PRICE_PLANS_KEY,
+                snapshot.pricePlans().stream().map(PricePlanDefinition::from).toList());
+    }
+}
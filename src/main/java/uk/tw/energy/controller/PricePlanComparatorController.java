@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import uk.tw.energy.service.AccountService;
 import uk.tw.energy.service.PricePlanService;
+import uk.tw.energy.tenancy.TenantBulkhead;
 
 @RestController
 @RequestMapping("/price-plans")
@@ -23,10 +25,15 @@ public class PricePlanComparatorController {
     public static final String PRICE_PLAN_COMPARISONS_KEY = "pricePlanComparisons";
     private final PricePlanService pricePlanService;
     private final AccountService accountService;
+    private final TenantBulkhead tenantBulkhead;
 
-    public PricePlanComparatorController(PricePlanService pricePlanService, AccountService accountService) {
+    public PricePlanComparatorController(
+            PricePlanService pricePlanService,
+            AccountService accountService,
+            ObjectProvider<TenantBulkhead> tenantBulkhead) {
         this.pricePlanService = pricePlanService;
         this.accountService = accountService;
+        this.tenantBulkhead = tenantBulkhead.getIfAvailable();
     }
 
     /**
@@ -34,12 +41,13 @@ public class PricePlanComparatorController {
      *
      * @param smartMeterId The ID of the smart meter
      * @return ResponseEntity with price plan comparisons if found, or 404 if not found
+     * @throws uk.tw.energy.tenancy.TenantBusyException answered with 429 if the meter's supplier has too many requests
+     *     in flight
      */
     @GetMapping("/compare-all/{smartMeterId}")
     public ResponseEntity<Map<String, Object>> calculatedCostForEachPricePlan(@PathVariable String smartMeterId) {
         String pricePlanId = accountService.getPricePlanIdForSmartMeterId(smartMeterId);
-        Optional<Map<String, BigDecimal>> consumptionsForPricePlans =
-                pricePlanService.getConsumptionCostOfElectricityReadingsForEachPricePlan(smartMeterId);
+        Optional<Map<String, BigDecimal>> consumptionsForPricePlans = costsOf(smartMeterId);
         if (!consumptionsForPricePlans.isPresent()) {
             return ResponseEntity.notFound().build();
         }
@@ -56,12 +64,13 @@ public class PricePlanComparatorController {
      * @param smartMeterId The ID of the smart meter
      * @param limit Optional parameter to limit the number of recommendations
      * @return ResponseEntity with a list of recommended price plans if found, or 404 if not found
+     * @throws uk.tw.energy.tenancy.TenantBusyException answered with 429 if the meter's supplier has too many requests
+     *     in flight
      */
     @GetMapping("/recommend/{smartMeterId}")
     public ResponseEntity<List<Map.Entry<String, BigDecimal>>> recommendCheapestPricePlans(
             @PathVariable String smartMeterId, @RequestParam(value = "limit", required = false) Integer limit) {
-        Optional<Map<String, BigDecimal>> consumptionsForPricePlans =
-                pricePlanService.getConsumptionCostOfElectricityReadingsForEachPricePlan(smartMeterId);
+        Optional<Map<String, BigDecimal>> consumptionsForPricePlans = costsOf(smartMeterId);
         if (!consumptionsForPricePlans.isPresent()) {
             return ResponseEntity.notFound().build();
         }
@@ -75,4 +84,13 @@ public class PricePlanComparatorController {
 
         return ResponseEntity.ok(recommendations);
     }
+
+    private Optional<Map<String, BigDecimal>> costsOf(String smartMeterId) {
+        if (tenantBulkhead == null) {
+            return pricePlanService.getConsumptionCostOfElectricityReadingsForEachPricePlan(smartMeterId);
+        }
+        return tenantBulkhead.call(
+                smartMeterId,
+                () -> pricePlanService.getConsumptionCostOfElectricityReadingsForEachPricePlan(smartMeterId));
+    }
 }
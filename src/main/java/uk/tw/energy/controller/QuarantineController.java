@@ -0,0 +1,35 @@
+package uk.tw.energy.controller;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.tw.energy.validation.QuarantineStore;
+import uk.tw.energy.validation.QuarantinedReading;
+
+@RestController
+@RequestMapping("/readings/quarantine")
+public class QuarantineController {
+    private final QuarantineStore quarantineStore;
+
+    public QuarantineController(QuarantineStore quarantineStore) {
+        this.quarantineStore = quarantineStore;
+    }
+
+    /**
+     * Retrieves the readings of a smart meter that were held back by the ingestion pipeline.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return ResponseEntity with the quarantined readings if any, or 404 if none was quarantined
+     */
+    @GetMapping("/{smartMeterId}")
+    public ResponseEntity<List<QuarantinedReading>> readQuarantinedReadings(@PathVariable String smartMeterId) {
+        Optional<List<QuarantinedReading>> readings = quarantineStore.getQuarantinedReadings(smartMeterId);
+        return readings.isPresent()
+                ? ResponseEntity.ok(readings.get())
+                : ResponseEntity.notFound().build();
+    }
+}
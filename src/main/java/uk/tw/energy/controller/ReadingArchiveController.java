@@ -0,0 +1,57 @@
+package uk.tw.energy.controller;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.tw.energy.archive.ArchiveFormatException;
+import uk.tw.energy.archive.ArchiveTransfer;
+import uk.tw.energy.archive.ReadingArchiveService;
+
+@RestController
+@RequestMapping("/admin/archives")
+public class ReadingArchiveController {
+    private final ReadingArchiveService readingArchiveService;
+
+    public ReadingArchiveController(ReadingArchiveService readingArchiveService) {
+        this.readingArchiveService = readingArchiveService;
+    }
+
+    /**
+     * Exports the readings of every smart meter to an archive in the archive directory.
+     *
+     * @param fileName The name of the archive
+     * @return ResponseEntity with what was exported, or 400 if the name is not a plain file name
+     * @throws IOException if the archive can't be written
+     */
+    @PostMapping("/{fileName}/export")
+    public ResponseEntity<ArchiveTransfer> exportReadings(@PathVariable String fileName) throws IOException {
+        try {
+            return ResponseEntity.ok(readingArchiveService.exportReadings(fileName));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Imports the readings of an archive in the archive directory.
+     *
+     * @param fileName The name of the archive
+     * @return ResponseEntity with what was imported, 404 if there is no such archive, or 400 if the name is not a plain
+     *     file name or the file is not a valid archive
+     * @throws IOException if the archive can't be read
+     */
+    @PostMapping("/{fileName}/import")
+    public ResponseEntity<ArchiveTransfer> importReadings(@PathVariable String fileName) throws IOException {
+        try {
+            return ResponseEntity.ok(readingArchiveService.importReadings(fileName));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException | ArchiveFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
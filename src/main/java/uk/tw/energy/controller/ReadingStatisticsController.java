@@ -0,0 +1,71 @@
+package uk.tw.energy.controller;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import uk.tw.energy.statistics.ConsumptionStatistics;
+import uk.tw.energy.statistics.MeterStatisticsService;
+
+@RestController
+@RequestMapping("/readings/statistics")
+public class ReadingStatisticsController {
+    private final MeterStatisticsService meterStatisticsService;
+
+    public ReadingStatisticsController(MeterStatisticsService meterStatisticsService) {
+        this.meterStatisticsService = meterStatisticsService;
+    }
+
+    /**
+     * Retrieves the load statistics of a smart meter over a range of UTC days.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param from Optional first day of the range, such as 2024-01-01
+     * @param to Optional last day of the range
+     * @return ResponseEntity with the statistics, 404 if the meter has no readings in the range, or 400 if the range is
+     *     reversed
+     */
+    @GetMapping("/{smartMeterId}")
+    public ResponseEntity<ConsumptionStatistics> readMeterStatistics(
+            @PathVariable String smartMeterId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(meterStatisticsService.getMeterStatistics(smartMeterId, from, to));
+    }
+
+    /**
+     * Retrieves the load statistics of every smart meter together over a range of UTC days.
+     *
+     * @param from Optional first day of the range, such as 2024-01-01
+     * @param to Optional last day of the range
+     * @return ResponseEntity with the statistics, 404 if no meter has readings in the range, or 400 if the range is
+     *     reversed
+     */
+    @GetMapping
+    public ResponseEntity<ConsumptionStatistics> readFleetStatistics(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(meterStatisticsService.getFleetStatistics(from, to));
+    }
+
+    private static ResponseEntity<ConsumptionStatistics> toResponse(Optional<ConsumptionStatistics> statistics) {
+        return statistics.isPresent()
+                ? ResponseEntity.ok(statistics.get())
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,35 @@
+package uk.tw.energy.controller;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.tw.energy.retention.DailySummary;
+import uk.tw.energy.retention.ReadingSummaryService;
+
+@RestController
+@RequestMapping("/readings")
+public class ReadingSummaryController {
+    private final ReadingSummaryService readingSummaryService;
+
+    public ReadingSummaryController(ReadingSummaryService readingSummaryService) {
+        this.readingSummaryService = readingSummaryService;
+    }
+
+    /**
+     * Retrieves the daily summaries of the readings of a smart meter that were removed by retention.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return ResponseEntity with the summaries in date order if found, or 404 if no reading of the meter expired
+     */
+    @GetMapping("/summaries/{smartMeterId}")
+    public ResponseEntity<List<DailySummary>> readDailySummaries(@PathVariable String smartMeterId) {
+        Optional<List<DailySummary>> summaries = readingSummaryService.getDailySummaries(smartMeterId);
+        return summaries.isPresent()
+                ? ResponseEntity.ok(summaries.get())
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,15 @@
+package uk.tw.energy.domain;
+
+import java.util.List;
+
+/**
+ * Represents an account owning a group of smart meters, such as a household or a business portfolio.
+ *
+ * @param accountId The ID of the account
+ * @param smartMeterIds The IDs of the smart meters the account owns
+ */
+public record Portfolio(String accountId, List<String> smartMeterIds) {
+    public Portfolio {
+        smartMeterIds = List.copyOf(smartMeterIds);
+    }
+}
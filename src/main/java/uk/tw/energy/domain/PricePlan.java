@@ -2,17 +2,31 @@ package uk.tw.energy.domain;
 
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Month;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents a price plan for electricity consumption.
+ *
+ * <p>The unit rate of an hour is multiplied by the first {@link TariffBand} covering it, or else by the peak time
+ * multiplier of its day of the week, if any. Rates only depend on the hour, month, day of the week and whether the day
+ * is a holiday, so the 24 hourly rates of each kind of day are resolved once and reused for every day of that kind.
  */
 public class PricePlan {
+    private static final int HOURS_PER_DAY = 24;
+    private static final int DAY_KINDS = 12 * 7 * 2;
+
     private final String energySupplier;
     private final String planName;
     private final BigDecimal unitRate; // unit price per kWh
     private final List<PeakTimeMultiplier> peakTimeMultipliers;
+    private final List<TariffBand> tariffBands;
+    private final Set<LocalDate> holidays;
+    private final AtomicReferenceArray<double[]> hourlyRatesByDayKind = new AtomicReferenceArray<>(DAY_KINDS);
 
     /**
      * Constructs a new PricePlan.
@@ -20,13 +34,35 @@ public class PricePlan {
      * @param planName The name of the price plan
      * @param energySupplier The name of the energy supplier
      * @param unitRate The base unit rate per kWh
-     * @param peakTimeMultipliers List of peak time multipliers
+     * @param peakTimeMultipliers List of peak time multipliers, or null for none
      */
     public PricePlan(String planName, String energySupplier, BigDecimal unitRate, List<PeakTimeMultiplier> peakTimeMultipliers) {
+        this(planName, energySupplier, unitRate, peakTimeMultipliers, null, null);
+    }
+
+    /**
+     * Constructs a new PricePlan with calendar-aware tariff bands.
+     *
+     * @param planName The name of the price plan
+     * @param energySupplier The name of the energy supplier
+     * @param unitRate The base unit rate per kWh
+     * @param peakTimeMultipliers List of peak time multipliers, or null for none
+     * @param tariffBands Tariff bands in order of precedence, or null for none
+     * @param holidays The dates priced as holidays, or null for none
+     */
+    public PricePlan(
+            String planName,
+            String energySupplier,
+            BigDecimal unitRate,
+            List<PeakTimeMultiplier> peakTimeMultipliers,
+            List<TariffBand> tariffBands,
+            Set<LocalDate> holidays) {
         this.planName = planName;
         this.energySupplier = energySupplier;
         this.unitRate = unitRate;
-        this.peakTimeMultipliers = peakTimeMultipliers;
+        this.peakTimeMultipliers = peakTimeMultipliers == null ? List.of() : peakTimeMultipliers;
+        this.tariffBands = tariffBands == null ? List.of() : List.copyOf(tariffBands);
+        this.holidays = holidays == null ? Set.of() : Set.copyOf(holidays);
     }
 
     /**
@@ -51,23 +87,80 @@ public class PricePlan {
     }
 
     /**
-     * Calculates the price for a given date and time, applying peak time multipliers if applicable.
+     * @return The peak time multipliers applied on top of the base unit rate
+     */
+    public List<PeakTimeMultiplier> getPeakTimeMultipliers() {
+        return peakTimeMultipliers;
+    }
+
+    /**
+     * @return The tariff bands, in order of precedence
+     */
+    public List<TariffBand> getTariffBands() {
+        return tariffBands;
+    }
+
+    /**
+     * @return The dates priced as holidays
+     */
+    public Set<LocalDate> getHolidays() {
+        return holidays;
+    }
+
+    /**
+     * Calculates the price for a given date and time, applying tariff bands and peak time multipliers if applicable.
      *
      * @param dateTime The date and time for which to calculate the price
      * @return The calculated price per kWh
      */
     public BigDecimal getPrice(LocalDateTime dateTime) {
-        return peakTimeMultipliers.stream()
-                .filter(multiplier -> multiplier.dayOfWeek.equals(dateTime.getDayOfWeek()))
-                .findFirst()
-                .map(multiplier -> unitRate.multiply(multiplier.multiplier))
-                .orElse(unitRate);
+        BigDecimal multiplier = multiplierFor(
+                dateTime.getMonth(),
+                dateTime.getDayOfWeek(),
+                holidays.contains(dateTime.toLocalDate()),
+                dateTime.getHour());
+        return multiplier == null ? unitRate : unitRate.multiply(multiplier);
+    }
+
+    /**
+     * Retrieves the price of every hour of a day, resolving them the first time a day of its kind is priced.
+     *
+     * @param date The date to price
+     * @return The price per kWh of each hour from midnight, shared between calls and not to be modified
+     */
+    public double[] getHourlyRates(LocalDate date) {
+        boolean holiday = holidays.contains(date);
+        int dayKind = ((date.getMonthValue() - 1) * 7 + date.getDayOfWeek().getValue() - 1) * 2 + (holiday ? 1 : 0);
+        double[] hourlyRates = hourlyRatesByDayKind.get(dayKind);
+        if (hourlyRates == null) {
+            hourlyRates = new double[HOURS_PER_DAY];
+            for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                BigDecimal multiplier = multiplierFor(date.getMonth(), date.getDayOfWeek(), holiday, hour);
+                hourlyRates[hour] = (multiplier == null ? unitRate : unitRate.multiply(multiplier)).doubleValue();
+            }
+            hourlyRatesByDayKind.set(dayKind, hourlyRates);
+        }
+        return hourlyRates;
+    }
+
+    private BigDecimal multiplierFor(Month month, DayOfWeek dayOfWeek, boolean holiday, int hour) {
+        for (TariffBand tariffBand : tariffBands) {
+            if (tariffBand.covers(month, dayOfWeek, holiday, hour)) {
+                return tariffBand.multiplier;
+            }
+        }
+        for (PeakTimeMultiplier peakTimeMultiplier : peakTimeMultipliers) {
+            if (peakTimeMultiplier.dayOfWeek.equals(dayOfWeek)) {
+                return peakTimeMultiplier.multiplier;
+            }
+        }
+        return null;
     }
 
     /**
      * Represents a peak time multiplier for a specific day of the week.
      */
-    static class PeakTimeMultiplier {
+    public static class PeakTimeMultiplier {
         DayOfWeek dayOfWeek;
         BigDecimal multiplier;
 
@@ -82,4 +175,89 @@ public class PricePlan {
             this.multiplier = multiplier;
         }
     }
+
+    /**
+     * The days a tariff band applies to. Holidays count as weekend days.
+     */
+    public enum DayType {
+        EVERY_DAY,
+        WEEKDAY,
+        WEEKEND,
+        HOLIDAY;
+
+        private boolean covers(DayOfWeek dayOfWeek, boolean holiday) {
+            boolean weekend = holiday || dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+            return switch (this) {
+                case EVERY_DAY -> true;
+                case WEEKDAY -> !weekend;
+                case WEEKEND -> weekend;
+                case HOLIDAY -> holiday;
+            };
+        }
+    }
+
+    /**
+     * Represents a multiplier applying to a range of hours on some days, possibly only in a season.
+     */
+    public static class TariffBand {
+        DayType dayType;
+        int startHour;
+        int endHour;
+        Month fromMonth;
+        Month toMonth;
+        BigDecimal multiplier;
+
+        /**
+         * Constructs a new TariffBand.
+         *
+         * @param dayType The days the band applies to, or null for every day
+         * @param startHour The first hour of the band, from 0 to 23
+         * @param endHour The hour the band ends at, from 1 to 24. A band ending at or before its start runs past
+         *     midnight.
+         * @param fromMonth The first month of the band's season, or null for all year
+         * @param toMonth The last month of the band's season, which may be before the first to span the new year, or
+         *     null for all year
+         * @param multiplier The multiplier to apply to the base rate
+         * @throws IllegalArgumentException if the hours are out of range, only one month of the season is given or the
+         *     multiplier is missing
+         */
+        public TariffBand(
+                DayType dayType, int startHour, int endHour, Month fromMonth, Month toMonth, BigDecimal multiplier) {
+            if (startHour < 0 || startHour >= HOURS_PER_DAY || endHour < 1 || endHour > HOURS_PER_DAY) {
+                throw new IllegalArgumentException("Tariff bands start at hour 0 to 23 and end at hour 1 to 24");
+            }
+            if (startHour == endHour) {
+                throw new IllegalArgumentException("Tariff band hours must differ; use 0 to 24 for the whole day");
+            }
+            if ((fromMonth == null) != (toMonth == null)) {
+                throw new IllegalArgumentException("Tariff band seasons need both a first and a last month");
+            }
+            if (multiplier == null) {
+                throw new IllegalArgumentException("Tariff bands need a multiplier");
+            }
+            this.dayType = dayType == null ? DayType.EVERY_DAY : dayType;
+            this.startHour = startHour;
+            this.endHour = endHour;
+            this.fromMonth = fromMonth;
+            this.toMonth = toMonth;
+            this.multiplier = multiplier;
+        }
+
+        private boolean covers(Month month, DayOfWeek dayOfWeek, boolean holiday, int hour) {
+            return dayType.covers(dayOfWeek, holiday) && coversMonth(month) && coversHour(hour);
+        }
+
+        private boolean coversMonth(Month month) {
+            if (fromMonth == null) {
+                return true;
+            }
+            return fromMonth.compareTo(toMonth) <= 0
+                    ? month.compareTo(fromMonth) >= 0 && month.compareTo(toMonth) <= 0
+                    : month.compareTo(fromMonth) >= 0 || month.compareTo(toMonth) <= 0;
+        }
+
+        private boolean coversHour(int hour) {
+            return startHour < endHour ? hour >= startHour && hour < endHour : hour >= startHour || hour < endHour;
+        }
+    }
 }
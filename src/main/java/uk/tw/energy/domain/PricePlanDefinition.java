@@ -0,0 +1,108 @@
+package uk.tw.energy.domain;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Represents the JSON definition of a price plan, as loaded from a price plan file or the admin endpoint.
+ *
+ * @param planName The name of the price plan
+ * @param energySupplier The name of the energy supplier
+ * @param unitRate The base unit rate per kWh
+ * @param peakTimeMultipliers The peak time multipliers, may be omitted
+ * @param tariffBands The tariff bands in order of precedence, may be omitted
+ * @param holidays The dates priced as holidays, may be omitted
+ */
+public record PricePlanDefinition(
+        String planName,
+        String energySupplier,
+        BigDecimal unitRate,
+        List<PeakTimeMultiplierDefinition> peakTimeMultipliers,
+        List<TariffBandDefinition> tariffBands,
+        List<LocalDate> holidays) {
+
+    /**
+     * Creates the definition describing an existing price plan.
+     *
+     * @param pricePlan The price plan to describe
+     * @return The definition of the price plan
+     */
+    public static PricePlanDefinition from(PricePlan pricePlan) {
+        List<PeakTimeMultiplierDefinition> multipliers = pricePlan.getPeakTimeMultipliers().stream()
+                .map(multiplier -> new PeakTimeMultiplierDefinition(multiplier.dayOfWeek, multiplier.multiplier))
+                .toList();
+        List<TariffBandDefinition> tariffBands = pricePlan.getTariffBands().stream()
+                .map(band -> new TariffBandDefinition(
+                        band.dayType, band.startHour, band.endHour, band.fromMonth, band.toMonth, band.multiplier))
+                .toList();
+        return new PricePlanDefinition(
+                pricePlan.getPlanName(),
+                pricePlan.getEnergySupplier(),
+                pricePlan.getUnitRate(),
+                multipliers,
+                tariffBands,
+                pricePlan.getHolidays().stream().sorted().toList());
+    }
+
+    /**
+     * Builds the price plan described by this definition.
+     *
+     * @return A new PricePlan
+     * @throws IllegalArgumentException if the plan name or unit rate is missing, or a tariff band is invalid
+     */
+    public PricePlan toPricePlan() {
+        if (planName == null || planName.isEmpty() || unitRate == null) {
+            throw new IllegalArgumentException("Price plans need a plan name and a unit rate");
+        }
+        List<PricePlan.PeakTimeMultiplier> multipliers = peakTimeMultipliers == null
+                ? List.of()
+                : peakTimeMultipliers.stream()
+                        .map(multiplier -> new PricePlan.PeakTimeMultiplier(multiplier.dayOfWeek(), multiplier.multiplier()))
+                        .toList();
+        List<PricePlan.TariffBand> bands = tariffBands == null
+                ? List.of()
+                : tariffBands.stream().map(TariffBandDefinition::toTariffBand).toList();
+        return new PricePlan(
+                planName,
+                energySupplier,
+                unitRate,
+                multipliers,
+                bands,
+                holidays == null ? null : new HashSet<>(holidays));
+    }
+
+    /**
+     * Represents the JSON definition of a peak time multiplier.
+     *
+     * @param dayOfWeek The day of the week for this multiplier
+     * @param multiplier The multiplier to apply to the base rate
+     */
+    public record PeakTimeMultiplierDefinition(DayOfWeek dayOfWeek, BigDecimal multiplier) {}
+
+    /**
+     * Represents the JSON definition of a tariff band.
+     *
+     * @param dayType The days the band applies to, every day if omitted
+     * @param startHour The first hour of the band
+     * @param endHour The hour the band ends at, past midnight if not after the start
+     * @param fromMonth The first month of the band's season, all year if omitted
+     * @param toMonth The last month of the band's season, all year if omitted
+     * @param multiplier The multiplier to apply to the base rate
+     */
+    public record TariffBandDefinition(
+            PricePlan.DayType dayType,
+            int startHour,
+            int endHour,
+            Month fromMonth,
+            Month toMonth,
+            BigDecimal multiplier) {
+
+        PricePlan.TariffBand toTariffBand() {
+            return new PricePlan.TariffBand(dayType, startHour, endHour, fromMonth, toMonth, multiplier);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package uk.tw.energy.forecast;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+/**
+ * Projects the bill of a smart meter under every price plan from its consumption profile.
+ *
+ * <p>The unit prices of every hour in the projection window are summed per weekly slot once per window and catalogue
+ * version. Projecting a meter then costs {@value ConsumptionProfile#SLOTS} multiplications per price plan, whatever
+ * the length of its reading history.
+ */
+@Service
+public class BillForecastService {
+    public static final int DEFAULT_FORECAST_DAYS = 30;
+    private static final int SECONDS_PER_HOUR = 3_600;
+    private static final int HOURS_PER_DAY = 24;
+
+    private final ConsumptionProfileService consumptionProfileService;
+    private final PricePlanCatalogue pricePlanCatalogue;
+    private final Clock clock;
+    private final AtomicReference<SlotPrices> cachedSlotPrices = new AtomicReference<>();
+
+    @Autowired
+    public BillForecastService(
+            ConsumptionProfileService consumptionProfileService, PricePlanCatalogue pricePlanCatalogue) {
+        this(consumptionProfileService, pricePlanCatalogue, Clock.systemUTC());
+    }
+
+    public BillForecastService(
+            ConsumptionProfileService consumptionProfileService, PricePlanCatalogue pricePlanCatalogue, Clock clock) {
+        this.consumptionProfileService = consumptionProfileService;
+        this.pricePlanCatalogue = pricePlanCatalogue;
+        this.clock = clock;
+    }
+
+    /**
+     * Projects the cost of a smart meter's consumption over the coming days for each price plan.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param days The number of days to project, starting from the current hour
+     * @return Optional containing a map of price plan names to projected costs, or empty if the meter has no readings
+     */
+    public Optional<Map<String, BigDecimal>> getProjectedCostForEachPricePlan(String smartMeterId, int days) {
+        return consumptionProfileService
+                .getProfile(smartMeterId)
+                .map(profile -> projectCosts(profile, slotPricesFor(days)));
+    }
+
+    /**
+     * Projects the cost of every smart meter's consumption over the coming days for each price plan.
+     *
+     * @param days The number of days to project, starting from the current hour
+     * @return A map of smart meter IDs to maps of price plan names to projected costs
+     */
+    public Map<String, Map<String, BigDecimal>> getProjectedCostsForAllMeters(int days) {
+        SlotPrices slotPrices = slotPricesFor(days);
+        Map<String, Map<String, BigDecimal>> projections = new ConcurrentHashMap<>();
+        consumptionProfileService.getProfiles().entrySet().parallelStream()
+                .forEach(entry -> projections.put(entry.getKey(), projectCosts(entry.getValue(), slotPrices)));
+        return projections;
+    }
+
+    private static Map<String, BigDecimal> projectCosts(ConsumptionProfile profile, SlotPrices slotPrices) {
+        Map<String, BigDecimal> costs = new HashMap<>();
+        for (int plan = 0; plan < slotPrices.planNames().size(); plan++) {
+            double cost = profile.projectCost(slotPrices.prices()[plan]);
+            costs.put(slotPrices.planNames().get(plan), BigDecimal.valueOf(cost).setScale(2, RoundingMode.HALF_UP));
+        }
+        return costs;
+    }
+
+    private SlotPrices slotPricesFor(int days) {
+        long startHour = Math.floorDiv(clock.instant().getEpochSecond(), SECONDS_PER_HOUR);
+        PricePlanCatalogue.Snapshot catalogue = pricePlanCatalogue.getSnapshot();
+        SlotPrices cached = cachedSlotPrices.get();
+        if (cached != null
+                && cached.catalogueVersion() == catalogue.version()
+                && cached.startHour() == startHour
+                && cached.days() == days) {
+            return cached;
+        }
+        SlotPrices slotPrices = SlotPrices.compute(catalogue, startHour, days);
+        cachedSlotPrices.set(slotPrices);
+        return slotPrices;
+    }
+
+    /**
+     * The unit prices of a projection window summed per weekly slot, for each price plan.
+     */
+    private record SlotPrices(
+            long catalogueVersion, long startHour, int days, List<String> planNames, double[][] prices) {
+
+        static SlotPrices compute(PricePlanCatalogue.Snapshot catalogue, long startHour, int days) {
+            List<PricePlan> pricePlans = catalogue.pricePlans();
+            double[][] prices = new double[pricePlans.size()][ConsumptionProfile.SLOTS];
+            for (long hour = startHour; hour < startHour + days * 24L; hour++) {
+                long epochSecond = hour * SECONDS_PER_HOUR;
+                int slot = ConsumptionProfile.slotOf(epochSecond);
+                LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(hour, HOURS_PER_DAY));
+                int hourOfDay = (int) Math.floorMod(hour, HOURS_PER_DAY);
+                for (int plan = 0; plan < pricePlans.size(); plan++) {
+                    prices[plan][slot] += pricePlans.get(plan).getHourlyRates(date)[hourOfDay];
+                }
+            }
+            List<String> planNames =
+                    pricePlans.stream().map(PricePlan::getPlanName).toList();
+            return new SlotPrices(catalogue.version(), startHour, days, planNames, prices);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package uk.tw.energy.forecast;
+
+/**
+ * Compact seasonal consumption profile of one smart meter.
+ *
+ * <p>Keeps the mean power drawn in each of the 168 hourly slots of a week (day of week by hour of day, in UTC), updated
+ * incrementally one reading at a time. Slots without samples fall back to the mean over all readings.
+ */
+public class ConsumptionProfile {
+    public static final int SLOTS = 7 * 24;
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int SECONDS_PER_HOUR = 3_600;
+    // 1970-01-01 was a Thursday, three days after Monday.
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    private final float[] slotMeanKw = new float[SLOTS];
+    private final int[] slotSamples = new int[SLOTS];
+    private double meanKw;
+    private long samples;
+
+    /**
+     * Maps a point in time to its weekly slot.
+     *
+     * @param epochSecond The time as seconds since the epoch
+     * @return The slot index, {@code dayOfWeek * 24 + hourOfDay} with Monday as day 0
+     */
+    public static int slotOf(long epochSecond) {
+        long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        int dayOfWeek = (int) Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK, 7);
+        int hourOfDay = (int) (Math.floorMod(epochSecond, SECONDS_PER_DAY) / SECONDS_PER_HOUR);
+        return dayOfWeek * 24 + hourOfDay;
+    }
+
+    /**
+     * Adds a reading to the profile.
+     *
+     * @param epochSecond The time of the reading as seconds since the epoch
+     * @param kw The power drawn in kW
+     */
+    public synchronized void add(long epochSecond, double kw) {
+        int slot = slotOf(epochSecond);
+        slotSamples[slot]++;
+        slotMeanKw[slot] += (float) ((kw - slotMeanKw[slot]) / slotSamples[slot]);
+        samples++;
+        meanKw += (kw - meanKw) / samples;
+    }
+
+    /**
+     * @param slot The slot index
+     * @return The expected power drawn during the slot in kW
+     */
+    public synchronized double getExpectedKw(int slot) {
+        return slotSamples[slot] > 0 ? slotMeanKw[slot] : meanKw;
+    }
+
+    /**
+     * Projects the cost of the expected consumption.
+     *
+     * @param slotPrices For each slot, the sum of the unit prices of every hour of the projection falling in that slot
+     * @return The projected cost
+     */
+    public synchronized double projectCost(double[] slotPrices) {
+        double cost = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            cost += (slotSamples[slot] > 0 ? slotMeanKw[slot] : meanKw) * slotPrices[slot];
+        }
+        return cost;
+    }
+
+    /**
+     * @return The number of readings added to the profile
+     */
+    public synchronized long getSamples() {
+        return samples;
+    }
+}
@@ -0,0 +1,67 @@
+package uk.tw.energy.forecast;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.MeterReadingsListener;
+
+/**
+ * Maintains the consumption profile of every smart meter as readings arrive.
+ */
+@Service
+public class ConsumptionProfileService implements MeterReadingsListener {
+    private final Map<String, ConsumptionProfile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new ConsumptionProfileService, building profiles from the readings already stored.
+     *
+     * @param meterReadingService The service whose readings are profiled
+     */
+    public ConsumptionProfileService(MeterReadingService meterReadingService) {
+        for (String smartMeterId : meterReadingService.getSmartMeterIds()) {
+            meterReadingService
+                    .getReadings(smartMeterId)
+                    .ifPresent(electricityReadings -> onReadingsStored(smartMeterId, electricityReadings));
+        }
+        meterReadingService.addListener(this);
+    }
+
+    @Override
+    public void onReadingsStored(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        if (electricityReadings.isEmpty()) {
+            return;
+        }
+        ConsumptionProfile profile = profiles.computeIfAbsent(smartMeterId, id -> new ConsumptionProfile());
+        for (ElectricityReading electricityReading : electricityReadings) {
+            profile.add(
+                    electricityReading.time().getEpochSecond(),
+                    electricityReading.reading().doubleValue());
+        }
+    }
+
+    @Override
+    public void onReadingsRemoved(String smartMeterId) {
+        profiles.remove(smartMeterId);
+    }
+
+    /**
+     * Retrieves the consumption profile of a given smart meter.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return Optional containing the profile if the meter has readings, or empty if not
+     */
+    public Optional<ConsumptionProfile> getProfile(String smartMeterId) {
+        return Optional.ofNullable(profiles.get(smartMeterId));
+    }
+
+    /**
+     * @return The profiles of every smart meter with readings, by smart meter ID
+     */
+    public Map<String, ConsumptionProfile> getProfiles() {
+        return profiles;
+    }
+}
@@ -17,9 +17,20 @@ public class ElectricityReadingsGenerator {
      * @return A list of ElectricityReading objects sorted by time
      */
     public List<ElectricityReading> generate(int number) {
-        List<ElectricityReading> readings = new ArrayList<>();
-        Instant now = Instant.now();
-        Random readingRandomiser = new Random();
+        return generate(number, Instant.now(), new Random());
+    }
+
+    /**
+     * Generates a list of random electricity readings ten seconds apart, the latest taken at the given time.
+     * Random generators in the same state give the same readings.
+     *
+     * @param number The number of readings to generate
+     * @param now The time of the latest reading
+     * @param readingRandomiser The source of the reading values
+     * @return A list of ElectricityReading objects sorted by time
+     */
+    public List<ElectricityReading> generate(int number, Instant now, Random readingRandomiser) {
+        List<ElectricityReading> readings = new ArrayList<>(number);
 
         for (int i = 0; i < number; i++) {
             double positiveRandomValue = Math.abs(readingRandomiser.nextGaussian());
@@ -0,0 +1,11 @@
+package uk.tw.energy.index;
+
+import java.math.BigDecimal;
+
+/**
+ * The energy a smart meter consumed over the consumption window.
+ *
+ * @param smartMeterId The ID of the smart meter
+ * @param kwh The energy consumed, in kWh
+ */
+public record MeterConsumption(String smartMeterId, BigDecimal kwh) {}
@@ -0,0 +1,69 @@
+package uk.tw.energy.index;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every smart meter ID a dense integer ordinal, so indexes can hold ints and bitmaps instead of strings.
+ *
+ * <p>Ordinals are handed out in order from 0 and never reused, so an ordinal stays valid after its meter is removed.
+ */
+public class MeterIdDictionary {
+    private static final int INITIAL_CAPACITY = 1_024;
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile String[] smartMeterIds = new String[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the ordinal of a smart meter, assigning the next one if the meter is new.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return The ordinal of the smart meter
+     */
+    public int ordinalOf(String smartMeterId) {
+        Integer ordinal = ordinals.get(smartMeterId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (this) {
+            ordinal = ordinals.get(smartMeterId);
+            if (ordinal != null) {
+                return ordinal;
+            }
+            if (size == smartMeterIds.length) {
+                smartMeterIds = Arrays.copyOf(smartMeterIds, size * 2);
+            }
+            // The ID is written before the ordinal is published, so whoever sees the ordinal can look the ID up.
+            smartMeterIds[size] = smartMeterId;
+            ordinals.put(smartMeterId, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @param smartMeterId The ID of the smart meter
+     * @return The ordinal of the smart meter, or empty if it was never assigned one
+     */
+    public OptionalInt find(String smartMeterId) {
+        Integer ordinal = ordinals.get(smartMeterId);
+        return ordinal == null ? OptionalInt.empty() : OptionalInt.of(ordinal);
+    }
+
+    /**
+     * @param ordinal An ordinal returned by {@link #ordinalOf(String)}
+     * @return The ID of the smart meter
+     */
+    public String smartMeterIdOf(int ordinal) {
+        return smartMeterIds[ordinal];
+    }
+
+    /**
+     * @return The number of ordinals assigned
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,299 @@
+package uk.tw.energy.index;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.EnergyIntegrator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.MeterReadingsListener;
+
+/**
+ * Maintains secondary indexes over every smart meter as readings arrive, so meters can be found by their consumption
+ * or by when they last reported without scanning their readings.
+ *
+ * <ul>
+ *   <li>A skip list of meters ordered by the time of their latest reading answers which meters have gone quiet.
+ *   <li>A skip list of meters ordered by the energy consumed over the last {@code windowDays} UTC days answers which
+ *       meters consume the most. Each meter keeps one energy bucket per day of the window, and the energy its
+ *       {@link EnergyIntegrator} gives each reading is added to the day of that reading.
+ *   <li>The price plan bitmaps of the {@link PlanMembershipIndex} filter either index by price plan.
+ * </ul>
+ *
+ * <p>A query walks an index from its head and stops after {@code limit} matches, so it costs about the same for ten
+ * meters as for ten million. A meter being re-indexed is briefly missing from the index. Totals of meters that don't
+ * report move out of the window when {@link #rollWindow()} runs after midnight.
+ */
+@Service
+public class MeterIndexService implements MeterReadingsListener {
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int KWH_SCALE = 4;
+
+    private final int windowDays;
+    private final Clock clock;
+    private final PlanMembershipIndex planMembershipIndex;
+    private final MeterIdDictionary dictionary;
+    private final Map<String, MeterState> meters = new ConcurrentHashMap<>();
+    private final NavigableSet<LastSeenKey> lastSeenIndex = new ConcurrentSkipListSet<>();
+    private final NavigableSet<ConsumptionKey> consumptionIndex = new ConcurrentSkipListSet<>();
+    private volatile long rolledDay;
+
+    @Autowired
+    public MeterIndexService(
+            MeterReadingService meterReadingService,
+            PlanMembershipIndex planMembershipIndex,
+            @Value("${energy.index.consumption-window-days:7}") int windowDays) {
+        this(meterReadingService, planMembershipIndex, windowDays, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new MeterIndexService, indexing the readings already stored.
+     *
+     * @param meterReadingService The service whose readings are indexed
+     * @param planMembershipIndex The index of the smart meters on each price plan
+     * @param windowDays The number of UTC days, up to today, the consumption totals cover
+     * @param clock The clock telling which day it is
+     */
+    public MeterIndexService(
+            MeterReadingService meterReadingService,
+            PlanMembershipIndex planMembershipIndex,
+            int windowDays,
+            Clock clock) {
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("The consumption window must cover at least one day");
+        }
+        this.windowDays = windowDays;
+        this.clock = clock;
+        this.rolledDay = today();
+        this.planMembershipIndex = planMembershipIndex;
+        this.dictionary = planMembershipIndex.getDictionary();
+        for (String smartMeterId : meterReadingService.getSmartMeterIds()) {
+            meterReadingService
+                    .getReadings(smartMeterId)
+                    .ifPresent(electricityReadings -> onReadingsStored(smartMeterId, electricityReadings));
+        }
+        meterReadingService.addListener(this);
+    }
+
+    @Override
+    public void onReadingsStored(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        if (electricityReadings.isEmpty()) {
+            return;
+        }
+        long today = today();
+        while (true) {
+            MeterState meter =
+                    meters.computeIfAbsent(smartMeterId, id -> new MeterState(dictionary.ordinalOf(id), windowDays));
+            synchronized (meter) {
+                if (meter.removed) {
+                    // Lost a race with removal, the next attempt creates the meter again.
+                    continue;
+                }
+                for (ElectricityReading electricityReading : electricityReadings) {
+                    meter.add(electricityReading);
+                }
+                reindex(meter, today);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onReadingsRemoved(String smartMeterId) {
+        MeterState meter = meters.remove(smartMeterId);
+        if (meter != null) {
+            synchronized (meter) {
+                meter.removed = true;
+                unindex(meter);
+            }
+        }
+    }
+
+    /**
+     * Finds the smart meters that consumed the most energy over the consumption window.
+     *
+     * @param limit The maximum number of meters to return
+     * @param pricePlanId Optional price plan the meters must be on, or null for every meter
+     * @return The meters in descending order of consumption
+     */
+    public List<MeterConsumption> getTopConsumers(int limit, String pricePlanId) {
+        RoaringBitmap members = membersOf(pricePlanId);
+        List<MeterConsumption> consumers = new ArrayList<>(Math.min(limit, 1_024));
+        for (ConsumptionKey key : consumptionIndex) {
+            if (consumers.size() >= limit) {
+                break;
+            }
+            if (members == null || members.contains(key.ordinal())) {
+                consumers.add(new MeterConsumption(
+                        dictionary.smartMeterIdOf(key.ordinal()),
+                        BigDecimal.valueOf(key.kwh()).setScale(KWH_SCALE, RoundingMode.HALF_UP)));
+            }
+        }
+        return consumers;
+    }
+
+    /**
+     * Finds the smart meters that haven't sent a reading for a while.
+     *
+     * @param silence How long the meters haven't reported for
+     * @param limit The maximum number of meters to return
+     * @param pricePlanId Optional price plan the meters must be on, or null for every meter
+     * @return The meters in ascending order of their latest reading, the longest silent first
+     */
+    public List<MeterLastSeen> getMetersNotSeenFor(Duration silence, int limit, String pricePlanId) {
+        Instant since = clock.instant().minus(silence);
+        RoaringBitmap members = membersOf(pricePlanId);
+        List<MeterLastSeen> silent = new ArrayList<>(Math.min(limit, 1_024));
+        for (LastSeenKey key : lastSeenIndex.headSet(new LastSeenKey(since.getEpochSecond(), Integer.MIN_VALUE))) {
+            if (silent.size() >= limit) {
+                break;
+            }
+            if (members == null || members.contains(key.ordinal())) {
+                silent.add(new MeterLastSeen(
+                        dictionary.smartMeterIdOf(key.ordinal()), Instant.ofEpochSecond(key.epochSecond())));
+            }
+        }
+        return silent;
+    }
+
+    /**
+     * Moves the consumption window to the current day, dropping the energy of the day that left it from every total.
+     * Does nothing if the day hasn't changed since the last call.
+     */
+    @Scheduled(fixedDelayString = "${energy.index.roll-interval-ms:60000}")
+    public void rollWindow() {
+        long today = today();
+        if (today == rolledDay) {
+            return;
+        }
+        for (MeterState meter : meters.values()) {
+            synchronized (meter) {
+                if (!meter.removed) {
+                    reindex(meter, today);
+                }
+            }
+        }
+        rolledDay = today;
+    }
+
+    /**
+     * @return The number of smart meters indexed
+     */
+    public int getIndexedMeterCount() {
+        return meters.size();
+    }
+
+    private RoaringBitmap membersOf(String pricePlanId) {
+        return pricePlanId == null ? null : planMembershipIndex.getPricePlanMembers(pricePlanId);
+    }
+
+    private void reindex(MeterState meter, long today) {
+        unindex(meter);
+        meter.lastSeenKey = new LastSeenKey(meter.lastSeenSecond, meter.ordinal);
+        meter.consumptionKey = new ConsumptionKey(meter.windowTotal(today), meter.ordinal);
+        lastSeenIndex.add(meter.lastSeenKey);
+        consumptionIndex.add(meter.consumptionKey);
+    }
+
+    private void unindex(MeterState meter) {
+        if (meter.lastSeenKey != null) {
+            lastSeenIndex.remove(meter.lastSeenKey);
+            consumptionIndex.remove(meter.consumptionKey);
+        }
+    }
+
+    private long today() {
+        return Math.floorDiv(clock.instant().getEpochSecond(), SECONDS_PER_DAY);
+    }
+
+    /**
+     * Orders meters by the time of their latest reading, oldest first.
+     */
+    private record LastSeenKey(long epochSecond, int ordinal) implements Comparable<LastSeenKey> {
+        @Override
+        public int compareTo(LastSeenKey other) {
+            int byTime = Long.compare(epochSecond, other.epochSecond);
+            return byTime != 0 ? byTime : Integer.compare(ordinal, other.ordinal);
+        }
+    }
+
+    /**
+     * Orders meters by their consumption over the window, highest first.
+     */
+    private record ConsumptionKey(double kwh, int ordinal) implements Comparable<ConsumptionKey> {
+        @Override
+        public int compareTo(ConsumptionKey other) {
+            int byConsumption = Double.compare(other.kwh, kwh);
+            return byConsumption != 0 ? byConsumption : Integer.compare(ordinal, other.ordinal);
+        }
+    }
+
+    /**
+     * The indexed state of one smart meter, guarded by its own monitor.
+     */
+    private static final class MeterState {
+        private final int ordinal;
+        // Energy per day of the window, in a ring indexed by day number.
+        private final double[] dailyKwh;
+        private final EnergyIntegrator energy = new EnergyIntegrator();
+        private long latestDay = Long.MIN_VALUE;
+        private long lastSeenSecond = Long.MIN_VALUE;
+        private LastSeenKey lastSeenKey;
+        private ConsumptionKey consumptionKey;
+        private boolean removed;
+
+        private MeterState(int ordinal, int windowDays) {
+            this.ordinal = ordinal;
+            this.dailyKwh = new double[windowDays];
+        }
+
+        private void add(ElectricityReading reading) {
+            long epochSecond = reading.time().getEpochSecond();
+            lastSeenSecond = Math.max(lastSeenSecond, epochSecond);
+            addToDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY), energy.add(reading));
+        }
+
+        private void addToDay(long day, double kwh) {
+            if (day > latestDay) {
+                long firstCleared =
+                        latestDay == Long.MIN_VALUE ? day : Math.max(latestDay + 1, day - dailyKwh.length + 1);
+                for (long cleared = firstCleared; cleared <= day; cleared++) {
+                    dailyKwh[slotOf(cleared)] = 0;
+                }
+                latestDay = day;
+            } else if (day <= latestDay - dailyKwh.length) {
+                return;
+            }
+            dailyKwh[slotOf(day)] += kwh;
+        }
+
+        private double windowTotal(long today) {
+            if (latestDay == Long.MIN_VALUE) {
+                return 0;
+            }
+            double total = 0;
+            long first = Math.max(today, latestDay) - dailyKwh.length + 1;
+            for (long day = Math.max(first, latestDay - dailyKwh.length + 1); day <= latestDay; day++) {
+                total += dailyKwh[slotOf(day)];
+            }
+            return total;
+        }
+
+        private int slotOf(long day) {
+            return (int) Math.floorMod(day, (long) dailyKwh.length);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package uk.tw.energy.index;
+
+import java.time.Instant;
+
+/**
+ * The time of the latest reading of a smart meter.
+ *
+ * @param smartMeterId The ID of the smart meter
+ * @param lastSeen The time of its latest reading
+ */
+public record MeterLastSeen(String smartMeterId, Instant lastSeen) {}
@@ -0,0 +1,92 @@
+package uk.tw.energy.index;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+/**
+ * Compressed bitmaps of the smart meters on each price plan and with each energy supplier.
+ *
+ * <p>Smart meter IDs are dictionary encoded to dense ordinals, shared with the other indexes, so a cohort such as
+ * "every meter on price-plan-0" is a {@link RoaringBitmap} that can be intersected with others in a few microseconds
+ * per million meters. The price plan bitmaps are built once from the accounts, which assumes the price plan of every
+ * meter is fixed once the application has started, as {@link AccountService} offers no way to change it. A meter is
+ * with the supplier of its price plan, so the supplier bitmaps are unions of price plan bitmaps, rebuilt whenever the
+ * catalogue changes.
+ *
+ * <p>The bitmaps handed out are shared and must not be modified.
+ */
+@Component
+public class PlanMembershipIndex {
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final MeterIdDictionary dictionary = new MeterIdDictionary();
+    private final Map<String, RoaringBitmap> pricePlanMembers;
+    private volatile Map<String, RoaringBitmap> energySupplierMembers;
+
+    /**
+     * Constructs a new PlanMembershipIndex.
+     *
+     * @param accountService The service holding the price plan of every smart meter
+     * @param pricePlanCatalogue The catalogue holding the supplier of every price plan
+     */
+    public PlanMembershipIndex(AccountService accountService, PricePlanCatalogue pricePlanCatalogue) {
+        Map<String, RoaringBitmap> members = new HashMap<>();
+        accountService
+                .getPricePlanIdsBySmartMeterId()
+                .forEach((smartMeterId, pricePlanId) -> members.computeIfAbsent(pricePlanId, id -> new RoaringBitmap())
+                        .add(dictionary.ordinalOf(smartMeterId)));
+        members.values().forEach(RoaringBitmap::runOptimize);
+        this.pricePlanMembers = Map.copyOf(members);
+        this.energySupplierMembers = bySupplier(pricePlanCatalogue.getSnapshot());
+        pricePlanCatalogue.addListener(snapshot -> energySupplierMembers = bySupplier(snapshot));
+    }
+
+    /**
+     * @return The dictionary encoding smart meter IDs to the ordinals held by the bitmaps
+     */
+    public MeterIdDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param pricePlanId The ID of the price plan
+     * @return The ordinals of the smart meters on the price plan, empty if there are none
+     */
+    public RoaringBitmap getPricePlanMembers(String pricePlanId) {
+        return pricePlanMembers.getOrDefault(pricePlanId, EMPTY);
+    }
+
+    /**
+     * @param energySupplier The name of the energy supplier
+     * @return The ordinals of the smart meters on a price plan of the supplier, empty if there are none
+     */
+    public RoaringBitmap getEnergySupplierMembers(String energySupplier) {
+        return energySupplierMembers.getOrDefault(energySupplier, EMPTY);
+    }
+
+    /**
+     * @return The IDs of every price plan some smart meter is on
+     */
+    public Set<String> getPricePlanIds() {
+        return pricePlanMembers.keySet();
+    }
+
+    private Map<String, RoaringBitmap> bySupplier(PricePlanCatalogue.Snapshot snapshot) {
+        Map<String, RoaringBitmap> members = new HashMap<>();
+        for (PricePlan pricePlan : snapshot.pricePlans()) {
+            RoaringBitmap planMembers = pricePlanMembers.get(pricePlan.getPlanName());
+            if (pricePlan.getEnergySupplier() != null && planMembers != null) {
+                members.computeIfAbsent(pricePlan.getEnergySupplier(), supplier -> new RoaringBitmap())
+                        .or(planMembers);
+            }
+        }
+        members.values().forEach(RoaringBitmap::runOptimize);
+        return Map.copyOf(members);
+    }
+}
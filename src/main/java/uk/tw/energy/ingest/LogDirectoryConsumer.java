@@ -0,0 +1,250 @@
+package uk.tw.energy.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingService;
+
+/**
+ * Ingests readings appended by a producer to the segment files of a local log directory.
+ *
+ * <p>Segments are the {@code .log} files of the directory, consumed in name order, and a producer only ever appends
+ * to the last one. Each line is a record {@code smartMeterId,time,reading}, with the time in ISO-8601. Records are
+ * read in batches of up to {@code batchBytes}, grouped per smart meter and stored through the ingestion pipeline, a
+ * call per meter and batch. Only then is the position after the batch committed to the {@value #OFFSET_FILE} file of
+ * the directory, replacing it atomically, so a restarted consumer carries on from the last stored batch and a batch
+ * interrupted before its commit is ingested again.
+ *
+ * <p>A poll consumes at most {@code maxBatchesPerPoll} batches, so a backlog is worked off over several polls and the
+ * consumer never holds a scheduler thread for long. A line the producer is still writing is left for the next batch.
+ * Malformed records, and the readings of a meter the store refuses, are skipped and counted rather than holding the log
+ * up.
+ */
+public class LogDirectoryConsumer {
+    public static final String OFFSET_FILE = "consumer.offset";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogDirectoryConsumer.class);
+
+    private final MeterReadingService meterReadingService;
+    private final Path directory;
+    private final ByteBuffer buffer;
+    private final int maxBatchesPerPoll;
+    private final Counter storedRecords;
+    private final Counter malformedRecords;
+    private final Counter rejectedRecords;
+    private final Counter committedBatches;
+    private Offset committed;
+
+    /**
+     * Constructs a new LogDirectoryConsumer, resuming from the committed offset if there is one.
+     *
+     * @param meterReadingService The service readings are stored with
+     * @param directory The log directory
+     * @param batchBytes The most bytes of records read per batch, longer than any record
+     * @param maxBatchesPerPoll The most batches consumed by one poll
+     * @param meterRegistry The registry the ingestion metrics are published to
+     * @throws IOException if the committed offset can't be read
+     */
+    public LogDirectoryConsumer(
+            MeterReadingService meterReadingService,
+            Path directory,
+            int batchBytes,
+            int maxBatchesPerPoll,
+            MeterRegistry meterRegistry)
+            throws IOException {
+        this.meterReadingService = meterReadingService;
+        this.directory = directory;
+        this.buffer = ByteBuffer.allocate(batchBytes);
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.storedRecords = records(meterRegistry, "stored", "Log records stored");
+        this.malformedRecords = records(meterRegistry, "malformed", "Log records skipped as malformed");
+        this.rejectedRecords = records(meterRegistry, "rejected", "Log records whose readings the store refused");
+        this.committedBatches = Counter.builder("energy.ingest.log.batches")
+                .description("Batches of log records stored and committed")
+                .register(meterRegistry);
+        this.committed = readOffset();
+    }
+
+    /**
+     * Consumes batches until the log has no complete record left or the poll has consumed its most batches.
+     */
+    @Scheduled(fixedDelayString = "${energy.ingest.log.poll-interval-ms:200}")
+    public void poll() {
+        try {
+            for (int batch = 0; batch < maxBatchesPerPoll && consumeBatch() > 0; batch++) {
+                // Keeps going while the log has a backlog.
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to consume the log directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads, stores and commits one batch of records, moving on to the next segment once the current one is consumed.
+     *
+     * @return The number of bytes of the log consumed
+     * @throws IOException if the log or the offset file can't be accessed
+     */
+    public int consumeBatch() throws IOException {
+        List<String> segments = segments();
+        Offset offset = committed;
+        if (offset == null || !segments.contains(offset.segment())) {
+            // Starts from the first segment, or the one after a committed segment that has since been deleted.
+            String from = offset == null ? "" : offset.segment();
+            Optional<String> first = segments.stream().filter(segment -> segment.compareTo(from) > 0).findFirst();
+            if (first.isEmpty()) {
+                return 0;
+            }
+            offset = new Offset(first.get(), 0);
+        }
+
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(directory.resolve(offset.segment()), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer, offset.position() + buffer.position()) > 0) {
+                // Fills the buffer from the committed position.
+            }
+        }
+        int consumed = lastLineEnd(buffer.array(), buffer.position());
+        int nextSegment = segments.indexOf(offset.segment()) + 1;
+        boolean sealed = nextSegment < segments.size();
+        if (consumed == 0 && buffer.position() > 0 && (sealed || !buffer.hasRemaining())) {
+            // A record without a line end in a segment that won't grow, or longer than a batch.
+            consumed = buffer.position();
+            malformedRecords.increment();
+        }
+
+        storeRecords(buffer.array(), consumed);
+        if (consumed < buffer.position() || !sealed || buffer.position() == buffer.capacity()) {
+            commit(new Offset(offset.segment(), offset.position() + consumed));
+        } else {
+            commit(new Offset(segments.get(nextSegment), 0));
+            // Counts the move to the next segment as progress, even from an empty segment.
+            return Math.max(consumed, 1);
+        }
+        return consumed;
+    }
+
+    /**
+     * Stores the complete records among the given bytes, a call per smart meter.
+     */
+    private void storeRecords(byte[] bytes, int length) {
+        Map<String, List<ElectricityReading>> readingsByMeter = new LinkedHashMap<>();
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '\n') {
+                parseRecord(bytes, lineStart, i, readingsByMeter);
+                lineStart = i + 1;
+            }
+        }
+        readingsByMeter.forEach((smartMeterId, readings) -> {
+            try {
+                meterReadingService.storeReadings(smartMeterId, readings);
+                storedRecords.increment(readings.size());
+            } catch (RuntimeException e) {
+                rejectedRecords.increment(readings.size());
+                LOGGER.warn("Skipped {} log records of {}: {}", readings.size(), smartMeterId, e.getMessage());
+            }
+        });
+    }
+
+    private void parseRecord(byte[] bytes, int start, int end, Map<String, List<ElectricityReading>> readingsByMeter) {
+        if (end > start && bytes[end - 1] == '\r') {
+            end--;
+        }
+        if (end == start) {
+            return;
+        }
+        String[] fields = new String(bytes, start, end - start, StandardCharsets.UTF_8).split(",", -1);
+        try {
+            if (fields.length != 3 || fields[0].isEmpty()) {
+                throw new IllegalArgumentException("Expected smartMeterId,time,reading");
+            }
+            ElectricityReading reading = new ElectricityReading(Instant.parse(fields[1]), new BigDecimal(fields[2]));
+            readingsByMeter
+                    .computeIfAbsent(fields[0], smartMeterId -> new ArrayList<>())
+                    .add(reading);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            malformedRecords.increment();
+        }
+    }
+
+    private void commit(Offset offset) throws IOException {
+        if (offset.equals(committed)) {
+            return;
+        }
+        Path partial = directory.resolve(OFFSET_FILE + ".partial");
+        Files.writeString(partial, offset.segment() + " " + offset.position() + "\n");
+        Files.move(partial, directory.resolve(OFFSET_FILE), StandardCopyOption.ATOMIC_MOVE);
+        committed = offset;
+        committedBatches.increment();
+    }
+
+    private Offset readOffset() throws IOException {
+        Path offsetFile = directory.resolve(OFFSET_FILE);
+        if (!Files.exists(offsetFile)) {
+            return null;
+        }
+        String[] fields = Files.readString(offsetFile).trim().split(" ");
+        try {
+            return new Offset(fields[0], Long.parseLong(fields[1]));
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IOException("Malformed offset file " + offsetFile, e);
+        }
+    }
+
+    private List<String> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * @return The length of the complete lines at the start of the bytes
+     */
+    private static int lastLineEnd(byte[] bytes, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static Counter records(MeterRegistry meterRegistry, String outcome, String description) {
+        return Counter.builder("energy.ingest.log.records")
+                .tag("outcome", outcome)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A position in the log.
+     *
+     * @param segment The name of the segment file
+     * @param position The number of bytes of the segment consumed
+     */
+    private record Offset(String segment, long position) {}
+}
@@ -0,0 +1,48 @@
+package uk.tw.energy.ingest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.tw.energy.service.MeterReadingService;
+
+/**
+ * Configuration class for ingesting readings from a local log directory.
+ * Set {@code energy.ingest.log.enabled} to {@code true} to consume the segments a producer appends to
+ * {@code energy.ingest.log.directory}, alongside the readings posted to the API.
+ */
+@Configuration
+@ConditionalOnProperty(name = "energy.ingest.log.enabled", havingValue = "true")
+public class LogIngestConfiguration {
+
+    /**
+     * Creates the consumer of the log directory, creating the directory if needed.
+     *
+     * @param meterReadingService The service readings are stored with
+     * @param directory The log directory
+     * @param batchBytes The most bytes of records read per batch
+     * @param maxBatchesPerPoll The most batches consumed by one poll
+     * @param meterRegistry The registry the ingestion metrics are published to
+     * @return A LogDirectoryConsumer
+     * @throws IOException if the directory or its committed offset can't be accessed
+     */
+    @Bean
+    public LogDirectoryConsumer logDirectoryConsumer(
+            MeterReadingService meterReadingService,
+            @Value("${energy.ingest.log.directory:ingest}") String directory,
+            @Value("${energy.ingest.log.batch-bytes:4194304}") int batchBytes,
+            @Value("${energy.ingest.log.max-batches-per-poll:16}") int maxBatchesPerPoll,
+            MeterRegistry meterRegistry)
+            throws IOException {
+        if (batchBytes < 1 || maxBatchesPerPoll < 1) {
+            throw new IllegalArgumentException("Batch bytes and batches per poll must be positive");
+        }
+        Path logDirectory = Files.createDirectories(Path.of(directory));
+        return new LogDirectoryConsumer(
+                meterReadingService, logDirectory, batchBytes, maxBatchesPerPoll, meterRegistry);
+    }
+}
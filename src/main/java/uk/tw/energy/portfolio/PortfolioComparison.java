@@ -0,0 +1,19 @@
+package uk.tw.energy.portfolio;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cost of the consumption of every smart meter of a portfolio under each price plan.
+ *
+ * @param accountId The ID of the account owning the portfolio
+ * @param pricePlanComparisons The summed cost of the portfolio's readings for each price plan
+ * @param smartMeterCount The number of smart meters in the portfolio
+ * @param smartMetersWithoutReadings The smart meters that had no readings and are left out of the costs
+ */
+public record PortfolioComparison(
+        String accountId,
+        Map<String, BigDecimal> pricePlanComparisons,
+        int smartMeterCount,
+        List<String> smartMetersWithoutReadings) {}
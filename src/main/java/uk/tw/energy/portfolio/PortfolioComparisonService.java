@@ -0,0 +1,109 @@
+package uk.tw.energy.portfolio;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.Portfolio;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.PricePlanService;
+
+/**
+ * Compares the price plans for every smart meter of a portfolio at once.
+ *
+ * <p>Each smart meter is costed as a separate task on a bounded executor, so a portfolio takes about as long as its
+ * slowest meter rather than the sum of all of them. The per-meter costs are summed once every task has finished. If
+ * the executor's queue is full, or the meters are not all costed within the timeout, the comparison fails instead of
+ * queueing more work behind an overloaded service.
+ */
+@Service
+public class PortfolioComparisonService {
+    private final AccountService accountService;
+    private final PricePlanService pricePlanService;
+    private final Executor executor;
+    private final Duration timeout;
+
+    /**
+     * Constructs a new PortfolioComparisonService.
+     *
+     * @param accountService The service holding the portfolios
+     * @param pricePlanService The service costing a single smart meter
+     * @param executor The bounded executor the smart meters are costed on
+     * @param timeout How long to wait for every smart meter of a portfolio to be costed
+     */
+    public PortfolioComparisonService(
+            AccountService accountService,
+            PricePlanService pricePlanService,
+            @Qualifier(PortfolioConfiguration.EXECUTOR_BEAN_NAME) Executor executor,
+            @Value("${energy.portfolio.timeout:PT10S}") Duration timeout) {
+        this.accountService = accountService;
+        this.pricePlanService = pricePlanService;
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Calculates the cost of a portfolio's consumption for each price plan.
+     *
+     * @param accountId The ID of the account owning the portfolio
+     * @return A future completing with the comparison, or with empty if the account has no portfolio. It completes
+     *     exceptionally with a {@link RejectedExecutionException} if the executor is saturated, or with a
+     *     {@link java.util.concurrent.TimeoutException} if the smart meters are not costed in time.
+     */
+    public CompletableFuture<Optional<PortfolioComparison>> compareAllPricePlans(String accountId) {
+        Optional<Portfolio> portfolio = accountService.getPortfolio(accountId);
+        if (!portfolio.isPresent()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        List<String> smartMeterIds = portfolio.get().smartMeterIds();
+        List<CompletableFuture<Optional<Map<String, BigDecimal>>>> meterCosts = new ArrayList<>(smartMeterIds.size());
+        try {
+            for (String smartMeterId : smartMeterIds) {
+                meterCosts.add(CompletableFuture.supplyAsync(
+                        () -> pricePlanService.getConsumptionCostOfElectricityReadingsForEachPricePlan(smartMeterId),
+                        executor));
+            }
+        } catch (RejectedExecutionException e) {
+            meterCosts.forEach(meterCost -> meterCost.cancel(false));
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return CompletableFuture.allOf(meterCosts.toArray(CompletableFuture[]::new))
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        meterCosts.forEach(meterCost -> meterCost.cancel(false));
+                    }
+                })
+                .thenApply(ignored -> Optional.of(merge(accountId, smartMeterIds, meterCosts)));
+    }
+
+    private static PortfolioComparison merge(
+            String accountId,
+            List<String> smartMeterIds,
+            List<CompletableFuture<Optional<Map<String, BigDecimal>>>> meterCosts) {
+        Map<String, BigDecimal> pricePlanComparisons = new HashMap<>();
+        List<String> smartMetersWithoutReadings = new ArrayList<>();
+        for (int i = 0; i < smartMeterIds.size(); i++) {
+            Optional<Map<String, BigDecimal>> costs = meterCosts.get(i).join();
+            if (costs.isPresent()) {
+                costs.get().forEach((planName, cost) -> pricePlanComparisons.merge(planName, cost, BigDecimal::add));
+            } else {
+                smartMetersWithoutReadings.add(smartMeterIds.get(i));
+            }
+        }
+        return new PortfolioComparison(
+                accountId, pricePlanComparisons, smartMeterIds.size(), smartMetersWithoutReadings);
+    }
+}
@@ -0,0 +1,46 @@
+package uk.tw.energy.portfolio;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the executor portfolios are costed on.
+ */
+@Configuration
+public class PortfolioConfiguration {
+    public static final String EXECUTOR_BEAN_NAME = "portfolioPricingExecutor";
+
+    /**
+     * Creates a fixed pool of threads with a bounded queue, which rejects tasks once the queue is full.
+     *
+     * @param threads The number of smart meters costed at the same time
+     * @param queueCapacity The number of smart meters that may wait for a thread
+     * @return An ExecutorService for costing smart meters
+     */
+    @Bean(name = EXECUTOR_BEAN_NAME, destroyMethod = "shutdownNow")
+    public ExecutorService portfolioPricingExecutor(
+            @Value("${energy.portfolio.threads:8}") int threads,
+            @Value("${energy.portfolio.queue-capacity:4096}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-pricing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,63 @@
+package uk.tw.energy.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of requests in flight, keeping part of the capacity for read and pricing queries.
+ *
+ * <p>Every request takes a slot for as long as it is served. Reserved endpoint classes may use every slot, the others
+ * only those left after the reservation, so when ingestion floods the service it is shed first and queries are still
+ * served.
+ */
+public class AdmissionController {
+    private final int maxConcurrentRequests;
+    private final int unreservedRequests;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Constructs a new AdmissionController.
+     *
+     * @param maxConcurrentRequests The number of requests served at once
+     * @param reservedForQueries How many of them only read and pricing requests may use
+     */
+    public AdmissionController(int maxConcurrentRequests, int reservedForQueries) {
+        if (maxConcurrentRequests < 1 || reservedForQueries < 0 || reservedForQueries >= maxConcurrentRequests) {
+            throw new IllegalArgumentException("The reserved capacity must be less than the maximum concurrency");
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.unreservedRequests = maxConcurrentRequests - reservedForQueries;
+    }
+
+    /**
+     * Takes a slot for a request if its class still has capacity.
+     *
+     * @param endpointClass The class of the requested endpoint
+     * @return true if the request is admitted and must {@link #release()} its slot, false if it is shed
+     */
+    public boolean tryAdmit(EndpointClass endpointClass) {
+        int limit = endpointClass.isReserved() ? maxConcurrentRequests : unreservedRequests;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of an admitted request.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return The number of requests being served
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,51 @@
+package uk.tw.energy.ratelimit;
+
+/**
+ * Groups of endpoints that are rate limited and admitted together.
+ */
+public enum EndpointClass {
+    /** Storing readings, which may be shed first when the service is overloaded. */
+    INGEST(false),
+    /** Reading stored or quarantined readings, and finding meters. */
+    READ(true),
+    /** Comparing, recommending and forecasting price plans. */
+    PRICING(true),
+    /** Managing the price plan catalogue. */
+    ADMIN(false);
+
+    private final boolean reserved;
+
+    EndpointClass(boolean reserved) {
+        this.reserved = reserved;
+    }
+
+    /**
+     * @return true if the class may use the capacity reserved for queries
+     */
+    public boolean isReserved() {
+        return reserved;
+    }
+
+    /**
+     * Finds the class of a request.
+     *
+     * @param method The HTTP method of the request
+     * @param path The path of the request, without the context path
+     * @return The class of the endpoint, or null if the request is not limited, e.g. for actuator endpoints
+     */
+    public static EndpointClass of(String method, String path) {
+        if (path.startsWith("/readings/")) {
+            return "POST".equals(method) ? INGEST : READ;
+        }
+        if (path.startsWith("/meters/")) {
+            return READ;
+        }
+        if (path.startsWith("/price-plans/")) {
+            return PRICING;
+        }
+        if (path.startsWith("/admin/")) {
+            return ADMIN;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+package uk.tw.energy.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for per-client rate limiting and admission control of the API.
+ * Set {@code energy.rate-limit.enabled} to {@code false} to serve every request.
+ */
+@Configuration
+@ConditionalOnProperty(name = "energy.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfiguration {
+
+    /**
+     * Creates the per-client rate limiter.
+     *
+     * @param ingestRate The sustained rate of readings batches per client
+     * @param ingestBurst The number of readings batches a client can send at once
+     * @param readRate The sustained rate of reading queries per client
+     * @param readBurst The number of reading queries a client can send at once
+     * @param pricingRate The sustained rate of price plan queries per client
+     * @param pricingBurst The number of price plan queries a client can send at once
+     * @param adminRate The sustained rate of price plan catalogue changes per client
+     * @param adminBurst The number of price plan catalogue changes a client can send at once
+     * @param maxBuckets The most token buckets held at once, one per recently active client and endpoint class
+     * @return A RateLimiter with a limit for every endpoint class
+     */
+    @Bean
+    public RateLimiter rateLimiter(
+            @Value("${energy.rate-limit.ingest.rate-per-second:50}") double ingestRate,
+            @Value("${energy.rate-limit.ingest.burst:100}") int ingestBurst,
+            @Value("${energy.rate-limit.read.rate-per-second:200}") double readRate,
+            @Value("${energy.rate-limit.read.burst:400}") int readBurst,
+            @Value("${energy.rate-limit.pricing.rate-per-second:100}") double pricingRate,
+            @Value("${energy.rate-limit.pricing.burst:200}") int pricingBurst,
+            @Value("${energy.rate-limit.admin.rate-per-second:5}") double adminRate,
+            @Value("${energy.rate-limit.admin.burst:10}") int adminBurst,
+            @Value("${energy.rate-limit.max-buckets:100000}") int maxBuckets) {
+        return new RateLimiter(
+                Map.of(
+                        EndpointClass.INGEST, new TokenBucket.Limit(ingestRate, ingestBurst),
+                        EndpointClass.READ, new TokenBucket.Limit(readRate, readBurst),
+                        EndpointClass.PRICING, new TokenBucket.Limit(pricingRate, pricingBurst),
+                        EndpointClass.ADMIN, new TokenBucket.Limit(adminRate, adminBurst)),
+                maxBuckets);
+    }
+
+    /**
+     * Creates the limit on requests in flight.
+     *
+     * @param maxConcurrentRequests The number of requests served at once
+     * @param reservedForQueries How many of them only read and pricing requests may use
+     * @return An AdmissionController
+     */
+    @Bean
+    public AdmissionController admissionController(
+            @Value("${energy.admission.max-concurrent-requests:64}") int maxConcurrentRequests,
+            @Value("${energy.admission.reserved-for-queries:16}") int reservedForQueries) {
+        return new AdmissionController(maxConcurrentRequests, reservedForQueries);
+    }
+
+    /**
+     * Creates the filter applying the rate limiter and the admission controller to every request.
+     *
+     * @param rateLimiter The per-client rate limiter
+     * @param admissionController The limit on requests in flight
+     * @param trustedProxies Comma separated addresses of the proxies whose client ID header is honoured
+     * @param meterRegistry The registry the limiter metrics are published to
+     * @return A RateLimitFilter
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter(
+            RateLimiter rateLimiter,
+            AdmissionController admissionController,
+            @Value("${energy.rate-limit.trusted-proxies:}") String trustedProxies,
+            MeterRegistry meterRegistry) {
+        return new RateLimitFilter(
+                rateLimiter,
+                admissionController,
+                Arrays.stream(trustedProxies.split(","))
+                        .map(String::trim)
+                        .filter(address -> !address.isEmpty())
+                        .collect(Collectors.toUnmodifiableSet()),
+                meterRegistry);
+    }
+}
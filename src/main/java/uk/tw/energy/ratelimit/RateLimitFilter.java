@@ -0,0 +1,151 @@
+package uk.tw.energy.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rate limits and admits every request to the API before it reaches a controller.
+ *
+ * <p>Clients are told apart by their address. The {@value #CLIENT_ID_HEADER} header is only honoured on requests from
+ * a trusted proxy, such as a load balancer naming the client it forwards for, so a client can't escape its rate by
+ * sending a new ID with every request. A client over its rate for an endpoint class gets
+ * {@code 429 Too Many Requests}, and a request shed because the service is at capacity gets
+ * {@code 503 Service Unavailable}, both with a {@code Retry-After} header. An asynchronous request holds its admission
+ * slot until its response is complete, not just until the controller returns.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    static final String RETRY_AFTER_HEADER = "Retry-After";
+    private static final long SHED_RETRY_AFTER_SECONDS = 1;
+
+    private final RateLimiter rateLimiter;
+    private final AdmissionController admissionController;
+    private final Set<String> trustedProxies;
+    private final Map<EndpointClass, Counter> rateLimited = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> shed = new EnumMap<>(EndpointClass.class);
+
+    /**
+     * Constructs a new RateLimitFilter.
+     *
+     * @param rateLimiter The per-client rate limiter
+     * @param admissionController The limit on requests in flight
+     * @param trustedProxies The addresses whose {@value #CLIENT_ID_HEADER} header is honoured
+     * @param meterRegistry The registry the limiter metrics are published to
+     */
+    public RateLimitFilter(
+            RateLimiter rateLimiter,
+            AdmissionController admissionController,
+            Set<String> trustedProxies,
+            MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.admissionController = admissionController;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            rateLimited.put(endpointClass, rejections(meterRegistry, endpointClass, "rate-limited"));
+            shed.put(endpointClass, rejections(meterRegistry, endpointClass, "shed"));
+        }
+        Gauge.builder("energy.rate-limit.buckets", rateLimiter, RateLimiter::getBucketCount)
+                .description("Token buckets of recently active clients")
+                .register(meterRegistry);
+        Gauge.builder("energy.admission.in-flight", admissionController, AdmissionController::getInFlight)
+                .description("Requests being served")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(
+                request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()));
+        if (endpointClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(clientIdOf(request), endpointClass);
+        if (waitNanos > 0) {
+            rateLimited.get(endpointClass).increment();
+            long retryAfterSeconds = divideRoundingUp(waitNanos, TimeUnit.SECONDS.toNanos(1));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded", retryAfterSeconds);
+            return;
+        }
+        if (!admissionController.tryAdmit(endpointClass)) {
+            shed.get(endpointClass).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Server busy", SHED_RETRY_AFTER_SECONDS);
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                admissionController.release();
+            }
+        }
+    }
+
+    /**
+     * Releases the admission slot of an asynchronous request once its response is complete, which is also the case
+     * after a timeout or an error.
+     */
+    private final class ReleaseOnComplete implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            admissionController.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {}
+
+        @Override
+        public void onError(AsyncEvent event) {}
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+
+    private String clientIdOf(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId == null || clientId.isBlank() ? remoteAddress : clientId;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message, long retryAfterSeconds)
+            throws IOException {
+        response.setHeader(RETRY_AFTER_HEADER, Long.toString(retryAfterSeconds));
+        response.sendError(status.value(), message);
+    }
+
+    private static long divideRoundingUp(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, EndpointClass endpointClass, String reason) {
+        return Counter.builder("energy.requests.rejected")
+                .description("Requests rejected before reaching a controller")
+                .tag("endpoint", endpointClass.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
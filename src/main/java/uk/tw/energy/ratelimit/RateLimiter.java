@@ -0,0 +1,97 @@
+package uk.tw.energy.ratelimit;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Rate limits each client separately for each endpoint class, with one token bucket per client and class.
+ *
+ * <p>Buckets are created on a client's first request and dropped again once they have refilled, so idle clients cost
+ * nothing. A request racing with the removal of its bucket may be counted against the dropped bucket, which at worst
+ * lets one extra burst through. At most {@code maxBuckets} buckets are held: while the limiter is full, clients without
+ * a bucket of their own share one bucket per endpoint class, so a flood of new clients can't grow the map, only slow
+ * each other down.
+ */
+public class RateLimiter {
+    // The client of the shared buckets, which no client address or ID is.
+    private static final String OVERFLOW_CLIENT_ID = "";
+
+    private final Map<EndpointClass, TokenBucket.Limit> limits;
+    private final int maxBuckets;
+    private final LongSupplier nanoTime;
+    private final Map<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new RateLimiter.
+     *
+     * @param limits The limit of each endpoint class; classes without a limit are not rate limited
+     * @param maxBuckets The most token buckets held at once
+     */
+    public RateLimiter(Map<EndpointClass, TokenBucket.Limit> limits, int maxBuckets) {
+        this(limits, maxBuckets, System::nanoTime);
+    }
+
+    public RateLimiter(Map<EndpointClass, TokenBucket.Limit> limits, int maxBuckets, LongSupplier nanoTime) {
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("The rate limiter must hold at least one bucket");
+        }
+        this.limits = limits.isEmpty() ? Map.of() : new EnumMap<>(limits);
+        this.maxBuckets = maxBuckets;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Takes a token for a request.
+     *
+     * @param clientId The client sending the request
+     * @param endpointClass The class of the requested endpoint
+     * @return 0 if the request is allowed, otherwise how many nanoseconds the client should wait
+     */
+    public long tryAcquire(String clientId, EndpointClass endpointClass) {
+        TokenBucket.Limit limit = limits.get(endpointClass);
+        if (limit == null) {
+            return 0;
+        }
+        long now = nanoTime.getAsLong();
+        BucketKey bucketKey = new BucketKey(clientId, endpointClass);
+        if (buckets.size() >= maxBuckets && !buckets.containsKey(bucketKey)) {
+            bucketKey = new BucketKey(OVERFLOW_CLIENT_ID, endpointClass);
+        }
+        return buckets.computeIfAbsent(bucketKey, key -> new TokenBucket(limit, now)).tryAcquire(now);
+    }
+
+    /**
+     * @param clientId The client
+     * @param endpointClass The endpoint class
+     * @return The number of requests the client can send to the class right now
+     */
+    public long availableTokens(String clientId, EndpointClass endpointClass) {
+        TokenBucket.Limit limit = limits.get(endpointClass);
+        if (limit == null) {
+            return Long.MAX_VALUE;
+        }
+        TokenBucket bucket = buckets.get(new BucketKey(clientId, endpointClass));
+        return bucket == null ? limit.burst() : bucket.availableTokens(nanoTime.getAsLong());
+    }
+
+    /**
+     * @return The number of token buckets held, one per recently active client and endpoint class
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Drops the buckets that have refilled.
+     */
+    @Scheduled(fixedDelayString = "${energy.rate-limit.eviction-interval-ms:60000}")
+    public void evictFullBuckets() {
+        long now = nanoTime.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private record BucketKey(String clientId, EndpointClass endpointClass) {}
+}
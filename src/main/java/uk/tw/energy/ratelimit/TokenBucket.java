@@ -0,0 +1,83 @@
+package uk.tw.energy.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm.
+ *
+ * <p>The whole state is the theoretical arrival time of the next request. A request is allowed if that time is no more
+ * than the burst tolerance ahead of now, and then pushes it one emission interval further, in a single compare and
+ * set. A bucket whose theoretical arrival time has passed is full.
+ */
+public class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalNanos;
+
+    /**
+     * Constructs a new, full, TokenBucket.
+     *
+     * @param limit The rate and burst of the bucket
+     * @param nowNanos The current time, from {@link System#nanoTime()}
+     */
+    public TokenBucket(Limit limit, long nowNanos) {
+        this.emissionIntervalNanos = limit.emissionIntervalNanos();
+        this.burstToleranceNanos = emissionIntervalNanos * (limit.burst() - 1);
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param nowNanos The current time, from {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise how many nanoseconds to wait until one is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long theoreticalArrival = theoreticalArrivalNanos.get();
+            long start = theoreticalArrival - nowNanos > 0 ? theoreticalArrival : nowNanos;
+            long wait = start - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(theoreticalArrival, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @param nowNanos The current time, from {@link System#nanoTime()}
+     * @return The number of tokens available
+     */
+    public long availableTokens(long nowNanos) {
+        long backlog = Math.max(0, theoreticalArrivalNanos.get() - nowNanos);
+        return (burstToleranceNanos + emissionIntervalNanos - backlog) / emissionIntervalNanos;
+    }
+
+    /**
+     * @param nowNanos The current time, from {@link System#nanoTime()}
+     * @return true if every token is available, so the bucket can be dropped and created again later
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrivalNanos.get() - nowNanos <= 0;
+    }
+
+    /**
+     * The sustained rate and burst size of a token bucket.
+     *
+     * @param ratePerSecond The number of tokens added per second
+     * @param burst The number of tokens the bucket holds
+     */
+    public record Limit(double ratePerSecond, int burst) {
+        public Limit {
+            if (ratePerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("A rate limit needs a positive rate and burst");
+            }
+        }
+
+        long emissionIntervalNanos() {
+            return Math.max(1, Math.round(1e9 / ratePerSecond));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package uk.tw.energy.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rejects readings sent or imported to a follower, whose data is owned by its primaries.
+ */
+@Component
+@ConditionalOnProperty(name = "energy.replication.role", havingValue = "follower")
+public class FollowerWriteFilter extends OncePerRequestFilter {
+    static final String STORE_READINGS_PATH = "/readings/store";
+    static final String ARCHIVES_PATH = "/admin/archives/";
+    static final String IMPORT_SUFFIX = "/import";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.POST.matches(request.getMethod()) && isWrite(path)) {
+            response.sendError(
+                    HttpServletResponse.SC_CONFLICT, "This node is a read-only follower; send readings to a primary");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean isWrite(String path) {
+        return STORE_READINGS_PATH.equals(path) || (path.startsWith(ARCHIVES_PATH) && path.endsWith(IMPORT_SUFFIX));
+    }
+}
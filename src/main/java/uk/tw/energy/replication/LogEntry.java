@@ -0,0 +1,37 @@
+package uk.tw.energy.replication;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * A change to the readings of one smart meter, as recorded in the replication log.
+ *
+ * @param sequence The position of the entry in the log, starting at 1, or 0 inside a snapshot
+ * @param type Whether the readings are appended to or replace the stored ones, or name the cutoff of a trim
+ * @param smartMeterId The ID of the smart meter
+ * @param electricityReadings The readings carried by the entry
+ */
+public record LogEntry(long sequence, Type type, String smartMeterId, List<ElectricityReading> electricityReadings) {
+
+    /**
+     * How a follower applies a log entry.
+     */
+    public enum Type {
+        /** Append the readings to the smart meter. */
+        APPEND,
+        /** Replace every reading of the smart meter; no readings removes the meter. */
+        RESET,
+        /** Remove the readings of the smart meter taken before the time of the single reading carried. */
+        TRIM
+    }
+
+    /**
+     * @param cutoff The time from which readings are kept
+     * @return The reading a {@link Type#TRIM} entry carries to name its cutoff
+     */
+    public static ElectricityReading trimCutoff(Instant cutoff) {
+        return new ElectricityReading(cutoff, BigDecimal.ZERO);
+    }
+}
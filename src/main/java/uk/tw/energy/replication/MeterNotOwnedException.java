@@ -0,0 +1,15 @@
+package uk.tw.energy.replication;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when readings are sent to a primary that does not own the smart meter.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class MeterNotOwnedException extends RuntimeException {
+
+    public MeterNotOwnedException(String smartMeterId, MeterRange meterRange) {
+        super("Smart meter " + smartMeterId + " is outside the meter range " + meterRange + " of this primary");
+    }
+}
@@ -0,0 +1,53 @@
+package uk.tw.energy.replication;
+
+/**
+ * A contiguous range of the hash partitions smart meters are spread over.
+ *
+ * <p>A smart meter belongs to partition {@code floorMod(smartMeterId.hashCode(), partitions)}. The result of
+ * {@link String#hashCode()} is specified by the language, so every node agrees on the partition of a meter.
+ *
+ * @param firstPartition The first partition in the range
+ * @param lastPartition The last partition in the range, inclusive
+ * @param partitions The total number of partitions
+ */
+public record MeterRange(int firstPartition, int lastPartition, int partitions) {
+    public static final MeterRange ALL = new MeterRange(0, 0, 1);
+
+    public MeterRange {
+        if (partitions < 1 || firstPartition < 0 || firstPartition > lastPartition || lastPartition >= partitions) {
+            throw new IllegalArgumentException("Invalid meter range " + firstPartition + "-" + lastPartition + "/"
+                    + partitions);
+        }
+    }
+
+    /**
+     * Parses a meter range written as {@code first-last/partitions}, for example {@code 0-7/16}.
+     *
+     * @param range The meter range to parse
+     * @return The parsed MeterRange
+     */
+    public static MeterRange parse(String range) {
+        try {
+            String[] rangeAndPartitions = range.trim().split("/");
+            String[] bounds = rangeAndPartitions[0].split("-");
+            return new MeterRange(
+                    Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]), Integer.parseInt(rangeAndPartitions[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Meter range must look like first-last/partitions, got " + range, e);
+        }
+    }
+
+    /**
+     * @param smartMeterId The ID of the smart meter
+     * @return true if the smart meter belongs to a partition in this range
+     */
+    public boolean contains(String smartMeterId) {
+        int partition = Math.floorMod(smartMeterId.hashCode(), partitions);
+        return partition >= firstPartition && partition <= lastPartition;
+    }
+
+    @Override
+    public String toString() {
+        return firstPartition + "-" + lastPartition + "/" + partitions;
+    }
+}
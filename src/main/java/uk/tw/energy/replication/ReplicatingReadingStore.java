@@ -0,0 +1,112 @@
+package uk.tw.energy.replication;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.storage.ReadingChunk;
+import uk.tw.energy.storage.ReadingStore;
+
+/**
+ * Reading store of a primary, recording every change to the meters it owns in the replication log.
+ */
+public class ReplicatingReadingStore implements ReadingStore {
+    private final ReadingStore readingStore;
+    private final ReplicationLog replicationLog;
+    private final MeterRange meterRange;
+
+    /**
+     * Constructs a new ReplicatingReadingStore.
+     *
+     * @param readingStore The store holding the readings
+     * @param replicationLog The log changes are recorded in
+     * @param meterRange The smart meters this primary accepts readings for
+     */
+    public ReplicatingReadingStore(ReadingStore readingStore, ReplicationLog replicationLog, MeterRange meterRange) {
+        this.readingStore = readingStore;
+        this.replicationLog = replicationLog;
+        this.meterRange = meterRange;
+    }
+
+    @Override
+    public Optional<List<ElectricityReading>> getReadings(String smartMeterId) {
+        return readingStore.getReadings(smartMeterId);
+    }
+
+    @Override
+    public boolean readChunk(String smartMeterId, int fromIndex, ReadingChunk chunk) {
+        return readingStore.readChunk(smartMeterId, fromIndex, chunk);
+    }
+
+    @Override
+    public void storeReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        if (!meterRange.contains(smartMeterId)) {
+            throw new MeterNotOwnedException(smartMeterId, meterRange);
+        }
+        replicationLog.record(
+                LogEntry.Type.APPEND,
+                smartMeterId,
+                electricityReadings,
+                () -> readingStore.storeReadings(smartMeterId, electricityReadings));
+    }
+
+    @Override
+    public boolean removeReadings(String smartMeterId) {
+        boolean[] removed = new boolean[1];
+        replicationLog.record(
+                LogEntry.Type.RESET,
+                smartMeterId,
+                List.of(),
+                () -> removed[0] = readingStore.removeReadings(smartMeterId));
+        return removed[0];
+    }
+
+    /**
+     * Records the replacement as a single {@link LogEntry.Type#RESET} entry carrying the new readings.
+     */
+    @Override
+    public boolean replaceReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        if (!electricityReadings.isEmpty() && !meterRange.contains(smartMeterId)) {
+            throw new MeterNotOwnedException(smartMeterId, meterRange);
+        }
+        boolean[] known = new boolean[1];
+        replicationLog.record(
+                LogEntry.Type.RESET,
+                smartMeterId,
+                electricityReadings,
+                () -> known[0] = readingStore.replaceReadings(smartMeterId, electricityReadings));
+        return known[0];
+    }
+
+    /**
+     * Records the removal as a {@link LogEntry.Type#TRIM} entry carrying the cutoff, so followers remove the same
+     * readings without the kept ones being sent again.
+     */
+    @Override
+    public List<ElectricityReading> removeReadingsBefore(String smartMeterId, Instant cutoff) {
+        AtomicReference<List<ElectricityReading>> removed = new AtomicReference<>();
+        replicationLog.record(
+                LogEntry.Type.TRIM,
+                smartMeterId,
+                List.of(LogEntry.trimCutoff(cutoff)),
+                () -> removed.set(readingStore.removeReadingsBefore(smartMeterId, cutoff)));
+        return removed.get();
+    }
+
+    @Override
+    public long getVersion(String smartMeterId) {
+        return readingStore.getVersion(smartMeterId);
+    }
+
+    @Override
+    public long compact(int maxBlockMoves) {
+        return readingStore.compact(maxBlockMoves);
+    }
+
+    @Override
+    public Set<String> getSmartMeterIds() {
+        return readingStore.getSmartMeterIds();
+    }
+}
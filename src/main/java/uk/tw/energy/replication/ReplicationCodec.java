@@ -0,0 +1,128 @@
+package uk.tw.energy.replication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * Binary encoding of the frames streamed from a primary to its followers.
+ *
+ * <p>A frame is a 4 byte payload length followed by the payload: the entry count, then for each entry its sequence,
+ * type, meter ID and readings. A reading is its epoch second, nanosecond adjustment, scale and the two's-complement
+ * bytes of its unscaled value, so {@link BigDecimal} readings round-trip exactly. A frame without entries is a
+ * heartbeat. Payloads are at most {@link #MAX_FRAME_BYTES} long, so senders split their entries across frames by
+ * their {@link #encodedBytes(LogEntry) encoded size}.
+ */
+public final class ReplicationCodec {
+    static final int LENGTH_BYTES = Integer.BYTES;
+    static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+    static final int EMPTY_PAYLOAD_BYTES = Integer.BYTES;
+    private static final int MAX_UNSCALED_BYTES = 255;
+    private static final int ENTRY_HEADER_BYTES = Long.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int READING_HEADER_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES + Byte.BYTES;
+
+    private ReplicationCodec() {}
+
+    /**
+     * Encodes log entries into a frame.
+     *
+     * @param entries The entries to encode, possibly none
+     * @return A buffer holding the frame, ready to be written
+     * @throws IllegalArgumentException if the payload would be longer than {@link #MAX_FRAME_BYTES}
+     */
+    public static ByteBuffer encode(List<LogEntry> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);
+            out.writeInt(entries.size());
+            for (LogEntry entry : entries) {
+                out.writeLong(entry.sequence());
+                out.writeByte(entry.type().ordinal());
+                byte[] smartMeterId = entry.smartMeterId().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(smartMeterId.length);
+                out.write(smartMeterId);
+                out.writeInt(entry.electricityReadings().size());
+                for (ElectricityReading reading : entry.electricityReadings()) {
+                    out.writeLong(reading.time().getEpochSecond());
+                    out.writeInt(reading.time().getNano());
+                    out.writeInt(reading.reading().scale());
+                    byte[] unscaled = reading.reading().unscaledValue().toByteArray();
+                    if (unscaled.length > MAX_UNSCALED_BYTES) {
+                        throw new IllegalArgumentException(
+                                "Reading " + reading.reading() + " is too large to replicate");
+                    }
+                    out.writeByte(unscaled.length);
+                    out.write(unscaled);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+        if (frame.remaining() - LENGTH_BYTES > MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException(
+                    "Frame of " + (frame.remaining() - LENGTH_BYTES) + " bytes is too large to replicate");
+        }
+        frame.putInt(0, frame.remaining() - LENGTH_BYTES);
+        return frame;
+    }
+
+    /**
+     * @param entry A log entry
+     * @return The number of bytes the entry takes in the payload of a frame
+     */
+    public static long encodedBytes(LogEntry entry) {
+        long bytes = ENTRY_HEADER_BYTES + entry.smartMeterId().getBytes(StandardCharsets.UTF_8).length;
+        for (ElectricityReading reading : entry.electricityReadings()) {
+            // The length of BigInteger.toByteArray(), which includes a sign bit.
+            bytes += READING_HEADER_BYTES + reading.reading().unscaledValue().bitLength() / 8 + 1;
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes the payload of a frame, without its length prefix.
+     *
+     * @param payload The payload to decode
+     * @return The log entries in the frame
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    public static List<LogEntry> decode(ByteBuffer payload) {
+        try {
+            int entryCount = payload.getInt();
+            List<LogEntry> entries = new ArrayList<>(Math.min(entryCount, payload.remaining()));
+            for (int i = 0; i < entryCount; i++) {
+                long sequence = payload.getLong();
+                LogEntry.Type type = LogEntry.Type.values()[payload.get()];
+                byte[] smartMeterId = new byte[payload.getInt()];
+                payload.get(smartMeterId);
+                int readingCount = payload.getInt();
+                List<ElectricityReading> readings = new ArrayList<>(Math.min(readingCount, payload.remaining()));
+                for (int j = 0; j < readingCount; j++) {
+                    Instant time = Instant.ofEpochSecond(payload.getLong(), payload.getInt());
+                    int scale = payload.getInt();
+                    byte[] unscaled = new byte[payload.get() & 0xFF];
+                    payload.get(unscaled);
+                    readings.add(new ElectricityReading(time, new BigDecimal(new BigInteger(unscaled), scale)));
+                }
+                entries.add(new LogEntry(
+                        sequence, type, new String(smartMeterId, StandardCharsets.UTF_8), List.copyOf(readings)));
+            }
+            if (payload.hasRemaining()) {
+                throw new IllegalArgumentException(payload.remaining() + " trailing bytes after the last entry");
+            }
+            return entries;
+        } catch (RuntimeException e) {
+            throw e instanceof IllegalArgumentException ? e : new IllegalArgumentException("Malformed frame", e);
+        }
+    }
+}
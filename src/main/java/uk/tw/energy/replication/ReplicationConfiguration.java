@@ -0,0 +1,99 @@
+package uk.tw.energy.replication;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.ReadingStore;
+
+/**
+ * Configuration class for replicating meter readings between nodes.
+ *
+ * <p>Set {@code energy.replication.role} to {@code primary} to accept readings for the smart meters in
+ * {@code energy.replication.meter-range} and stream them to followers on {@code energy.replication.port}, or to
+ * {@code follower} to serve reads from a copy of the primaries listed in {@code energy.replication.primaries}.
+ * Without a role the node stands alone.
+ */
+@Configuration
+public class ReplicationConfiguration {
+    public static final String ROLE_PROPERTY = "energy.replication.role";
+
+    /**
+     * Creates the log recording the changes made on a primary.
+     *
+     * @param capacity The number of entries kept for followers to catch up from
+     * @return A ReplicationLog
+     */
+    @Bean
+    @ConditionalOnProperty(name = ROLE_PROPERTY, havingValue = "primary")
+    public ReplicationLog replicationLog(@Value("${energy.replication.log-capacity:100000}") int capacity) {
+        return new ReplicationLog(capacity);
+    }
+
+    /**
+     * Starts streaming the replication log of a primary to its followers.
+     *
+     * @param replicationLog The log to stream
+     * @param readingStore The store snapshots are taken from
+     * @param meterRange The smart meters this primary owns
+     * @param port The port to listen on, 0 for any free port
+     * @param batchSize The maximum number of entries per frame
+     * @return A started ReplicationServer
+     * @throws IOException if the port cannot be bound
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = ROLE_PROPERTY, havingValue = "primary")
+    public ReplicationServer replicationServer(
+            ReplicationLog replicationLog,
+            ReadingStore readingStore,
+            @Value("${energy.replication.meter-range:0-0/1}") String meterRange,
+            @Value("${energy.replication.port:7070}") int port,
+            @Value("${energy.replication.batch-size:512}") int batchSize)
+            throws IOException {
+        ReplicationServer server =
+                new ReplicationServer(replicationLog, readingStore, MeterRange.parse(meterRange), batchSize);
+        server.start(port);
+        return server;
+    }
+
+    /**
+     * Starts following the primaries of a follower.
+     *
+     * @param meterReadingService The service the replicated readings are stored through
+     * @param primaries Comma separated {@code host:port} addresses of the primaries
+     * @param reconnectDelay How long to wait before reconnecting to a primary
+     * @return A started ReplicationFollower
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = ROLE_PROPERTY, havingValue = "follower")
+    public ReplicationFollower replicationFollower(
+            MeterReadingService meterReadingService,
+            @Value("${energy.replication.primaries}") String primaries,
+            @Value("${energy.replication.reconnect-delay:PT1S}") Duration reconnectDelay) {
+        ReplicationFollower follower =
+                new ReplicationFollower(meterReadingService, parseAddresses(primaries), reconnectDelay);
+        follower.start();
+        return follower;
+    }
+
+    static List<InetSocketAddress> parseAddresses(String addresses) {
+        return Arrays.stream(addresses.split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .map(address -> {
+                    int colon = address.lastIndexOf(':');
+                    if (colon < 1) {
+                        throw new IllegalArgumentException("Primary address must look like host:port, got " + address);
+                    }
+                    return InetSocketAddress.createUnresolved(
+                            address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,209 @@
+package uk.tw.energy.replication;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.tw.energy.service.MeterReadingService;
+
+/**
+ * Keeps a read-only copy of the meter ranges of one or more primaries.
+ *
+ * <p>One thread per primary applies the streamed log entries through the {@link MeterReadingService}, so derived
+ * state such as consumption profiles stays up to date. A lost connection is retried after a delay, resuming from the
+ * last applied entry.
+ *
+ * <p>The follower remembers which smart meters each primary replicated to it. Once a snapshot of a primary has been
+ * applied, the meters of that primary the snapshot no longer holds are removed, so a follower resynchronising with a
+ * restarted primary doesn't keep meters the primary lost. The follower is expected to start without readings of its
+ * own, as only replicated meters are ever removed.
+ *
+ * <p>A snapshot takes the readings of each meter at a sequence of its own, after the sequence the log is tailed from.
+ * The follower keeps these sequences until the next snapshot and skips the changes to a meter up to its sequence, as
+ * the snapshot already holds them.
+ */
+public class ReplicationFollower implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationFollower.class);
+    private static final int READ_TIMEOUT_HEARTBEATS = 5;
+
+    private final MeterReadingService meterReadingService;
+    private final List<InetSocketAddress> primaries;
+    private final Duration reconnectDelay;
+    private final Map<InetSocketAddress, Long> logIds = new ConcurrentHashMap<>();
+    private final Map<InetSocketAddress, Long> lastAppliedSequences = new ConcurrentHashMap<>();
+    private final Map<InetSocketAddress, Set<String>> replicatedMeters = new ConcurrentHashMap<>();
+    private final Map<InetSocketAddress, Map<String, Long>> snapshotSequences = new ConcurrentHashMap<>();
+    private final Map<InetSocketAddress, SocketChannel> connections = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new ReplicationFollower.
+     *
+     * @param meterReadingService The service the replicated readings are stored through
+     * @param primaries The addresses of the primaries to follow
+     * @param reconnectDelay How long to wait before reconnecting to a primary
+     */
+    public ReplicationFollower(
+            MeterReadingService meterReadingService, List<InetSocketAddress> primaries, Duration reconnectDelay) {
+        this.meterReadingService = meterReadingService;
+        this.primaries = List.copyOf(primaries);
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    /**
+     * Starts following every primary.
+     */
+    public void start() {
+        for (InetSocketAddress primary : primaries) {
+            logIds.put(primary, 0L);
+            lastAppliedSequences.put(primary, 0L);
+            replicatedMeters.put(primary, ConcurrentHashMap.newKeySet());
+            snapshotSequences.put(primary, Map.of());
+            Thread follower = new Thread(() -> follow(primary), "replication-follower-" + primary);
+            follower.setDaemon(true);
+            follower.start();
+        }
+    }
+
+    /**
+     * @return The sequence of the last entry applied from each primary
+     */
+    public Map<InetSocketAddress, Long> getLastAppliedSequences() {
+        return Map.copyOf(lastAppliedSequences);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (SocketChannel connection : connections.values()) {
+            connection.close();
+        }
+    }
+
+    private void follow(InetSocketAddress primary) {
+        while (!closed) {
+            try {
+                followOnce(primary);
+            } catch (IOException | RuntimeException e) {
+                if (!closed) {
+                    LOGGER.info("Lost primary {}, reconnecting in {}: {}", primary, reconnectDelay, e.getMessage());
+                }
+            }
+            try {
+                Thread.sleep(reconnectDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void followOnce(InetSocketAddress primary) throws IOException {
+        // Resolve the primary on every attempt, so a primary that moves is found again.
+        InetSocketAddress address = new InetSocketAddress(primary.getHostString(), primary.getPort());
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            connections.put(primary, channel);
+            channel.socket().setSoTimeout((int) (ReplicationServer.HEARTBEAT_MILLIS * READ_TIMEOUT_HEARTBEATS));
+            ByteBuffer handshake = ByteBuffer.allocate(2 * Long.BYTES)
+                    .putLong(0, logIds.get(primary))
+                    .putLong(Long.BYTES, lastAppliedSequences.get(primary));
+            while (handshake.hasRemaining()) {
+                channel.write(handshake);
+            }
+            // The socket adaptor's stream honours the read timeout, so a silent primary is detected.
+            DataInputStream in = new DataInputStream(new BufferedInputStream(channel.socket().getInputStream()));
+            long logId = in.readLong();
+            int snapshotEntries = in.readInt();
+            long snapshotSequence = in.readLong();
+            if (logId != logIds.get(primary)) {
+                // A new log reuses sequences, so everything is resent as a snapshot.
+                logIds.put(primary, logId);
+                lastAppliedSequences.put(primary, 0L);
+            }
+            // The sequence each smart meter of the snapshot was taken at.
+            Map<String, Long> snapshotMeters = snapshotEntries < 0 ? null : new HashMap<>();
+            if (snapshotEntries == 0) {
+                finishSnapshot(primary, snapshotMeters, snapshotSequence);
+                snapshotMeters = null;
+            }
+            while (!closed) {
+                int length = in.readInt();
+                if (length < 0 || length > ReplicationCodec.MAX_FRAME_BYTES) {
+                    throw new IllegalArgumentException("Invalid frame length " + length);
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                for (LogEntry entry : ReplicationCodec.decode(ByteBuffer.wrap(payload))) {
+                    if (snapshotMeters == null) {
+                        Long takenAt = snapshotSequences.get(primary).get(entry.smartMeterId());
+                        if (takenAt == null || entry.sequence() > takenAt) {
+                            apply(primary, entry);
+                        }
+                        if (entry.sequence() > 0) {
+                            lastAppliedSequences.put(primary, entry.sequence());
+                        }
+                    } else {
+                        apply(primary, entry);
+                        snapshotMeters.put(entry.smartMeterId(), entry.sequence());
+                        if (--snapshotEntries == 0) {
+                            finishSnapshot(primary, snapshotMeters, snapshotSequence);
+                            snapshotMeters = null;
+                        }
+                    }
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Primary closed the connection", e);
+        } finally {
+            connections.remove(primary);
+        }
+    }
+
+    private void apply(InetSocketAddress primary, LogEntry entry) {
+        Set<String> meters = replicatedMeters.get(primary);
+        switch (entry.type()) {
+            case APPEND -> {
+                meters.add(entry.smartMeterId());
+                meterReadingService.storeAcceptedReadings(entry.smartMeterId(), entry.electricityReadings());
+            }
+            case RESET -> {
+                if (entry.electricityReadings().isEmpty()) {
+                    meters.remove(entry.smartMeterId());
+                } else {
+                    meters.add(entry.smartMeterId());
+                }
+                meterReadingService.replaceReadings(entry.smartMeterId(), entry.electricityReadings());
+            }
+            case TRIM -> meterReadingService.expireReadings(
+                    entry.smartMeterId(), entry.electricityReadings().get(0).time());
+        }
+    }
+
+    /**
+     * Removes the meters a primary replicated before that its snapshot no longer holds, and resumes after it.
+     */
+    private void finishSnapshot(InetSocketAddress primary, Map<String, Long> snapshotMeters, long snapshotSequence) {
+        Set<String> meters = replicatedMeters.get(primary);
+        for (String smartMeterId : List.copyOf(meters)) {
+            if (!snapshotMeters.containsKey(smartMeterId)) {
+                meters.remove(smartMeterId);
+                meterReadingService.removeReadings(smartMeterId);
+            }
+        }
+        snapshotSequences.put(primary, snapshotMeters);
+        lastAppliedSequences.put(primary, snapshotSequence);
+        LOGGER.info("Applied a snapshot of {} meters from {} at sequence {}", meters.size(), primary, snapshotSequence);
+    }
+}
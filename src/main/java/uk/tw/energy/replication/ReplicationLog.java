@@ -0,0 +1,178 @@
+package uk.tw.energy.replication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.storage.ReadingStore;
+
+/**
+ * Bounded in-memory log of the changes made to the readings of a primary, in the order they were made.
+ *
+ * <p>Writes are recorded under a lock of their smart meter together with the store update they describe, so changes to
+ * the same smart meter are recorded in the order they were applied to the store. A snapshot takes the readings of one
+ * meter at a time under the same lock, so writes never stop for the whole log. Each meter's readings are taken at a
+ * sequence of their own: they hold exactly the meter's changes up to that sequence, and a follower that loads the
+ * snapshot and then tails the log from the sequence the snapshot started at skips the changes of each meter up to the
+ * meter's own sequence, seeing every change once.
+ */
+public class ReplicationLog {
+    static final int SNAPSHOT_READINGS_PER_ENTRY = 4096;
+    private static final int METER_LOCK_STRIPES = 64;
+
+    private final long logId = ThreadLocalRandom.current().nextLong();
+    private final LogEntry[] entries;
+    private final Object[] meterLocks = new Object[METER_LOCK_STRIPES];
+    private long lastSequence;
+
+    /**
+     * Constructs a new ReplicationLog.
+     *
+     * @param capacity The number of entries kept; older entries are dropped and lagging followers resynchronise
+     */
+    public ReplicationLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Replication log capacity must be positive");
+        }
+        this.entries = new LogEntry[capacity];
+        for (int i = 0; i < meterLocks.length; i++) {
+            meterLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Applies a change to the store and records it.
+     *
+     * @param type How followers apply the change
+     * @param smartMeterId The ID of the smart meter
+     * @param electricityReadings The readings carried by the change
+     * @param write The store update the entry describes
+     */
+    public void record(
+            LogEntry.Type type, String smartMeterId, List<ElectricityReading> electricityReadings, Runnable write) {
+        List<ElectricityReading> readings = List.copyOf(electricityReadings);
+        synchronized (meterLockOf(smartMeterId)) {
+            write.run();
+            synchronized (entries) {
+                lastSequence++;
+                entries[slotOf(lastSequence)] = new LogEntry(lastSequence, type, smartMeterId, readings);
+                entries.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Takes a copy of the readings of every smart meter in a range, one meter at a time.
+     *
+     * @param readingStore The store the log records the changes of
+     * @param meterRange The smart meters to include
+     * @return A snapshot whose entries reset each meter to its readings. A long history is split into a reset followed
+     *     by appends, so no entry holds more than {@value #SNAPSHOT_READINGS_PER_ENTRY} readings. The entries of a
+     *     meter carry the sequence its readings were taken at, and followers skip the meter's changes up to it when
+     *     they tail the log from the snapshot sequence.
+     */
+    public Snapshot snapshot(ReadingStore readingStore, MeterRange meterRange) {
+        return snapshot(readingStore, meterRange, SNAPSHOT_READINGS_PER_ENTRY);
+    }
+
+    Snapshot snapshot(ReadingStore readingStore, MeterRange meterRange, int readingsPerEntry) {
+        // Meters first stored after this sequence and missing from the listing are sent by tailing the log.
+        long sequence = getLastSequence();
+        List<LogEntry> resets = new ArrayList<>();
+        for (String smartMeterId : readingStore.getSmartMeterIds()) {
+            if (!meterRange.contains(smartMeterId)) {
+                continue;
+            }
+            List<ElectricityReading> readings;
+            long meterSequence;
+            synchronized (meterLockOf(smartMeterId)) {
+                meterSequence = getLastSequence();
+                readings = readingStore.getReadings(smartMeterId).orElse(null);
+            }
+            if (readings != null) {
+                int end = Math.min(readingsPerEntry, readings.size());
+                resets.add(new LogEntry(meterSequence, LogEntry.Type.RESET, smartMeterId, readings.subList(0, end)));
+                for (int from = end; from < readings.size(); from = end) {
+                    end = Math.min(from + readingsPerEntry, readings.size());
+                    resets.add(new LogEntry(
+                            meterSequence, LogEntry.Type.APPEND, smartMeterId, readings.subList(from, end)));
+                }
+            }
+        }
+        return new Snapshot(sequence, resets);
+    }
+
+    /**
+     * @param sequence The sequence of the last entry a follower applied
+     * @return true if every entry after the sequence is still in the log
+     */
+    public boolean canResumeFrom(long sequence) {
+        synchronized (entries) {
+            return sequence >= lastSequence - entries.length && sequence <= lastSequence;
+        }
+    }
+
+    /**
+     * Returns the entries after a sequence, waiting for one to be recorded if there are none yet.
+     *
+     * @param sequence The sequence of the last entry the caller has seen
+     * @param maxEntries The maximum number of entries to return
+     * @param timeoutMillis How long to wait for a new entry
+     * @return The entries after the sequence in log order, or an empty list if none was recorded in time
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalStateException if entries after the sequence have already been dropped
+     */
+    public List<LogEntry> awaitEntriesAfter(long sequence, int maxEntries, long timeoutMillis)
+            throws InterruptedException {
+        synchronized (entries) {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            long remaining = timeoutMillis;
+            while (lastSequence <= sequence && remaining > 0) {
+                entries.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            if (!canResumeFrom(sequence)) {
+                throw new IllegalStateException("Entries after sequence " + sequence + " are no longer retained");
+            }
+            int count = (int) Math.min(maxEntries, lastSequence - sequence);
+            List<LogEntry> batch = new ArrayList<>(count);
+            for (long next = sequence + 1; next <= sequence + count; next++) {
+                batch.add(entries[slotOf(next)]);
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * @return A random ID telling this log apart from the logs of earlier runs, whose sequences it reuses
+     */
+    public long getLogId() {
+        return logId;
+    }
+
+    /**
+     * @return The sequence of the last recorded entry, or 0 if nothing was recorded
+     */
+    public long getLastSequence() {
+        synchronized (entries) {
+            return lastSequence;
+        }
+    }
+
+    private Object meterLockOf(String smartMeterId) {
+        return meterLocks[Math.floorMod(smartMeterId.hashCode(), METER_LOCK_STRIPES)];
+    }
+
+    private int slotOf(long sequence) {
+        return (int) Math.floorMod(sequence, (long) entries.length);
+    }
+
+    /**
+     * A copy of the readings of a meter range.
+     *
+     * @param sequence The sequence of the last change recorded when the snapshot started, which followers tail from
+     * @param entries A reset entry per smart meter, each followed by the appends of the rest of its readings, all
+     *     carrying the sequence the meter's readings were taken at
+     */
+    public record Snapshot(long sequence, List<LogEntry> entries) {}
+}
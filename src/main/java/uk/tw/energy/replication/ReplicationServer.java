@@ -0,0 +1,200 @@
+package uk.tw.energy.replication;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.tw.energy.storage.ReadingStore;
+
+/**
+ * Streams the replication log of a primary to its followers over TCP.
+ *
+ * <p>A follower opens a connection and sends the ID of the log it last followed and the sequence of the last entry it
+ * applied, and the server answers with the ID of its log, the number of snapshot entries that follow and the sequence
+ * of the snapshot. If it is the same log and the log still holds every entry after that sequence the stream resumes
+ * from there, with -1 snapshot entries, otherwise the follower first receives a snapshot of the meter range. The
+ * server then sends batches of entries as they are recorded, and an empty heartbeat frame when the log is idle.
+ * Entries are split across frames by count and by encoded size, so a large snapshot or batch never makes a frame the
+ * follower would refuse. Each follower is served by its own thread, so a slow follower never holds up ingestion.
+ */
+public class ReplicationServer implements Closeable {
+    static final long HEARTBEAT_MILLIS = 1_000;
+    static final int REPLY_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationServer.class);
+
+    private final ReplicationLog replicationLog;
+    private final ReadingStore readingStore;
+    private final MeterRange meterRange;
+    private final int batchSize;
+    private final long maxFrameBytes;
+    private final Set<SocketChannel> followers = ConcurrentHashMap.newKeySet();
+    private ServerSocketChannel serverChannel;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new ReplicationServer.
+     *
+     * @param replicationLog The log to stream
+     * @param readingStore The store snapshots are taken from
+     * @param meterRange The smart meters this primary owns
+     * @param batchSize The maximum number of entries per frame
+     */
+    public ReplicationServer(
+            ReplicationLog replicationLog, ReadingStore readingStore, MeterRange meterRange, int batchSize) {
+        this(replicationLog, readingStore, meterRange, batchSize, ReplicationCodec.MAX_FRAME_BYTES);
+    }
+
+    ReplicationServer(
+            ReplicationLog replicationLog,
+            ReadingStore readingStore,
+            MeterRange meterRange,
+            int batchSize,
+            long maxFrameBytes) {
+        this.replicationLog = replicationLog;
+        this.readingStore = readingStore;
+        this.meterRange = meterRange;
+        this.batchSize = batchSize;
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * Starts accepting followers.
+     *
+     * @param port The port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void start(int port) throws IOException {
+        serverChannel = ServerSocketChannel.open()
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .bind(new InetSocketAddress(port));
+        Thread acceptor = new Thread(this::acceptFollowers, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOGGER.info("Replicating meter range {} on port {}", meterRange, getPort());
+    }
+
+    /**
+     * @return The port the server listens on
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return The number of followers currently connected
+     */
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (serverChannel != null) {
+            serverChannel.close();
+        }
+        for (SocketChannel follower : followers) {
+            follower.close();
+        }
+    }
+
+    private void acceptFollowers() {
+        while (!closed) {
+            try {
+                SocketChannel follower = serverChannel.accept();
+                Thread sender = new Thread(() -> serve(follower), "replication-sender-" + follower.getRemoteAddress());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                LOGGER.warn("Failed to accept a follower", e);
+            }
+        }
+    }
+
+    private void serve(SocketChannel follower) {
+        followers.add(follower);
+        try (follower) {
+            ByteBuffer handshake = ByteBuffer.allocate(2 * Long.BYTES);
+            while (handshake.hasRemaining()) {
+                if (follower.read(handshake) < 0) {
+                    return;
+                }
+            }
+            long position = handshake.getLong(Long.BYTES);
+            ReplicationLog.Snapshot snapshot = handshake.getLong(0) != replicationLog.getLogId()
+                            || position == 0
+                            || !replicationLog.canResumeFrom(position)
+                    ? replicationLog.snapshot(readingStore, meterRange)
+                    : null;
+            ByteBuffer reply = ByteBuffer.allocate(REPLY_BYTES)
+                    .putLong(replicationLog.getLogId())
+                    .putInt(snapshot == null ? -1 : snapshot.entries().size())
+                    .putLong(snapshot == null ? position : snapshot.sequence())
+                    .flip();
+            while (reply.hasRemaining()) {
+                follower.write(reply);
+            }
+            if (snapshot != null) {
+                position = sendSnapshot(follower, snapshot);
+            }
+            while (!closed) {
+                List<LogEntry> entries = replicationLog.awaitEntriesAfter(position, batchSize, HEARTBEAT_MILLIS);
+                send(follower, entries);
+                if (!entries.isEmpty()) {
+                    position = entries.get(entries.size() - 1).sequence();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            if (!closed) {
+                LOGGER.info("Dropped follower: {}", e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(follower);
+        }
+    }
+
+    private long sendSnapshot(SocketChannel follower, ReplicationLog.Snapshot snapshot) throws IOException {
+        if (!snapshot.entries().isEmpty()) {
+            send(follower, snapshot.entries());
+        }
+        LOGGER.info("Sent a snapshot of {} entries at sequence {}", snapshot.entries().size(), snapshot.sequence());
+        return snapshot.sequence();
+    }
+
+    /**
+     * Sends entries in as many frames as their count and size take, or a heartbeat if there are none.
+     */
+    private void send(SocketChannel follower, List<LogEntry> entries) throws IOException {
+        int from = 0;
+        do {
+            int to = from;
+            long payloadBytes = ReplicationCodec.EMPTY_PAYLOAD_BYTES;
+            while (to < entries.size() && to - from < batchSize) {
+                long entryBytes = ReplicationCodec.encodedBytes(entries.get(to));
+                if (to > from && payloadBytes + entryBytes > maxFrameBytes) {
+                    break;
+                }
+                payloadBytes += entryBytes;
+                to++;
+            }
+            ByteBuffer frame = ReplicationCodec.encode(entries.subList(from, to));
+            while (frame.hasRemaining()) {
+                follower.write(frame);
+            }
+            from = to;
+        } while (from < entries.size());
+    }
+}
@@ -0,0 +1,16 @@
+package uk.tw.energy.retention;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * What is left of one UTC day of a smart meter's readings once retention has removed them.
+ *
+ * @param date The UTC day
+ * @param readingCount The number of readings taken that day
+ * @param minReading The lowest reading of the day in kW
+ * @param maxReading The highest reading of the day in kW
+ * @param kwh The energy consumed over the intervals ending that day
+ */
+public record DailySummary(
+        LocalDate date, long readingCount, BigDecimal minReading, BigDecimal maxReading, BigDecimal kwh) {}
@@ -0,0 +1,121 @@
+package uk.tw.energy.retention;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.EnergyIntegrator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.MeterReadingsListener;
+
+/**
+ * Folds the readings removed by retention into one {@link DailySummary} per smart meter and UTC day.
+ *
+ * <p>Each meter integrates its expired readings with an {@link EnergyIntegrator}, which remembers the last folded
+ * reading, so the interval between one expiry and the next is counted once the later reading expires too. Summaries
+ * are dropped with their meter.
+ */
+@Service
+public class ReadingSummaryService implements MeterReadingsListener {
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int KWH_SCALE = 4;
+
+    private final Map<String, MeterSummaries> summaries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new ReadingSummaryService.
+     *
+     * @param meterReadingService The service whose expired readings are summarised
+     */
+    public ReadingSummaryService(MeterReadingService meterReadingService) {
+        meterReadingService.addListener(this);
+    }
+
+    @Override
+    public void onReadingsStored(String smartMeterId, List<ElectricityReading> electricityReadings) {}
+
+    @Override
+    public void onReadingsRemoved(String smartMeterId) {
+        summaries.remove(smartMeterId);
+    }
+
+    @Override
+    public void onReadingsExpired(String smartMeterId, List<ElectricityReading> expiredReadings) {
+        List<ElectricityReading> byTime = new ArrayList<>(expiredReadings);
+        byTime.sort(Comparator.comparing(ElectricityReading::time));
+        MeterSummaries meter = summaries.computeIfAbsent(smartMeterId, id -> new MeterSummaries());
+        synchronized (meter) {
+            for (ElectricityReading reading : byTime) {
+                meter.fold(reading);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the summaries of the expired readings of a smart meter.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return Optional containing the summaries in date order, or empty if none of the meter's readings expired
+     */
+    public Optional<List<DailySummary>> getDailySummaries(String smartMeterId) {
+        MeterSummaries meter = summaries.get(smartMeterId);
+        if (meter == null) {
+            return Optional.empty();
+        }
+        synchronized (meter) {
+            List<DailySummary> dailySummaries = new ArrayList<>(meter.days.size());
+            meter.days.forEach((epochDay, day) -> dailySummaries.add(new DailySummary(
+                    LocalDate.ofEpochDay(epochDay),
+                    day.readingCount,
+                    day.minReading,
+                    day.maxReading,
+                    BigDecimal.valueOf(day.kwh).setScale(KWH_SCALE, RoundingMode.HALF_UP))));
+            return Optional.of(dailySummaries);
+        }
+    }
+
+    /**
+     * The summaries of one smart meter, guarded by its own monitor.
+     */
+    private static final class MeterSummaries {
+        private final NavigableMap<Long, DayAccumulator> days = new TreeMap<>();
+        private final EnergyIntegrator energy = new EnergyIntegrator();
+
+        private void fold(ElectricityReading reading) {
+            long epochSecond = reading.time().getEpochSecond();
+            DayAccumulator day =
+                    days.computeIfAbsent(Math.floorDiv(epochSecond, SECONDS_PER_DAY), epochDay -> new DayAccumulator());
+            day.add(reading.reading());
+            day.kwh += energy.add(reading);
+        }
+    }
+
+    /**
+     * The running summary of one day.
+     */
+    private static final class DayAccumulator {
+        private long readingCount;
+        private BigDecimal minReading;
+        private BigDecimal maxReading;
+        private double kwh;
+
+        private void add(BigDecimal reading) {
+            readingCount++;
+            if (minReading == null || reading.compareTo(minReading) < 0) {
+                minReading = reading;
+            }
+            if (maxReading == null || reading.compareTo(maxReading) > 0) {
+                maxReading = reading;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package uk.tw.energy.retention;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.tw.energy.service.MeterReadingService;
+
+/**
+ * Configuration class for expiring old readings.
+ * Set {@code energy.retention.enabled} to {@code true} to keep readings for {@code energy.retention.max-age}, or for
+ * the windows listed in {@code energy.retention.meter-max-ages}. Readings are kept forever by default.
+ */
+@Configuration
+@ConditionalOnProperty(name = "energy.retention.enabled", havingValue = "true")
+public class RetentionConfiguration {
+
+    /**
+     * Creates the retention policy.
+     *
+     * @param maxAge How long readings are kept, such as {@code P90D}, or blank to only apply the overrides
+     * @param meterMaxAges Comma separated windows of particular smart meters, such as {@code smart-meter-0=P30D}
+     * @return A RetentionPolicy
+     */
+    @Bean
+    public RetentionPolicy retentionPolicy(
+            @Value("${energy.retention.max-age:}") String maxAge,
+            @Value("${energy.retention.meter-max-ages:}") String meterMaxAges) {
+        return RetentionPolicy.parse(maxAge, meterMaxAges);
+    }
+
+    /**
+     * Creates the background maintenance enforcing the retention policy.
+     *
+     * @param meterReadingService The service holding the readings
+     * @param retentionPolicy How long the readings of each smart meter are kept
+     * @param sliceBudgetMillis The longest a maintenance slice runs for
+     * @param compactionMovesPerSlice The maximum number of storage blocks moved per slice
+     * @param meterRegistry The registry the retention metrics are published to
+     * @return A RetentionService
+     */
+    @Bean
+    public RetentionService retentionService(
+            MeterReadingService meterReadingService,
+            RetentionPolicy retentionPolicy,
+            @Value("${energy.retention.slice-budget-ms:5}") long sliceBudgetMillis,
+            @Value("${energy.retention.compaction-moves-per-slice:256}") int compactionMovesPerSlice,
+            MeterRegistry meterRegistry) {
+        return new RetentionService(
+                meterReadingService,
+                retentionPolicy,
+                Duration.ofMillis(sliceBudgetMillis),
+                compactionMovesPerSlice,
+                meterRegistry,
+                Clock.systemUTC());
+    }
+}
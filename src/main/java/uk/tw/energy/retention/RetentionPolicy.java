@@ -0,0 +1,68 @@
+package uk.tw.energy.retention;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * How long the readings of each smart meter are kept: a window for every meter, overridden for some of them.
+ */
+public class RetentionPolicy {
+    private final Duration defaultMaxAge;
+    private final Map<String, Duration> maxAgeBySmartMeterId;
+
+    /**
+     * Constructs a new RetentionPolicy.
+     *
+     * @param defaultMaxAge How long readings are kept, or null to keep the readings of meters without an override
+     * @param maxAgeBySmartMeterId How long the readings of particular smart meters are kept
+     */
+    public RetentionPolicy(Duration defaultMaxAge, Map<String, Duration> maxAgeBySmartMeterId) {
+        if ((defaultMaxAge != null && !isPositive(defaultMaxAge))
+                || !maxAgeBySmartMeterId.values().stream().allMatch(RetentionPolicy::isPositive)) {
+            throw new IllegalArgumentException("Retention windows must be positive");
+        }
+        this.defaultMaxAge = defaultMaxAge;
+        this.maxAgeBySmartMeterId = Map.copyOf(maxAgeBySmartMeterId);
+    }
+
+    /**
+     * Parses a policy from its properties.
+     *
+     * @param defaultMaxAge The window of every meter, such as {@code P90D}, or blank for none
+     * @param meterMaxAges Comma separated overrides, such as {@code smart-meter-0=P30D,smart-meter-1=P365D}
+     * @return The policy
+     * @throws IllegalArgumentException if a window or an override is malformed
+     */
+    public static RetentionPolicy parse(String defaultMaxAge, String meterMaxAges) {
+        Map<String, Duration> maxAgeBySmartMeterId = new HashMap<>();
+        for (String override : meterMaxAges.split(",")) {
+            if (override.isBlank()) {
+                continue;
+            }
+            int separator = override.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException(
+                        "Retention override '" + override + "' must be <smartMeterId>=<age>");
+            }
+            maxAgeBySmartMeterId.put(
+                    override.substring(0, separator).trim(),
+                    Duration.parse(override.substring(separator + 1).trim()));
+        }
+        return new RetentionPolicy(
+                defaultMaxAge.isBlank() ? null : Duration.parse(defaultMaxAge.trim()), maxAgeBySmartMeterId);
+    }
+
+    /**
+     * @param smartMeterId The ID of the smart meter
+     * @return How long the readings of the meter are kept, or empty if they are kept forever
+     */
+    public Optional<Duration> maxAgeOf(String smartMeterId) {
+        return Optional.ofNullable(maxAgeBySmartMeterId.getOrDefault(smartMeterId, defaultMaxAge));
+    }
+
+    private static boolean isPositive(Duration maxAge) {
+        return !maxAge.isNegative() && !maxAge.isZero();
+    }
+}
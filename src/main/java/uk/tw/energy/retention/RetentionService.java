@@ -0,0 +1,104 @@
+package uk.tw.energy.retention;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Optional;
+import org.springframework.scheduling.annotation.Scheduled;
+import uk.tw.energy.service.MeterReadingService;
+
+/**
+ * Enforces the retention windows of a {@link RetentionPolicy} in the background.
+ *
+ * <p>The work is cut into slices of at most {@code sliceBudget}, run one after the other on the scheduler thread. A
+ * slice expires the readings of as many smart meters as its budget allows, picking up where the previous slice
+ * stopped, then moves at most {@code compactionMovesPerSlice} storage blocks to give the freed memory back. Only the
+ * meter being expired and, for that handful of block moves, the store are held, so requests never wait for a whole
+ * pass. The readings removed are folded into daily summaries by the {@link ReadingSummaryService}.
+ *
+ * <p>Publishes the readings expired, the bytes reclaimed and the duration of every slice as metrics.
+ */
+public class RetentionService {
+    private final MeterReadingService meterReadingService;
+    private final RetentionPolicy retentionPolicy;
+    private final long sliceBudgetNanos;
+    private final int compactionMovesPerSlice;
+    private final Clock clock;
+    private final Counter expiredReadings;
+    private final Counter reclaimedBytes;
+    private final Counter completedPasses;
+    private final Timer sliceDuration;
+    private Iterator<String> pendingMeters;
+
+    /**
+     * Constructs a new RetentionService.
+     *
+     * @param meterReadingService The service holding the readings
+     * @param retentionPolicy How long the readings of each smart meter are kept
+     * @param sliceBudget The longest a slice keeps running once it has started a meter
+     * @param compactionMovesPerSlice The maximum number of storage blocks moved per slice
+     * @param meterRegistry The registry the retention metrics are published to
+     * @param clock The clock the retention windows are measured back from
+     */
+    public RetentionService(
+            MeterReadingService meterReadingService,
+            RetentionPolicy retentionPolicy,
+            Duration sliceBudget,
+            int compactionMovesPerSlice,
+            MeterRegistry meterRegistry,
+            Clock clock) {
+        this.meterReadingService = meterReadingService;
+        this.retentionPolicy = retentionPolicy;
+        this.sliceBudgetNanos = sliceBudget.toNanos();
+        this.compactionMovesPerSlice = compactionMovesPerSlice;
+        this.clock = clock;
+        this.expiredReadings = Counter.builder("energy.retention.readings.expired")
+                .description("Readings removed because they left their retention window")
+                .register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("energy.retention.bytes.reclaimed")
+                .description("Storage memory given back by compaction")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.completedPasses = Counter.builder("energy.retention.passes")
+                .description("Passes over every smart meter completed")
+                .register(meterRegistry);
+        this.sliceDuration = Timer.builder("energy.retention.slice.duration")
+                .description("Time taken by each maintenance slice")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs one maintenance slice. A slice that reaches the last smart meter completes the pass, and the next slice
+     * starts a new one.
+     */
+    @Scheduled(fixedDelayString = "${energy.retention.slice-interval-ms:1000}")
+    public void runSlice() {
+        long start = System.nanoTime();
+        long deadline = start + sliceBudgetNanos;
+        Instant now = clock.instant();
+        if (pendingMeters == null) {
+            pendingMeters = meterReadingService.getSmartMeterIds().iterator();
+        }
+        while (pendingMeters.hasNext()) {
+            String smartMeterId = pendingMeters.next();
+            Optional<Duration> maxAge = retentionPolicy.maxAgeOf(smartMeterId);
+            if (maxAge.isPresent()) {
+                expiredReadings.increment(meterReadingService.expireReadings(smartMeterId, now.minus(maxAge.get())));
+            }
+            // Checked after each meter, so even a tiny budget makes progress.
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+        }
+        if (!pendingMeters.hasNext()) {
+            pendingMeters = null;
+            completedPasses.increment();
+        }
+        reclaimedBytes.increment(meterReadingService.compactStorage(compactionMovesPerSlice));
+        sliceDuration.record(Duration.ofNanos(System.nanoTime() - start));
+    }
+}
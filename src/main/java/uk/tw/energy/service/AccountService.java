@@ -1,14 +1,28 @@
 package uk.tw.energy.service;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.Portfolio;
 
 @Service
 public class AccountService {
     private final Map<String, String> smartMeterToPricePlanAccounts;
+    private final Map<String, Portfolio> portfolios;
 
     public AccountService(Map<String, String> smartMeterToPricePlanAccounts) {
+        this(smartMeterToPricePlanAccounts, List.of());
+    }
+
+    @Autowired
+    public AccountService(Map<String, String> smartMeterToPricePlanAccounts, List<Portfolio> portfolios) {
         this.smartMeterToPricePlanAccounts = smartMeterToPricePlanAccounts;
+        this.portfolios = portfolios.stream().collect(Collectors.toMap(Portfolio::accountId, Function.identity()));
     }
 
     /**
@@ -20,4 +34,21 @@ public class AccountService {
     public String getPricePlanIdForSmartMeterId(String smartMeterId) {
         return smartMeterToPricePlanAccounts.get(smartMeterId);
     }
+
+    /**
+     * @return The price plan ID of every smart meter with an account, by smart meter ID
+     */
+    public Map<String, String> getPricePlanIdsBySmartMeterId() {
+        return Collections.unmodifiableMap(smartMeterToPricePlanAccounts);
+    }
+
+    /**
+     * Retrieves the smart meters owned by an account.
+     *
+     * @param accountId The ID of the account
+     * @return Optional containing the account's portfolio, or empty if the account is not known
+     */
+    public Optional<Portfolio> getPortfolio(String accountId) {
+        return Optional.ofNullable(portfolios.get(accountId));
+    }
 }
@@ -0,0 +1,189 @@
+package uk.tw.energy.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+
+/**
+ * Calculates the cost of the energy consumed between electricity readings.
+ *
+ * <p>Readings are instantaneous power in kW, so the energy between two consecutive readings is the area under the
+ * straight line joining them (trapezoidal rule). Intervals are split at every hour, where the unit price can change,
+ * and each part is charged at the rate {@link PricePlan#getHourlyRates(LocalDate)} gives its hour. All price plans are
+ * costed in a single pass over the readings, which allocates nothing per reading when they are already in time order
+ * and costs one array lookup per plan and part.
+ *
+ * <p>The cost of each part is computed in {@code double} and rounded once to a whole number of
+ * 10<sup>-{@value #ACCUMULATOR_SCALE}</sup> units, and the parts are summed exactly in a {@code long}, so the total
+ * doesn't depend on the order or number of parts. Rounding each part is off by at most half a unit, so even a hundred
+ * thousand parts can't move the total by half of its last kept digit, and a total of up to about 900 million fits
+ * before {@link ArithmeticException} is thrown.
+ */
+@Component
+public class ConsumptionCostCalculator {
+    public static final int COST_SCALE = 4;
+    private static final int ACCUMULATOR_SCALE = 10;
+    private static final double ACCUMULATOR_UNITS = 1e10;
+    private static final int SECONDS_PER_HOUR = 3_600;
+    // Tariff bands and peak time multipliers apply to whole hours, so prices can only change on the hour.
+    private static final long PRICE_PERIOD_SECONDS = 3_600;
+    private static final int PERIODS_PER_DAY = 24;
+
+    private final GapPolicy gapPolicy;
+    private final double maxGapSeconds;
+
+    public ConsumptionCostCalculator() {
+        this(GapPolicy.INTEGRATE, Duration.ofHours(1));
+    }
+
+    /**
+     * Constructs a new ConsumptionCostCalculator.
+     *
+     * @param gapPolicy How to cost intervals between readings that are further apart than {@code maxGap}
+     * @param maxGap The longest interval between two readings that is integrated as usual
+     */
+    @Autowired
+    public ConsumptionCostCalculator(
+            @Value("${energy.pricing.gap-policy:INTEGRATE}") GapPolicy gapPolicy,
+            @Value("${energy.pricing.max-gap:PT1H}") Duration maxGap) {
+        this.gapPolicy = gapPolicy;
+        this.maxGapSeconds = maxGap.toMillis() / 1000.0;
+    }
+
+    /**
+     * Calculates the cost of the energy consumed between the readings for each price plan.
+     *
+     * @param electricityReadings The electricity readings, in any order
+     * @param pricePlans The price plans to cost the consumption with
+     * @return A map of price plan names to costs, rounded to {@value #COST_SCALE} decimal places
+     */
+    public Map<String, BigDecimal> calculateCosts(List<ElectricityReading> electricityReadings, List<PricePlan> pricePlans) {
+        List<ElectricityReading> readings =
+                isSortedByTime(electricityReadings) ? electricityReadings : sortedByTime(electricityReadings);
+        CostAccumulator accumulator = new CostAccumulator(pricePlans);
+        if (readings.size() > 1) {
+            accumulator.originSecond = readings.get(0).time().getEpochSecond();
+            double previousTime = secondsSinceOrigin(readings.get(0), accumulator.originSecond);
+            double previousKw = readings.get(0).reading().doubleValue();
+            for (int i = 1; i < readings.size(); i++) {
+                ElectricityReading reading = readings.get(i);
+                double time = secondsSinceOrigin(reading, accumulator.originSecond);
+                double kw = reading.reading().doubleValue();
+                double elapsed = time - previousTime;
+                if (elapsed > 0) {
+                    if (elapsed <= maxGapSeconds || gapPolicy == GapPolicy.INTEGRATE) {
+                        accumulator.add(previousTime, previousKw, time, kw);
+                    } else if (gapPolicy == GapPolicy.HOLD) {
+                        accumulator.add(previousTime, previousKw, time, previousKw);
+                    }
+                }
+                previousTime = time;
+                previousKw = kw;
+            }
+        }
+
+        Map<String, BigDecimal> costs = new HashMap<>();
+        for (int plan = 0; plan < pricePlans.size(); plan++) {
+            costs.put(
+                    pricePlans.get(plan).getPlanName(),
+                    BigDecimal.valueOf(accumulator.costs[plan], ACCUMULATOR_SCALE)
+                            .setScale(COST_SCALE, RoundingMode.HALF_UP));
+        }
+        return costs;
+    }
+
+    private static double secondsSinceOrigin(ElectricityReading reading, long originSecond) {
+        return (reading.time().getEpochSecond() - originSecond) + reading.time().getNano() / 1e9;
+    }
+
+    private static boolean isSortedByTime(List<ElectricityReading> readings) {
+        for (int i = 1; i < readings.size(); i++) {
+            if (readings.get(i).time().isBefore(readings.get(i - 1).time())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<ElectricityReading> sortedByTime(List<ElectricityReading> readings) {
+        List<ElectricityReading> sorted = new ArrayList<>(readings);
+        sorted.sort(Comparator.comparing(ElectricityReading::time));
+        return sorted;
+    }
+
+    /**
+     * How to cost an interval between two readings that are further apart than the maximum gap.
+     */
+    public enum GapPolicy {
+        /** Integrate the interval like any other, assuming the load changed linearly. */
+        INTEGRATE,
+        /** Assume the load stayed at the earlier reading until the later one. */
+        HOLD,
+        /** Leave the interval out of the cost. */
+        SKIP
+    }
+
+    /**
+     * Running cost of every price plan in units of 10<sup>-{@value #ACCUMULATOR_SCALE}</sup>, with the hourly rates of
+     * each plan cached for the current day.
+     */
+    private static final class CostAccumulator {
+        private final List<PricePlan> pricePlans;
+        private final long[] costs;
+        private final double[][] hourlyRates;
+        private final long[] rateDays;
+        private long originSecond;
+
+        private CostAccumulator(List<PricePlan> pricePlans) {
+            this.pricePlans = pricePlans;
+            this.costs = new long[pricePlans.size()];
+            this.hourlyRates = new double[pricePlans.size()][];
+            this.rateDays = new long[pricePlans.size()];
+            Arrays.fill(rateDays, Long.MIN_VALUE);
+        }
+
+        /**
+         * Adds the energy of an interval, splitting it at every price period boundary it crosses.
+         * Times are in seconds since {@link #originSecond}.
+         */
+        private void add(double startTime, double startKw, double endTime, double endKw) {
+            double slope = (endKw - startKw) / (endTime - startTime);
+            double segmentStart = startTime;
+            double segmentStartKw = startKw;
+            while (segmentStart < endTime) {
+                long period = Math.floorDiv(originSecond + (long) Math.floor(segmentStart), PRICE_PERIOD_SECONDS);
+                double periodEnd = (period + 1) * PRICE_PERIOD_SECONDS - originSecond;
+                double segmentEnd = Math.min(periodEnd, endTime);
+                double segmentEndKw = startKw + slope * (segmentEnd - startTime);
+                double kwh = (segmentStartKw + segmentEndKw) / 2 * (segmentEnd - segmentStart) / SECONDS_PER_HOUR;
+                for (int plan = 0; plan < costs.length; plan++) {
+                    costs[plan] = Math.addExact(
+                            costs[plan], Math.round(kwh * priceFor(plan, period) * ACCUMULATOR_UNITS));
+                }
+                segmentStart = segmentEnd;
+                segmentStartKw = segmentEndKw;
+            }
+        }
+
+        private double priceFor(int plan, long period) {
+            long day = Math.floorDiv(period, PERIODS_PER_DAY);
+            if (rateDays[plan] != day) {
+                hourlyRates[plan] = pricePlans.get(plan).getHourlyRates(LocalDate.ofEpochDay(day));
+                rateDays[plan] = day;
+            }
+            return hourlyRates[plan][(int) Math.floorMod(period, PERIODS_PER_DAY)];
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package uk.tw.energy.service;
+
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * Integrates the readings of one smart meter into energy as they arrive, with the trapezoidal rule.
+ *
+ * <p>Each reading closes the interval since the latest reading before it, and the energy of that interval is the mean
+ * of the two loads over its length. A reading that is not later than the latest one closes no interval and is
+ * otherwise ignored, as the interval it falls into has already been counted. Callers add the energy to the day of the
+ * reading that closed the interval. Not thread-safe; callers guard each meter's integrator with the meter.
+ */
+public final class EnergyIntegrator {
+    private static final int SECONDS_PER_HOUR = 3_600;
+
+    private double lastSecond = Double.NaN;
+    private double lastKw;
+
+    /**
+     * Adds a reading.
+     *
+     * @param reading The reading, with a time and a value
+     * @return The energy in kWh of the interval the reading closes, or 0 if it is the first reading or not later than
+     *     the latest one
+     */
+    public double add(ElectricityReading reading) {
+        double second = reading.time().getEpochSecond() + reading.time().getNano() / 1e9;
+        double kw = reading.reading().doubleValue();
+        if (!Double.isNaN(lastSecond) && second <= lastSecond) {
+            return 0;
+        }
+        double kwh = Double.isNaN(lastSecond) ? 0 : (lastKw + kw) / 2 * (second - lastSecond) / SECONDS_PER_HOUR;
+        lastSecond = second;
+        lastKw = kw;
+        return kwh;
+    }
+}
@@ -1,18 +1,49 @@
 package uk.tw.energy.service;
 
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.storage.MapReadingStore;
+import uk.tw.energy.storage.ReadingChunk;
+import uk.tw.energy.storage.ReadingStore;
+import uk.tw.energy.validation.ReadingsStage;
 
 @Service
 public class MeterReadingService {
-    private final Map<String, List<ElectricityReading>> meterAssociatedReadings;
+    private final ReadingStore readingStore;
+    private final List<ReadingsStage> stages;
+    private final List<MeterReadingsListener> listeners = new CopyOnWriteArrayList<>();
 
     public MeterReadingService(Map<String, List<ElectricityReading>> meterAssociatedReadings) {
-        this.meterAssociatedReadings = meterAssociatedReadings;
+        this(new MapReadingStore(meterAssociatedReadings));
+    }
+
+    public MeterReadingService(ReadingStore readingStore) {
+        this(readingStore, List.of());
+    }
+
+    /**
+     * Constructs a new MeterReadingService.
+     *
+     * @param readingStore The store holding the readings
+     * @param stages The ingestion pipeline every batch of readings goes through before it is stored. Stages that are
+     *     also {@link MeterReadingsListener}s are registered as listeners, so they can drop what they keep per meter.
+     */
+    @Autowired
+    public MeterReadingService(ReadingStore readingStore, List<ReadingsStage> stages) {
+        this.readingStore = readingStore;
+        this.stages = List.copyOf(stages);
+        for (ReadingsStage stage : this.stages) {
+            if (stage instanceof MeterReadingsListener listener) {
+                listeners.add(listener);
+            }
+        }
     }
 
     /**
@@ -22,20 +53,131 @@ public class MeterReadingService {
      * @return Optional containing a list of electricity readings if found, or empty if not found
      */
     public Optional<List<ElectricityReading>> getReadings(String smartMeterId) {
-        return Optional.ofNullable(meterAssociatedReadings.get(smartMeterId));
+        return readingStore.getReadings(smartMeterId);
+    }
+
+    /**
+     * Copies a run of the readings of a smart meter into a chunk, replacing its contents.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param fromIndex The position of the first reading to copy, in insertion order
+     * @param chunk The chunk the readings are copied into
+     * @return true if the meter is known, even if no reading was copied, false otherwise
+     * @see ReadingStore#readChunk(String, int, ReadingChunk)
+     */
+    public boolean readChunk(String smartMeterId, int fromIndex, ReadingChunk chunk) {
+        return readingStore.readChunk(smartMeterId, fromIndex, chunk);
     }
 
     /**
      * Stores electricity readings for a given smart meter.
      * If the smart meter doesn't exist, it creates a new entry.
+     * The readings go through the ingestion pipeline first, which may hold some of them back.
      *
      * @param smartMeterId The ID of the smart meter
      * @param electricityReadings The list of electricity readings to store
+     * @return The number of readings stored once the pipeline is through with them
+     */
+    public int storeReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        List<ElectricityReading> accepted = electricityReadings;
+        for (ReadingsStage stage : stages) {
+            accepted = stage.process(smartMeterId, accepted);
+        }
+        storeAcceptedReadings(smartMeterId, accepted);
+        return accepted.size();
+    }
+
+    /**
+     * Stores electricity readings that already went through an ingestion pipeline, such as readings replicated from a
+     * primary.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param electricityReadings The list of electricity readings to store
+     */
+    public void storeAcceptedReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        readingStore.storeReadings(smartMeterId, electricityReadings);
+        listeners.forEach(listener -> listener.onReadingsStored(smartMeterId, electricityReadings));
+    }
+
+    /**
+     * Removes a smart meter and all of its readings.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return true if the meter was known, false otherwise
+     */
+    public boolean removeReadings(String smartMeterId) {
+        boolean removed = readingStore.removeReadings(smartMeterId);
+        if (removed) {
+            listeners.forEach(listener -> listener.onReadingsRemoved(smartMeterId));
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the readings of a smart meter taken before a point in time, as retention does.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param cutoff The time from which readings are kept
+     * @return The number of readings removed
+     */
+    public int expireReadings(String smartMeterId, Instant cutoff) {
+        List<ElectricityReading> expired = readingStore.removeReadingsBefore(smartMeterId, cutoff);
+        if (!expired.isEmpty()) {
+            listeners.forEach(listener -> listener.onReadingsExpired(smartMeterId, expired));
+        }
+        return expired.size();
+    }
+
+    /**
+     * Gives storage memory freed by removals back, doing a bounded amount of work.
+     *
+     * @param maxBlockMoves The maximum number of storage blocks to move
+     * @return The number of bytes released
+     * @see ReadingStore#compact(int)
+     */
+    public long compactStorage(int maxBlockMoves) {
+        return readingStore.compact(maxBlockMoves);
+    }
+
+    /**
+     * Replaces all readings of a smart meter in one store operation, so readers never see the meter without its
+     * readings. An empty list removes the meter.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param electricityReadings The readings that replace the stored ones
+     * @see ReadingStore#replaceReadings(String, List)
      */
-    public void storeReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
-        if (!meterAssociatedReadings.containsKey(smartMeterId)) {
-            meterAssociatedReadings.put(smartMeterId, new ArrayList<>());
+    public void replaceReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        boolean known = readingStore.replaceReadings(smartMeterId, electricityReadings);
+        if (known || !electricityReadings.isEmpty()) {
+            listeners.forEach(listener -> listener.onReadingsReplaced(smartMeterId, electricityReadings));
         }
-        meterAssociatedReadings.get(smartMeterId).addAll(electricityReadings);
+    }
+
+    /**
+     * Retrieves a version of the readings of a smart meter, for callers caching or sharing what they compute from them.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return A number that changes once the readings of the meter have changed, and only then
+     * @see ReadingStore#getVersion(String)
+     */
+    public long getReadingsVersion(String smartMeterId) {
+        return readingStore.getVersion(smartMeterId);
+    }
+
+    /**
+     * @return The IDs of every smart meter with stored readings
+     */
+    public Set<String> getSmartMeterIds() {
+        return readingStore.getSmartMeterIds();
+    }
+
+    /**
+     * Registers a listener notified after every batch of readings is stored.
+     *
+     * @param listener The listener to notify
+     */
+    public void addListener(MeterReadingsListener listener) {
+        listeners.add(listener);
     }
 }
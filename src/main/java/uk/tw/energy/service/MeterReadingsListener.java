@@ -0,0 +1,48 @@
+package uk.tw.energy.service;
+
+import java.util.List;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * Notified by {@link MeterReadingService} after electricity readings have been stored or removed.
+ */
+@FunctionalInterface
+public interface MeterReadingsListener {
+
+    /**
+     * Called after a batch of readings has been stored for a smart meter.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param electricityReadings The readings that were stored
+     */
+    void onReadingsStored(String smartMeterId, List<ElectricityReading> electricityReadings);
+
+    /**
+     * Called after a smart meter and all of its readings have been removed.
+     *
+     * @param smartMeterId The ID of the smart meter
+     */
+    default void onReadingsRemoved(String smartMeterId) {}
+
+    /**
+     * Called after every reading of a smart meter has been replaced. The default handles it as the meter being removed
+     * and the new readings then stored.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param electricityReadings The readings the meter now holds, empty if it was removed
+     */
+    default void onReadingsReplaced(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        onReadingsRemoved(smartMeterId);
+        if (!electricityReadings.isEmpty()) {
+            onReadingsStored(smartMeterId, electricityReadings);
+        }
+    }
+
+    /**
+     * Called after the oldest readings of a smart meter have been removed by retention.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param expiredReadings The readings that were removed, in insertion order
+     */
+    default void onReadingsExpired(String smartMeterId, List<ElectricityReading> expiredReadings) {}
+}
@@ -0,0 +1,185 @@
+package uk.tw.energy.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.domain.PricePlanDefinition;
+
+/**
+ * Versioned catalogue of the available price plans.
+ *
+ * <p>Readers always see an immutable {@link Snapshot}. Reloading builds a new snapshot and swaps it in atomically, so
+ * readers never block. Every swap increments the version, which dependent caches use to detect stale entries.
+ * Replacements are serialized, listeners included, so listeners see the snapshots one at a time in version order.
+ */
+@Service
+public class PricePlanCatalogue {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PricePlanCatalogue.class);
+    private static final TypeReference<List<PricePlanDefinition>> DEFINITIONS_TYPE = new TypeReference<>() {};
+
+    private final AtomicReference<Snapshot> snapshot;
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final ObjectMapper objectMapper;
+    private final Path pricePlansFile;
+    private volatile FileTime loadedFileTime;
+
+    public PricePlanCatalogue(List<PricePlan> pricePlans) {
+        this(pricePlans, null, "");
+    }
+
+    /**
+     * Constructs a new PricePlanCatalogue, loading the price plan file straight away if one is configured.
+     *
+     * @param pricePlans The price plans to start with when no price plan file is configured
+     * @param objectMapper The ObjectMapper used to read the price plan file
+     * @param pricePlansFile Path of a JSON file holding a list of price plan definitions, or empty for none
+     */
+    @Autowired
+    public PricePlanCatalogue(
+            List<PricePlan> pricePlans,
+            ObjectMapper objectMapper,
+            @Value("${energy.price-plans.file:}") String pricePlansFile) {
+        this.snapshot = new AtomicReference<>(Snapshot.of(1, pricePlans));
+        this.objectMapper = objectMapper;
+        this.pricePlansFile = pricePlansFile.isEmpty() ? null : Path.of(pricePlansFile);
+        if (this.pricePlansFile != null) {
+            reloadFromFile();
+        }
+    }
+
+    /**
+     * @return The current snapshot of the catalogue
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * @return The price plans of the current snapshot
+     */
+    public List<PricePlan> getPricePlans() {
+        return snapshot.get().pricePlans();
+    }
+
+    /**
+     * Looks up a price plan by name in the current snapshot.
+     *
+     * @param planName The name of the price plan
+     * @return Optional containing the price plan if found, or empty if not found
+     */
+    public Optional<PricePlan> getPricePlan(String planName) {
+        return Optional.ofNullable(snapshot.get().pricePlansByName().get(planName));
+    }
+
+    /**
+     * @return The version of the current snapshot
+     */
+    public long getVersion() {
+        return snapshot.get().version();
+    }
+
+    /**
+     * Registers a listener notified with every new snapshot after it has been swapped in.
+     *
+     * @param listener The listener to notify
+     */
+    public void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Atomically replaces all price plans, then notifies the listeners before another replacement can start.
+     *
+     * @param pricePlans The new price plans
+     * @return The snapshot now in use
+     * @throws IllegalArgumentException if two price plans share a name
+     */
+    public synchronized Snapshot replace(List<PricePlan> pricePlans) {
+        Snapshot replacement = snapshot.updateAndGet(current -> Snapshot.of(current.version() + 1, pricePlans));
+        LOGGER.info("Price plan catalogue updated to version {}", replacement.version());
+        listeners.forEach(listener -> listener.accept(replacement));
+        return replacement;
+    }
+
+    /**
+     * Replaces all price plans with the ones defined in the price plan file.
+     *
+     * @return Optional containing the snapshot now in use, or empty if no price plan file is configured
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public synchronized Optional<Snapshot> reloadFromFile() {
+        if (pricePlansFile == null) {
+            return Optional.empty();
+        }
+        try {
+            FileTime fileTime = Files.getLastModifiedTime(pricePlansFile);
+            List<PricePlanDefinition> definitions =
+                    objectMapper.readValue(pricePlansFile.toFile(), DEFINITIONS_TYPE);
+            Snapshot replacement = replace(
+                    definitions.stream().map(PricePlanDefinition::toPricePlan).toList());
+            loadedFileTime = fileTime;
+            return Optional.of(replacement);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load price plans from " + pricePlansFile, e);
+        }
+    }
+
+    /**
+     * Reloads the price plan file whenever its modification time changes.
+     * A file that fails to load is logged and the current snapshot stays in use.
+     */
+    @Scheduled(fixedDelayString = "${energy.price-plans.poll-interval-ms:5000}")
+    public void reloadIfFileChanged() {
+        if (pricePlansFile == null) {
+            return;
+        }
+        try {
+            if (!Files.getLastModifiedTime(pricePlansFile).equals(loadedFileTime)) {
+                reloadFromFile();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Keeping price plan catalogue version {}: {}", getVersion(), e.getMessage());
+        }
+    }
+
+    /**
+     * An immutable view of the catalogue at one version.
+     *
+     * @param version The version of the catalogue
+     * @param pricePlans The price plans, in definition order
+     * @param pricePlansByName The same price plans indexed by plan name
+     */
+    public record Snapshot(long version, List<PricePlan> pricePlans, Map<String, PricePlan> pricePlansByName) {
+
+        static Snapshot of(long version, List<PricePlan> pricePlans) {
+            Map<String, PricePlan> pricePlansByName = new HashMap<>();
+            for (PricePlan pricePlan : pricePlans) {
+                if (pricePlan.getPlanName() == null) {
+                    throw new IllegalArgumentException("Price plans need a plan name");
+                }
+                if (pricePlansByName.put(pricePlan.getPlanName(), pricePlan) != null) {
+                    throw new IllegalArgumentException("Duplicate price plan " + pricePlan.getPlanName());
+                }
+            }
+            return new Snapshot(version, List.copyOf(pricePlans), Map.copyOf(pricePlansByName));
+        }
+    }
+}
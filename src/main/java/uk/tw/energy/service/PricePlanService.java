@@ -1,25 +1,73 @@
 package uk.tw.energy.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.Duration;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import uk.tw.energy.domain.ElectricityReading;
 import uk.tw.energy.domain.PricePlan;
 
+/**
+ * Costs the readings of a smart meter under every price plan.
+ *
+ * <p>Concurrent requests for the same meter are coalesced: the first one computes the costs and the others arriving
+ * while it does wait for its result instead of repeating the work. Requests only share a computation while neither
+ * the meter's readings nor the price plans have changed since it started, so no request gets costs older than the
+ * data it arrived after. How many requests were served by another's computation is published as metrics.
+ */
 @Service
 public class PricePlanService {
-    private final List<PricePlan> pricePlans;
+    private final PricePlanCatalogue pricePlanCatalogue;
     private final MeterReadingService meterReadingService;
+    private final ConsumptionCostCalculator consumptionCostCalculator;
+    private final Map<Flight, CompletableFuture<Optional<Map<String, BigDecimal>>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final Counter computations;
+    private final Counter coalescedRequests;
 
     public PricePlanService(List<PricePlan> pricePlans, MeterReadingService meterReadingService) {
-        this.pricePlans = pricePlans;
+        this(
+                new PricePlanCatalogue(pricePlans),
+                meterReadingService,
+                new ConsumptionCostCalculator(),
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * Constructs a new PricePlanService.
+     *
+     * @param pricePlanCatalogue The catalogue of the price plans to cost readings with
+     * @param meterReadingService The service holding the readings
+     * @param consumptionCostCalculator The calculator costing readings
+     * @param meterRegistry The registry the coalescing metrics are published to
+     */
+    @Autowired
+    public PricePlanService(
+            PricePlanCatalogue pricePlanCatalogue,
+            MeterReadingService meterReadingService,
+            ConsumptionCostCalculator consumptionCostCalculator,
+            MeterRegistry meterRegistry) {
+        this.pricePlanCatalogue = pricePlanCatalogue;
         this.meterReadingService = meterReadingService;
+        this.consumptionCostCalculator = consumptionCostCalculator;
+        this.computations = Counter.builder("energy.pricing.computations")
+                .description("Price plan comparisons computed")
+                .register(meterRegistry);
+        this.coalescedRequests = Counter.builder("energy.pricing.coalesced")
+                .description("Price plan comparisons served by a concurrent request's computation")
+                .register(meterRegistry);
+        Gauge.builder("energy.pricing.coalescing.ratio", this, PricePlanService::coalescingRatio)
+                .description("Share of price plan comparisons served by a concurrent request's computation")
+                .register(meterRegistry);
     }
 
     /**
@@ -29,54 +77,59 @@ public class PricePlanService {
      * @return Optional containing a map of price plan names to their calculated costs, or empty if no readings found
      */
     public Optional<Map<String, BigDecimal>> getConsumptionCostOfElectricityReadingsForEachPricePlan(String smartMeterId) {
+        PricePlanCatalogue.Snapshot catalogue = pricePlanCatalogue.getSnapshot();
+        Flight flight =
+                new Flight(smartMeterId, meterReadingService.getReadingsVersion(smartMeterId), catalogue.version());
+        CompletableFuture<Optional<Map<String, BigDecimal>>> costs = new CompletableFuture<>();
+        CompletableFuture<Optional<Map<String, BigDecimal>>> sharedCosts = inFlight.putIfAbsent(flight, costs);
+        if (sharedCosts != null) {
+            coalescedRequests.increment();
+            return await(sharedCosts);
+        }
+
+        computations.increment();
+        try {
+            Optional<Map<String, BigDecimal>> computed = computeCosts(smartMeterId, catalogue.pricePlans());
+            costs.complete(computed);
+            return computed;
+        } catch (RuntimeException | Error e) {
+            costs.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flight, costs);
+        }
+    }
+
+    private Optional<Map<String, BigDecimal>> computeCosts(String smartMeterId, List<PricePlan> pricePlans) {
         Optional<List<ElectricityReading>> electricityReadings = meterReadingService.getReadings(smartMeterId);
         if (!electricityReadings.isPresent()) {
             return Optional.empty();
         }
-        return Optional.of(pricePlans.stream()
-                .collect(Collectors.toMap(PricePlan::getPlanName, t -> calculateCost(electricityReadings.get(), t))));
+        return Optional.of(consumptionCostCalculator.calculateCosts(electricityReadings.get(), pricePlans));
     }
 
-    /**
-     * Calculates the cost for a given list of electricity readings and a price plan.
-     *
-     * @param electricityReadings List of electricity readings
-     * @param pricePlan The price plan to calculate the cost for
-     * @return The calculated cost as a BigDecimal
-     */
-    private BigDecimal calculateCost(List<ElectricityReading> electricityReadings, PricePlan pricePlan) {
-        BigDecimal average = calculateAverageReading(electricityReadings);
-        BigDecimal timeElapsed = calculateTimeElapsed(electricityReadings);
-        BigDecimal averagedCost = average.divide(timeElapsed, RoundingMode.HALF_UP);
-        return averagedCost.multiply(pricePlan.getUnitRate());
+    private double coalescingRatio() {
+        double coalesced = coalescedRequests.count();
+        double total = coalesced + computations.count();
+        return total == 0 ? 0 : coalesced / total;
     }
 
-    /**
-     * Calculates the average reading from a list of electricity readings.
-     *
-     * @param electricityReadings List of electricity readings
-     * @return The average reading as a BigDecimal
-     */
-    private BigDecimal calculateAverageReading(List<ElectricityReading> electricityReadings) {
-        BigDecimal summedReadings = electricityReadings.stream()
-                .map(ElectricityReading::reading)
-                .reduce(BigDecimal.ZERO, (reading, accumulator) -> reading.add(accumulator));
-        return summedReadings.divide(BigDecimal.valueOf(electricityReadings.size()), RoundingMode.HALF_UP);
+    private static <T> T await(CompletableFuture<T> sharedResult) {
+        try {
+            return sharedResult.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
     }
 
     /**
-     * Calculates the time elapsed between the first and last electricity reading.
-     *
-     * @param electricityReadings List of electricity readings
-     * @return The time elapsed in hours as a BigDecimal
+     * Identifies the computation of a smart meter's costs from one version of its readings and the price plans.
      */
-    private BigDecimal calculateTimeElapsed(List<ElectricityReading> electricityReadings) {
-        ElectricityReading first = electricityReadings.stream()
-                .min(Comparator.comparing(ElectricityReading::time))
-                .get();
-        ElectricityReading last = electricityReadings.stream()
-                .max(Comparator.comparing(ElectricityReading::time))
-                .get();
-        return BigDecimal.valueOf(Duration.between(first.time(), last.time()).getSeconds() / 3600.0);
-    }
+    private record Flight(String smartMeterId, long readingsVersion, long catalogueVersion) {}
 }
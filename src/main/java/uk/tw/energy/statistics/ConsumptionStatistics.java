@@ -0,0 +1,32 @@
+package uk.tw.energy.statistics;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The load statistics of one or more smart meters over a range of UTC days, and of each of those days.
+ *
+ * @param from The first day with readings in the range
+ * @param to The last day with readings in the range
+ * @param meterCount The number of smart meters with readings in the range
+ * @param readingCount The number of readings in the range
+ * @param p50 The median reading in kW, within the sketch accuracy
+ * @param p95 The 95th percentile reading in kW, within the sketch accuracy
+ * @param max The highest reading in kW
+ * @param peakTime When the highest reading was taken
+ * @param kwh The energy consumed over the range
+ * @param days The statistics of every day with readings, in date order
+ */
+public record ConsumptionStatistics(
+        LocalDate from,
+        LocalDate to,
+        int meterCount,
+        long readingCount,
+        BigDecimal p50,
+        BigDecimal p95,
+        BigDecimal max,
+        Instant peakTime,
+        BigDecimal kwh,
+        List<DailyStatistics> days) {}
@@ -0,0 +1,25 @@
+package uk.tw.energy.statistics;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * The load statistics of one UTC day of readings.
+ *
+ * @param date The UTC day
+ * @param readingCount The number of readings taken that day
+ * @param p50 The median reading in kW, within the sketch accuracy
+ * @param p95 The 95th percentile reading in kW, within the sketch accuracy
+ * @param max The highest reading in kW
+ * @param peakTime When the highest reading was taken
+ * @param kwh The energy consumed over the intervals ending that day
+ */
+public record DailyStatistics(
+        LocalDate date,
+        long readingCount,
+        BigDecimal p50,
+        BigDecimal p95,
+        BigDecimal max,
+        Instant peakTime,
+        BigDecimal kwh) {}
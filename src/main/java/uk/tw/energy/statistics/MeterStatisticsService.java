@@ -0,0 +1,248 @@
+package uk.tw.energy.statistics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.EnergyIntegrator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.MeterReadingsListener;
+
+/**
+ * Maintains the load statistics of every smart meter as readings arrive, one {@link QuantileSketch} and running
+ * totals per meter and UTC day, so statistics are answered without going back to the readings.
+ *
+ * <p>A query merges the days of the range, so it costs the number of days and meters covered whatever the number of
+ * readings, and the days of every meter merge into fleet-wide statistics the same way. Each meter integrates its
+ * energy with an {@link EnergyIntegrator}. Statistics outlive retention, so they keep describing days whose readings
+ * have expired, for {@code maxAge} back from the latest reading of their meter. Older days are dropped as the meter
+ * moves on, so each meter holds a bounded number of days, and all of them are dropped with their meter.
+ */
+@Service
+public class MeterStatisticsService implements MeterReadingsListener {
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int KWH_SCALE = 4;
+    private static final int READING_SCALE = 4;
+
+    private final double relativeAccuracy;
+    private final long maxDays;
+    private final Map<String, MeterStatistics> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new MeterStatisticsService, including the readings already stored.
+     *
+     * @param meterReadingService The service whose readings are summarised
+     * @param relativeAccuracy The largest relative error of the percentiles, such as 0.01 for 1%
+     * @param maxAge How far back from the latest reading of a meter its days are kept, in whole days
+     */
+    public MeterStatisticsService(
+            MeterReadingService meterReadingService,
+            @Value("${energy.statistics.relative-accuracy:0.01}") double relativeAccuracy,
+            @Value("${energy.statistics.max-age:P400D}") Duration maxAge) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("The relative accuracy must be between 0 and 1");
+        }
+        if (maxAge.toDays() < 1) {
+            throw new IllegalArgumentException("Statistics must be kept for at least one day");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxDays = maxAge.toDays();
+        for (String smartMeterId : meterReadingService.getSmartMeterIds()) {
+            meterReadingService
+                    .getReadings(smartMeterId)
+                    .ifPresent(electricityReadings -> onReadingsStored(smartMeterId, electricityReadings));
+        }
+        meterReadingService.addListener(this);
+    }
+
+    @Override
+    public void onReadingsStored(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        if (electricityReadings.isEmpty()) {
+            return;
+        }
+        List<ElectricityReading> byTime = new ArrayList<>(electricityReadings);
+        byTime.sort(Comparator.comparing(ElectricityReading::time));
+        while (true) {
+            MeterStatistics meter = meters.computeIfAbsent(smartMeterId, id -> new MeterStatistics());
+            synchronized (meter) {
+                if (meter.removed) {
+                    // Lost a race with removal, the next attempt creates the meter again.
+                    continue;
+                }
+                for (ElectricityReading reading : byTime) {
+                    meter.add(reading);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onReadingsRemoved(String smartMeterId) {
+        MeterStatistics meter = meters.remove(smartMeterId);
+        if (meter != null) {
+            synchronized (meter) {
+                meter.removed = true;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the statistics of a smart meter over a range of days.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param from Optional first UTC day of the range, or null for the earliest
+     * @param to Optional last UTC day of the range, or null for the latest
+     * @return Optional containing the statistics, or empty if the meter has no readings in the range
+     */
+    public Optional<ConsumptionStatistics> getMeterStatistics(String smartMeterId, LocalDate from, LocalDate to) {
+        MeterStatistics meter = meters.get(smartMeterId);
+        if (meter == null) {
+            return Optional.empty();
+        }
+        RangeStatistics range = new RangeStatistics();
+        synchronized (meter) {
+            range.add(meter, from, to);
+        }
+        return range.toStatistics();
+    }
+
+    /**
+     * Retrieves the statistics of every smart meter together over a range of days, such as the fleet-wide percentiles.
+     *
+     * @param from Optional first UTC day of the range, or null for the earliest
+     * @param to Optional last UTC day of the range, or null for the latest
+     * @return Optional containing the statistics, or empty if no meter has readings in the range
+     */
+    public Optional<ConsumptionStatistics> getFleetStatistics(LocalDate from, LocalDate to) {
+        RangeStatistics range = new RangeStatistics();
+        for (MeterStatistics meter : meters.values()) {
+            synchronized (meter) {
+                range.add(meter, from, to);
+            }
+        }
+        return range.toStatistics();
+    }
+
+    /**
+     * The statistics of one smart meter, guarded by its own monitor.
+     */
+    private final class MeterStatistics {
+        private final NavigableMap<Long, DayAccumulator> days = new TreeMap<>();
+        private final EnergyIntegrator energy = new EnergyIntegrator();
+        private long latestDay = Long.MIN_VALUE;
+        private boolean removed;
+
+        private void add(ElectricityReading reading) {
+            long epochSecond = reading.time().getEpochSecond();
+            long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+            if (epochDay > latestDay) {
+                latestDay = epochDay;
+                days.headMap(latestDay - maxDays, true).clear();
+            }
+            if (epochDay <= latestDay - maxDays) {
+                // Older than every day kept, and older than the latest reading, so it adds no energy either.
+                return;
+            }
+            DayAccumulator day = days.computeIfAbsent(epochDay, d -> new DayAccumulator());
+            day.add(reading);
+            day.kwh += energy.add(reading);
+        }
+    }
+
+    /**
+     * The days of a range merged across the smart meters added to it.
+     */
+    private final class RangeStatistics {
+        private final NavigableMap<Long, DayAccumulator> days = new TreeMap<>();
+        private int meterCount;
+
+        private void add(MeterStatistics meter, LocalDate from, LocalDate to) {
+            long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+            long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+            NavigableMap<Long, DayAccumulator> meterDays = meter.days.subMap(fromDay, true, toDay, true);
+            if (meterDays.isEmpty()) {
+                return;
+            }
+            meterCount++;
+            meterDays.forEach((epochDay, day) -> days.computeIfAbsent(epochDay, d -> new DayAccumulator()).merge(day));
+        }
+
+        private Optional<ConsumptionStatistics> toStatistics() {
+            if (days.isEmpty()) {
+                return Optional.empty();
+            }
+            DayAccumulator total = new DayAccumulator();
+            List<DailyStatistics> dailyStatistics = new ArrayList<>(days.size());
+            days.forEach((epochDay, day) -> {
+                total.merge(day);
+                dailyStatistics.add(new DailyStatistics(
+                        LocalDate.ofEpochDay(epochDay),
+                        day.sketch.count(),
+                        day.quantile(0.5),
+                        day.quantile(0.95),
+                        day.max,
+                        day.peakTime,
+                        day.kwh()));
+            });
+            return Optional.of(new ConsumptionStatistics(
+                    LocalDate.ofEpochDay(days.firstKey()),
+                    LocalDate.ofEpochDay(days.lastKey()),
+                    meterCount,
+                    total.sketch.count(),
+                    total.quantile(0.5),
+                    total.quantile(0.95),
+                    total.max,
+                    total.peakTime,
+                    total.kwh(),
+                    dailyStatistics));
+        }
+    }
+
+    /**
+     * The running statistics of one day.
+     */
+    private final class DayAccumulator {
+        private final QuantileSketch sketch = new QuantileSketch(relativeAccuracy);
+        private BigDecimal max;
+        private Instant peakTime;
+        private double kwh;
+
+        private void add(ElectricityReading reading) {
+            sketch.add(reading.reading().doubleValue());
+            if (max == null || reading.reading().compareTo(max) > 0) {
+                max = reading.reading();
+                peakTime = reading.time();
+            }
+        }
+
+        private void merge(DayAccumulator other) {
+            sketch.merge(other.sketch);
+            if (max == null || other.max.compareTo(max) > 0) {
+                max = other.max;
+                peakTime = other.peakTime;
+            }
+            kwh += other.kwh;
+        }
+
+        private BigDecimal quantile(double quantile) {
+            return BigDecimal.valueOf(sketch.quantile(quantile)).setScale(READING_SCALE, RoundingMode.HALF_UP);
+        }
+
+        private BigDecimal kwh() {
+            return BigDecimal.valueOf(kwh).setScale(KWH_SCALE, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package uk.tw.energy.statistics;
+
+/**
+ * A mergeable summary of a stream of values, answering quantiles to within a relative error whatever the number of
+ * values added.
+ *
+ * <p>Positive values are counted in buckets whose bounds grow geometrically by {@code gamma = (1 + a) / (1 - a)} for
+ * a relative accuracy {@code a}, and a quantile is answered with the midpoint of the bucket holding it, which is
+ * within {@code a} of the exact value. Values at or below {@link #MIN_POSITIVE} share a bucket answered as zero. The
+ * buckets between the lowest and highest value added are held in one array, so the size of a sketch depends on the
+ * spread of its values rather than their number: about 115 buckets per tenfold spread at the default 1%. Sketches of
+ * the same accuracy merge exactly, as if every value had been added to one of them. The lowest and highest value are
+ * kept exactly, answer the lowest and highest quantiles, and bound every other answer.
+ *
+ * <p>Not thread-safe.
+ */
+public final class QuantileSketch {
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    static final double MIN_POSITIVE = 1e-9;
+    private static final int INITIAL_BUCKETS = 16;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private long[] counts = new long[0];
+    private int firstIndex;
+    private long zeroCount;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Constructs a new empty QuantileSketch.
+     *
+     * @param relativeAccuracy The largest relative error of a quantile, strictly between 0 and 1
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("The relative accuracy must be between 0 and 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value The value, which must not be NaN
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Can't add NaN to a sketch");
+        }
+        if (value <= MIN_POSITIVE) {
+            zeroCount++;
+        } else {
+            int index = indexOf(value);
+            ensureCovers(index, index);
+            counts[index - firstIndex]++;
+        }
+        count++;
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+    }
+
+    /**
+     * Adds every value of another sketch to this one.
+     *
+     * @param other A sketch of the same relative accuracy, left unchanged
+     * @throws IllegalArgumentException if the sketches have different accuracies
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Can't merge sketches of different accuracies");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > 0) {
+            ensureCovers(other.firstIndex, other.firstIndex + other.counts.length - 1);
+            int shift = other.firstIndex - firstIndex;
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[shift + i] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+    }
+
+    /**
+     * Estimates a quantile of the values added.
+     *
+     * @param quantile The quantile, between 0 and 1, such as 0.95 for the 95th percentile
+     * @return The estimate, within the relative accuracy of the exact value, or NaN if the sketch is empty
+     */
+    public double quantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("The quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        if (rank == 0) {
+            return min;
+        }
+        if (rank == count - 1) {
+            return max;
+        }
+        double estimate;
+        if (rank < zeroCount) {
+            estimate = 0;
+        } else {
+            long seen = zeroCount;
+            int i = 0;
+            while (seen + counts[i] <= rank) {
+                seen += counts[i++];
+            }
+            estimate = 2 * Math.pow(gamma, firstIndex + i) / (gamma + 1);
+        }
+        return Math.max(min, Math.min(max, estimate));
+    }
+
+    /**
+     * @return The number of values added
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return The highest value added, or NaN if the sketch is empty
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * @return The lowest value added, or NaN if the sketch is empty
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * @return The relative accuracy of the quantiles
+     */
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    private int indexOf(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /**
+     * Grows the buckets to cover the given indexes, with room to spare so that neighbouring values rarely copy them.
+     */
+    private void ensureCovers(int fromIndex, int toIndex) {
+        if (counts.length == 0) {
+            int length = Math.max(INITIAL_BUCKETS, toIndex - fromIndex + 1);
+            counts = new long[length];
+            firstIndex = fromIndex - (length - (toIndex - fromIndex + 1)) / 2;
+            return;
+        }
+        int lastIndex = firstIndex + counts.length - 1;
+        if (fromIndex >= firstIndex && toIndex <= lastIndex) {
+            return;
+        }
+        int newFirst = Math.min(fromIndex, firstIndex);
+        int newLast = Math.max(toIndex, lastIndex);
+        int spare = (newLast - newFirst + 1) / 4;
+        newFirst = fromIndex < firstIndex ? newFirst - spare : newFirst;
+        newLast = toIndex > lastIndex ? newLast + spare : newLast;
+        long[] grown = new long[newLast - newFirst + 1];
+        System.arraycopy(counts, 0, grown, firstIndex - newFirst, counts.length);
+        counts = grown;
+        firstIndex = newFirst;
+    }
+}
@@ -0,0 +1,136 @@
+package uk.tw.energy.storage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * On-heap reading store keeping one list of readings per smart meter.
+ *
+ * <p>The store is safe to use from several threads. Appends and trims of a meter's readings are serialized by the
+ * map's {@code compute}, and readers are handed a copy of a meter's readings taken while holding its list, so a batch
+ * stored while the meter's old readings expire is never lost and a reader never sees a list change under it. The
+ * version of a meter is changed inside the same {@code compute} as its readings.
+ */
+public class MapReadingStore implements ReadingStore {
+    private final Map<String, List<ElectricityReading>> meterAssociatedReadings = new ConcurrentHashMap<>();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    /**
+     * Constructs a new MapReadingStore.
+     *
+     * @param meterAssociatedReadings The readings to start with, which are copied and not changed by the store
+     */
+    public MapReadingStore(Map<String, List<ElectricityReading>> meterAssociatedReadings) {
+        meterAssociatedReadings.forEach(this::storeReadings);
+    }
+
+    @Override
+    public Optional<List<ElectricityReading>> getReadings(String smartMeterId) {
+        List<ElectricityReading> readings = meterAssociatedReadings.get(smartMeterId);
+        if (readings == null) {
+            return Optional.empty();
+        }
+        synchronized (readings) {
+            return Optional.of(new ArrayList<>(readings));
+        }
+    }
+
+    /**
+     * Copies only the readings of the chunk, holding the meter's list for the copy.
+     */
+    @Override
+    public boolean readChunk(String smartMeterId, int fromIndex, ReadingChunk chunk) {
+        chunk.clear();
+        List<ElectricityReading> readings = meterAssociatedReadings.get(smartMeterId);
+        if (readings == null) {
+            return false;
+        }
+        synchronized (readings) {
+            int end = (int) Math.min(readings.size(), (long) fromIndex + chunk.capacity());
+            for (int i = fromIndex; i < end; i++) {
+                chunk.add(readings.get(i));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void storeReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        meterAssociatedReadings.compute(smartMeterId, (id, readings) -> {
+            List<ElectricityReading> stored = readings == null ? new ArrayList<>() : readings;
+            synchronized (stored) {
+                stored.addAll(electricityReadings);
+            }
+            versions.put(id, versionSequence.incrementAndGet());
+            return stored;
+        });
+    }
+
+    @Override
+    public boolean removeReadings(String smartMeterId) {
+        boolean[] removed = new boolean[1];
+        meterAssociatedReadings.computeIfPresent(smartMeterId, (id, readings) -> {
+            versions.remove(id);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Swaps in a new list of the readings inside one {@code compute}, so readers holding the old list keep copying it.
+     */
+    @Override
+    public boolean replaceReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        boolean[] known = new boolean[1];
+        meterAssociatedReadings.compute(smartMeterId, (id, readings) -> {
+            known[0] = readings != null;
+            if (electricityReadings.isEmpty()) {
+                versions.remove(id);
+                return null;
+            }
+            versions.put(id, versionSequence.incrementAndGet());
+            return new ArrayList<>(electricityReadings);
+        });
+        return known[0];
+    }
+
+    /**
+     * Copies the kept readings into a list of their exact size, so the backing array shrinks with the readings.
+     */
+    @Override
+    public List<ElectricityReading> removeReadingsBefore(String smartMeterId, Instant cutoff) {
+        List<ElectricityReading> removed = new ArrayList<>();
+        meterAssociatedReadings.computeIfPresent(smartMeterId, (id, readings) -> {
+            if (readings.stream().noneMatch(reading -> reading.time().isBefore(cutoff))) {
+                return readings;
+            }
+            ArrayList<ElectricityReading> kept = new ArrayList<>();
+            for (ElectricityReading reading : readings) {
+                (reading.time().isBefore(cutoff) ? removed : kept).add(reading);
+            }
+            kept.trimToSize();
+            versions.put(id, versionSequence.incrementAndGet());
+            return kept;
+        });
+        return removed;
+    }
+
+    @Override
+    public long getVersion(String smartMeterId) {
+        return versions.getOrDefault(smartMeterId, 0L);
+    }
+
+    @Override
+    public Set<String> getSmartMeterIds() {
+        return Set.copyOf(meterAssociatedReadings.keySet());
+    }
+}
@@ -0,0 +1,413 @@
+package uk.tw.energy.storage;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * Reading store keeping readings outside the Java heap, so the data set can grow without adding GC work.
+ *
+ * <p>Every smart meter owns an append-only chain of blocks handed out by a {@link SlabAllocator}. A reading takes
+ * {@value #READING_BYTES} bytes: the epoch second, the nanosecond adjustment, the scale and the unscaled value of the
+ * reading, so {@link BigDecimal} readings round-trip exactly.
+ */
+public class OffHeapReadingStore implements ReadingStore {
+    static final int READING_BYTES = 24;
+    private static final int EPOCH_SECOND_OFFSET = 0;
+    private static final int NANO_OFFSET = 8;
+    private static final int SCALE_OFFSET = 12;
+    private static final int UNSCALED_OFFSET = 16;
+    private static final int MAX_UNSCALED_PRECISION = 18;
+
+    private final int readingsPerBlock;
+    private final SlabAllocator allocator;
+    private final Map<String, MeterBlocks> meters = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    // Appends and reads share the lock; freeing and compaction move blocks and take it exclusively.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private MeterBlocks[] blockOwners = new MeterBlocks[0];
+    private int[] blockPositions = new int[0];
+
+    /**
+     * Constructs a new OffHeapReadingStore.
+     *
+     * @param readingsPerBlock The number of readings held by each block
+     * @param blocksPerSlab The number of blocks reserved at once from direct memory
+     */
+    public OffHeapReadingStore(int readingsPerBlock, int blocksPerSlab) {
+        this.readingsPerBlock = readingsPerBlock;
+        this.allocator = new SlabAllocator(readingsPerBlock * READING_BYTES, blocksPerSlab);
+    }
+
+    @Override
+    public Optional<List<ElectricityReading>> getReadings(String smartMeterId) {
+        lock.readLock().lock();
+        try {
+            MeterBlocks meter = meters.get(smartMeterId);
+            if (meter == null) {
+                return Optional.empty();
+            }
+            synchronized (meter) {
+                List<ElectricityReading> readings = new ArrayList<>(meter.readingCount);
+                for (int i = 0; i < meter.readingCount; i++) {
+                    readings.add(read(meter.blocks[i / readingsPerBlock], i % readingsPerBlock));
+                }
+                return Optional.of(readings);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies readings straight from their blocks into the chunk's columns, holding the meter only for the copy.
+     */
+    @Override
+    public boolean readChunk(String smartMeterId, int fromIndex, ReadingChunk chunk) {
+        chunk.clear();
+        lock.readLock().lock();
+        try {
+            MeterBlocks meter = meters.get(smartMeterId);
+            if (meter == null) {
+                return false;
+            }
+            synchronized (meter) {
+                int end = (int) Math.min(meter.readingCount, (long) fromIndex + chunk.capacity());
+                for (int i = fromIndex; i < end; i++) {
+                    int handle = meter.blocks[i / readingsPerBlock];
+                    ByteBuffer slab = allocator.slab(handle);
+                    int at = allocator.offset(handle) + (i % readingsPerBlock) * READING_BYTES;
+                    chunk.add(
+                            slab.getLong(at + EPOCH_SECOND_OFFSET),
+                            slab.getInt(at + NANO_OFFSET),
+                            slab.getInt(at + SCALE_OFFSET),
+                            slab.getLong(at + UNSCALED_OFFSET));
+                }
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores readings. Readings bound into {@link ReadingColumns} are copied from their columns, without creating an
+     * {@link ElectricityReading} for each of them.
+     */
+    @Override
+    public void storeReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        requireStorable(electricityReadings);
+        lock.readLock().lock();
+        try {
+            MeterBlocks meter = meters.computeIfAbsent(smartMeterId, id -> new MeterBlocks());
+            synchronized (meter) {
+                append(meter, electricityReadings);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Frees the meter's blocks and writes the new readings into fresh ones while holding the meter, so only the
+     * meter's own readers and writers wait.
+     */
+    @Override
+    public boolean replaceReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        if (electricityReadings.isEmpty()) {
+            return removeReadings(smartMeterId);
+        }
+        requireStorable(electricityReadings);
+        lock.readLock().lock();
+        try {
+            boolean[] known = {true};
+            MeterBlocks meter = meters.computeIfAbsent(smartMeterId, id -> {
+                known[0] = false;
+                return new MeterBlocks();
+            });
+            synchronized (meter) {
+                freeTrailingBlocks(meter, 0);
+                meter.readingCount = 0;
+                append(meter, electricityReadings);
+            }
+            return known[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getVersion(String smartMeterId) {
+        MeterBlocks meter = meters.get(smartMeterId);
+        if (meter == null) {
+            return 0;
+        }
+        synchronized (meter) {
+            return meter.version;
+        }
+    }
+
+    @Override
+    public Set<String> getSmartMeterIds() {
+        return Set.copyOf(meters.keySet());
+    }
+
+    /**
+     * Removes a smart meter and frees every block holding its readings.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return true if the meter was known, false otherwise
+     */
+    @Override
+    public boolean removeReadings(String smartMeterId) {
+        lock.writeLock().lock();
+        try {
+            MeterBlocks meter = meters.remove(smartMeterId);
+            if (meter == null) {
+                return false;
+            }
+            for (int i = 0; i < meter.blockCount; i++) {
+                allocator.free(meter.blocks[i]);
+                blockOwners[meter.blocks[i]] = null;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the kept readings down over the removed ones inside the meter's own blocks, then frees the blocks left
+     * empty at the end of its chain. Other meters are only held up while the freed blocks are handed back.
+     */
+    @Override
+    public List<ElectricityReading> removeReadingsBefore(String smartMeterId, Instant cutoff) {
+        long cutoffSecond = cutoff.getEpochSecond();
+        int cutoffNano = cutoff.getNano();
+        lock.readLock().lock();
+        try {
+            MeterBlocks meter = meters.get(smartMeterId);
+            if (meter == null) {
+                return List.of();
+            }
+            synchronized (meter) {
+                List<ElectricityReading> removed = new ArrayList<>();
+                int kept = 0;
+                for (int i = 0; i < meter.readingCount; i++) {
+                    int handle = meter.blocks[i / readingsPerBlock];
+                    int slot = i % readingsPerBlock;
+                    ByteBuffer slab = allocator.slab(handle);
+                    int at = allocator.offset(handle) + slot * READING_BYTES;
+                    long epochSecond = slab.getLong(at + EPOCH_SECOND_OFFSET);
+                    if (epochSecond < cutoffSecond
+                            || (epochSecond == cutoffSecond && slab.getInt(at + NANO_OFFSET) < cutoffNano)) {
+                        removed.add(read(handle, slot));
+                    } else {
+                        if (kept != i) {
+                            int toHandle = meter.blocks[kept / readingsPerBlock];
+                            allocator
+                                    .slab(toHandle)
+                                    .put(
+                                            allocator.offset(toHandle) + (kept % readingsPerBlock) * READING_BYTES,
+                                            slab,
+                                            at,
+                                            READING_BYTES);
+                        }
+                        kept++;
+                    }
+                }
+                if (!removed.isEmpty()) {
+                    meter.readingCount = kept;
+                    meter.version = versionSequence.incrementAndGet();
+                    freeTrailingBlocks(meter, (kept + readingsPerBlock - 1) / readingsPerBlock);
+                }
+                return removed;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves blocks into the holes left by freed meters and releases the slabs that become empty.
+     *
+     * @return The number of bytes of direct memory released
+     */
+    public long compact() {
+        return compact(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Moves at most {@code maxBlockMoves} blocks into the holes left by freed blocks and releases the slabs that become
+     * empty. Every reader and writer waits while the blocks move, so a small bound keeps the pause short.
+     *
+     * @param maxBlockMoves The maximum number of blocks to move
+     * @return The number of bytes of direct memory released
+     */
+    @Override
+    public long compact(int maxBlockMoves) {
+        lock.writeLock().lock();
+        try {
+            return allocator.compact(this::relocate, maxBlockMoves);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The bytes of direct memory holding readings
+     */
+    public long usedBytes() {
+        synchronized (allocator) {
+            return allocator.usedBytes();
+        }
+    }
+
+    /**
+     * @return The bytes of direct memory reserved by the store, including free blocks
+     */
+    public long reservedBytes() {
+        synchronized (allocator) {
+            return allocator.reservedBytes();
+        }
+    }
+
+    /**
+     * Appends readings to a meter the caller holds. Readings bound into {@link ReadingColumns} are copied from their
+     * columns.
+     */
+    private void append(MeterBlocks meter, List<ElectricityReading> electricityReadings) {
+        ReadingColumns columns = electricityReadings instanceof ReadingColumns bound ? bound : null;
+        for (int i = 0; i < electricityReadings.size(); i++) {
+            int slot = meter.readingCount % readingsPerBlock;
+            if (slot == 0) {
+                addBlock(meter);
+            }
+            int handle = meter.blocks[meter.blockCount - 1];
+            if (columns != null && columns.inColumns(i)) {
+                write(
+                        handle,
+                        slot,
+                        columns.epochSecond(i),
+                        columns.nano(i),
+                        columns.scale(i),
+                        columns.unscaledValue(i));
+            } else {
+                write(handle, slot, electricityReadings.get(i));
+            }
+            meter.readingCount++;
+        }
+        meter.version = versionSequence.incrementAndGet();
+    }
+
+    private void addBlock(MeterBlocks meter) {
+        synchronized (allocator) {
+            int handle = allocator.allocate();
+            if (handle >= blockOwners.length) {
+                int capacity = Math.max(handle + 1, blockOwners.length * 2);
+                blockOwners = Arrays.copyOf(blockOwners, capacity);
+                blockPositions = Arrays.copyOf(blockPositions, capacity);
+            }
+            blockOwners[handle] = meter;
+            blockPositions[handle] = meter.blockCount;
+            meter.addBlock(handle);
+        }
+    }
+
+    private void freeTrailingBlocks(MeterBlocks meter, int blocksKept) {
+        if (meter.blockCount <= blocksKept) {
+            return;
+        }
+        synchronized (allocator) {
+            for (int i = blocksKept; i < meter.blockCount; i++) {
+                allocator.free(meter.blocks[i]);
+                blockOwners[meter.blocks[i]] = null;
+            }
+        }
+        meter.blockCount = blocksKept;
+    }
+
+    private void relocate(int fromHandle, int toHandle) {
+        MeterBlocks meter = blockOwners[fromHandle];
+        int position = blockPositions[fromHandle];
+        meter.blocks[position] = toHandle;
+        blockOwners[toHandle] = meter;
+        blockPositions[toHandle] = position;
+        blockOwners[fromHandle] = null;
+    }
+
+    private void write(int handle, int slot, ElectricityReading electricityReading) {
+        BigDecimal reading = electricityReading.reading();
+        write(
+                handle,
+                slot,
+                electricityReading.time().getEpochSecond(),
+                electricityReading.time().getNano(),
+                reading.scale(),
+                reading.unscaledValue().longValue());
+    }
+
+    private void write(int handle, int slot, long epochSecond, int nano, int scale, long unscaledValue) {
+        ByteBuffer slab = allocator.slab(handle);
+        int at = allocator.offset(handle) + slot * READING_BYTES;
+        slab.putLong(at + EPOCH_SECOND_OFFSET, epochSecond);
+        slab.putInt(at + NANO_OFFSET, nano);
+        slab.putInt(at + SCALE_OFFSET, scale);
+        slab.putLong(at + UNSCALED_OFFSET, unscaledValue);
+    }
+
+    private ElectricityReading read(int handle, int slot) {
+        ByteBuffer slab = allocator.slab(handle);
+        int at = allocator.offset(handle) + slot * READING_BYTES;
+        Instant time = Instant.ofEpochSecond(slab.getLong(at + EPOCH_SECOND_OFFSET), slab.getInt(at + NANO_OFFSET));
+        BigDecimal reading = BigDecimal.valueOf(slab.getLong(at + UNSCALED_OFFSET), slab.getInt(at + SCALE_OFFSET));
+        return new ElectricityReading(time, reading);
+    }
+
+    private static void requireStorable(List<ElectricityReading> electricityReadings) {
+        ReadingColumns columns = electricityReadings instanceof ReadingColumns bound ? bound : null;
+        for (int i = 0; i < electricityReadings.size(); i++) {
+            if (columns == null || !columns.inColumns(i)) {
+                requireStorable(electricityReadings.get(i));
+            }
+        }
+    }
+
+    private static void requireStorable(ElectricityReading electricityReading) {
+        if (electricityReading.time() == null || electricityReading.reading() == null) {
+            throw new IllegalArgumentException("Readings must have a time and a value");
+        }
+        if (electricityReading.reading().precision() > MAX_UNSCALED_PRECISION) {
+            throw new IllegalArgumentException(
+                    "Reading " + electricityReading.reading() + " has too many digits for off-heap storage");
+        }
+    }
+
+    /**
+     * The chain of blocks holding the readings of one smart meter.
+     */
+    private static final class MeterBlocks {
+        private int[] blocks = new int[1];
+        private int blockCount;
+        private int readingCount;
+        private long version;
+
+        private void addBlock(int handle) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+            }
+            blocks[blockCount++] = handle;
+        }
+    }
+}
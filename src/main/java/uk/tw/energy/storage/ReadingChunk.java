@@ -0,0 +1,135 @@
+package uk.tw.energy.storage;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * A reusable buffer of consecutive readings of one smart meter, held as primitive columns so stores can copy readings
+ * out without creating an {@link ElectricityReading} for each of them.
+ *
+ * <p>A reading's value is its unscaled value and scale. Values with too many digits for a {@code long} are kept as
+ * they are in a side column, which is null for every other reading.
+ */
+public final class ReadingChunk {
+    private static final int MAX_UNSCALED_PRECISION = 18;
+
+    private final long[] epochSeconds;
+    private final int[] nanos;
+    private final int[] scales;
+    private final long[] unscaledValues;
+    private final BigDecimal[] wideValues;
+    private int size;
+
+    /**
+     * Constructs a new ReadingChunk.
+     *
+     * @param capacity The maximum number of readings the chunk holds
+     */
+    public ReadingChunk(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A chunk must hold at least one reading");
+        }
+        this.epochSeconds = new long[capacity];
+        this.nanos = new int[capacity];
+        this.scales = new int[capacity];
+        this.unscaledValues = new long[capacity];
+        this.wideValues = new BigDecimal[capacity];
+    }
+
+    /**
+     * Appends a reading given by its columns.
+     *
+     * @param epochSecond The epoch second of the reading's time
+     * @param nano The nanosecond adjustment of the reading's time
+     * @param scale The scale of the reading's value
+     * @param unscaledValue The unscaled value of the reading's value
+     * @throws IllegalStateException if the chunk is full
+     */
+    public void add(long epochSecond, int nano, int scale, long unscaledValue) {
+        if (isFull()) {
+            throw new IllegalStateException("The chunk is full");
+        }
+        epochSeconds[size] = epochSecond;
+        nanos[size] = nano;
+        scales[size] = scale;
+        unscaledValues[size] = unscaledValue;
+        size++;
+    }
+
+    /**
+     * Appends a reading.
+     *
+     * @param electricityReading The reading to append
+     * @throws IllegalStateException if the chunk is full
+     */
+    public void add(ElectricityReading electricityReading) {
+        BigDecimal reading = electricityReading.reading();
+        if (reading.precision() > MAX_UNSCALED_PRECISION) {
+            add(electricityReading.time().getEpochSecond(), electricityReading.time().getNano(), 0, 0);
+            wideValues[size - 1] = reading;
+        } else {
+            add(
+                    electricityReading.time().getEpochSecond(),
+                    electricityReading.time().getNano(),
+                    reading.scale(),
+                    reading.unscaledValue().longValue());
+        }
+    }
+
+    /**
+     * Empties the chunk so it can be filled again.
+     */
+    public void clear() {
+        Arrays.fill(wideValues, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return epochSeconds.length;
+    }
+
+    public boolean isFull() {
+        return size == epochSeconds.length;
+    }
+
+    public long epochSecond(int index) {
+        return epochSeconds[index];
+    }
+
+    public int nano(int index) {
+        return nanos[index];
+    }
+
+    public int scale(int index) {
+        return scales[index];
+    }
+
+    public long unscaledValue(int index) {
+        return unscaledValues[index];
+    }
+
+    /**
+     * @param index The position of the reading in the chunk
+     * @return The value of the reading if it doesn't fit the scale and unscaled value columns, null otherwise
+     */
+    public BigDecimal wideValue(int index) {
+        return wideValues[index];
+    }
+
+    /**
+     * @param index The position of the reading in the chunk
+     * @return The reading at the position
+     */
+    public ElectricityReading get(int index) {
+        BigDecimal reading = wideValues[index] != null
+                ? wideValues[index]
+                : BigDecimal.valueOf(unscaledValues[index], scales[index]);
+        return new ElectricityReading(Instant.ofEpochSecond(epochSeconds[index], nanos[index]), reading);
+    }
+}
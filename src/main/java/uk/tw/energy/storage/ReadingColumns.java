@@ -0,0 +1,178 @@
+package uk.tw.energy.storage;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * A growable list of readings held as primitive columns, as readings are bound from a request body. Stores that keep
+ * readings as columns copy them straight across. The first time something gets a reading from the list, an
+ * {@link ElectricityReading} is created for every reading and the columns are dropped, so the list never holds its
+ * readings twice and later gets return the same objects.
+ *
+ * <p>Readings without a time or a value, or whose value has too many digits for a {@code long}, are kept as they are.
+ * The list is not thread-safe.
+ */
+public final class ReadingColumns extends AbstractList<ElectricityReading> implements RandomAccess {
+    private static final int MAX_UNSCALED_PRECISION = 18;
+    private static final int NOT_IN_COLUMNS = -1;
+
+    private long[] epochSeconds;
+    private int[] nanos;
+    private int[] scales;
+    private long[] unscaledValues;
+    /** The readings held as objects: those not in the columns, or every reading once the columns are dropped. */
+    private ElectricityReading[] readings;
+    private int size;
+
+    /**
+     * Constructs a new ReadingColumns.
+     *
+     * @param initialCapacity The number of readings the list holds before its columns grow
+     */
+    public ReadingColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.epochSeconds = new long[capacity];
+        this.nanos = new int[capacity];
+        this.scales = new int[capacity];
+        this.unscaledValues = new long[capacity];
+    }
+
+    /**
+     * Appends a reading given by its columns.
+     *
+     * @param epochSecond The epoch second of the reading's time
+     * @param nano The nanosecond adjustment of the reading's time
+     * @param scale The scale of the reading's value
+     * @param unscaledValue The unscaled value of the reading's value, of at most 18 digits
+     */
+    public void add(long epochSecond, int nano, int scale, long unscaledValue) {
+        if (epochSeconds == null) {
+            addObject(new ElectricityReading(
+                    Instant.ofEpochSecond(epochSecond, nano), BigDecimal.valueOf(unscaledValue, scale)));
+            return;
+        }
+        if (size == epochSeconds.length) {
+            grow();
+        }
+        epochSeconds[size] = epochSecond;
+        nanos[size] = nano;
+        scales[size] = scale;
+        unscaledValues[size] = unscaledValue;
+        size++;
+    }
+
+    /**
+     * Appends a reading, into the columns if the list still has them and the reading fits them.
+     *
+     * @param electricityReading The reading to append
+     * @return true
+     */
+    @Override
+    public boolean add(ElectricityReading electricityReading) {
+        if (epochSeconds == null) {
+            addObject(electricityReading);
+            return true;
+        }
+        Instant time = electricityReading.time();
+        BigDecimal reading = electricityReading.reading();
+        if (time != null && reading != null && reading.precision() <= MAX_UNSCALED_PRECISION) {
+            add(time.getEpochSecond(), time.getNano(), reading.scale(), reading.unscaledValue().longValue());
+        } else {
+            add(0, NOT_IN_COLUMNS, 0, 0);
+        }
+        readings()[size - 1] = electricityReading;
+        return true;
+    }
+
+    @Override
+    public ElectricityReading get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        if (epochSeconds != null) {
+            materialize();
+        }
+        return readings[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index The position of the reading in the list
+     * @return true if the reading is held in the columns, false if it is only held as an object, as every reading is
+     *     once one has been got from the list
+     */
+    public boolean inColumns(int index) {
+        return epochSeconds != null && nanos[index] != NOT_IN_COLUMNS;
+    }
+
+    public long epochSecond(int index) {
+        return epochSeconds[index];
+    }
+
+    public int nano(int index) {
+        return nanos[index];
+    }
+
+    public int scale(int index) {
+        return scales[index];
+    }
+
+    public long unscaledValue(int index) {
+        return unscaledValues[index];
+    }
+
+    private ElectricityReading[] readings() {
+        if (readings == null) {
+            readings = new ElectricityReading[epochSeconds.length];
+        }
+        return readings;
+    }
+
+    /**
+     * Creates the readings not yet held as objects and drops the columns.
+     */
+    private void materialize() {
+        ElectricityReading[] created = readings();
+        for (int i = 0; i < size; i++) {
+            if (created[i] == null) {
+                created[i] = new ElectricityReading(
+                        Instant.ofEpochSecond(epochSeconds[i], nanos[i]),
+                        BigDecimal.valueOf(unscaledValues[i], scales[i]));
+            }
+        }
+        epochSeconds = null;
+        nanos = null;
+        scales = null;
+        unscaledValues = null;
+    }
+
+    private void addObject(ElectricityReading electricityReading) {
+        if (size == readings.length) {
+            grow();
+        }
+        readings[size++] = electricityReading;
+    }
+
+    private void grow() {
+        if (epochSeconds == null) {
+            readings = Arrays.copyOf(readings, readings.length * 2);
+            return;
+        }
+        int capacity = epochSeconds.length * 2;
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        nanos = Arrays.copyOf(nanos, capacity);
+        scales = Arrays.copyOf(scales, capacity);
+        unscaledValues = Arrays.copyOf(unscaledValues, capacity);
+        if (readings != null) {
+            readings = Arrays.copyOf(readings, capacity);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package uk.tw.energy.storage;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * Storage backend holding the electricity readings of every smart meter.
+ */
+public interface ReadingStore {
+
+    /**
+     * Retrieves the electricity readings stored for a given smart meter.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return Optional containing the readings in insertion order, or empty if the meter is unknown
+     */
+    Optional<List<ElectricityReading>> getReadings(String smartMeterId);
+
+    /**
+     * Copies a run of the readings of a smart meter into a chunk, replacing its contents, so long histories can be
+     * read a chunk at a time. The copy stops when the chunk is full or the readings run out. The default copies every
+     * reading of the meter to pick the chunk's out of them, so stores should override it.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param fromIndex The position of the first reading to copy, in insertion order
+     * @param chunk The chunk the readings are copied into
+     * @return true if the meter is known, even if no reading was copied, false otherwise
+     */
+    default boolean readChunk(String smartMeterId, int fromIndex, ReadingChunk chunk) {
+        chunk.clear();
+        Optional<List<ElectricityReading>> readings = getReadings(smartMeterId);
+        if (readings.isEmpty()) {
+            return false;
+        }
+        List<ElectricityReading> electricityReadings = readings.get();
+        for (int i = fromIndex; i < electricityReadings.size() && !chunk.isFull(); i++) {
+            chunk.add(electricityReadings.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Appends electricity readings to a smart meter, creating the meter if it doesn't exist.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param electricityReadings The readings to append
+     */
+    void storeReadings(String smartMeterId, List<ElectricityReading> electricityReadings);
+
+    /**
+     * Removes a smart meter and all of its readings.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return true if the meter was known, false otherwise
+     */
+    boolean removeReadings(String smartMeterId);
+
+    /**
+     * Replaces every reading of a smart meter in one step, so readers see either the old readings or the new ones and
+     * never a meter in between. Replacing with no readings removes the meter.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param electricityReadings The readings the meter holds afterwards, in insertion order
+     * @return true if the meter was known, false otherwise
+     */
+    boolean replaceReadings(String smartMeterId, List<ElectricityReading> electricityReadings);
+
+    /**
+     * Removes the readings of a smart meter taken before a point in time, keeping the others in their order. The meter
+     * stays known even if every reading is removed.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param cutoff The time from which readings are kept
+     * @return The removed readings in insertion order, empty if there were none or the meter is unknown
+     */
+    List<ElectricityReading> removeReadingsBefore(String smartMeterId, Instant cutoff);
+
+    /**
+     * Retrieves the version of the readings of a smart meter, for callers caching or sharing what they compute from
+     * them. The version changes together with the readings whenever some are stored or removed, and is drawn from a
+     * sequence of the whole store, so a meter removed and stored again never gets back a version it had before.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return The version of the meter's readings, or 0 if the meter is unknown
+     */
+    long getVersion(String smartMeterId);
+
+    /**
+     * Gives memory freed by removals back, doing at most a bounded amount of work so it can run in small slices.
+     *
+     * @param maxBlockMoves The maximum number of storage blocks to move
+     * @return The number of bytes released
+     */
+    default long compact(int maxBlockMoves) {
+        return 0;
+    }
+
+    /**
+     * @return A snapshot of the IDs of every smart meter in the store
+     */
+    Set<String> getSmartMeterIds();
+}
@@ -0,0 +1,167 @@
+package uk.tw.energy.storage;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Hands out fixed-size blocks carved from large direct (off-heap) slabs.
+ *
+ * <p>A block is addressed by an {@code int} handle, {@code slabIndex * blocksPerSlab + blockIndex}. Allocation always
+ * returns the lowest free handle, and {@link #compact(BlockRelocator)} moves the highest used blocks down into free
+ * holes, so trailing slabs drain and can be released. Released slabs are dropped, and their direct memory is returned
+ * once the buffer object is collected.
+ *
+ * <p>Allocation, freeing and compaction must be guarded by the caller. {@link #slab(int)} and {@link #offset(int)} may
+ * be called concurrently with {@link #allocate()}.
+ */
+public class SlabAllocator {
+    private final int blockSize;
+    private final int blocksPerSlab;
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private final BitSet usedBlocks = new BitSet();
+    private int usedBlockCount;
+
+    /**
+     * Constructs a new SlabAllocator.
+     *
+     * @param blockSize The size of every block in bytes
+     * @param blocksPerSlab The number of blocks carved out of each slab
+     */
+    public SlabAllocator(int blockSize, int blocksPerSlab) {
+        if (blockSize <= 0 || blocksPerSlab <= 0) {
+            throw new IllegalArgumentException("Block size and blocks per slab must be positive");
+        }
+        if ((long) blockSize * blocksPerSlab > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Slab size must fit in a single direct buffer");
+        }
+        this.blockSize = blockSize;
+        this.blocksPerSlab = blocksPerSlab;
+    }
+
+    /**
+     * Allocates a block, growing the allocator by one slab if every existing block is in use.
+     *
+     * @return The handle of the allocated block
+     */
+    public int allocate() {
+        int handle = usedBlocks.nextClearBit(0);
+        if (handle >= capacityBlocks()) {
+            ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+            grown[slabs.length] = ByteBuffer.allocateDirect(blockSize * blocksPerSlab);
+            slabs = grown;
+        }
+        usedBlocks.set(handle);
+        usedBlockCount++;
+        return handle;
+    }
+
+    /**
+     * Returns a block to the allocator. Its memory is reused by later allocations.
+     *
+     * @param handle The handle of the block to free
+     */
+    public void free(int handle) {
+        if (!usedBlocks.get(handle)) {
+            throw new IllegalStateException("Block " + handle + " is not allocated");
+        }
+        usedBlocks.clear(handle);
+        usedBlockCount--;
+    }
+
+    /**
+     * Moves used blocks from the end of the address space into free holes, then releases the slabs left empty.
+     *
+     * @param relocator Callback told about every block that moved, so owners can update their handles
+     * @return The number of bytes of slab memory released
+     */
+    public long compact(BlockRelocator relocator) {
+        return compact(relocator, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Moves at most {@code maxMoves} blocks into free holes, then releases the slabs left empty.
+     *
+     * @param relocator Callback told about every block that moved, so owners can update their handles
+     * @param maxMoves The maximum number of blocks to move in this call
+     * @return The number of bytes of slab memory released
+     */
+    public long compact(BlockRelocator relocator, int maxMoves) {
+        int moves = 0;
+        int hole = usedBlocks.nextClearBit(0);
+        int last = usedBlocks.length() - 1;
+        while (moves < maxMoves && hole < last) {
+            copyBlock(last, hole);
+            usedBlocks.set(hole);
+            usedBlocks.clear(last);
+            relocator.relocate(last, hole);
+            moves++;
+            hole = usedBlocks.nextClearBit(hole + 1);
+            last = usedBlocks.length() - 1;
+        }
+        return releaseTrailingSlabs();
+    }
+
+    /**
+     * @param handle The handle of a block
+     * @return The slab holding the block; use {@link #offset(int)} for absolute access into it
+     */
+    public ByteBuffer slab(int handle) {
+        return slabs[handle / blocksPerSlab];
+    }
+
+    /**
+     * @param handle The handle of a block
+     * @return The byte offset of the block inside its slab
+     */
+    public int offset(int handle) {
+        return (handle % blocksPerSlab) * blockSize;
+    }
+
+    /**
+     * @return The size of every block in bytes
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * @return The bytes held in blocks that are currently allocated
+     */
+    public long usedBytes() {
+        return (long) usedBlockCount * blockSize;
+    }
+
+    /**
+     * @return The bytes of direct memory reserved by all slabs
+     */
+    public long reservedBytes() {
+        return (long) slabs.length * blocksPerSlab * blockSize;
+    }
+
+    private int capacityBlocks() {
+        return slabs.length * blocksPerSlab;
+    }
+
+    private void copyBlock(int from, int to) {
+        slab(to).put(offset(to), slab(from), offset(from), blockSize);
+    }
+
+    private long releaseTrailingSlabs() {
+        int slabsNeeded = (usedBlocks.length() + blocksPerSlab - 1) / blocksPerSlab;
+        if (slabs.length <= slabsNeeded) {
+            return 0;
+        }
+        long released = (long) (slabs.length - slabsNeeded) * blocksPerSlab * blockSize;
+        slabs = Arrays.copyOf(slabs, slabsNeeded);
+        return released;
+    }
+
+    /**
+     * Receives the old and new handle of every block moved during compaction.
+     */
+    @FunctionalInterface
+    public interface BlockRelocator {
+        void relocate(int fromHandle, int toHandle);
+    }
+}
@@ -0,0 +1,24 @@
+package uk.tw.energy.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * Binds a single electricity reading with a {@link ReadingParser} rather than the record's bean deserializer.
+ */
+public class ElectricityReadingDeserializer extends StdDeserializer<ElectricityReading> {
+
+    public ElectricityReadingDeserializer() {
+        super(ElectricityReading.class);
+    }
+
+    @Override
+    public ElectricityReading deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        ReadingParser readingParser = new ReadingParser(this);
+        readingParser.read(parser, context);
+        return readingParser.toReading();
+    }
+}
@@ -0,0 +1,41 @@
+package uk.tw.energy.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * Writes an electricity reading field by field, skipping the record's bean serializer and the lookup of a serializer
+ * for each of its properties. The output is what the {@code ObjectMapper} writes for the record.
+ */
+public class ElectricityReadingSerializer extends StdSerializer<ElectricityReading> {
+
+    public ElectricityReadingSerializer() {
+        super(ElectricityReading.class);
+    }
+
+    @Override
+    public void serialize(ElectricityReading electricityReading, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(electricityReading);
+        generator.writeFieldName("time");
+        if (electricityReading.time() == null) {
+            generator.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(electricityReading.time(), generator);
+        } else {
+            // Instant#toString() formats with DateTimeFormatter.ISO_INSTANT, as the Instant serializer does.
+            generator.writeString(electricityReading.time().toString());
+        }
+        generator.writeFieldName("reading");
+        if (electricityReading.reading() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(electricityReading.reading());
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,68 @@
+package uk.tw.energy.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.List;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.MeterReadings;
+import uk.tw.energy.storage.ReadingColumns;
+
+/**
+ * Binds a request body of readings in a single pass over the parser, straight into {@link ReadingColumns}.
+ *
+ * <p>The default record deserializer creates an {@link java.time.Instant}, a {@link java.math.BigDecimal} and a
+ * reading for every element, and grows a list of them. Here each element is parsed into primitives and appended to
+ * the columns, so the readings can reach a columnar store without an object per reading being created. Missing fields
+ * and unknown properties are handled as the {@code ObjectMapper} handles them; a null element is rejected.
+ */
+public class MeterReadingsDeserializer extends StdDeserializer<MeterReadings> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    public MeterReadingsDeserializer() {
+        super(MeterReadings.class);
+    }
+
+    @Override
+    public MeterReadings deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        String smartMeterId = null;
+        List<ElectricityReading> electricityReadings = null;
+        String name;
+        if (parser.isExpectedStartObjectToken()) {
+            name = parser.nextFieldName();
+        } else if (parser.hasToken(JsonToken.FIELD_NAME)) {
+            name = parser.currentName();
+        } else {
+            throw context.wrongTokenException(
+                    parser, MeterReadings.class, JsonToken.START_OBJECT, "Expected meter readings");
+        }
+        for (; name != null; name = parser.nextFieldName()) {
+            JsonToken token = parser.nextToken();
+            switch (name) {
+                case "smartMeterId" -> smartMeterId = token == JsonToken.VALUE_STRING
+                        ? parser.getText()
+                        : context.readValue(parser, String.class);
+                case "electricityReadings" -> electricityReadings =
+                        token == JsonToken.VALUE_NULL ? null : readReadings(parser, context);
+                default -> context.handleUnknownProperty(parser, this, MeterReadings.class, name);
+            }
+        }
+        return new MeterReadings(smartMeterId, electricityReadings);
+    }
+
+    private ReadingColumns readReadings(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartArrayToken()) {
+            throw context.wrongTokenException(
+                    parser, List.class, JsonToken.START_ARRAY, "Expected an array of electricity readings");
+        }
+        ReadingColumns columns = new ReadingColumns(INITIAL_CAPACITY);
+        ReadingParser readingParser = new ReadingParser(this);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            readingParser.read(parser, context);
+            readingParser.appendTo(columns);
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,279 @@
+package uk.tw.energy.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.storage.ReadingColumns;
+
+/**
+ * Parses the fields of one reading object at a time, reading times and values straight from the parser's text buffer
+ * into primitives.
+ *
+ * <p>Times in the UTC form {@code DateTimeFormatter.ISO_INSTANT} writes, whole epoch seconds and non-negative epoch
+ * seconds with a fraction of up to nine digits are parsed directly, as are plain decimal values of at most 18 digits.
+ * Anything else is handed to the context's own {@link Instant} and {@link BigDecimal} deserializers, so every input
+ * binds to what the {@code ObjectMapper} would bind it to.
+ */
+final class ReadingParser {
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int MAX_UNSCALED_PRECISION = 18;
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final int SHORTEST_ISO_INSTANT = "0000-00-00T00:00:00Z".length();
+
+    private final JsonDeserializer<?> deserializer;
+    private boolean timeParsed;
+    private long epochSecond;
+    private int nano;
+    private Instant time;
+    private boolean valueParsed;
+    private int scale;
+    private long unscaledValue;
+    private BigDecimal value;
+
+    /**
+     * Constructs a new ReadingParser.
+     *
+     * @param deserializer The deserializer unknown properties are reported against
+     */
+    ReadingParser(JsonDeserializer<?> deserializer) {
+        this.deserializer = deserializer;
+    }
+
+    /**
+     * Parses the reading object starting at the parser's current token, leaving the parser on its end.
+     *
+     * @param parser The parser on the start of the object
+     * @param context The context unknown properties and other inputs are handed to
+     * @throws IOException if the JSON is malformed or doesn't bind to a reading
+     */
+    void read(JsonParser parser, DeserializationContext context) throws IOException {
+        timeParsed = false;
+        time = null;
+        valueParsed = false;
+        value = null;
+        String name;
+        if (parser.isExpectedStartObjectToken()) {
+            name = parser.nextFieldName();
+        } else if (parser.hasToken(JsonToken.FIELD_NAME)) {
+            name = parser.currentName();
+        } else {
+            throw context.wrongTokenException(
+                    parser, ElectricityReading.class, JsonToken.START_OBJECT, "Expected an electricity reading");
+        }
+        for (; name != null; name = parser.nextFieldName()) {
+            JsonToken token = parser.nextToken();
+            switch (name) {
+                case "time" -> readTime(parser, context, token);
+                case "reading" -> readValue(parser, context, token);
+                default -> context.handleUnknownProperty(parser, deserializer, ElectricityReading.class, name);
+            }
+        }
+    }
+
+    /**
+     * Appends the reading last parsed, into the columns unless it lacks a time or a value or has too many digits.
+     */
+    void appendTo(ReadingColumns columns) {
+        if (timeParsed && valueParsed) {
+            columns.add(epochSecond, nano, scale, unscaledValue);
+        } else {
+            columns.add(toReading());
+        }
+    }
+
+    /**
+     * @return The reading last parsed
+     */
+    ElectricityReading toReading() {
+        return new ElectricityReading(
+                timeParsed ? Instant.ofEpochSecond(epochSecond, nano) : time,
+                valueParsed ? BigDecimal.valueOf(unscaledValue, scale) : value);
+    }
+
+    private void readTime(JsonParser parser, DeserializationContext context, JsonToken token) throws IOException {
+        timeParsed = switch (token) {
+            case VALUE_STRING -> parseIsoInstant(
+                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            case VALUE_NUMBER_INT -> parseEpochSecond(parser, context);
+            case VALUE_NUMBER_FLOAT -> parseFractionalEpochSecond(
+                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            default -> false;
+        };
+        time = timeParsed || token == JsonToken.VALUE_NULL ? null : context.readValue(parser, Instant.class);
+    }
+
+    private void readValue(JsonParser parser, DeserializationContext context, JsonToken token) throws IOException {
+        valueParsed = token.isNumeric()
+                && parseDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        value = valueParsed || token == JsonToken.VALUE_NULL ? null : context.readValue(parser, BigDecimal.class);
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm:ss[.fffffffff]Z} for years 0 to 9999.
+     */
+    private boolean parseIsoInstant(char[] text, int offset, int length) {
+        if (length < SHORTEST_ISO_INSTANT
+                || length == SHORTEST_ISO_INSTANT + 1
+                || length > SHORTEST_ISO_INSTANT + 1 + MAX_FRACTION_DIGITS
+                || text[offset + 4] != '-'
+                || text[offset + 7] != '-'
+                || text[offset + 10] != 'T'
+                || text[offset + 13] != ':'
+                || text[offset + 16] != ':'
+                || text[offset + length - 1] != 'Z'
+                || (length > SHORTEST_ISO_INSTANT && text[offset + 19] != '.')) {
+            return false;
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        int hour = digits(text, offset + 11, 2);
+        int minute = digits(text, offset + 14, 2);
+        int second = digits(text, offset + 17, 2);
+        int fractionDigits = Math.max(length - SHORTEST_ISO_INSTANT - 1, 0);
+        int fraction = fractionDigits == 0 ? 0 : digits(text, offset + 20, fractionDigits);
+        if (year < 0
+                || month < 1
+                || month > 12
+                || day < 1
+                || day > lengthOfMonth(year, month)
+                || hour < 0
+                || hour > 23
+                || minute < 0
+                || minute > 59
+                || second < 0
+                || second > 59
+                || fraction < 0) {
+            return false;
+        }
+        epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3_600L + minute * 60L + second;
+        nano = fraction * (int) pow10(MAX_FRACTION_DIGITS - fractionDigits);
+        return true;
+    }
+
+    private boolean parseEpochSecond(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!context.isEnabled(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                || parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+            return false;
+        }
+        epochSecond = parser.getLongValue();
+        nano = 0;
+        return true;
+    }
+
+    /**
+     * Parses non-negative seconds with a fraction of up to nine digits, leaving exponents and negative times to the
+     * {@link Instant} deserializer.
+     */
+    private boolean parseFractionalEpochSecond(char[] text, int offset, int length) {
+        long seconds = 0;
+        int fraction = 0;
+        int fractionDigits = -1;
+        for (int i = offset; i < offset + length; i++) {
+            char c = text[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c < '0' || c > '9') {
+                return false;
+            } else if (fractionDigits < 0) {
+                if (seconds > (Long.MAX_VALUE - 9) / 10) {
+                    return false;
+                }
+                seconds = seconds * 10 + (c - '0');
+            } else if (++fractionDigits > MAX_FRACTION_DIGITS) {
+                return false;
+            } else {
+                fraction = fraction * 10 + (c - '0');
+            }
+        }
+        epochSecond = seconds;
+        nano = fraction * (int) pow10(MAX_FRACTION_DIGITS - Math.max(fractionDigits, 0));
+        return true;
+    }
+
+    /**
+     * Parses a plain decimal into the unscaled value and scale {@link BigDecimal#BigDecimal(String)} gives it, if it
+     * has at most 18 significant digits.
+     */
+    private boolean parseDecimal(char[] text, int offset, int length) {
+        int i = offset;
+        boolean negative = length > 0 && text[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long unscaled = 0;
+        int precision = 0;
+        int fractionDigits = -1;
+        for (; i < offset + length; i++) {
+            char c = text[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+            if (unscaled != 0 || c != '0') {
+                if (++precision > MAX_UNSCALED_PRECISION) {
+                    return false;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+            }
+        }
+        scale = Math.max(fractionDigits, 0);
+        unscaledValue = negative ? -unscaled : unscaled;
+        return true;
+    }
+
+    /**
+     * @return The number written in the given decimal digits, or -1 if one of them isn't a digit
+     */
+    private static int digits(char[] text, int offset, int count) {
+        int number = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Days since 1970-01-01 of a civil date, counting years from March so leap days fall at their end.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long yearFromMarch = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(yearFromMarch, 400);
+        long yearOfEra = yearFromMarch - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static long pow10(int exponent) {
+        long power = 1;
+        for (int i = 0; i < exponent; i++) {
+            power *= 10;
+        }
+        return power;
+    }
+}
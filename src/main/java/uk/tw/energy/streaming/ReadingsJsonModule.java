@@ -0,0 +1,19 @@
+package uk.tw.energy.streaming;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.MeterReadings;
+
+/**
+ * Jackson module binding readings with the streaming deserializers and serializer of this package. It relies on the
+ * Java time module for the times it leaves to the {@link java.time.Instant} deserializer.
+ */
+public class ReadingsJsonModule extends SimpleModule {
+
+    public ReadingsJsonModule() {
+        super("ReadingsJsonModule");
+        addDeserializer(MeterReadings.class, new MeterReadingsDeserializer());
+        addDeserializer(ElectricityReading.class, new ElectricityReadingDeserializer());
+        addSerializer(ElectricityReading.class, new ElectricityReadingSerializer());
+    }
+}
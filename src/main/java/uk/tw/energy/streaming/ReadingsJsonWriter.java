@@ -0,0 +1,256 @@
+package uk.tw.energy.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.ReadingChunk;
+
+/**
+ * Writes the readings of a smart meter as a JSON array straight from storage to a response, one chunk at a time.
+ *
+ * <p>The output is byte for byte what the {@code ObjectMapper} writes for a list of readings: times in ISO-8601 with
+ * the fraction of a second in groups of three digits, and values in the notation of {@link BigDecimal#toString()}.
+ * Readings are copied out of the store into a {@link ReadingChunk} and encoded into a reusable buffer without creating
+ * an object per reading, so the memory a response needs is bounded by the chunk and buffer sizes whatever the meter's
+ * history.
+ * The store is only held while a chunk is copied, never while the response is written.
+ *
+ * <p>A meter that receives readings while it is streamed may or may not have them included. A meter removed while it
+ * is streamed ends its array early, and one whose oldest readings expire while it is streamed may skip some readings.
+ */
+@Component
+public class ReadingsJsonWriter {
+    private static final byte[] READING_START = "{\"time\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] READING_MIDDLE = "\",\"reading\":".getBytes(StandardCharsets.US_ASCII);
+    // Fits the separator, the field names, a time with nanoseconds and the longest value in plain notation.
+    private static final int MAX_READING_BYTES = 96;
+    private static final int BUFFER_BYTES = 65_536;
+    private static final int MAX_PLAIN_EXPONENT = -6;
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final long MIN_FOUR_DIGIT_YEAR_SECOND = -62_167_219_200L;
+    private static final long MAX_FOUR_DIGIT_YEAR_SECOND = 253_402_300_799L;
+
+    private final MeterReadingService meterReadingService;
+    private final int chunkSize;
+
+    /**
+     * Constructs a new ReadingsJsonWriter.
+     *
+     * @param meterReadingService The service holding the readings
+     * @param chunkSize The number of readings copied out of the store and encoded at a time
+     */
+    public ReadingsJsonWriter(
+            MeterReadingService meterReadingService,
+            @Value("${energy.readings.stream-chunk-size:4096}") int chunkSize) {
+        this.meterReadingService = meterReadingService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Prepares the response body streaming the readings of a smart meter. The first chunk is read straight away, so an
+     * unknown meter is found before the response starts.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return The response body, or empty if the meter is unknown
+     */
+    public Optional<StreamingResponseBody> stream(String smartMeterId) {
+        ReadingChunk chunk = new ReadingChunk(chunkSize);
+        if (!meterReadingService.readChunk(smartMeterId, 0, chunk)) {
+            return Optional.empty();
+        }
+        return Optional.of(outputStream -> write(smartMeterId, chunk, outputStream));
+    }
+
+    private void write(String smartMeterId, ReadingChunk firstChunk, OutputStream outputStream) throws IOException {
+        Encoder encoder = new Encoder(outputStream);
+        encoder.put((byte) '[');
+        ReadingChunk chunk = firstChunk;
+        int written = 0;
+        while (chunk.size() > 0) {
+            for (int i = 0; i < chunk.size(); i++) {
+                encoder.putReading(chunk, i, written++ > 0);
+            }
+            if (!chunk.isFull() || !meterReadingService.readChunk(smartMeterId, written, chunk)) {
+                break;
+            }
+        }
+        encoder.put((byte) ']');
+        encoder.flush();
+    }
+
+    /**
+     * Encodes readings into a buffer that is written out whenever a reading might not fit.
+     */
+    private static final class Encoder {
+        private final OutputStream outputStream;
+        private final byte[] buffer;
+        private int position;
+
+        private Encoder(OutputStream outputStream) {
+            this.outputStream = outputStream;
+            this.buffer = new byte[BUFFER_BYTES];
+        }
+
+        private void putReading(ReadingChunk chunk, int index, boolean separated) throws IOException {
+            if (position + MAX_READING_BYTES > buffer.length) {
+                flush();
+            }
+            if (separated) {
+                put((byte) ',');
+            }
+            put(READING_START);
+            putTime(chunk.epochSecond(index), chunk.nano(index));
+            put(READING_MIDDLE);
+            BigDecimal wideValue = chunk.wideValue(index);
+            if (wideValue != null) {
+                putAscii(wideValue.toString());
+            } else {
+                putValue(chunk.unscaledValue(index), chunk.scale(index));
+            }
+            put((byte) '}');
+        }
+
+        /**
+         * Writes a time as {@code DateTimeFormatter.ISO_INSTANT} does, computing the civil date of years 0 to 9999
+         * directly and leaving other years to the formatter.
+         */
+        private void putTime(long epochSecond, int nano) throws IOException {
+            if (epochSecond < MIN_FOUR_DIGIT_YEAR_SECOND || epochSecond > MAX_FOUR_DIGIT_YEAR_SECOND) {
+                putAscii(DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochSecond(epochSecond, nano)));
+                return;
+            }
+            long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+            int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+            // Civil date from days since 1970-01-01, counting years from March so leap days fall at their end.
+            long shifted = epochDay + 719_468;
+            long era = Math.floorDiv(shifted, 146_097);
+            long dayOfEra = shifted - era * 146_097;
+            long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long monthFromMarch = (5 * dayOfYear + 2) / 153;
+            int day = (int) (dayOfYear - (153 * monthFromMarch + 2) / 5 + 1);
+            int month = (int) (monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9);
+            int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+            putDigits(year, 4);
+            put((byte) '-');
+            putDigits(month, 2);
+            put((byte) '-');
+            putDigits(day, 2);
+            put((byte) 'T');
+            putDigits(secondOfDay / 3_600, 2);
+            put((byte) ':');
+            putDigits(secondOfDay / 60 % 60, 2);
+            put((byte) ':');
+            putDigits(secondOfDay % 60, 2);
+            if (nano != 0) {
+                put((byte) '.');
+                if (nano % 1_000_000 == 0) {
+                    putDigits(nano / 1_000_000, 3);
+                } else if (nano % 1_000 == 0) {
+                    putDigits(nano / 1_000, 6);
+                } else {
+                    putDigits(nano, 9);
+                }
+            }
+            put((byte) 'Z');
+        }
+
+        /**
+         * Writes a decimal as {@link BigDecimal#toString()} does. Plain notation is written directly, scientific
+         * notation is left to {@link BigDecimal}.
+         */
+        private void putValue(long unscaledValue, int scale) throws IOException {
+            if (unscaledValue == Long.MIN_VALUE || scale < 0) {
+                putAscii(BigDecimal.valueOf(unscaledValue, scale).toString());
+                return;
+            }
+            long magnitude = Math.abs(unscaledValue);
+            int digits = digitCount(magnitude);
+            if ((long) digits - 1 - scale < MAX_PLAIN_EXPONENT) {
+                putAscii(BigDecimal.valueOf(unscaledValue, scale).toString());
+                return;
+            }
+            if (unscaledValue < 0) {
+                put((byte) '-');
+            }
+            if (scale == 0) {
+                putDigits(magnitude, digits);
+            } else if (digits > scale) {
+                long unit = pow10(scale);
+                putDigits(magnitude / unit, digits - scale);
+                put((byte) '.');
+                putDigits(magnitude % unit, scale);
+            } else {
+                put((byte) '0');
+                put((byte) '.');
+                putDigits(magnitude, scale);
+            }
+        }
+
+        /**
+         * Writes a non-negative number with leading zeros up to the given number of digits.
+         */
+        private void putDigits(long value, int digits) {
+            for (int i = position + digits - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position += digits;
+        }
+
+        private void putAscii(String text) throws IOException {
+            put(text.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private void put(byte[] bytes) throws IOException {
+            if (position + bytes.length > buffer.length) {
+                flush();
+                if (bytes.length > buffer.length) {
+                    outputStream.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void put(byte value) throws IOException {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = value;
+        }
+
+        private void flush() throws IOException {
+            if (position > 0) {
+                outputStream.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+
+        private static int digitCount(long value) {
+            int digits = 1;
+            for (long bound = 10; digits < 19 && value >= bound; bound *= 10) {
+                digits++;
+            }
+            return digits;
+        }
+
+        private static long pow10(int exponent) {
+            long power = 1;
+            for (int i = 0; i < exponent; i++) {
+                power *= 10;
+            }
+            return power;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package uk.tw.energy.tenancy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+/**
+ * Configuration class isolating the energy suppliers hosted by one deployment from each other.
+ * Set {@code energy.tenancy.enabled} to {@code true} to partition the reading store by supplier, with a quota of
+ * {@code energy.tenancy.max-readings-per-tenant} readings each, and to bound the requests each supplier has in flight
+ * to store, cost or forecast its readings.
+ */
+@Configuration
+@ConditionalOnProperty(name = "energy.tenancy.enabled", havingValue = "true")
+public class TenancyConfiguration {
+
+    /**
+     * Creates the resolver finding the supplier of each smart meter.
+     *
+     * @param accountService The service holding the price plan of each smart meter
+     * @param pricePlanCatalogue The catalogue holding the energy supplier of each price plan
+     * @return A TenantResolver
+     */
+    @Bean
+    public TenantResolver tenantResolver(AccountService accountService, PricePlanCatalogue pricePlanCatalogue) {
+        return new TenantResolver(accountService, pricePlanCatalogue);
+    }
+
+    /**
+     * Creates the per-supplier limit on requests in flight.
+     *
+     * @param tenantResolver The resolver finding the supplier of each smart meter
+     * @param maxConcurrentRequests The number of requests each supplier may have in flight
+     * @param meterRegistry The registry the bulkhead metrics are published to
+     * @return A TenantBulkhead
+     */
+    @Bean
+    public TenantBulkhead tenantBulkhead(
+            TenantResolver tenantResolver,
+            @Value("${energy.tenancy.max-concurrent-requests:16}") int maxConcurrentRequests,
+            MeterRegistry meterRegistry) {
+        return new TenantBulkhead(tenantResolver, maxConcurrentRequests, meterRegistry);
+    }
+}
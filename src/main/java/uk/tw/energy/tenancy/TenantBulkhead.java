@@ -0,0 +1,144 @@
+package uk.tw.energy.tenancy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of requests each tenant has in flight, so one tenant's backfill can only take its share of the
+ * request threads and CPU.
+ *
+ * <p>Like the {@link uk.tw.energy.ratelimit.AdmissionController}, work runs on the calling thread and a request over
+ * its tenant's limit is refused straight away rather than queued, so a tenant sending more than it may is told to back
+ * off without holding a thread while it waits. Every request costing or storing the readings of a tenant's meters
+ * goes through the bulkhead: ingestion, price plan comparisons and recommendations, bill forecasts, and portfolio and
+ * cohort comparisons, so a tenant's portfolio can't fill the shared pricing executor either.
+ */
+public class TenantBulkhead {
+    private final TenantResolver tenantResolver;
+    private final int maxConcurrentRequests;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new TenantBulkhead.
+     *
+     * @param tenantResolver The resolver finding the tenant of each smart meter
+     * @param maxConcurrentRequests The number of requests each tenant may have in flight
+     * @param meterRegistry The registry the bulkhead metrics are published to
+     */
+    public TenantBulkhead(TenantResolver tenantResolver, int maxConcurrentRequests, MeterRegistry meterRegistry) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("Each tenant must be allowed at least one request in flight");
+        }
+        this.tenantResolver = tenantResolver;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs a request for a smart meter if its tenant is below its limit.
+     *
+     * @param smartMeterId The ID of the smart meter the request is for
+     * @param request The work of the request
+     * @throws TenantBusyException if the tenant already has as many requests in flight as it may
+     */
+    public void run(String smartMeterId, Runnable request) {
+        call(smartMeterId, () -> {
+            request.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a request for a smart meter if its tenant is below its limit.
+     *
+     * @param smartMeterId The ID of the smart meter the request is for
+     * @param request The work of the request
+     * @return The result of the request
+     * @throws TenantBusyException if the tenant already has as many requests in flight as it may
+     */
+    public <T> T call(String smartMeterId, Supplier<T> request) {
+        return callAs(tenantResolver.tenantOf(smartMeterId), request);
+    }
+
+    /**
+     * Runs a request for a tenant if it is below its limit.
+     *
+     * @param tenant The energy supplier the request is for
+     * @param request The work of the request
+     * @return The result of the request
+     * @throws TenantBusyException if the tenant already has as many requests in flight as it may
+     */
+    public <T> T callAs(String tenant, Supplier<T> request) {
+        AtomicInteger tenantInFlight = enter(tenant);
+        try {
+            return request.get();
+        } finally {
+            tenantInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Starts an asynchronous request for a tenant if it is below its limit. The request stays in flight until its
+     * future completes.
+     *
+     * @param tenant The energy supplier the request is for
+     * @param request Starts the work of the request
+     * @return A future completing with the request
+     * @throws TenantBusyException if the tenant already has as many requests in flight as it may
+     */
+    public <T> CompletableFuture<T> callAsyncAs(String tenant, Supplier<CompletableFuture<T>> request) {
+        AtomicInteger tenantInFlight = enter(tenant);
+        CompletableFuture<T> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            tenantInFlight.decrementAndGet();
+            throw e;
+        }
+        return response.whenComplete((result, failure) -> tenantInFlight.decrementAndGet());
+    }
+
+    /**
+     * @param tenant The energy supplier
+     * @return The number of requests of the tenant being served
+     */
+    public int getInFlight(String tenant) {
+        AtomicInteger tenantInFlight = inFlight.get(tenant);
+        return tenantInFlight == null ? 0 : tenantInFlight.get();
+    }
+
+    private AtomicInteger enter(String tenant) {
+        AtomicInteger tenantInFlight = inFlight.computeIfAbsent(tenant, this::register);
+        while (true) {
+            int current = tenantInFlight.get();
+            if (current >= maxConcurrentRequests) {
+                Counter.builder("energy.tenancy.rejected")
+                        .description("Requests refused because their tenant reached one of its limits")
+                        .tag("tenant", tenant)
+                        .tag("reason", "busy")
+                        .register(meterRegistry)
+                        .increment();
+                throw new TenantBusyException(tenant, maxConcurrentRequests);
+            }
+            if (tenantInFlight.compareAndSet(current, current + 1)) {
+                return tenantInFlight;
+            }
+        }
+    }
+
+    private AtomicInteger register(String tenant) {
+        AtomicInteger tenantInFlight = new AtomicInteger();
+        Gauge.builder("energy.tenancy.in-flight", tenantInFlight, AtomicInteger::get)
+                .description("Requests of a tenant being served")
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+        return tenantInFlight;
+    }
+}
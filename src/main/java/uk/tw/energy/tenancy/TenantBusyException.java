@@ -0,0 +1,18 @@
+package uk.tw.energy.tenancy;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a tenant already has as many requests in flight as it may.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TenantBusyException extends TenantLimitException {
+
+    public TenantBusyException(String tenant, int maxConcurrentRequests) {
+        super(
+                tenant,
+                "Energy supplier " + tenant + " already has " + maxConcurrentRequests
+                        + " requests in flight, the most it may have at once");
+    }
+}
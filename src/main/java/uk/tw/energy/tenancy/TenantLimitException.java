@@ -0,0 +1,21 @@
+package uk.tw.energy.tenancy;
+
+/**
+ * Thrown when a request would take a tenant over one of its limits. Only that tenant's requests are refused; other
+ * tenants are served as usual.
+ */
+public abstract class TenantLimitException extends RuntimeException {
+    private final String tenant;
+
+    protected TenantLimitException(String tenant, String message) {
+        super(message);
+        this.tenant = tenant;
+    }
+
+    /**
+     * @return The energy supplier whose limit was reached
+     */
+    public String getTenant() {
+        return tenant;
+    }
+}
@@ -0,0 +1,288 @@
+package uk.tw.energy.tenancy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.storage.ReadingChunk;
+import uk.tw.energy.storage.ReadingStore;
+
+/**
+ * Reading store keeping the readings of each tenant in a partition of its own, with a quota on the readings each
+ * partition holds.
+ *
+ * <p>Partitions share no maps, locks or, off-heap, slabs, so one tenant's backfill, removals and compaction only
+ * contend with its own readings. Readings take a fixed amount of memory, so the quota on readings bounds the memory a
+ * tenant can fill. A batch that would take its tenant over the quota is refused as a whole with a
+ * {@link TenantQuotaExceededException} before anything is stored, and readings removed or expired free their share of
+ * the quota again.
+ *
+ * <p>A smart meter stays in the partition of the tenant it had when its first readings were stored until it is
+ * removed, even if its account moves to another supplier in the meantime. Versions are drawn from a sequence of this
+ * store rather than of the partitions, so a meter moving partitions never gets back a version it had before.
+ */
+public class TenantPartitionedReadingStore implements ReadingStore {
+    private final TenantResolver tenantResolver;
+    private final Supplier<ReadingStore> partitionFactory;
+    private final long maxReadingsPerTenant;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final Map<String, PartitionedMeter> meters = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    /**
+     * Constructs a new TenantPartitionedReadingStore.
+     *
+     * @param tenantResolver The resolver finding the tenant of each smart meter
+     * @param partitionFactory Creates the empty store of a tenant the first time one of its meters stores readings
+     * @param maxReadingsPerTenant The most readings each tenant may store
+     * @param meterRegistry The registry the partition metrics are published to
+     */
+    public TenantPartitionedReadingStore(
+            TenantResolver tenantResolver,
+            Supplier<ReadingStore> partitionFactory,
+            long maxReadingsPerTenant,
+            MeterRegistry meterRegistry) {
+        if (maxReadingsPerTenant < 1) {
+            throw new IllegalArgumentException("Each tenant must be allowed to store at least one reading");
+        }
+        this.tenantResolver = tenantResolver;
+        this.partitionFactory = partitionFactory;
+        this.maxReadingsPerTenant = maxReadingsPerTenant;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Optional<List<ElectricityReading>> getReadings(String smartMeterId) {
+        PartitionedMeter meter = meters.get(smartMeterId);
+        return meter == null ? Optional.empty() : meter.partition.readingStore.getReadings(smartMeterId);
+    }
+
+    @Override
+    public boolean readChunk(String smartMeterId, int fromIndex, ReadingChunk chunk) {
+        PartitionedMeter meter = meters.get(smartMeterId);
+        if (meter == null) {
+            chunk.clear();
+            return false;
+        }
+        return meter.partition.readingStore.readChunk(smartMeterId, fromIndex, chunk);
+    }
+
+    /**
+     * @throws TenantQuotaExceededException if the readings would take the meter's tenant over its quota
+     */
+    @Override
+    public void storeReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        while (true) {
+            PartitionedMeter meter = meters.computeIfAbsent(
+                    smartMeterId, id -> new PartitionedMeter(partitionOf(tenantResolver.tenantOf(id))));
+            synchronized (meter) {
+                if (meter.removed) {
+                    continue;
+                }
+                Partition partition = meter.partition;
+                partition.reserve(electricityReadings.size());
+                try {
+                    partition.readingStore.storeReadings(smartMeterId, electricityReadings);
+                } catch (RuntimeException e) {
+                    partition.readingCount.addAndGet(-electricityReadings.size());
+                    throw e;
+                }
+                meter.readingCount += electricityReadings.size();
+                meter.version = versionSequence.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean removeReadings(String smartMeterId) {
+        PartitionedMeter meter = meters.get(smartMeterId);
+        if (meter == null) {
+            return false;
+        }
+        synchronized (meter) {
+            if (meter.removed) {
+                return false;
+            }
+            meter.removed = true;
+            meters.remove(smartMeterId, meter);
+            meter.partition.readingCount.addAndGet(-meter.readingCount);
+            return meter.partition.readingStore.removeReadings(smartMeterId);
+        }
+    }
+
+    /**
+     * Counts only the difference between the new readings and the old ones against the quota.
+     *
+     * @throws TenantQuotaExceededException if the readings would take the meter's tenant over its quota
+     */
+    @Override
+    public boolean replaceReadings(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        if (electricityReadings.isEmpty()) {
+            return removeReadings(smartMeterId);
+        }
+        while (true) {
+            PartitionedMeter meter = meters.computeIfAbsent(
+                    smartMeterId, id -> new PartitionedMeter(partitionOf(tenantResolver.tenantOf(id))));
+            synchronized (meter) {
+                if (meter.removed) {
+                    continue;
+                }
+                Partition partition = meter.partition;
+                long added = electricityReadings.size() - meter.readingCount;
+                if (added > 0) {
+                    partition.reserve((int) added);
+                } else {
+                    partition.readingCount.addAndGet(added);
+                }
+                boolean known;
+                try {
+                    known = partition.readingStore.replaceReadings(smartMeterId, electricityReadings);
+                } catch (RuntimeException e) {
+                    partition.readingCount.addAndGet(-added);
+                    throw e;
+                }
+                meter.readingCount = electricityReadings.size();
+                meter.version = versionSequence.incrementAndGet();
+                return known;
+            }
+        }
+    }
+
+    @Override
+    public List<ElectricityReading> removeReadingsBefore(String smartMeterId, Instant cutoff) {
+        PartitionedMeter meter = meters.get(smartMeterId);
+        if (meter == null) {
+            return List.of();
+        }
+        synchronized (meter) {
+            if (meter.removed) {
+                return List.of();
+            }
+            List<ElectricityReading> removed = meter.partition.readingStore.removeReadingsBefore(smartMeterId, cutoff);
+            meter.readingCount -= removed.size();
+            meter.partition.readingCount.addAndGet(-removed.size());
+            if (!removed.isEmpty()) {
+                meter.version = versionSequence.incrementAndGet();
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public long getVersion(String smartMeterId) {
+        PartitionedMeter meter = meters.get(smartMeterId);
+        if (meter == null) {
+            return 0;
+        }
+        synchronized (meter) {
+            return meter.removed ? 0 : meter.version;
+        }
+    }
+
+    /**
+     * Compacts every partition, sharing the block moves out between them.
+     */
+    @Override
+    public long compact(int maxBlockMoves) {
+        List<Partition> compacted = List.copyOf(partitions.values());
+        if (compacted.isEmpty()) {
+            return 0;
+        }
+        int movesPerPartition = Math.max(maxBlockMoves / compacted.size(), 1);
+        long released = 0;
+        for (Partition partition : compacted) {
+            released += partition.readingStore.compact(movesPerPartition);
+        }
+        return released;
+    }
+
+    @Override
+    public Set<String> getSmartMeterIds() {
+        Set<String> smartMeterIds = new HashSet<>();
+        for (Partition partition : partitions.values()) {
+            smartMeterIds.addAll(partition.readingStore.getSmartMeterIds());
+        }
+        return Set.copyOf(smartMeterIds);
+    }
+
+    /**
+     * @return The number of readings stored by each tenant that has stored any
+     */
+    public Map<String, Long> getReadingCounts() {
+        return partitions.values().stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        partition -> partition.tenant, partition -> partition.readingCount.get()));
+    }
+
+    private Partition partitionOf(String tenant) {
+        return partitions.computeIfAbsent(tenant, name -> {
+            Partition partition = new Partition(name, partitionFactory.get());
+            Gauge.builder("energy.tenancy.readings", partition.readingCount, AtomicLong::get)
+                    .description("Readings stored by a tenant")
+                    .tag("tenant", name)
+                    .register(meterRegistry);
+            return partition;
+        });
+    }
+
+    /**
+     * The store of one tenant and the readings it holds.
+     */
+    private final class Partition {
+        private final String tenant;
+        private final ReadingStore readingStore;
+        private final AtomicLong readingCount = new AtomicLong();
+
+        private Partition(String tenant, ReadingStore readingStore) {
+            this.tenant = tenant;
+            this.readingStore = readingStore;
+        }
+
+        /**
+         * Counts readings against the quota before they are stored.
+         */
+        private void reserve(int readings) {
+            while (true) {
+                long current = readingCount.get();
+                if (current + readings > maxReadingsPerTenant) {
+                    Counter.builder("energy.tenancy.rejected")
+                            .description("Requests refused because their tenant reached one of its limits")
+                            .tag("tenant", tenant)
+                            .tag("reason", "quota")
+                            .register(meterRegistry)
+                            .increment();
+                    throw new TenantQuotaExceededException(tenant, current, readings, maxReadingsPerTenant);
+                }
+                if (readingCount.compareAndSet(current, current + readings)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The partition of a smart meter and the readings it holds there.
+     */
+    private static final class PartitionedMeter {
+        private final Partition partition;
+        private long readingCount;
+        private long version;
+        private boolean removed;
+
+        private PartitionedMeter(Partition partition) {
+            this.partition = partition;
+        }
+    }
+}
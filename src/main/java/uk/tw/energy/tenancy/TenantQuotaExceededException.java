@@ -0,0 +1,18 @@
+package uk.tw.energy.tenancy;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when storing readings would take a tenant over its storage quota.
+ */
+@ResponseStatus(HttpStatus.INSUFFICIENT_STORAGE)
+public class TenantQuotaExceededException extends TenantLimitException {
+
+    public TenantQuotaExceededException(String tenant, long storedReadings, int batchReadings, long maxReadings) {
+        super(
+                tenant,
+                "Energy supplier " + tenant + " stores " + storedReadings + " readings, so " + batchReadings
+                        + " more would exceed its quota of " + maxReadings + " readings");
+    }
+}
@@ -0,0 +1,66 @@
+package uk.tw.energy.tenancy;
+
+import java.util.List;
+import uk.tw.energy.domain.Portfolio;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+/**
+ * Finds the tenant a smart meter belongs to: the energy supplier of the price plan on the meter's account.
+ */
+public class TenantResolver {
+    /** The tenant of smart meters without an account, or whose price plan is not in the catalogue. */
+    public static final String UNASSIGNED_TENANT = "unassigned";
+
+    private final AccountService accountService;
+    private final PricePlanCatalogue pricePlanCatalogue;
+
+    /**
+     * Constructs a new TenantResolver.
+     *
+     * @param accountService The service holding the price plan of each smart meter
+     * @param pricePlanCatalogue The catalogue holding the energy supplier of each price plan
+     */
+    public TenantResolver(AccountService accountService, PricePlanCatalogue pricePlanCatalogue) {
+        this.accountService = accountService;
+        this.pricePlanCatalogue = pricePlanCatalogue;
+    }
+
+    /**
+     * @param smartMeterId The ID of the smart meter
+     * @return The energy supplier of the smart meter, or {@value #UNASSIGNED_TENANT}
+     */
+    public String tenantOf(String smartMeterId) {
+        return tenantOfPricePlan(accountService.getPricePlanIdForSmartMeterId(smartMeterId));
+    }
+
+    /**
+     * @param pricePlanId The ID of the price plan, or null
+     * @return The energy supplier of the price plan, or {@value #UNASSIGNED_TENANT}
+     */
+    public String tenantOfPricePlan(String pricePlanId) {
+        if (pricePlanId == null) {
+            return UNASSIGNED_TENANT;
+        }
+        return pricePlanCatalogue
+                .getPricePlan(pricePlanId)
+                .map(PricePlan::getEnergySupplier)
+                .orElse(UNASSIGNED_TENANT);
+    }
+
+    /**
+     * Finds the tenant of an account from the first smart meter of its portfolio, as the meters of one account are
+     * supplied by the same energy supplier.
+     *
+     * @param accountId The ID of the account
+     * @return The energy supplier of the account, or {@value #UNASSIGNED_TENANT}
+     */
+    public String tenantOfAccount(String accountId) {
+        List<String> smartMeterIds = accountService
+                .getPortfolio(accountId)
+                .map(Portfolio::smartMeterIds)
+                .orElse(List.of());
+        return smartMeterIds.isEmpty() ? UNASSIGNED_TENANT : tenantOf(smartMeterIds.get(0));
+    }
+}
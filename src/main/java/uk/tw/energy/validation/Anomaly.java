@@ -0,0 +1,17 @@
+package uk.tw.energy.validation;
+
+/**
+ * The reasons a reading can be quarantined for.
+ */
+public enum Anomaly {
+    /** The reading has no time or no value. */
+    MISSING_VALUE,
+    /** The reading is below zero. */
+    NEGATIVE,
+    /** The reading is not later than the last accepted reading of the meter. */
+    NOT_MONOTONIC,
+    /** The reading is timestamped further in the future than the allowed clock skew. */
+    FUTURE_TIMESTAMP,
+    /** The reading is too many standard deviations away from the recent mean of the meter. */
+    SPIKE
+}
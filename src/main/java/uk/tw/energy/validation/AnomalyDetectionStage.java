@@ -0,0 +1,263 @@
+package uk.tw.energy.validation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingsListener;
+
+/**
+ * Quarantines readings that look faulty before they reach storage.
+ *
+ * <p>Each smart meter keeps the time of its last accepted reading and an exponentially weighted moving average and
+ * variance of its accepted values, so checking a reading costs a constant number of operations. A reading is
+ * quarantined if it has no value, is negative, is not later than the last accepted reading, is timestamped too far in
+ * the future, or, once the meter has enough history, has a z-score above the threshold. Quarantined readings don't
+ * update the statistics, so a burst of spikes can't drag the mean along with it. As many spikes in a row as it takes
+ * to warm up are taken for a lasting change of load, and the statistics start over.
+ *
+ * <p>A batch is checked against a copy of the statistics of the readings stored so far, which replaces them only once
+ * the batch has been stored, so a batch the store refuses can be sent again as it was. Readings stored without going
+ * through the stage, such as imported or replicated ones, are added to the statistics as they are stored. Batches of
+ * one meter checked at the same time are each checked against the stored readings only. The statistics of a smart
+ * meter are dropped when the meter is removed, so they are kept for known meters only.
+ */
+@Component
+@ConditionalOnProperty(name = "energy.validation.anomaly-detection.enabled", havingValue = "true")
+public class AnomalyDetectionStage implements ReadingsStage, MeterReadingsListener {
+    // Floors for the standard deviation, so a meter that reported a flat load isn't flagged for any change at all.
+    private static final double MIN_RELATIVE_DEVIATION = 0.25;
+    private static final double MIN_DEVIATION_KW = 0.01;
+
+    private final QuarantineStore quarantineStore;
+    private final double alpha;
+    private final double zScoreThreshold;
+    private final int warmUpReadings;
+    private final Duration maxClockSkew;
+    private final Clock clock;
+    private final Map<String, MeterState> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new AnomalyDetectionStage.
+     *
+     * @param quarantineStore The store flagged readings are moved to
+     * @param alpha The weight of the newest reading in the moving average and variance
+     * @param zScoreThreshold The number of standard deviations from the mean beyond which a reading is a spike
+     * @param warmUpReadings The number of accepted readings a meter needs before spikes are detected
+     * @param maxClockSkew How far in the future a reading may be timestamped
+     */
+    @Autowired
+    public AnomalyDetectionStage(
+            QuarantineStore quarantineStore,
+            @Value("${energy.validation.anomaly-detection.alpha:0.05}") double alpha,
+            @Value("${energy.validation.anomaly-detection.z-score-threshold:6}") double zScoreThreshold,
+            @Value("${energy.validation.anomaly-detection.warm-up-readings:20}") int warmUpReadings,
+            @Value("${energy.validation.anomaly-detection.max-clock-skew:PT5M}") Duration maxClockSkew) {
+        this(quarantineStore, alpha, zScoreThreshold, warmUpReadings, maxClockSkew, Clock.systemUTC());
+    }
+
+    public AnomalyDetectionStage(
+            QuarantineStore quarantineStore,
+            double alpha,
+            double zScoreThreshold,
+            int warmUpReadings,
+            Duration maxClockSkew,
+            Clock clock) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("The moving average weight must be in (0, 1]");
+        }
+        this.quarantineStore = quarantineStore;
+        this.alpha = alpha;
+        this.zScoreThreshold = zScoreThreshold;
+        this.warmUpReadings = warmUpReadings;
+        this.maxClockSkew = maxClockSkew;
+        this.clock = clock;
+    }
+
+    @Override
+    public List<ElectricityReading> process(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        Instant latestAllowed = clock.instant().plus(maxClockSkew);
+        MeterState meter = meters.computeIfAbsent(smartMeterId, id -> new MeterState());
+        MeterStatistics statistics;
+        long commits;
+        synchronized (meter) {
+            statistics = meter.statistics.copy();
+            commits = meter.commits;
+        }
+        List<ElectricityReading> accepted = null;
+        for (int i = 0; i < electricityReadings.size(); i++) {
+            ElectricityReading reading = electricityReadings.get(i);
+            EnumSet<Anomaly> anomalies = statistics.check(reading, latestAllowed);
+            if (anomalies == null) {
+                if (accepted != null) {
+                    accepted.add(reading);
+                }
+                continue;
+            }
+            if (accepted == null) {
+                // Only copy the batch once a reading has to be dropped, which keeps clean batches allocation free.
+                accepted = new ArrayList<>(electricityReadings.subList(0, i));
+            }
+            quarantineStore.quarantine(smartMeterId, new QuarantinedReading(reading, anomalies, clock.instant()));
+        }
+        List<ElectricityReading> passedOn = accepted == null ? electricityReadings : accepted;
+        synchronized (meter) {
+            meter.pending = new PendingStatistics(passedOn, commits, statistics);
+        }
+        return passedOn;
+    }
+
+    /**
+     * Keeps the statistics of the batch that was stored if nothing else was stored since it was checked, and adds the
+     * stored readings to the statistics otherwise.
+     */
+    @Override
+    public void onReadingsStored(String smartMeterId, List<ElectricityReading> electricityReadings) {
+        MeterState meter = meters.computeIfAbsent(smartMeterId, id -> new MeterState());
+        synchronized (meter) {
+            PendingStatistics pending = meter.pending;
+            boolean checked = pending != null && pending.readings() == electricityReadings;
+            if (checked && pending.commits() == meter.commits) {
+                meter.statistics = pending.statistics();
+            } else {
+                electricityReadings.forEach(meter.statistics::accept);
+            }
+            if (checked) {
+                meter.pending = null;
+            }
+            meter.commits++;
+        }
+    }
+
+    @Override
+    public void onReadingsRemoved(String smartMeterId) {
+        meters.remove(smartMeterId);
+    }
+
+    /**
+     * The statistics of the stored readings of one smart meter, and those of the batch last checked.
+     */
+    private final class MeterState {
+        private MeterStatistics statistics = new MeterStatistics();
+        // Counts the batches stored, so pending statistics checked against older ones aren't kept.
+        private long commits;
+        private PendingStatistics pending;
+    }
+
+    /**
+     * @param readings The readings a checked batch passed on
+     * @param commits The number of batches stored when the batch was checked
+     * @param statistics The statistics including the readings passed on
+     */
+    private record PendingStatistics(List<ElectricityReading> readings, long commits, MeterStatistics statistics) {}
+
+    /**
+     * The rolling statistics of the accepted readings of one smart meter.
+     */
+    private final class MeterStatistics {
+        private long lastEpochSecond = Long.MIN_VALUE;
+        private int lastNano;
+        private double mean;
+        private double variance;
+        private long samples;
+        private int consecutiveSpikes;
+
+        /**
+         * Checks a reading and, if it is accepted, adds it to the statistics.
+         *
+         * @return The anomalies found, or null if the reading is accepted
+         */
+        private EnumSet<Anomaly> check(ElectricityReading reading, Instant latestAllowed) {
+            if (reading.time() == null || reading.reading() == null) {
+                return EnumSet.of(Anomaly.MISSING_VALUE);
+            }
+            double kw = reading.reading().doubleValue();
+            long epochSecond = reading.time().getEpochSecond();
+            int nano = reading.time().getNano();
+            EnumSet<Anomaly> anomalies = null;
+            if (kw < 0) {
+                anomalies = add(anomalies, Anomaly.NEGATIVE);
+            }
+            if (epochSecond < lastEpochSecond || (epochSecond == lastEpochSecond && nano <= lastNano)) {
+                anomalies = add(anomalies, Anomaly.NOT_MONOTONIC);
+            }
+            if (reading.time().isAfter(latestAllowed)) {
+                anomalies = add(anomalies, Anomaly.FUTURE_TIMESTAMP);
+            }
+            double deviation = kw - mean;
+            if (samples >= warmUpReadings && Math.abs(deviation) > zScoreThreshold * standardDeviation()) {
+                anomalies = add(anomalies, Anomaly.SPIKE);
+            }
+            if (anomalies != null) {
+                boolean onlySpike = anomalies.size() == 1 && anomalies.contains(Anomaly.SPIKE);
+                if (onlySpike && ++consecutiveSpikes >= warmUpReadings) {
+                    samples = 0;
+                    consecutiveSpikes = 0;
+                }
+                return anomalies;
+            }
+
+            accept(reading);
+            return null;
+        }
+
+        /**
+         * Adds a reading to the statistics without checking it, keeping the time of the latest reading.
+         */
+        private void accept(ElectricityReading reading) {
+            if (reading.time() == null || reading.reading() == null) {
+                return;
+            }
+            long epochSecond = reading.time().getEpochSecond();
+            int nano = reading.time().getNano();
+            if (epochSecond > lastEpochSecond || (epochSecond == lastEpochSecond && nano > lastNano)) {
+                lastEpochSecond = epochSecond;
+                lastNano = nano;
+            }
+            consecutiveSpikes = 0;
+            double kw = reading.reading().doubleValue();
+            double deviation = kw - mean;
+            if (samples++ == 0) {
+                mean = kw;
+                variance = 0;
+            } else {
+                double increment = alpha * deviation;
+                mean += increment;
+                variance = (1 - alpha) * (variance + deviation * increment);
+            }
+        }
+
+        private MeterStatistics copy() {
+            MeterStatistics copy = new MeterStatistics();
+            copy.lastEpochSecond = lastEpochSecond;
+            copy.lastNano = lastNano;
+            copy.mean = mean;
+            copy.variance = variance;
+            copy.samples = samples;
+            copy.consecutiveSpikes = consecutiveSpikes;
+            return copy;
+        }
+
+        private double standardDeviation() {
+            return Math.max(
+                    Math.sqrt(variance), Math.max(MIN_RELATIVE_DEVIATION * Math.abs(mean), MIN_DEVIATION_KW));
+        }
+    }
+
+    private static EnumSet<Anomaly> add(EnumSet<Anomaly> anomalies, Anomaly anomaly) {
+        if (anomalies == null) {
+            return EnumSet.of(anomaly);
+        }
+        anomalies.add(anomaly);
+        return anomalies;
+    }
+}
@@ -0,0 +1,62 @@
+package uk.tw.energy.validation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the most recent quarantined readings of each smart meter, apart from the readings used for pricing.
+ */
+@Component
+public class QuarantineStore {
+    private final int maxReadingsPerMeter;
+    private final Map<String, Deque<QuarantinedReading>> quarantinedReadings = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new QuarantineStore.
+     *
+     * @param maxReadingsPerMeter The number of quarantined readings kept per meter; older ones are dropped
+     */
+    public QuarantineStore(
+            @Value("${energy.validation.quarantine.max-readings-per-meter:1000}") int maxReadingsPerMeter) {
+        this.maxReadingsPerMeter = maxReadingsPerMeter;
+    }
+
+    /**
+     * Quarantines a reading of a smart meter.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param quarantinedReading The reading and why it was quarantined
+     */
+    public void quarantine(String smartMeterId, QuarantinedReading quarantinedReading) {
+        Deque<QuarantinedReading> readings =
+                quarantinedReadings.computeIfAbsent(smartMeterId, id -> new ArrayDeque<>());
+        synchronized (readings) {
+            if (readings.size() == maxReadingsPerMeter) {
+                readings.removeFirst();
+            }
+            readings.addLast(quarantinedReading);
+        }
+    }
+
+    /**
+     * Retrieves the quarantined readings of a smart meter.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @return Optional containing the quarantined readings, oldest first, or empty if none was quarantined
+     */
+    public Optional<List<QuarantinedReading>> getQuarantinedReadings(String smartMeterId) {
+        Deque<QuarantinedReading> readings = quarantinedReadings.get(smartMeterId);
+        if (readings == null) {
+            return Optional.empty();
+        }
+        synchronized (readings) {
+            return Optional.of(List.copyOf(readings));
+        }
+    }
+}
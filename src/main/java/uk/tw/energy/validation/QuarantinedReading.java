@@ -0,0 +1,14 @@
+package uk.tw.energy.validation;
+
+import java.time.Instant;
+import java.util.Set;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * A reading held back from storage because it looked faulty.
+ *
+ * @param reading The reading as it was sent
+ * @param anomalies Every anomaly found in the reading
+ * @param quarantinedAt When the reading was quarantined
+ */
+public record QuarantinedReading(ElectricityReading reading, Set<Anomaly> anomalies, Instant quarantinedAt) {}
@@ -0,0 +1,22 @@
+package uk.tw.energy.validation;
+
+import java.util.List;
+import uk.tw.energy.domain.ElectricityReading;
+
+/**
+ * A step of the ingestion pipeline, run on every batch of readings before it is stored.
+ *
+ * <p>Stages run in {@link org.springframework.core.annotation.Order} order, each receiving the readings the previous
+ * one passed on. A stage may drop readings, for example to quarantine them, or replace them with enriched copies.
+ */
+public interface ReadingsStage {
+
+    /**
+     * Processes a batch of readings sent by a smart meter.
+     *
+     * @param smartMeterId The ID of the smart meter
+     * @param electricityReadings The readings of the batch, in the order they were sent
+     * @return The readings to pass on, which may be the given list itself
+     */
+    List<ElectricityReading> process(String smartMeterId, List<ElectricityReading> electricityReadings);
+}
@@ -0,0 +1,75 @@
+package uk.tw.energy.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.tw.energy.archive.ReadingArchiveService;
+import uk.tw.energy.replication.MeterRange;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanService;
+
+/**
+ * Configuration class for warming the application up before it reports itself ready.
+ * Set {@code energy.warm-up.enabled} to {@code true} to run the warm-up workload on startup, after restoring
+ * {@code energy.warm-up.restore-archive} if set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "energy.warm-up.enabled", havingValue = "true")
+public class WarmUpConfiguration {
+
+    /**
+     * Creates the settings of the warm-up.
+     *
+     * @param restoreArchive Optional name of a reading archive imported before warming up
+     * @param meters The number of warm-up smart meters
+     * @param settleRounds The number of rounds in a row without JIT compilation after which the warm-up has settled
+     * @param maxRounds The most rounds run
+     * @param maxDurationMillis The longest the warm-up runs for
+     * @return The WarmUpSettings
+     */
+    @Bean
+    public WarmUpSettings warmUpSettings(
+            @Value("${energy.warm-up.restore-archive:}") String restoreArchive,
+            @Value("${energy.warm-up.meters:8}") int meters,
+            @Value("${energy.warm-up.settle-rounds:3}") int settleRounds,
+            @Value("${energy.warm-up.max-rounds:200}") int maxRounds,
+            @Value("${energy.warm-up.max-duration-ms:30000}") long maxDurationMillis) {
+        return new WarmUpSettings(
+                restoreArchive, meters, settleRounds, maxRounds, Duration.ofMillis(maxDurationMillis));
+    }
+
+    /**
+     * Creates the runner warming the application up once it has started.
+     *
+     * @param meterReadingService The service readings are stored with
+     * @param pricePlanService The service comparing the costs of readings
+     * @param readingArchiveService The service restoring an archive before warming up
+     * @param objectMapper The mapper binding request bodies
+     * @param meterRange The smart meters a primary accepts readings for
+     * @param warmUpSettings How the application warms up
+     * @param meterRegistry The registry the warm-up metrics are published to
+     * @return A WarmUpRunner
+     */
+    @Bean
+    public WarmUpRunner warmUpRunner(
+            MeterReadingService meterReadingService,
+            PricePlanService pricePlanService,
+            ReadingArchiveService readingArchiveService,
+            ObjectMapper objectMapper,
+            @Value("${energy.replication.meter-range:0-0/1}") String meterRange,
+            WarmUpSettings warmUpSettings,
+            MeterRegistry meterRegistry) {
+        return new WarmUpRunner(
+                meterReadingService,
+                pricePlanService,
+                readingArchiveService,
+                objectMapper,
+                MeterRange.parse(meterRange),
+                warmUpSettings,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package uk.tw.energy.warmup;
+
+/**
+ * What a warm-up took to reach steady state.
+ *
+ * @param rounds The number of rounds run
+ * @param settled Whether JIT compilation settled, rather than the warm-up running out of rounds or time
+ * @param elapsedMillis How long the warm-up took, including any archive restored
+ * @param uptimeMillis How long after the JVM started the warm-up ended, the time to steady state
+ * @param firstRoundMicros How long the first round took
+ * @param lastRoundMicros How long the last round took
+ */
+public record WarmUpResult(
+        int rounds,
+        boolean settled,
+        long elapsedMillis,
+        long uptimeMillis,
+        long firstRoundMicros,
+        long lastRoundMicros) {}
@@ -0,0 +1,191 @@
+package uk.tw.energy.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import uk.tw.energy.archive.ArchiveTransfer;
+import uk.tw.energy.archive.ReadingArchiveService;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.MeterReadings;
+import uk.tw.energy.replication.MeterRange;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanService;
+
+/**
+ * Warms the application up once it has started, so the first real requests are served by compiled code rather than
+ * the interpreter.
+ *
+ * <p>An archive of readings can be restored first. Then each round, every warm-up smart meter takes a day of readings
+ * at five minute intervals through the same path as {@code /readings/store}: JSON binding, the ingestion pipeline and
+ * the store with its listeners. Its costs under every price plan are then compared, and its readings removed again,
+ * so every round does the same work. The next round's readings are a day later, as the pipeline expects. Rounds go on
+ * until no method has been JIT-compiled for {@link WarmUpSettings#settleRounds()} rounds in a row, or the warm-up runs
+ * out of rounds or time.
+ *
+ * <p>Spring Boot reports the application ready to accept traffic only once every {@link ApplicationRunner} has
+ * returned, so the readiness probe keeps failing until the warm-up is over. The warm-up meters are named
+ * {@code warm-up-meter-N} and chosen among the meters the instance accepts readings for; on a replication primary
+ * their readings and removal are replicated like any other.
+ */
+public class WarmUpRunner implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmUpRunner.class);
+    private static final int READINGS_PER_DAY = 288;
+    private static final long READING_INTERVAL_SECONDS = 300;
+
+    private final MeterReadingService meterReadingService;
+    private final PricePlanService pricePlanService;
+    private final ReadingArchiveService readingArchiveService;
+    private final ObjectMapper objectMapper;
+    private final WarmUpSettings settings;
+    private final List<String> smartMeterIds;
+    private final Timer roundDuration;
+    private volatile WarmUpResult result;
+
+    /**
+     * Constructs a new WarmUpRunner.
+     *
+     * @param meterReadingService The service readings are stored with
+     * @param pricePlanService The service comparing the costs of readings
+     * @param readingArchiveService The service restoring an archive before warming up
+     * @param objectMapper The mapper binding request bodies
+     * @param meterRange The smart meters this instance accepts readings for
+     * @param settings How the application warms up
+     * @param meterRegistry The registry the warm-up metrics are published to
+     */
+    public WarmUpRunner(
+            MeterReadingService meterReadingService,
+            PricePlanService pricePlanService,
+            ReadingArchiveService readingArchiveService,
+            ObjectMapper objectMapper,
+            MeterRange meterRange,
+            WarmUpSettings settings,
+            MeterRegistry meterRegistry) {
+        this.meterReadingService = meterReadingService;
+        this.pricePlanService = pricePlanService;
+        this.readingArchiveService = readingArchiveService;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.smartMeterIds = new ArrayList<>(settings.meters());
+        for (int i = 0; smartMeterIds.size() < settings.meters(); i++) {
+            if (meterRange.contains("warm-up-meter-" + i)) {
+                smartMeterIds.add("warm-up-meter-" + i);
+            }
+        }
+        this.roundDuration = Timer.builder("energy.warm-up.round.duration")
+                .description("Time taken by each round of the warm-up")
+                .register(meterRegistry);
+        Gauge.builder("energy.warm-up.time-to-steady-state", this, WarmUpRunner::timeToSteadyStateSeconds)
+                .description("Seconds from the start of the JVM to the end of the warm-up")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        warmUp();
+    }
+
+    /**
+     * Restores the archive, if any, and runs rounds of the warm-up workload until steady state.
+     *
+     * @return What the warm-up took
+     * @throws IOException if the archive can't be restored
+     */
+    public WarmUpResult warmUp() throws IOException {
+        long start = System.nanoTime();
+        if (!settings.restoreArchive().isBlank()) {
+            ArchiveTransfer restored = readingArchiveService.importReadings(settings.restoreArchive());
+            LOGGER.info(
+                    "Restored {} readings of {} smart meters from {} in {} ms",
+                    restored.readingCount(),
+                    restored.meterCount(),
+                    restored.fileName(),
+                    restored.elapsedMillis());
+        }
+
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean compilationMonitored = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long deadline = start + settings.maxDuration().toNanos();
+        Instant firstDay = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(Duration.ofDays(settings.maxRounds()));
+        long compilationMillis = compilationMonitored ? compiler.getTotalCompilationTime() : 0;
+        int quietRounds = 0;
+        int rounds = 0;
+        long firstRoundNanos = 0;
+        long lastRoundNanos = 0;
+        while (rounds < settings.maxRounds() && quietRounds < settings.settleRounds() && System.nanoTime() < deadline) {
+            long roundStart = System.nanoTime();
+            runRound(firstDay.plus(Duration.ofDays(rounds)));
+            lastRoundNanos = System.nanoTime() - roundStart;
+            firstRoundNanos = rounds == 0 ? lastRoundNanos : firstRoundNanos;
+            roundDuration.record(Duration.ofNanos(lastRoundNanos));
+            rounds++;
+            if (compilationMonitored) {
+                long compiled = compiler.getTotalCompilationTime();
+                quietRounds = compiled == compilationMillis ? quietRounds + 1 : 0;
+                compilationMillis = compiled;
+            }
+        }
+
+        boolean settled = quietRounds >= settings.settleRounds();
+        result = new WarmUpResult(
+                rounds,
+                settled,
+                (System.nanoTime() - start) / 1_000_000,
+                ManagementFactory.getRuntimeMXBean().getUptime(),
+                firstRoundNanos / 1_000,
+                lastRoundNanos / 1_000);
+        LOGGER.info(
+                "Warm-up {} after {} rounds in {} ms, {} ms after the JVM started; rounds went from {} us to {} us",
+                settled ? "settled" : "stopped before JIT compilation settled",
+                result.rounds(),
+                result.elapsedMillis(),
+                result.uptimeMillis(),
+                result.firstRoundMicros(),
+                result.lastRoundMicros());
+        return result;
+    }
+
+    private void runRound(Instant day) throws IOException {
+        for (String smartMeterId : smartMeterIds) {
+            byte[] body = objectMapper.writeValueAsBytes(new MeterReadings(smartMeterId, dayOfReadings(day)));
+            MeterReadings meterReadings = objectMapper.readValue(body, MeterReadings.class);
+            meterReadingService.storeReadings(meterReadings.smartMeterId(), meterReadings.electricityReadings());
+            pricePlanService.getConsumptionCostOfElectricityReadingsForEachPricePlan(smartMeterId);
+        }
+        for (String smartMeterId : smartMeterIds) {
+            meterReadingService.removeReadings(smartMeterId);
+        }
+    }
+
+    /**
+     * @return A smooth daily load curve, so the readings pass anomaly detection
+     */
+    private static List<ElectricityReading> dayOfReadings(Instant day) {
+        List<ElectricityReading> readings = new ArrayList<>(READINGS_PER_DAY);
+        for (int i = 0; i < READINGS_PER_DAY; i++) {
+            double kw = 0.5 + 0.3 * Math.sin(2 * Math.PI * i / READINGS_PER_DAY) + (i * 7_919 % 100) / 10_000.0;
+            readings.add(new ElectricityReading(
+                    day.plusSeconds(i * READING_INTERVAL_SECONDS), BigDecimal.valueOf(Math.round(kw * 10_000), 4)));
+        }
+        return readings;
+    }
+
+    private double timeToSteadyStateSeconds() {
+        WarmUpResult warmUpResult = result;
+        return warmUpResult == null ? Double.NaN : warmUpResult.uptimeMillis() / 1_000.0;
+    }
+}
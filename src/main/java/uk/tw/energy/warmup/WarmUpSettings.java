@@ -0,0 +1,25 @@
+package uk.tw.energy.warmup;
+
+import java.time.Duration;
+
+/**
+ * How the application warms up before it reports itself ready.
+ *
+ * @param restoreArchive Optional name of a reading archive imported before warming up, or blank for none
+ * @param meters The number of warm-up smart meters storing and pricing readings in each round
+ * @param settleRounds The number of rounds in a row without JIT compilation after which the warm-up has settled
+ * @param maxRounds The most rounds run, each moving the warm-up readings a day on
+ * @param maxDuration The longest the warm-up runs for, settled or not
+ */
+public record WarmUpSettings(
+        String restoreArchive, int meters, int settleRounds, int maxRounds, Duration maxDuration) {
+
+    public WarmUpSettings {
+        if (meters < 1 || settleRounds < 1 || maxRounds < 1) {
+            throw new IllegalArgumentException("Warm-up meters and rounds must be positive");
+        }
+        if (maxDuration.isNegative()) {
+            throw new IllegalArgumentException("The warm-up duration must not be negative");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package uk.tw.energy.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+import uk.tw.energy.service.MeterReadingService;
+
+public class ReadingArchiveServiceTest {
+    private static final String ARCHIVE = "readings.erca";
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Tests that every reading survives an export and an import exactly, across several row groups and threads.
+     */
+    @Test
+    public void givenExportedReadingsShouldImportSameReadings() throws IOException {
+        MeterReadingService source = new MeterReadingService(new HashMap<>());
+        List<ElectricityReading> wideReadings = new ArrayList<>(new ElectricityReadingsGenerator().generate(5));
+        wideReadings.add(new ElectricityReading(
+                Instant.parse("2024-04-26T00:00:10.123456789Z"), new BigDecimal("-12345678901234567890.123456789")));
+        source.storeReadings("smart-meter-wide", wideReadings);
+        for (int i = 0; i < 10; i++) {
+            source.storeReadings("smart-meter-" + i, new ElectricityReadingsGenerator().generate(i * 7));
+        }
+        MeterReadingService target = new MeterReadingService(new HashMap<>());
+
+        ArchiveTransfer exported = service(source).exportReadings(ARCHIVE);
+        ArchiveTransfer imported = service(target).importReadings(ARCHIVE);
+
+        assertThat(exported.meterCount()).isEqualTo(10);
+        assertThat(exported.readingCount()).isEqualTo(6 + 7 * 45);
+        assertThat(imported.readingCount()).isEqualTo(exported.readingCount());
+        assertThat(imported.bytes()).isEqualTo(Files.size(directory.resolve(ARCHIVE)));
+        assertThat(target.getSmartMeterIds()).isEqualTo(source.getSmartMeterIds().stream()
+                .filter(smartMeterId -> !source.getReadings(smartMeterId).orElseThrow().isEmpty())
+                .collect(Collectors.toSet()));
+        for (String smartMeterId : target.getSmartMeterIds()) {
+            assertThat(target.getReadings(smartMeterId)).isEqualTo(source.getReadings(smartMeterId));
+        }
+    }
+
+    /**
+     * Tests that an import replaces the readings of the meters in the archive and leaves the other meters alone.
+     */
+    @Test
+    public void givenStoredReadingsShouldReplaceThemWithArchivedOnes() throws IOException {
+        List<ElectricityReading> archived = new ElectricityReadingsGenerator().generate(10);
+        List<ElectricityReading> other = new ElectricityReadingsGenerator().generate(3);
+        MeterReadingService source = new MeterReadingService(new HashMap<>());
+        source.storeReadings("smart-meter-0", archived);
+        service(source).exportReadings(ARCHIVE);
+        MeterReadingService target = new MeterReadingService(new HashMap<>());
+        target.storeReadings("smart-meter-0", other);
+        target.storeReadings("smart-meter-1", other);
+
+        service(target).importReadings(ARCHIVE);
+        service(target).importReadings(ARCHIVE);
+
+        assertThat(target.getReadings("smart-meter-0")).isEqualTo(Optional.of(archived));
+        assertThat(target.getReadings("smart-meter-1")).isEqualTo(Optional.of(other));
+    }
+
+    /**
+     * Tests that a damaged archive is rejected rather than loaded.
+     */
+    @Test
+    public void givenDamagedArchiveShouldRejectImport() throws IOException {
+        MeterReadingService source = new MeterReadingService(new HashMap<>());
+        source.storeReadings("smart-meter-0", new ElectricityReadingsGenerator().generate(10));
+        service(source).exportReadings(ARCHIVE);
+        byte[] archive = Files.readAllBytes(directory.resolve(ARCHIVE));
+        Files.write(directory.resolve(ARCHIVE), Arrays.copyOf(archive, archive.length - 1));
+
+        assertThatThrownBy(() -> service(new MeterReadingService(new HashMap<>())).importReadings(ARCHIVE))
+                .isInstanceOf(ArchiveFormatException.class);
+    }
+
+    /**
+     * Tests that archives are only read from and written to the archive directory.
+     */
+    @Test
+    public void givenNameOutsideArchiveDirectoryShouldRejectIt() {
+        ReadingArchiveService readingArchiveService = service(new MeterReadingService(new HashMap<>()));
+
+        assertThatThrownBy(() -> readingArchiveService.exportReadings("../readings.erca"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> readingArchiveService.importReadings("/tmp/readings.erca"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ReadingArchiveService service(MeterReadingService meterReadingService) {
+        return new ReadingArchiveService(meterReadingService, directory.toString(), 3, 4);
+    }
+}
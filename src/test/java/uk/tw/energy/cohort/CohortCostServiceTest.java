@@ -0,0 +1,119 @@
+package uk.tw.energy.cohort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.index.PlanMembershipIndex;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.ConsumptionCostCalculator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+public class CohortCostServiceTest {
+    private static final Instant START = Instant.parse("2024-04-26T00:00:00Z");
+    private static final String EXPENSIVE_PLAN_ID = "plan-x";
+    private static final String CHEAP_PLAN_ID = "plan-y";
+
+    private MeterReadingService meterReadingService;
+    private PricePlanCatalogue pricePlanCatalogue;
+    private CohortCostService cohortCostService;
+
+    @BeforeEach
+    public void setUp() {
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        pricePlanCatalogue = new PricePlanCatalogue(List.of(
+                new PricePlan(EXPENSIVE_PLAN_ID, "supplier-a", BigDecimal.TEN, null),
+                new PricePlan(CHEAP_PLAN_ID, "supplier-b", BigDecimal.ONE, null)));
+        AccountService accountService = new AccountService(Map.of(
+                "meter-a", EXPENSIVE_PLAN_ID,
+                "meter-b", EXPENSIVE_PLAN_ID,
+                "meter-c", CHEAP_PLAN_ID,
+                "meter-d", CHEAP_PLAN_ID));
+        store("meter-a", 1);
+        cohortCostService = new CohortCostService(
+                meterReadingService,
+                pricePlanCatalogue,
+                new ConsumptionCostCalculator(),
+                new PlanMembershipIndex(accountService, pricePlanCatalogue));
+        store("meter-b", 2);
+        store("meter-c", 1);
+    }
+
+    /**
+     * Tests that a price plan cohort is costed under every plan and under the plan it is on.
+     */
+    @Test
+    public void givenPricePlanShouldCostItsMetersUnderEveryPlan() {
+        CohortComparison comparison = cohortCostService.compareAllPricePlans(EXPENSIVE_PLAN_ID, null);
+
+        assertThat(comparison.cohortSize()).isEqualTo(2);
+        assertThat(comparison.smartMetersWithReadings()).isEqualTo(2);
+        assertThat(comparison.currentCost()).isEqualTo(new BigDecimal("30.0000"));
+        assertThat(comparison.pricePlanComparisons())
+                .isEqualTo(Map.of(
+                        EXPENSIVE_PLAN_ID, new BigDecimal("30.0000"),
+                        CHEAP_PLAN_ID, new BigDecimal("3.0000")));
+    }
+
+    /**
+     * Tests that meters without readings count towards the cohort but not its costs.
+     */
+    @Test
+    public void givenEnergySupplierShouldLeaveMetersWithoutReadingsOutOfCosts() {
+        CohortComparison comparison = cohortCostService.compareAllPricePlans(null, "supplier-b");
+
+        assertThat(comparison.cohortSize()).isEqualTo(2);
+        assertThat(comparison.smartMetersWithReadings()).isEqualTo(1);
+        assertThat(comparison.currentCost()).isEqualTo(new BigDecimal("1.0000"));
+        assertThat(comparison.pricePlanComparisons().get(EXPENSIVE_PLAN_ID)).isEqualTo(new BigDecimal("10.0000"));
+    }
+
+    /**
+     * Tests that both criteria narrow the cohort down to the meters matching them both.
+     */
+    @Test
+    public void givenBothCriteriaShouldIntersectCohorts() {
+        assertThat(cohortCostService.compareAllPricePlans(EXPENSIVE_PLAN_ID, "supplier-b").cohortSize())
+                .isEqualTo(0);
+        assertThat(cohortCostService.compareAllPricePlans(EXPENSIVE_PLAN_ID, "supplier-a").cohortSize())
+                .isEqualTo(2);
+        assertThatThrownBy(() -> cohortCostService.compareAllPricePlans(null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Tests that new readings and new prices are picked up by the next comparison.
+     */
+    @Test
+    public void givenChangesShouldRecomputeStaleCosts() {
+        cohortCostService.refreshStaleCosts();
+        meterReadingService.storeReadings(
+                "meter-c", List.of(new ElectricityReading(START.plus(Duration.ofHours(2)), BigDecimal.ONE)));
+        assertThat(cohortCostService.compareAllPricePlans(CHEAP_PLAN_ID, null).currentCost())
+                .isEqualTo(new BigDecimal("2.0000"));
+
+        pricePlanCatalogue.replace(List.of(
+                new PricePlan(EXPENSIVE_PLAN_ID, "supplier-a", BigDecimal.TEN, null),
+                new PricePlan(CHEAP_PLAN_ID, "supplier-b", BigDecimal.valueOf(3), null)));
+        assertThat(cohortCostService.compareAllPricePlans(CHEAP_PLAN_ID, null).currentCost())
+                .isEqualTo(new BigDecimal("6.0000"));
+    }
+
+    private void store(String smartMeterId, double kw) {
+        meterReadingService.storeReadings(
+                smartMeterId,
+                List.of(
+                        new ElectricityReading(START, BigDecimal.valueOf(kw)),
+                        new ElectricityReading(START.plus(Duration.ofHours(1)), BigDecimal.valueOf(kw))));
+    }
+}
@@ -0,0 +1,69 @@
+package uk.tw.energy.controller;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import uk.tw.energy.cohort.CohortComparison;
+import uk.tw.energy.cohort.CohortCostService;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.index.PlanMembershipIndex;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.ConsumptionCostCalculator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
+import uk.tw.energy.tenancy.TenantBulkhead;
+import uk.tw.energy.tenancy.TenantResolver;
+
+public class CohortComparatorControllerTest {
+    private static final String PRICE_PLAN_ID = "price-plan-id";
+    private CohortComparatorController controller;
+
+    @BeforeEach
+    public void setUp() {
+        MeterReadingService meterReadingService = new MeterReadingService(new HashMap<>());
+        PricePlanCatalogue pricePlanCatalogue =
+                new PricePlanCatalogue(List.of(new PricePlan(PRICE_PLAN_ID, "supplier", BigDecimal.TEN, null)));
+        PlanMembershipIndex planMembershipIndex = new PlanMembershipIndex(
+                new AccountService(Map.of("smart-meter-id", PRICE_PLAN_ID)), pricePlanCatalogue);
+        CohortCostService cohortCostService = new CohortCostService(
+                meterReadingService, pricePlanCatalogue, new ConsumptionCostCalculator(), planMembershipIndex);
+        Instant start = Instant.parse("2024-04-26T00:00:00Z");
+        meterReadingService.storeReadings(
+                "smart-meter-id",
+                List.of(
+                        new ElectricityReading(start, BigDecimal.ONE),
+                        new ElectricityReading(start.plus(Duration.ofHours(1)), BigDecimal.ONE)));
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        controller = new CohortComparatorController(
+                cohortCostService,
+                beanFactory.getBeanProvider(TenantBulkhead.class),
+                beanFactory.getBeanProvider(TenantResolver.class));
+    }
+
+    @Test
+    public void calculatedCostForEachPricePlan_happyPath() {
+        ResponseEntity<CohortComparison> response = controller.calculatedCostForEachPricePlan(null, "supplier");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .isEqualTo(new CohortComparison(
+                        1, 1, new BigDecimal("10.0000"), Map.of(PRICE_PLAN_ID, new BigDecimal("10.0000"))));
+    }
+
+    @Test
+    public void calculatedCostForEachPricePlan_noCriteria() {
+        assertThat(controller.calculatedCostForEachPricePlan(null, null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
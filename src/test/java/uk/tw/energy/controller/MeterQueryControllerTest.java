@@ -0,0 +1,69 @@
+package uk.tw.energy.controller;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.index.MeterConsumption;
+import uk.tw.energy.index.MeterIndexService;
+import uk.tw.energy.index.MeterLastSeen;
+import uk.tw.energy.index.PlanMembershipIndex;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+public class MeterQueryControllerTest {
+    private static final String SMART_METER_ID = "smart-meter-id";
+    private MeterQueryController controller;
+    private Instant lastReadingTime;
+
+    @BeforeEach
+    public void setUp() {
+        MeterReadingService meterReadingService = new MeterReadingService(new HashMap<>());
+        PlanMembershipIndex planMembershipIndex =
+                new PlanMembershipIndex(new AccountService(Map.of()), new PricePlanCatalogue(List.of()));
+        MeterIndexService meterIndexService = new MeterIndexService(meterReadingService, planMembershipIndex, 7);
+        lastReadingTime = Instant.now().minus(Duration.ofDays(2)).plusSeconds(3600);
+        meterReadingService.storeReadings(
+                SMART_METER_ID,
+                List.of(
+                        new ElectricityReading(lastReadingTime.minusSeconds(3600), BigDecimal.ONE),
+                        new ElectricityReading(lastReadingTime, BigDecimal.ONE)));
+        controller = new MeterQueryController(meterIndexService);
+    }
+
+    @Test
+    public void topConsumers_happyPath() {
+        ResponseEntity<List<MeterConsumption>> response = controller.topConsumers(null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .isEqualTo(List.of(new MeterConsumption(SMART_METER_ID, new BigDecimal("1.0000"))));
+    }
+
+    @Test
+    public void topConsumers_limitOutOfRange() {
+        assertThat(controller.topConsumers(0, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(controller.topConsumers(MeterQueryController.MAX_LIMIT + 1, null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void notSeen_defaultsToADay() {
+        ResponseEntity<List<MeterLastSeen>> response = controller.notSeen(null, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Instant lastSeen = Instant.ofEpochSecond(lastReadingTime.getEpochSecond());
+        assertThat(response.getBody()).isEqualTo(List.of(new MeterLastSeen(SMART_METER_ID, lastSeen)));
+        assertThat(controller.notSeen(Duration.ofDays(3), null, null).getBody()).isEqualTo(List.of());
+    }
+}
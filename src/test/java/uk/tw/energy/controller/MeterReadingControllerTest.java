@@ -2,17 +2,36 @@ package uk.tw.energy.controller;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uk.tw.energy.builders.MeterReadingsBuilder;
 import uk.tw.energy.domain.ElectricityReading;
 import uk.tw.energy.domain.MeterReadings;
 import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.MapReadingStore;
+import uk.tw.energy.streaming.ReadingsJsonWriter;
+import uk.tw.energy.tenancy.TenantBulkhead;
+import uk.tw.energy.validation.AnomalyDetectionStage;
+import uk.tw.energy.validation.QuarantineStore;
 
 public class MeterReadingControllerTest {
 
@@ -27,7 +46,7 @@ public class MeterReadingControllerTest {
     @BeforeEach
     public void setUp() {
         this.meterReadingService = new MeterReadingService(new HashMap<>());
-        this.meterReadingController = new MeterReadingController(meterReadingService);
+        this.meterReadingController = controller(meterReadingService);
     }
 
     /**
@@ -112,6 +131,52 @@ public class MeterReadingControllerTest {
                 .isEqualTo(meterReadings.electricityReadings());
     }
 
+    /**
+     * Tests that the response reports the readings the ingestion pipeline quarantined instead of storing them.
+     */
+    @Test
+    public void givenFaultyReadingShouldReportItQuarantined() {
+        Instant now = Instant.parse("2024-04-26T12:00:00Z");
+        AnomalyDetectionStage anomalyDetectionStage = new AnomalyDetectionStage(
+                new QuarantineStore(100), 0.05, 6, 20, Duration.ofMinutes(5), Clock.fixed(now, ZoneOffset.UTC));
+        meterReadingService =
+                new MeterReadingService(new MapReadingStore(new HashMap<>()), List.of(anomalyDetectionStage));
+        meterReadingController = controller(meterReadingService);
+        MeterReadings meterReadings = new MeterReadings(
+                SMART_METER_ID,
+                List.of(
+                        new ElectricityReading(now.minusSeconds(20), new BigDecimal("0.5")),
+                        new ElectricityReading(now.minusSeconds(10), new BigDecimal("-1"))));
+
+        ResponseEntity response = meterReadingController.storeReadings(meterReadings);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(Map.of("stored", 1, "quarantined", 1));
+    }
+
+    /**
+     * Tests that stored readings are streamed back as the JSON array they were posted as.
+     */
+    @Test
+    public void givenStoredReadingsShouldStreamThemAsJson() throws IOException {
+        MeterReadings meterReadings = new MeterReadingsBuilder()
+                .setSmartMeterId(SMART_METER_ID)
+                .generateElectricityReadings()
+                .build();
+        meterReadingController.storeReadings(meterReadings);
+
+        ResponseEntity<StreamingResponseBody> response = meterReadingController.readReadings(SMART_METER_ID);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(outputStream.toString())
+                .isEqualTo(objectMapper.writeValueAsString(meterReadings.electricityReadings()));
+    }
+
     /**
      * Tests that attempting to read readings for an unrecognized meter ID returns a NOT_FOUND status.
      */
@@ -120,4 +185,11 @@ public class MeterReadingControllerTest {
         assertThat(meterReadingController.readReadings(SMART_METER_ID).getStatusCode())
                 .isEqualTo(HttpStatus.NOT_FOUND);
     }
+
+    private static MeterReadingController controller(MeterReadingService meterReadingService) {
+        return new MeterReadingController(
+                meterReadingService,
+                new ReadingsJsonWriter(meterReadingService, 16),
+                new StaticListableBeanFactory().getBeanProvider(TenantBulkhead.class));
+    }
 }
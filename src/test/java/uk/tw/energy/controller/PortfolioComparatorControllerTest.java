@@ -0,0 +1,97 @@
+package uk.tw.energy.controller;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.Portfolio;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.portfolio.PortfolioComparison;
+import uk.tw.energy.portfolio.PortfolioComparisonService;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanService;
+import uk.tw.energy.tenancy.TenantBulkhead;
+import uk.tw.energy.tenancy.TenantResolver;
+
+public class PortfolioComparatorControllerTest {
+    private static final String ACCOUNT_ID = "account-id";
+    private static final String PLAN_ID = "price-plan";
+    private MeterReadingService meterReadingService;
+    private AccountService accountService;
+    private PricePlanService pricePlanService;
+
+    @BeforeEach
+    public void setUp() {
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        pricePlanService =
+                new PricePlanService(List.of(new PricePlan(PLAN_ID, null, BigDecimal.ONE, null)), meterReadingService);
+        accountService = new AccountService(Map.of(), List.of(new Portfolio(ACCOUNT_ID, List.of("meter-a"))));
+    }
+
+    /**
+     * Tests that a portfolio comparison is returned with the summed cost of each price plan.
+     */
+    @Test
+    public void calculatedCostForEachPricePlan_happyPath() {
+        Instant now = Instant.now();
+        meterReadingService.storeReadings(
+                "meter-a",
+                List.of(
+                        new ElectricityReading(now.minusSeconds(3600), BigDecimal.valueOf(15.0)),
+                        new ElectricityReading(now, BigDecimal.valueOf(5.0))));
+
+        ResponseEntity<PortfolioComparison> response =
+                controller(Runnable::run).calculatedCostForEachPricePlan(ACCOUNT_ID).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .isEqualTo(new PortfolioComparison(
+                        ACCOUNT_ID, Map.of(PLAN_ID, new BigDecimal("10.0000")), 1, List.of()));
+    }
+
+    /**
+     * Tests that an account without a portfolio is not found.
+     */
+    @Test
+    public void calculatedCostForEachPricePlan_unknownAccount() {
+        ResponseEntity<PortfolioComparison> response =
+                controller(Runnable::run).calculatedCostForEachPricePlan("not-found").join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Tests that a portfolio that cannot be costed because the service is saturated is answered with 503.
+     */
+    @Test
+    public void calculatedCostForEachPricePlan_saturated() {
+        ResponseEntity<PortfolioComparison> response = controller(task -> {
+                    throw new RejectedExecutionException();
+                })
+                .calculatedCostForEachPricePlan(ACCOUNT_ID)
+                .join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private PortfolioComparatorController controller(Executor executor) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        return new PortfolioComparatorController(
+                new PortfolioComparisonService(accountService, pricePlanService, executor, Duration.ofSeconds(10)),
+                beanFactory.getBeanProvider(TenantBulkhead.class),
+                beanFactory.getBeanProvider(TenantResolver.class));
+    }
+}
@@ -0,0 +1,56 @@
+package uk.tw.energy.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+public class PricePlanAdminControllerTest {
+    private static final List<PricePlan> PRICE_PLANS =
+            List.of(new PricePlan("price-plan", "Supplier", BigDecimal.ONE, List.of()));
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a price plan file that can't be parsed, or that defines a plan twice, is a bad request that leaves
+     * the catalogue as it was.
+     */
+    @Test
+    public void givenInvalidPricePlanFileShouldRejectReload() throws IOException {
+        Path pricePlansFile = tempDir.resolve("price-plans.json");
+        Files.writeString(pricePlansFile, "[{\"planName\": \"file-plan\", \"unitRate\": 1}]");
+        PricePlanCatalogue pricePlanCatalogue =
+                new PricePlanCatalogue(PRICE_PLANS, new ObjectMapper(), pricePlansFile.toString());
+        PricePlanAdminController controller = new PricePlanAdminController(pricePlanCatalogue);
+        long version = pricePlanCatalogue.getVersion();
+
+        Files.writeString(pricePlansFile, "[{\"planName\": ");
+        assertThat(controller.reloadPricePlans().getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Files.writeString(pricePlansFile, """
+                [{"planName": "twice", "unitRate": 1}, {"planName": "twice", "unitRate": 2}]
+                """);
+        assertThat(controller.reloadPricePlans().getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        assertThat(pricePlanCatalogue.getVersion()).isEqualTo(version);
+    }
+
+    /**
+     * Tests that reloading without a price plan file is not found.
+     */
+    @Test
+    public void givenNoPricePlanFileShouldNotFindReload() {
+        PricePlanAdminController controller = new PricePlanAdminController(new PricePlanCatalogue(PRICE_PLANS));
+
+        assertThat(controller.reloadPricePlans().getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
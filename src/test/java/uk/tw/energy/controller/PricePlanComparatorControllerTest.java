@@ -1,7 +1,9 @@
 package uk.tw.energy.controller;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.AbstractMap;
@@ -10,13 +12,18 @@ import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import uk.tw.energy.domain.ElectricityReading;
 import uk.tw.energy.domain.PricePlan;
 import uk.tw.energy.service.AccountService;
 import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
 import uk.tw.energy.service.PricePlanService;
+import uk.tw.energy.tenancy.TenantBulkhead;
+import uk.tw.energy.tenancy.TenantBusyException;
+import uk.tw.energy.tenancy.TenantResolver;
 
 public class PricePlanComparatorControllerTest {
     private static final String WORST_PLAN_ID = "worst-supplier";
@@ -26,6 +33,7 @@ public class PricePlanComparatorControllerTest {
     private PricePlanComparatorController controller;
     private MeterReadingService meterReadingService;
     private AccountService accountService;
+    private PricePlanService pricePlanService;
 
     /**
      * Sets up the test environment before each test execution.
@@ -39,11 +47,14 @@ public class PricePlanComparatorControllerTest {
         PricePlan pricePlan2 = new PricePlan(BEST_PLAN_ID, null, BigDecimal.ONE, null);
         PricePlan pricePlan3 = new PricePlan(SECOND_BEST_PLAN_ID, null, BigDecimal.valueOf(2), null);
         List<PricePlan> pricePlans = List.of(pricePlan1, pricePlan2, pricePlan3);
-        PricePlanService pricePlanService = new PricePlanService(pricePlans, meterReadingService);
+        pricePlanService = new PricePlanService(pricePlans, meterReadingService);
 
         accountService = new AccountService(Map.of(SMART_METER_ID, WORST_PLAN_ID));
 
-        controller = new PricePlanComparatorController(pricePlanService, accountService);
+        controller = new PricePlanComparatorController(
+                pricePlanService,
+                accountService,
+                new StaticListableBeanFactory().getBeanProvider(TenantBulkhead.class));
     }
 
     /**
@@ -64,9 +75,9 @@ public class PricePlanComparatorControllerTest {
                 WORST_PLAN_ID,
                 PricePlanComparatorController.PRICE_PLAN_COMPARISONS_KEY,
                 Map.of(
-                        WORST_PLAN_ID, BigDecimal.valueOf(100.0),
-                        BEST_PLAN_ID, BigDecimal.valueOf(10.0),
-                        SECOND_BEST_PLAN_ID, BigDecimal.valueOf(20.0)));
+                        WORST_PLAN_ID, new BigDecimal("100.0000"),
+                        BEST_PLAN_ID, new BigDecimal("10.0000"),
+                        SECOND_BEST_PLAN_ID, new BigDecimal("20.0000")));
         assertThat(response.getBody()).isEqualTo(expected);
     }
 
@@ -96,9 +107,9 @@ public class PricePlanComparatorControllerTest {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         var expectedPricePlanToCost = List.of(
-                new AbstractMap.SimpleEntry<>(BEST_PLAN_ID, BigDecimal.valueOf(38.0)),
-                new AbstractMap.SimpleEntry<>(SECOND_BEST_PLAN_ID, BigDecimal.valueOf(76.0)),
-                new AbstractMap.SimpleEntry<>(WORST_PLAN_ID, BigDecimal.valueOf(380.0)));
+                new AbstractMap.SimpleEntry<>(BEST_PLAN_ID, new BigDecimal("9.5000")),
+                new AbstractMap.SimpleEntry<>(SECOND_BEST_PLAN_ID, new BigDecimal("19.0000")),
+                new AbstractMap.SimpleEntry<>(WORST_PLAN_ID, new BigDecimal("95.0000")));
         assertThat(response.getBody()).isEqualTo(expectedPricePlanToCost);
     }
 
@@ -116,8 +127,8 @@ public class PricePlanComparatorControllerTest {
                 controller.recommendCheapestPricePlans(SMART_METER_ID, 2);
 
         var expectedPricePlanToCost = List.of(
-                new AbstractMap.SimpleEntry<>(BEST_PLAN_ID, BigDecimal.valueOf(16.7)),
-                new AbstractMap.SimpleEntry<>(SECOND_BEST_PLAN_ID, BigDecimal.valueOf(33.4)));
+                new AbstractMap.SimpleEntry<>(BEST_PLAN_ID, new BigDecimal("9.3750")),
+                new AbstractMap.SimpleEntry<>(SECOND_BEST_PLAN_ID, new BigDecimal("18.7500")));
         assertThat(response.getBody()).isEqualTo(expectedPricePlanToCost);
     }
 
@@ -135,9 +146,34 @@ public class PricePlanComparatorControllerTest {
                 controller.recommendCheapestPricePlans(SMART_METER_ID, 5);
 
         var expectedPricePlanToCost = List.of(
-                new AbstractMap.SimpleEntry<>(BEST_PLAN_ID, BigDecimal.valueOf(14.0)),
-                new AbstractMap.SimpleEntry<>(SECOND_BEST_PLAN_ID, BigDecimal.valueOf(28.0)),
-                new AbstractMap.SimpleEntry<>(WORST_PLAN_ID, BigDecimal.valueOf(140.0)));
+                new AbstractMap.SimpleEntry<>(BEST_PLAN_ID, new BigDecimal("14.0000")),
+                new AbstractMap.SimpleEntry<>(SECOND_BEST_PLAN_ID, new BigDecimal("28.0000")),
+                new AbstractMap.SimpleEntry<>(WORST_PLAN_ID, new BigDecimal("140.0000")));
         assertThat(response.getBody()).isEqualTo(expectedPricePlanToCost);
     }
+
+    /**
+     * Tests that comparing and recommending price plans for a supplier with every request slot in use is refused.
+     */
+    @Test
+    public void givenSupplierAtLimitShouldRefuseComparisons() {
+        TenantResolver tenantResolver = new TenantResolver(
+                accountService,
+                new PricePlanCatalogue(List.of(new PricePlan(WORST_PLAN_ID, "supplier", BigDecimal.TEN, null))));
+        TenantBulkhead tenantBulkhead = new TenantBulkhead(tenantResolver, 1, new SimpleMeterRegistry());
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("tenantBulkhead", tenantBulkhead);
+        PricePlanComparatorController limitedController = new PricePlanComparatorController(
+                pricePlanService, accountService, beanFactory.getBeanProvider(TenantBulkhead.class));
+
+        tenantBulkhead.run(SMART_METER_ID, () -> {
+            assertThatThrownBy(() -> limitedController.calculatedCostForEachPricePlan(SMART_METER_ID))
+                    .isInstanceOf(TenantBusyException.class);
+            assertThatThrownBy(() -> limitedController.recommendCheapestPricePlans(SMART_METER_ID, null))
+                    .isInstanceOf(TenantBusyException.class);
+        });
+
+        assertThat(limitedController.calculatedCostForEachPricePlan(SMART_METER_ID).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
 }
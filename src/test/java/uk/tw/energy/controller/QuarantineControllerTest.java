@@ -0,0 +1,60 @@
+package uk.tw.energy.controller;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.validation.Anomaly;
+import uk.tw.energy.validation.QuarantineStore;
+import uk.tw.energy.validation.QuarantinedReading;
+
+public class QuarantineControllerTest {
+
+    private static final String SMART_METER_ID = "10101010";
+    private QuarantineStore quarantineStore;
+    private QuarantineController quarantineController;
+
+    @BeforeEach
+    public void setUp() {
+        quarantineStore = new QuarantineStore(2);
+        quarantineController = new QuarantineController(quarantineStore);
+    }
+
+    /**
+     * Tests that the most recent quarantined readings of a meter are returned, oldest first.
+     */
+    @Test
+    public void givenQuarantinedReadingsShouldReturnMostRecentOnes() {
+        List<QuarantinedReading> quarantined = List.of(quarantined(1), quarantined(2), quarantined(3));
+        quarantined.forEach(reading -> quarantineStore.quarantine(SMART_METER_ID, reading));
+
+        ResponseEntity<List<QuarantinedReading>> response =
+                quarantineController.readQuarantinedReadings(SMART_METER_ID);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(quarantined.subList(1, 3));
+    }
+
+    /**
+     * Tests that a meter without quarantined readings is not found.
+     */
+    @Test
+    public void givenMeterWithoutQuarantinedReadingsShouldReturnNotFound() {
+        assertThat(quarantineController.readQuarantinedReadings(SMART_METER_ID).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private static QuarantinedReading quarantined(long epochSecond) {
+        return new QuarantinedReading(
+                new ElectricityReading(Instant.ofEpochSecond(epochSecond), new BigDecimal("-1")),
+                Set.of(Anomaly.NEGATIVE),
+                Instant.ofEpochSecond(epochSecond));
+    }
+}
@@ -5,10 +5,12 @@ import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import org.assertj.core.data.Percentage;
 import org.junit.jupiter.api.Test;
 
@@ -66,4 +68,77 @@ public class PricePlanTest {
 
         assertThat(price).isCloseTo(BigDecimal.TEN, Percentage.withPercentage(1));
     }
+
+    @Test
+    public void shouldApplyFirstTariffBandCoveringTheHour() {
+        // Weekday evenings cost 3 times the base rate, nights 0.5 times, and winter weekday evenings 4 times
+        PricePlan pricePlan = new PricePlan(
+                null,
+                null,
+                BigDecimal.ONE,
+                List.of(new PricePlan.PeakTimeMultiplier(DayOfWeek.SATURDAY, BigDecimal.TEN)),
+                List.of(
+                        new PricePlan.TariffBand(
+                                PricePlan.DayType.WEEKDAY,
+                                16,
+                                19,
+                                Month.NOVEMBER,
+                                Month.FEBRUARY,
+                                BigDecimal.valueOf(4)),
+                        new PricePlan.TariffBand(PricePlan.DayType.WEEKDAY, 16, 19, null, null, BigDecimal.valueOf(3)),
+                        new PricePlan.TariffBand(null, 23, 7, null, null, new BigDecimal("0.5"))),
+                null);
+
+        assertThat(pricePlan.getPrice(LocalDateTime.of(2024, Month.AUGUST, 28, 17, 0)))
+                .isEqualByComparingTo(BigDecimal.valueOf(3));
+        assertThat(pricePlan.getPrice(LocalDateTime.of(2024, Month.JANUARY, 10, 18, 59)))
+                .isEqualByComparingTo(BigDecimal.valueOf(4));
+        assertThat(pricePlan.getPrice(LocalDateTime.of(2024, Month.AUGUST, 28, 19, 0)))
+                .isEqualByComparingTo(BigDecimal.ONE);
+        assertThat(pricePlan.getPrice(LocalDateTime.of(2024, Month.AUGUST, 28, 2, 0)))
+                .isEqualByComparingTo(new BigDecimal("0.5"));
+        // Saturday has no evening band, so its peak time multiplier applies outside the night band
+        assertThat(pricePlan.getPrice(LocalDateTime.of(2024, Month.AUGUST, 31, 17, 0)))
+                .isEqualByComparingTo(BigDecimal.TEN);
+    }
+
+    @Test
+    public void shouldPriceHolidaysAsWeekendDays() {
+        LocalDate bankHoliday = LocalDate.of(2024, Month.AUGUST, 26);
+        PricePlan pricePlan = new PricePlan(
+                null,
+                null,
+                BigDecimal.ONE,
+                null,
+                List.of(
+                        new PricePlan.TariffBand(PricePlan.DayType.HOLIDAY, 12, 14, null, null, BigDecimal.ZERO),
+                        new PricePlan.TariffBand(PricePlan.DayType.WEEKEND, 0, 24, null, null, BigDecimal.valueOf(2))),
+                Set.of(bankHoliday));
+
+        assertThat(pricePlan.getPrice(bankHoliday.atTime(13, 0))).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(pricePlan.getPrice(bankHoliday.atTime(9, 0))).isEqualByComparingTo(BigDecimal.valueOf(2));
+        assertThat(pricePlan.getPrice(bankHoliday.plusWeeks(1).atTime(9, 0))).isEqualByComparingTo(BigDecimal.ONE);
+    }
+
+    @Test
+    public void shouldResolveHourlyRatesMatchingPrices() {
+        PricePlan pricePlan = new PricePlan(
+                null,
+                null,
+                BigDecimal.valueOf(2),
+                List.of(new PricePlan.PeakTimeMultiplier(DayOfWeek.MONDAY, BigDecimal.TEN)),
+                List.of(new PricePlan.TariffBand(
+                        PricePlan.DayType.WEEKEND, 8, 20, Month.DECEMBER, Month.MARCH, BigDecimal.ONE)),
+                Set.of(LocalDate.of(2024, Month.DECEMBER, 25)));
+
+        for (LocalDate date = LocalDate.of(2024, Month.JANUARY, 1); date.getYear() == 2024; date = date.plusDays(1)) {
+            double[] hourlyRates = pricePlan.getHourlyRates(date);
+            for (int hour = 0; hour < 24; hour++) {
+                assertThat(hourlyRates[hour])
+                        .isEqualTo(pricePlan.getPrice(date.atTime(hour, 0)).doubleValue());
+            }
+        }
+        assertThat(pricePlan.getHourlyRates(LocalDate.of(2024, Month.MAY, 6)))
+                .isSameAs(pricePlan.getHourlyRates(LocalDate.of(2024, Month.MAY, 13)));
+    }
 }
@@ -0,0 +1,112 @@
+package uk.tw.energy.forecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+public class BillForecastServiceTest {
+    private static final String SMART_METER_ID = "smart-meter-id";
+    private static final String STANDARD_PLAN_ID = "standard";
+    private static final String PEAK_MONDAY_PLAN_ID = "peak-monday";
+    private static final Instant MONDAY_MIDNIGHT = Instant.parse("2024-04-29T00:00:00Z");
+
+    private MeterReadingService meterReadingService;
+    private BillForecastService billForecastService;
+
+    /**
+     * Sets up a forecast service on a clock fixed at midnight on a Monday, with a flat plan and a plan charging triple
+     * on Mondays.
+     */
+    @BeforeEach
+    public void setUp() {
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        PricePlan standard = new PricePlan(STANDARD_PLAN_ID, null, BigDecimal.ONE, List.of());
+        PricePlan peakMonday = new PricePlan(
+                PEAK_MONDAY_PLAN_ID,
+                null,
+                BigDecimal.valueOf(2),
+                List.of(new PricePlan.PeakTimeMultiplier(DayOfWeek.MONDAY, BigDecimal.valueOf(3))));
+        billForecastService = new BillForecastService(
+                new ConsumptionProfileService(meterReadingService),
+                new PricePlanCatalogue(List.of(standard, peakMonday)),
+                Clock.fixed(MONDAY_MIDNIGHT, ZoneOffset.UTC));
+    }
+
+    /**
+     * Tests that a constant load is projected over every hour of the window with each plan's prices.
+     */
+    @Test
+    public void givenConstantLoadShouldProjectWeekUnderEachPlan() {
+        meterReadingService.storeReadings(
+                SMART_METER_ID,
+                List.of(
+                        new ElectricityReading(Instant.parse("2024-04-22T10:00:00Z"), BigDecimal.valueOf(2)),
+                        new ElectricityReading(Instant.parse("2024-04-22T10:10:00Z"), BigDecimal.valueOf(2))));
+
+        Optional<Map<String, BigDecimal>> forecast =
+                billForecastService.getProjectedCostForEachPricePlan(SMART_METER_ID, 7);
+
+        // 168 hours at 2 kW for 1 per kWh, and 24 hours at 2 kW for 6 per kWh plus 144 hours at 2 kW for 2 per kWh
+        assertThat(forecast)
+                .isEqualTo(Optional.of(Map.of(
+                        STANDARD_PLAN_ID, new BigDecimal("336.00"), PEAK_MONDAY_PLAN_ID, new BigDecimal("864.00"))));
+    }
+
+    /**
+     * Tests that sampled slots use their own mean while unsampled slots fall back to the overall mean.
+     */
+    @Test
+    public void givenReadingsInDifferentSlotsShouldProjectEachSlotFromItsOwnMean() {
+        meterReadingService.storeReadings(
+                SMART_METER_ID,
+                List.of(
+                        new ElectricityReading(Instant.parse("2024-04-22T10:30:00Z"), BigDecimal.valueOf(4)),
+                        new ElectricityReading(Instant.parse("2024-04-23T10:30:00Z"), BigDecimal.valueOf(1))));
+
+        Map<String, BigDecimal> forecast = billForecastService
+                .getProjectedCostForEachPricePlan(SMART_METER_ID, 1)
+                .get();
+
+        // Monday 10:00 at 4 kW, and 23 other hours at the 2.5 kW overall mean
+        assertThat(forecast.get(STANDARD_PLAN_ID)).isEqualTo(new BigDecimal("61.50"));
+    }
+
+    /**
+     * Tests that the bulk projection covers every meter with readings.
+     */
+    @Test
+    public void givenSeveralMetersShouldProjectAllOfThem() {
+        meterReadingService.storeReadings(
+                SMART_METER_ID, List.of(new ElectricityReading(MONDAY_MIDNIGHT, BigDecimal.ONE)));
+        meterReadingService.storeReadings(
+                "other-meter", List.of(new ElectricityReading(MONDAY_MIDNIGHT, BigDecimal.TEN)));
+
+        Map<String, Map<String, BigDecimal>> forecasts = billForecastService.getProjectedCostsForAllMeters(1);
+
+        assertThat(forecasts.get(SMART_METER_ID).get(STANDARD_PLAN_ID)).isEqualTo(new BigDecimal("24.00"));
+        assertThat(forecasts.get("other-meter").get(STANDARD_PLAN_ID)).isEqualTo(new BigDecimal("240.00"));
+    }
+
+    /**
+     * Tests that a meter without readings has no forecast.
+     */
+    @Test
+    public void givenMeterWithoutReadingsShouldReturnEmpty() {
+        assertThat(billForecastService.getProjectedCostForEachPricePlan("unknown", 30))
+                .isEqualTo(Optional.empty());
+    }
+}
@@ -0,0 +1,155 @@
+package uk.tw.energy.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+public class MeterIndexServiceTest {
+    private static final Instant DAY_START = Instant.parse("2024-04-26T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(DAY_START.plus(Duration.ofHours(12)));
+    private MeterReadingService meterReadingService;
+    private MeterIndexService meterIndexService;
+
+    @BeforeEach
+    public void setUp() {
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        AccountService accountService = new AccountService(Map.of("meter-a", "plan-x", "meter-b", "plan-y"));
+        PlanMembershipIndex planMembershipIndex =
+                new PlanMembershipIndex(accountService, new PricePlanCatalogue(List.of()));
+        meterIndexService = new MeterIndexService(meterReadingService, planMembershipIndex, 7, clock);
+
+        store("meter-a", reading(Duration.ZERO, 10), reading(Duration.ofHours(1), 10));
+        store("meter-b", reading(Duration.ZERO, 2), reading(Duration.ofMinutes(30), 2));
+        store("meter-c", reading(Duration.ZERO, 2), reading(Duration.ofHours(2), 3));
+    }
+
+    /**
+     * Tests that meters are ranked by the energy consumed between their readings, highest first.
+     */
+    @Test
+    public void givenReadingsShouldRankMetersByConsumption() {
+        assertThat(meterIndexService.getTopConsumers(2, null))
+                .containsExactly(
+                        new MeterConsumption("meter-a", new BigDecimal("10.0000")),
+                        new MeterConsumption("meter-c", new BigDecimal("5.0000")));
+    }
+
+    /**
+     * Tests that the price plan bitmap filters the ranking.
+     */
+    @Test
+    public void givenPricePlanShouldOnlyRankItsMeters() {
+        assertThat(meterIndexService.getTopConsumers(10, "plan-y"))
+                .containsExactly(new MeterConsumption("meter-b", new BigDecimal("1.0000")));
+        assertThat(meterIndexService.getTopConsumers(10, "unknown-plan")).isEmpty();
+    }
+
+    /**
+     * Tests that meters are found by the time of their latest reading, the longest silent first.
+     */
+    @Test
+    public void givenSilenceShouldFindMetersWithoutNewerReadings() {
+        List<MeterLastSeen> silent = meterIndexService.getMetersNotSeenFor(Duration.ofHours(10), 10, null);
+
+        assertThat(silent)
+                .containsExactly(
+                        new MeterLastSeen("meter-b", DAY_START.plus(Duration.ofMinutes(30))),
+                        new MeterLastSeen("meter-a", DAY_START.plus(Duration.ofHours(1))));
+    }
+
+    /**
+     * Tests that newer readings move a meter in both indexes.
+     */
+    @Test
+    public void givenNewReadingsShouldReindexMeter() {
+        store("meter-b", reading(Duration.ofHours(11), 2));
+
+        assertThat(meterIndexService.getTopConsumers(1, null))
+                .containsExactly(new MeterConsumption("meter-b", new BigDecimal("22.0000")));
+        assertThat(meterIndexService.getMetersNotSeenFor(Duration.ofHours(10), 10, null))
+                .containsExactly(new MeterLastSeen("meter-a", DAY_START.plus(Duration.ofHours(1))));
+    }
+
+    /**
+     * Tests that energy drops out of the totals once its day leaves the window.
+     */
+    @Test
+    public void givenDayLeavesWindowShouldDropItsEnergy() {
+        clock.set(DAY_START.plus(Duration.ofDays(6)));
+        meterIndexService.rollWindow();
+        assertThat(meterIndexService.getTopConsumers(1, null))
+                .containsExactly(new MeterConsumption("meter-a", new BigDecimal("10.0000")));
+
+        clock.set(DAY_START.plus(Duration.ofDays(7)));
+        meterIndexService.rollWindow();
+        assertThat(meterIndexService.getTopConsumers(3, null))
+                .extracting(MeterConsumption::kwh)
+                .containsOnly(new BigDecimal("0.0000"));
+    }
+
+    /**
+     * Tests that removed meters leave both indexes.
+     */
+    @Test
+    public void givenRemovedMeterShouldNotBeFound() {
+        meterReadingService.removeReadings("meter-a");
+
+        assertThat(meterIndexService.getIndexedMeterCount()).isEqualTo(2);
+        assertThat(meterIndexService.getTopConsumers(10, "plan-x")).isEmpty();
+        assertThat(meterIndexService.getMetersNotSeenFor(Duration.ofHours(10), 10, null))
+                .containsExactly(new MeterLastSeen("meter-b", DAY_START.plus(Duration.ofMinutes(30))));
+    }
+
+    private void store(String smartMeterId, ElectricityReading... readings) {
+        meterReadingService.storeReadings(smartMeterId, List.of(readings));
+    }
+
+    private static ElectricityReading reading(Duration sinceDayStart, double kw) {
+        return new ElectricityReading(DAY_START.plus(sinceDayStart), BigDecimal.valueOf(kw));
+    }
+
+    /**
+     * A clock that tests can move.
+     */
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package uk.tw.energy.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingService;
+
+public class LogDirectoryConsumerTest {
+    private static final String FIRST_SEGMENT = "00000001.log";
+    private static final String SECOND_SEGMENT = "00000002.log";
+    private static final int MAX_BATCHES_PER_POLL = 16;
+
+    @TempDir
+    private Path directory;
+
+    private MeterReadingService meterReadingService;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    /**
+     * Tests that records are stored per meter, in log order, across segments.
+     */
+    @Test
+    public void givenSegmentsShouldStoreEveryRecordInOrder() throws IOException {
+        append(FIRST_SEGMENT, "smart-meter-0,2024-01-01T00:00:00Z,0.5\nsmart-meter-1,2024-01-01T00:00:00Z,1.5\n");
+        append(FIRST_SEGMENT, "smart-meter-0,2024-01-01T00:05:00Z,0.6\r\n");
+        append(SECOND_SEGMENT, "smart-meter-0,2024-01-01T00:10:00Z,0.7\n");
+
+        consumer(1024).poll();
+
+        assertThat(readingsOf("smart-meter-0"))
+                .containsExactly(
+                        reading("2024-01-01T00:00:00Z", "0.5"),
+                        reading("2024-01-01T00:05:00Z", "0.6"),
+                        reading("2024-01-01T00:10:00Z", "0.7"));
+        assertThat(readingsOf("smart-meter-1")).containsExactly(reading("2024-01-01T00:00:00Z", "1.5"));
+        assertThat(Files.readString(directory.resolve(LogDirectoryConsumer.OFFSET_FILE)))
+                .isEqualTo(SECOND_SEGMENT + " 39\n");
+    }
+
+    /**
+     * Tests that a record the producer is still writing is only stored once complete.
+     */
+    @Test
+    public void givenPartialRecordShouldWaitForItsLineEnd() throws IOException {
+        append(FIRST_SEGMENT, "smart-meter-0,2024-01-01T00:00:00Z,0.5\nsmart-meter-0,2024-01-01T00:0");
+        LogDirectoryConsumer consumer = consumer(1024);
+
+        consumer.poll();
+        assertThat(readingsOf("smart-meter-0")).hasSize(1);
+
+        append(FIRST_SEGMENT, "5:00Z,0.6\n");
+        consumer.poll();
+        assertThat(readingsOf("smart-meter-0"))
+                .containsExactly(reading("2024-01-01T00:00:00Z", "0.5"), reading("2024-01-01T00:05:00Z", "0.6"));
+    }
+
+    /**
+     * Tests that a poll stops after its most batches and leaves the rest of the backlog to the next poll.
+     */
+    @Test
+    public void givenBacklogShouldConsumeAtMostMaxBatchesPerPoll() throws IOException {
+        String record = "smart-meter-0,2024-01-01T00:00:00Z,0.5\n";
+        append(FIRST_SEGMENT, record.repeat(MAX_BATCHES_PER_POLL + 1));
+        LogDirectoryConsumer consumer = consumer(record.length());
+
+        consumer.poll();
+        assertThat(readingsOf("smart-meter-0")).hasSize(MAX_BATCHES_PER_POLL);
+
+        consumer.poll();
+        assertThat(readingsOf("smart-meter-0")).hasSize(MAX_BATCHES_PER_POLL + 1);
+    }
+
+    /**
+     * Tests that a restarted consumer resumes from the committed offset instead of storing records again.
+     */
+    @Test
+    public void givenCommittedOffsetShouldResumeAfterRestart() throws IOException {
+        append(FIRST_SEGMENT, "smart-meter-0,2024-01-01T00:00:00Z,0.5\n");
+        consumer(1024).poll();
+        append(FIRST_SEGMENT, "smart-meter-0,2024-01-01T00:05:00Z,0.6\n");
+
+        consumer(1024).poll();
+
+        assertThat(readingsOf("smart-meter-0"))
+                .containsExactly(reading("2024-01-01T00:00:00Z", "0.5"), reading("2024-01-01T00:05:00Z", "0.6"));
+    }
+
+    /**
+     * Tests that malformed records are counted and skipped, whether in the middle of a batch or too long for one.
+     */
+    @Test
+    public void givenMalformedRecordsShouldSkipThem() throws IOException {
+        append(FIRST_SEGMENT, "smart-meter-0,yesterday,0.5\nsmart-meter-0,2024-01-01T00:00:00Z\n");
+        append(FIRST_SEGMENT, "smart-meter-0,2024-01-01T00:00:00Z,0.5\n" + "x".repeat(100) + "\n");
+        append(SECOND_SEGMENT, "smart-meter-0,2024-01-01T00:05:00Z,0.6\n");
+
+        consumer(64).poll();
+
+        assertThat(readingsOf("smart-meter-0"))
+                .containsExactly(reading("2024-01-01T00:00:00Z", "0.5"), reading("2024-01-01T00:05:00Z", "0.6"));
+        assertThat(meterRegistry
+                        .find("energy.ingest.log.records")
+                        .tag("outcome", "malformed")
+                        .counter()
+                        .count())
+                .isGreaterThanOrEqualTo(3);
+    }
+
+    private LogDirectoryConsumer consumer(int batchBytes) throws IOException {
+        return new LogDirectoryConsumer(
+                meterReadingService, directory, batchBytes, MAX_BATCHES_PER_POLL, meterRegistry);
+    }
+
+    private List<ElectricityReading> readingsOf(String smartMeterId) {
+        return meterReadingService.getReadings(smartMeterId).orElseThrow();
+    }
+
+    private void append(String segment, String records) throws IOException {
+        Files.writeString(
+                directory.resolve(segment), records, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static ElectricityReading reading(String time, String value) {
+        return new ElectricityReading(Instant.parse(time), new BigDecimal(value));
+    }
+}
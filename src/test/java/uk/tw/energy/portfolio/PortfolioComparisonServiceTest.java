@@ -0,0 +1,119 @@
+package uk.tw.energy.portfolio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.Portfolio;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanService;
+
+public class PortfolioComparisonServiceTest {
+    private static final String ACCOUNT_ID = "account-id";
+    private static final String WORST_PLAN_ID = "worst-supplier";
+    private static final String BEST_PLAN_ID = "best-supplier";
+
+    private ExecutorService executor;
+    private MeterReadingService meterReadingService;
+    private AccountService accountService;
+    private PricePlanService pricePlanService;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        pricePlanService = new PricePlanService(
+                List.of(
+                        new PricePlan(WORST_PLAN_ID, null, BigDecimal.TEN, null),
+                        new PricePlan(BEST_PLAN_ID, null, BigDecimal.ONE, null)),
+                meterReadingService);
+        accountService = new AccountService(
+                Map.of(), List.of(new Portfolio(ACCOUNT_ID, List.of("meter-a", "meter-b", "meter-c"))));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that the costs of every smart meter with readings are summed per price plan.
+     */
+    @Test
+    public void givenPortfolioShouldSumTheCostsOfItsSmartMeters() {
+        Instant now = Instant.now();
+        List<ElectricityReading> readings = List.of(
+                new ElectricityReading(now.minusSeconds(3600), BigDecimal.valueOf(15.0)),
+                new ElectricityReading(now, BigDecimal.valueOf(5.0)));
+        meterReadingService.storeReadings("meter-a", readings);
+        meterReadingService.storeReadings("meter-b", readings);
+
+        Optional<PortfolioComparison> comparison = service(executor).compareAllPricePlans(ACCOUNT_ID).join();
+
+        assertThat(comparison)
+                .contains(new PortfolioComparison(
+                        ACCOUNT_ID,
+                        Map.of(WORST_PLAN_ID, new BigDecimal("200.0000"), BEST_PLAN_ID, new BigDecimal("20.0000")),
+                        3,
+                        List.of("meter-c")));
+    }
+
+    /**
+     * Tests that an account without a portfolio has no comparison.
+     */
+    @Test
+    public void givenUnknownAccountShouldReturnEmpty() {
+        assertThat(service(executor).compareAllPricePlans("not-found").join()).isEmpty();
+    }
+
+    /**
+     * Tests that a portfolio fails fast when the executor cannot take more work.
+     */
+    @Test
+    public void givenSaturatedExecutorShouldFailWithRejection() {
+        Executor saturated = task -> {
+            throw new RejectedExecutionException("Queue full");
+        };
+
+        CompletableFuture<Optional<PortfolioComparison>> comparison =
+                service(saturated).compareAllPricePlans(ACCOUNT_ID);
+
+        assertThatThrownBy(comparison::join).hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    /**
+     * Tests that a portfolio whose smart meters are not all costed in time fails with a timeout.
+     */
+    @Test
+    public void givenSmartMetersNotCostedInTimeShouldFailWithTimeout() {
+        Executor stalled = task -> {};
+
+        CompletableFuture<Optional<PortfolioComparison>> comparison =
+                new PortfolioComparisonService(accountService, pricePlanService, stalled, Duration.ofMillis(10))
+                        .compareAllPricePlans(ACCOUNT_ID);
+
+        assertThatThrownBy(comparison::join).hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    private PortfolioComparisonService service(Executor executor) {
+        return new PortfolioComparisonService(accountService, pricePlanService, executor, Duration.ofSeconds(10));
+    }
+}
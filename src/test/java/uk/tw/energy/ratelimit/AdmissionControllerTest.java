@@ -0,0 +1,26 @@
+package uk.tw.energy.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class AdmissionControllerTest {
+
+    /**
+     * Tests that ingestion is shed once only the reserved capacity is left, while queries are still admitted.
+     */
+    @Test
+    public void givenUnreservedCapacityUsedShouldShedIngestButAdmitQueries() {
+        AdmissionController admissionController = new AdmissionController(3, 1);
+
+        assertThat(admissionController.tryAdmit(EndpointClass.INGEST)).isTrue();
+        assertThat(admissionController.tryAdmit(EndpointClass.INGEST)).isTrue();
+        assertThat(admissionController.tryAdmit(EndpointClass.INGEST)).isFalse();
+        assertThat(admissionController.tryAdmit(EndpointClass.PRICING)).isTrue();
+        assertThat(admissionController.tryAdmit(EndpointClass.READ)).isFalse();
+
+        admissionController.release();
+        assertThat(admissionController.getInFlight()).isEqualTo(2);
+        assertThat(admissionController.tryAdmit(EndpointClass.READ)).isTrue();
+    }
+}
@@ -0,0 +1,112 @@
+package uk.tw.energy.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class RateLimitFilterTest {
+    private static final String PROXY_ADDRESS = "10.0.0.1";
+    private static final String CLIENT_ADDRESS = "192.0.2.1";
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionController admissionController;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admissionController = new AdmissionController(2, 1);
+        RateLimiter rateLimiter =
+                new RateLimiter(Map.of(EndpointClass.INGEST, new TokenBucket.Limit(1, 2)), 100, nanoTime::get);
+        filter = new RateLimitFilter(rateLimiter, admissionController, Set.of(PROXY_ADDRESS), meterRegistry);
+    }
+
+    /**
+     * Tests that a client over its rate is rejected with 429, without using up the rate of other clients.
+     */
+    @Test
+    public void givenClientOverItsRateShouldRejectWithTooManyRequests() throws Exception {
+        assertThat(store("head-end-1").getStatus()).isEqualTo(200);
+        assertThat(store("head-end-1").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = store("head-end-1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(RateLimitFilter.RETRY_AFTER_HEADER)).isEqualTo("1");
+        assertThat(store("head-end-2").getStatus()).isEqualTo(200);
+        assertThat(meterRegistry
+                        .find("energy.requests.rejected")
+                        .tag("endpoint", "ingest")
+                        .tag("reason", "rate-limited")
+                        .counter()
+                        .count())
+                .isEqualTo(1.0);
+    }
+
+    /**
+     * Tests that a client not behind a trusted proxy is limited by its address, whatever client ID it sends.
+     */
+    @Test
+    public void givenUntrustedClientRotatingIdsShouldLimitItsAddress() throws Exception {
+        assertThat(request("POST", "/readings/store", "rotated-1", CLIENT_ADDRESS).getStatus())
+                .isEqualTo(200);
+        assertThat(request("POST", "/readings/store", "rotated-2", CLIENT_ADDRESS).getStatus())
+                .isEqualTo(200);
+
+        assertThat(request("POST", "/readings/store", "rotated-3", CLIENT_ADDRESS).getStatus())
+                .isEqualTo(429);
+    }
+
+    /**
+     * Tests that ingestion is shed with 503 when only reserved capacity is left, and that pricing is still served.
+     */
+    @Test
+    public void givenServiceAtUnreservedCapacityShouldShedIngest() throws Exception {
+        assertThat(admissionController.tryAdmit(EndpointClass.INGEST)).isTrue();
+
+        MockHttpServletResponse shed = store("head-end-1");
+
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(request("GET", "/price-plans/compare-all/smart-meter-0", "head-end-1").getStatus())
+                .isEqualTo(200);
+        assertThat(admissionController.getInFlight()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that endpoints outside the API, such as the actuator, are neither limited nor counted.
+     */
+    @Test
+    public void givenActuatorRequestShouldPassThrough() throws Exception {
+        admissionController.tryAdmit(EndpointClass.PRICING);
+        admissionController.tryAdmit(EndpointClass.PRICING);
+
+        assertThat(request("GET", "/actuator/metrics", "head-end-1").getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse store(String clientId) throws Exception {
+        return request("POST", "/readings/store", clientId);
+    }
+
+    private MockHttpServletResponse request(String method, String path, String clientId) throws Exception {
+        return request(method, path, clientId, PROXY_ADDRESS);
+    }
+
+    private MockHttpServletResponse request(String method, String path, String clientId, String remoteAddress)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader(RateLimitFilter.CLIENT_ID_HEADER, clientId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
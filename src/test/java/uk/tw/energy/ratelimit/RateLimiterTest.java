@@ -0,0 +1,25 @@
+package uk.tw.energy.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class RateLimiterTest {
+
+    private static final long NOW = 1_000_000_000L;
+
+    /**
+     * Tests that clients arriving while the limiter is full share a bucket instead of adding their own.
+     */
+    @Test
+    public void givenLimiterAtMaxBucketsShouldShareOneBucketBetweenNewClients() {
+        RateLimiter rateLimiter =
+                new RateLimiter(Map.of(EndpointClass.INGEST, new TokenBucket.Limit(1, 1)), 1, () -> NOW);
+
+        assertThat(rateLimiter.tryAcquire("client-1", EndpointClass.INGEST)).isZero();
+        assertThat(rateLimiter.tryAcquire("client-2", EndpointClass.INGEST)).isZero();
+        assertThat(rateLimiter.tryAcquire("client-3", EndpointClass.INGEST)).isPositive();
+        assertThat(rateLimiter.getBucketCount()).isEqualTo(2);
+    }
+}
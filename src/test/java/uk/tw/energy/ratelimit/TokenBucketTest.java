@@ -0,0 +1,44 @@
+package uk.tw.energy.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+
+    private static final long START = 1_000_000_000L;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Tests that a full bucket allows a burst, then one request per emission interval.
+     */
+    @Test
+    public void givenFullBucketShouldAllowBurstThenSustainedRate() {
+        TokenBucket bucket = new TokenBucket(new TokenBucket.Limit(10, 3), START);
+
+        assertThat(bucket.availableTokens(START)).isEqualTo(3);
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(START)).isZero();
+        }
+        assertThat(bucket.tryAcquire(START)).isEqualTo(SECOND / 10);
+        assertThat(bucket.tryAcquire(START + SECOND / 20)).isEqualTo(SECOND / 20);
+        assertThat(bucket.tryAcquire(START + SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(START + SECOND / 10)).isPositive();
+    }
+
+    /**
+     * Tests that an idle bucket refills up to its burst and no further.
+     */
+    @Test
+    public void givenIdleBucketShouldRefillUpToBurst() {
+        TokenBucket bucket = new TokenBucket(new TokenBucket.Limit(10, 3), START);
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+
+        assertThat(bucket.availableTokens(START)).isEqualTo(1);
+        assertThat(bucket.isFull(START)).isFalse();
+        assertThat(bucket.availableTokens(START + SECOND)).isEqualTo(3);
+        assertThat(bucket.isFull(START + SECOND)).isTrue();
+    }
+}
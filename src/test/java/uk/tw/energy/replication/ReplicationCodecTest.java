@@ -0,0 +1,88 @@
+package uk.tw.energy.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+
+public class ReplicationCodecTest {
+
+    /**
+     * Tests that entries survive a round trip exactly, including the scale of each reading.
+     */
+    @Test
+    public void givenEntriesShouldDecodeWhatWasEncoded() {
+        List<LogEntry> entries = List.of(
+                new LogEntry(
+                        1,
+                        LogEntry.Type.APPEND,
+                        "smart-meter-é",
+                        List.of(
+                                new ElectricityReading(
+                                        Instant.parse("2024-04-26T00:00:10.123456789Z"), new BigDecimal("0.0503")),
+                                new ElectricityReading(
+                                        Instant.parse("1969-12-31T23:59:59Z"),
+                                        new BigDecimal("-12345678901234567890.5")))),
+                new LogEntry(2, LogEntry.Type.RESET, "smart-meter-1", List.of()),
+                new LogEntry(
+                        3,
+                        LogEntry.Type.TRIM,
+                        "smart-meter-1",
+                        List.of(LogEntry.trimCutoff(Instant.parse("2024-04-19T00:00:00Z")))));
+
+        ByteBuffer frame = ReplicationCodec.encode(entries);
+
+        assertThat(frame.getInt()).isEqualTo(frame.remaining());
+        assertThat(ReplicationCodec.decode(frame)).isEqualTo(entries);
+    }
+
+    /**
+     * Tests that the size of an entry is what it adds to the payload of a frame.
+     */
+    @Test
+    public void givenEntryShouldTellItsEncodedSize() {
+        LogEntry entry = new LogEntry(
+                1,
+                LogEntry.Type.APPEND,
+                "smart-meter-é",
+                List.of(
+                        new ElectricityReading(Instant.EPOCH, new BigDecimal("-128")),
+                        new ElectricityReading(Instant.EPOCH, new BigDecimal("12345678901234567890.5"))));
+
+        ByteBuffer frame = ReplicationCodec.encode(List.of(entry));
+
+        assertThat(ReplicationCodec.encodedBytes(entry))
+                .isEqualTo((long) frame.getInt() - ReplicationCodec.EMPTY_PAYLOAD_BYTES);
+    }
+
+    /**
+     * Tests that a heartbeat frame carries no entries.
+     */
+    @Test
+    public void givenNoEntriesShouldEncodeHeartbeat() {
+        ByteBuffer frame = ReplicationCodec.encode(List.of());
+
+        assertThat(frame.getInt()).isEqualTo(Integer.BYTES);
+        assertThat(ReplicationCodec.decode(frame)).isEmpty();
+    }
+
+    /**
+     * Tests that a truncated payload is rejected.
+     */
+    @Test
+    public void givenTruncatedPayloadShouldThrow() {
+        ByteBuffer frame = ReplicationCodec.encode(List.of(new LogEntry(
+                1,
+                LogEntry.Type.APPEND,
+                "smart-meter-0",
+                List.of(new ElectricityReading(Instant.EPOCH, BigDecimal.ONE)))));
+        frame.position(Integer.BYTES).limit(frame.limit() - 1);
+
+        assertThatThrownBy(() -> ReplicationCodec.decode(frame)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,161 @@
+package uk.tw.energy.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+import uk.tw.energy.storage.MapReadingStore;
+import uk.tw.energy.storage.ReadingStore;
+
+public class ReplicationLogTest {
+
+    private static final List<ElectricityReading> READINGS =
+            List.of(new ElectricityReading(Instant.parse("2024-04-26T00:00:00Z"), BigDecimal.ONE));
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private ReplicationLog replicationLog;
+    private ReadingStore readingStore;
+
+    @BeforeEach
+    public void setUp() {
+        replicationLog = new ReplicationLog(3);
+        readingStore = new ReplicatingReadingStore(
+                new MapReadingStore(new HashMap<>()), replicationLog, MeterRange.ALL);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that stored readings are recorded in order and returned in batches.
+     */
+    @Test
+    public void givenStoredReadingsShouldReturnEntriesAfterSequence() throws InterruptedException {
+        readingStore.storeReadings("smart-meter-0", READINGS);
+        readingStore.storeReadings("smart-meter-1", READINGS);
+        readingStore.removeReadings("smart-meter-0");
+
+        assertThat(replicationLog.awaitEntriesAfter(1, 10, 0))
+                .containsExactly(
+                        new LogEntry(2, LogEntry.Type.APPEND, "smart-meter-1", READINGS),
+                        new LogEntry(3, LogEntry.Type.RESET, "smart-meter-0", List.of()));
+        assertThat(replicationLog.awaitEntriesAfter(0, 1, 0)).extracting(LogEntry::sequence).containsExactly(1L);
+        assertThat(replicationLog.awaitEntriesAfter(3, 10, 10)).isEmpty();
+    }
+
+    /**
+     * Tests that a follower can no longer resume once the entries it needs were dropped.
+     */
+    @Test
+    public void givenLogOverflowShouldNotResumeFromDroppedSequence() {
+        for (int i = 0; i < 5; i++) {
+            readingStore.storeReadings("smart-meter-0", READINGS);
+        }
+
+        assertThat(replicationLog.canResumeFrom(1)).isFalse();
+        assertThat(replicationLog.canResumeFrom(2)).isTrue();
+        assertThat(replicationLog.canResumeFrom(6)).isFalse();
+        assertThatThrownBy(() -> replicationLog.awaitEntriesAfter(1, 10, 0))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Tests that a snapshot resets every meter of the range at the sequence its readings were taken at.
+     */
+    @Test
+    public void givenSnapshotShouldResetMetersInRange() {
+        MeterRange firstHalf = new MeterRange(0, 0, 2);
+        String inRange = firstHalf.contains("smart-meter-0") ? "smart-meter-0" : "smart-meter-1";
+        String outOfRange = inRange.equals("smart-meter-0") ? "smart-meter-1" : "smart-meter-0";
+        readingStore.storeReadings(inRange, READINGS);
+        readingStore.storeReadings(outOfRange, READINGS);
+
+        ReplicationLog.Snapshot snapshot = replicationLog.snapshot(readingStore, firstHalf);
+
+        assertThat(snapshot.sequence()).isEqualTo(2);
+        assertThat(snapshot.entries()).containsExactly(new LogEntry(2, LogEntry.Type.RESET, inRange, READINGS));
+    }
+
+    /**
+     * Tests that a long history is snapshot as a reset followed by appends of bounded size.
+     */
+    @Test
+    public void givenLongHistoryShouldSplitSnapshotEntries() {
+        List<ElectricityReading> readings = new ElectricityReadingsGenerator().generate(5);
+        readingStore.storeReadings("smart-meter-0", readings);
+
+        ReplicationLog.Snapshot snapshot = replicationLog.snapshot(readingStore, MeterRange.ALL, 2);
+
+        assertThat(snapshot.entries())
+                .containsExactly(
+                        new LogEntry(1, LogEntry.Type.RESET, "smart-meter-0", readings.subList(0, 2)),
+                        new LogEntry(1, LogEntry.Type.APPEND, "smart-meter-0", readings.subList(2, 4)),
+                        new LogEntry(1, LogEntry.Type.APPEND, "smart-meter-0", readings.subList(4, 5)));
+    }
+
+    /**
+     * Tests that readings are stored while a snapshot is copying another meter, and are left to the log tail.
+     */
+    @Test
+    public void givenSnapshotInProgressShouldKeepStoringReadings() throws Exception {
+        CountDownLatch copying = new CountDownLatch(1);
+        CountDownLatch copied = new CountDownLatch(1);
+        ReadingStore slowStore = new MapReadingStore(new HashMap<>()) {
+            @Override
+            public Optional<List<ElectricityReading>> getReadings(String smartMeterId) {
+                copying.countDown();
+                try {
+                    copied.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getReadings(smartMeterId);
+            }
+        };
+        readingStore = new ReplicatingReadingStore(slowStore, replicationLog, MeterRange.ALL);
+        readingStore.storeReadings("smart-meter-0", READINGS);
+        Future<ReplicationLog.Snapshot> snapshot =
+                executor.submit(() -> replicationLog.snapshot(readingStore, MeterRange.ALL));
+        copying.await();
+
+        executor.submit(() -> readingStore.storeReadings("smart-meter-1", READINGS)).get(5, TimeUnit.SECONDS);
+        copied.countDown();
+
+        assertThat(snapshot.get().sequence()).isEqualTo(1);
+        assertThat(snapshot.get().entries())
+                .containsExactly(new LogEntry(1, LogEntry.Type.RESET, "smart-meter-0", READINGS));
+        assertThat(replicationLog.awaitEntriesAfter(1, 10, 0))
+                .containsExactly(new LogEntry(2, LogEntry.Type.APPEND, "smart-meter-1", READINGS));
+    }
+
+    /**
+     * Tests that a primary refuses readings for meters outside its range.
+     */
+    @Test
+    public void givenMeterOutsideRangeShouldRejectReadings() {
+        MeterRange meterRange = MeterRange.parse("0-0/2");
+        String outOfRange = meterRange.contains("smart-meter-0") ? "smart-meter-1" : "smart-meter-0";
+        ReadingStore primary = new ReplicatingReadingStore(
+                new MapReadingStore(new HashMap<>()), replicationLog, meterRange);
+
+        assertThatThrownBy(() -> primary.storeReadings(outOfRange, READINGS))
+                .isInstanceOf(MeterNotOwnedException.class);
+        assertThat(replicationLog.getLastSequence()).isZero();
+    }
+}
@@ -0,0 +1,137 @@
+package uk.tw.energy.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.MapReadingStore;
+
+public class ReplicationServerTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private ReplicationLog replicationLog;
+    private ReplicatingReadingStore primaryStore;
+    private MeterReadingService primary;
+    private MeterReadingService follower;
+    private ReplicationServer replicationServer;
+    private ReplicationFollower replicationFollower;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        replicationLog = new ReplicationLog(1_000);
+        primaryStore =
+                new ReplicatingReadingStore(new MapReadingStore(new HashMap<>()), replicationLog, MeterRange.ALL);
+        primary = new MeterReadingService(primaryStore);
+        follower = new MeterReadingService(new HashMap<>());
+        replicationServer = new ReplicationServer(replicationLog, primaryStore, MeterRange.ALL, 16);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        replicationFollower.close();
+        replicationServer.close();
+    }
+
+    /**
+     * Tests that a follower loads the readings stored before it connected, then keeps up with new ones.
+     */
+    @Test
+    public void givenFollowerShouldConvergeWithPrimary() throws Exception {
+        ElectricityReadingsGenerator generator = new ElectricityReadingsGenerator();
+        for (int meter = 0; meter < 40; meter++) {
+            primary.storeReadings("smart-meter-" + meter, generator.generate(5));
+        }
+        follower.storeReadings("smart-meter-0", generator.generate(3));
+
+        replicationServer.start(0);
+        replicationFollower = new ReplicationFollower(
+                follower,
+                List.of(new InetSocketAddress("localhost", replicationServer.getPort())),
+                Duration.ofMillis(50));
+        replicationFollower.start();
+        for (int meter = 0; meter < 40; meter += 2) {
+            primary.storeReadings("smart-meter-" + meter, generator.generate(2));
+        }
+        primary.replaceReadings("smart-meter-1", List.of());
+
+        awaitConvergence();
+        assertThat(follower.getReadings("smart-meter-1")).isEqualTo(Optional.empty());
+    }
+
+    /**
+     * Tests that a follower reconnecting to a restarted primary resynchronises from a snapshot, dropping the meters
+     * the primary no longer has.
+     */
+    @Test
+    public void givenPrimaryRestartShouldResynchronise() throws Exception {
+        replicationServer.start(0);
+        int port = replicationServer.getPort();
+        replicationFollower = new ReplicationFollower(
+                follower, List.of(new InetSocketAddress("localhost", port)), Duration.ofMillis(50));
+        replicationFollower.start();
+        primary.storeReadings(
+                "smart-meter-0",
+                List.of(new ElectricityReading(Instant.parse("2024-04-26T00:00:00Z"), BigDecimal.ONE)));
+        awaitConvergence();
+
+        replicationServer.close();
+        replicationLog = new ReplicationLog(1_000);
+        ReplicatingReadingStore restartedStore =
+                new ReplicatingReadingStore(new MapReadingStore(new HashMap<>()), replicationLog, MeterRange.ALL);
+        primary = new MeterReadingService(restartedStore);
+        primary.storeReadings("smart-meter-1", new ElectricityReadingsGenerator().generate(3));
+        primary.storeReadings("smart-meter-2", new ElectricityReadingsGenerator().generate(3));
+        replicationServer = new ReplicationServer(replicationLog, restartedStore, MeterRange.ALL, 16);
+        replicationServer.start(port);
+
+        awaitConvergence();
+        assertThat(follower.getReadings("smart-meter-0")).isEqualTo(Optional.empty());
+    }
+
+    /**
+     * Tests that a snapshot larger than the frame size limit reaches the follower over several frames.
+     */
+    @Test
+    public void givenSnapshotLargerThanFrameShouldSplitIt() throws Exception {
+        ElectricityReadingsGenerator generator = new ElectricityReadingsGenerator();
+        for (int meter = 0; meter < 10; meter++) {
+            primary.storeReadings("smart-meter-" + meter, generator.generate(100));
+        }
+        long meterBytes = ReplicationCodec.encodedBytes(
+                new LogEntry(0, LogEntry.Type.RESET, "smart-meter-0", generator.generate(100)));
+        replicationServer = new ReplicationServer(replicationLog, primaryStore, MeterRange.ALL, 16, meterBytes);
+
+        replicationServer.start(0);
+        replicationFollower = new ReplicationFollower(
+                follower,
+                List.of(new InetSocketAddress("localhost", replicationServer.getPort())),
+                Duration.ofMillis(50));
+        replicationFollower.start();
+
+        awaitConvergence();
+    }
+
+    private void awaitConvergence() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!replicationFollower.getLastAppliedSequences().containsValue(replicationLog.getLastSequence())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(follower.getSmartMeterIds()).isEqualTo(primary.getSmartMeterIds());
+        for (String smartMeterId : primary.getSmartMeterIds()) {
+            assertThat(follower.getReadings(smartMeterId)).isEqualTo(primary.getReadings(smartMeterId));
+        }
+    }
+}
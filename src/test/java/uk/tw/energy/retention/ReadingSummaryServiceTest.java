@@ -0,0 +1,91 @@
+package uk.tw.energy.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingService;
+
+public class ReadingSummaryServiceTest {
+    private static final Instant DAY_START = Instant.parse("2024-04-26T00:00:00Z");
+
+    private MeterReadingService meterReadingService;
+    private ReadingSummaryService readingSummaryService;
+
+    @BeforeEach
+    public void setUp() {
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        readingSummaryService = new ReadingSummaryService(meterReadingService);
+        meterReadingService.storeReadings(
+                "smart-meter",
+                List.of(
+                        reading(Duration.ofHours(23), 2),
+                        reading(Duration.ofHours(22), 4),
+                        reading(Duration.ofHours(24), 2),
+                        reading(Duration.ofHours(26), 6)));
+    }
+
+    /**
+     * Tests that expired readings are folded into one summary per day, the energy going to the day of the later
+     * reading.
+     */
+    @Test
+    public void givenExpiredReadingsShouldSummariseEachDay() {
+        meterReadingService.expireReadings("smart-meter", DAY_START.plus(Duration.ofHours(25)));
+
+        assertThat(readingSummaryService.getDailySummaries("smart-meter"))
+                .isEqualTo(Optional.of(List.of(
+                        new DailySummary(
+                                LocalDate.parse("2024-04-26"),
+                                2,
+                                BigDecimal.valueOf(2),
+                                BigDecimal.valueOf(4),
+                                new BigDecimal("3.0000")),
+                        new DailySummary(
+                                LocalDate.parse("2024-04-27"),
+                                1,
+                                BigDecimal.valueOf(2),
+                                BigDecimal.valueOf(2),
+                                new BigDecimal("2.0000")))));
+    }
+
+    /**
+     * Tests that the interval spanning two expiries is counted once the later reading expires.
+     */
+    @Test
+    public void givenSuccessiveExpiriesShouldCarryIntervalBetweenThem() {
+        meterReadingService.expireReadings("smart-meter", DAY_START.plus(Duration.ofHours(25)));
+        meterReadingService.expireReadings("smart-meter", DAY_START.plus(Duration.ofHours(27)));
+
+        assertThat(readingSummaryService.getDailySummaries("smart-meter").orElseThrow().get(1))
+                .isEqualTo(new DailySummary(
+                        LocalDate.parse("2024-04-27"),
+                        2,
+                        BigDecimal.valueOf(2),
+                        BigDecimal.valueOf(6),
+                        new BigDecimal("10.0000")));
+    }
+
+    /**
+     * Tests that summaries are dropped with their meter.
+     */
+    @Test
+    public void givenRemovedMeterShouldDropSummaries() {
+        meterReadingService.expireReadings("smart-meter", DAY_START.plus(Duration.ofHours(25)));
+        meterReadingService.removeReadings("smart-meter");
+
+        assertThat(readingSummaryService.getDailySummaries("smart-meter")).isEmpty();
+    }
+
+    private static ElectricityReading reading(Duration sinceDayStart, double kw) {
+        return new ElectricityReading(DAY_START.plus(sinceDayStart), BigDecimal.valueOf(kw));
+    }
+}
@@ -0,0 +1,109 @@
+package uk.tw.energy.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.OffHeapReadingStore;
+
+public class RetentionServiceTest {
+    private static final Instant NOW = Instant.parse("2024-04-26T12:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MeterReadingService meterReadingService;
+
+    @BeforeEach
+    public void setUp() {
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        store("meter-a", Duration.ofDays(10), Duration.ofDays(5), Duration.ofHours(1));
+        store("meter-b", Duration.ofDays(10), Duration.ofDays(5), Duration.ofHours(1));
+        store("meter-c", Duration.ofDays(10), Duration.ofHours(1));
+    }
+
+    /**
+     * Tests that every meter keeps the readings inside its own window, the default one or its override.
+     */
+    @Test
+    public void givenPolicyShouldExpireReadingsOutsideEachMetersWindow() {
+        RetentionPolicy retentionPolicy = RetentionPolicy.parse("P7D", "meter-b=P1D");
+
+        retentionService(retentionPolicy, Duration.ofSeconds(10), 16).runSlice();
+
+        assertThat(meterReadingService.getReadings("meter-a").orElseThrow()).hasSize(2);
+        assertThat(meterReadingService.getReadings("meter-b").orElseThrow()).hasSize(1);
+        assertThat(meterReadingService.getReadings("meter-c").orElseThrow()).hasSize(1);
+        assertThat(meterRegistry.find("energy.retention.readings.expired").counter().count()).isEqualTo(4.0);
+        assertThat(meterRegistry.find("energy.retention.passes").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("energy.retention.slice.duration").timer().count()).isEqualTo(1L);
+    }
+
+    /**
+     * Tests that a slice out of budget stops after the meter it started, and the next slice carries on from there.
+     */
+    @Test
+    public void givenExhaustedBudgetShouldResumePassInNextSlice() {
+        RetentionService retentionService = retentionService(RetentionPolicy.parse("P7D", ""), Duration.ZERO, 16);
+
+        retentionService.runSlice();
+        assertThat(meterRegistry.find("energy.retention.passes").counter().count()).isEqualTo(0.0);
+        retentionService.runSlice();
+        retentionService.runSlice();
+
+        assertThat(meterRegistry.find("energy.retention.passes").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("energy.retention.readings.expired").counter().count()).isEqualTo(3.0);
+    }
+
+    /**
+     * Tests that meters without a window keep every reading.
+     */
+    @Test
+    public void givenNoWindowShouldKeepReadings() {
+        retentionService(RetentionPolicy.parse("", "meter-a=PT2H"), Duration.ofSeconds(10), 16).runSlice();
+
+        assertThat(meterReadingService.getReadings("meter-a").orElseThrow()).hasSize(1);
+        assertThat(meterReadingService.getReadings("meter-b").orElseThrow()).hasSize(3);
+    }
+
+    /**
+     * Tests that off-heap blocks freed by expiry are compacted and their slabs reported as reclaimed.
+     */
+    @Test
+    public void givenOffHeapStoreShouldReportReclaimedBytes() {
+        meterReadingService = new MeterReadingService(new OffHeapReadingStore(1, 1));
+        store("meter-a", Duration.ofDays(10), Duration.ofDays(9), Duration.ofDays(8), Duration.ofHours(1));
+        store("meter-b", Duration.ofHours(1));
+
+        retentionService(RetentionPolicy.parse("P7D", ""), Duration.ofSeconds(10), 16).runSlice();
+
+        assertThat(meterReadingService.getReadings("meter-b")).isPresent();
+        assertThat(meterRegistry.find("energy.retention.bytes.reclaimed").counter().count()).isGreaterThan(0.0);
+    }
+
+    private RetentionService retentionService(
+            RetentionPolicy retentionPolicy, Duration sliceBudget, int compactionMovesPerSlice) {
+        return new RetentionService(
+                meterReadingService,
+                retentionPolicy,
+                sliceBudget,
+                compactionMovesPerSlice,
+                meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private void store(String smartMeterId, Duration... ages) {
+        for (Duration age : ages) {
+            meterReadingService.storeReadings(
+                    smartMeterId, List.of(new ElectricityReading(NOW.minus(age), BigDecimal.ONE)));
+        }
+    }
+}
@@ -3,14 +3,18 @@ package uk.tw.energy.service;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.Portfolio;
 
 public class AccountServiceTest {
 
     private static final String PRICE_PLAN_ID = "price-plan-id";
     private static final String SMART_METER_ID = "smart-meter-id";
+    private static final Portfolio PORTFOLIO = new Portfolio("account-id", List.of(SMART_METER_ID, "other-meter-id"));
 
     private AccountService accountService;
 
@@ -19,7 +23,7 @@ public class AccountServiceTest {
         Map<String, String> smartMeterToPricePlanAccounts = new HashMap<>();
         smartMeterToPricePlanAccounts.put(SMART_METER_ID, PRICE_PLAN_ID);
 
-        accountService = new AccountService(smartMeterToPricePlanAccounts);
+        accountService = new AccountService(smartMeterToPricePlanAccounts, List.of(PORTFOLIO));
     }
 
     @Test
@@ -30,4 +34,10 @@ public class AccountServiceTest {
         // Then: The correct price plan ID should be returned
         assertThat(accountService.getPricePlanIdForSmartMeterId(SMART_METER_ID)).isEqualTo(PRICE_PLAN_ID);
     }
+
+    @Test
+    public void givenTheAccountIdReturnsItsPortfolio() {
+        assertThat(accountService.getPortfolio("account-id")).isEqualTo(Optional.of(PORTFOLIO));
+        assertThat(accountService.getPortfolio("unknown-account-id")).isEqualTo(Optional.empty());
+    }
 }
@@ -0,0 +1,114 @@
+package uk.tw.energy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+
+public class ConsumptionCostCalculatorTest {
+    private static final String PRICE_PLAN_ID = "price-plan-id";
+    private static final List<PricePlan> STANDARD_PLAN =
+            List.of(new PricePlan(PRICE_PLAN_ID, null, BigDecimal.ONE, List.of()));
+
+    // 3 hours ramping from 2 kW to 4 kW, then half an hour back down to 2 kW
+    private static final List<ElectricityReading> READINGS_WITH_GAP = List.of(
+            reading("2024-04-28T00:00:00Z", 2), reading("2024-04-28T03:00:00Z", 4), reading("2024-04-28T03:30:00Z", 2));
+
+    private final ConsumptionCostCalculator calculator = new ConsumptionCostCalculator();
+
+    @Test
+    public void givenTwoReadingsShouldChargeTheAreaUnderTheLineJoiningThem() {
+        // 15 kW falling to 5 kW over an hour is 10 kWh
+        Map<String, BigDecimal> costs = calculator.calculateCosts(
+                List.of(reading("2024-04-28T10:00:00Z", 15), reading("2024-04-28T11:00:00Z", 5)), STANDARD_PLAN);
+
+        assertThat(costs).isEqualTo(Map.of(PRICE_PLAN_ID, new BigDecimal("10.0000")));
+    }
+
+    @Test
+    public void givenIntervalCrossingIntoPeakDayShouldChargeEachPartAtItsOwnPrice() {
+        // 1 kWh on Sunday at 1 per kWh, then 1 kWh on Monday at 10 per kWh
+        List<PricePlan> mondayPeakPlan = List.of(new PricePlan(
+                PRICE_PLAN_ID,
+                null,
+                BigDecimal.ONE,
+                List.of(new PricePlan.PeakTimeMultiplier(DayOfWeek.MONDAY, BigDecimal.TEN))));
+
+        Map<String, BigDecimal> costs = calculator.calculateCosts(
+                List.of(reading("2024-04-28T23:00:00Z", 1), reading("2024-04-29T01:00:00Z", 1)), mondayPeakPlan);
+
+        assertThat(costs).isEqualTo(Map.of(PRICE_PLAN_ID, new BigDecimal("11.0000")));
+    }
+
+    @Test
+    public void givenIntervalCrossingTariffBandShouldChargeEachHourAtItsOwnPrice() {
+        // 1 kWh from 16:30 to 17:00 at 1 per kWh, then 2 kWh from 17:00 to 18:00 at 3 per kWh
+        List<PricePlan> eveningPeakPlan = List.of(new PricePlan(
+                PRICE_PLAN_ID,
+                null,
+                BigDecimal.ONE,
+                null,
+                List.of(new PricePlan.TariffBand(null, 17, 19, null, null, BigDecimal.valueOf(3))),
+                null));
+
+        Map<String, BigDecimal> costs = calculator.calculateCosts(
+                List.of(reading("2024-04-28T16:30:00Z", 2), reading("2024-04-28T18:00:00Z", 2)), eveningPeakPlan);
+
+        assertThat(costs).isEqualTo(Map.of(PRICE_PLAN_ID, new BigDecimal("7.0000")));
+    }
+
+    @Test
+    public void givenUnsortedReadingsShouldIntegrateThemInTimeOrder() {
+        List<ElectricityReading> unsorted =
+                List.of(READINGS_WITH_GAP.get(2), READINGS_WITH_GAP.get(0), READINGS_WITH_GAP.get(1));
+
+        assertThat(calculator.calculateCosts(unsorted, STANDARD_PLAN))
+                .isEqualTo(calculator.calculateCosts(READINGS_WITH_GAP, STANDARD_PLAN));
+    }
+
+    @Test
+    public void givenGapLongerThanMaximumShouldApplyGapPolicy() {
+        // The 3 hour gap is 9 kWh when integrated, 6 kWh when held at 2 kW, and left out when skipped
+        assertThat(costWithGapPolicy(ConsumptionCostCalculator.GapPolicy.INTEGRATE))
+                .isEqualTo(new BigDecimal("10.5000"));
+        assertThat(costWithGapPolicy(ConsumptionCostCalculator.GapPolicy.HOLD)).isEqualTo(new BigDecimal("7.5000"));
+        assertThat(costWithGapPolicy(ConsumptionCostCalculator.GapPolicy.SKIP)).isEqualTo(new BigDecimal("1.5000"));
+    }
+
+    @Test
+    public void givenManySmallIntervalsShouldSumTheirCostsExactly() {
+        // 415 intervals of 36 seconds at 1 W cost 0.00001 each, 0.00415 in all, which rounds up
+        Instant start = Instant.parse("2024-04-28T00:00:00Z");
+        List<ElectricityReading> readings = new ArrayList<>();
+        for (int i = 0; i <= 415; i++) {
+            readings.add(new ElectricityReading(start.plusSeconds(36L * i), new BigDecimal("0.001")));
+        }
+
+        assertThat(calculator.calculateCosts(readings, STANDARD_PLAN))
+                .isEqualTo(Map.of(PRICE_PLAN_ID, new BigDecimal("0.0042")));
+    }
+
+    @Test
+    public void givenSingleReadingShouldCostNothing() {
+        assertThat(calculator.calculateCosts(List.of(reading("2024-04-28T10:00:00Z", 5)), STANDARD_PLAN))
+                .isEqualTo(Map.of(PRICE_PLAN_ID, new BigDecimal("0.0000")));
+    }
+
+    private static BigDecimal costWithGapPolicy(ConsumptionCostCalculator.GapPolicy gapPolicy) {
+        return new ConsumptionCostCalculator(gapPolicy, Duration.ofHours(1))
+                .calculateCosts(READINGS_WITH_GAP, STANDARD_PLAN)
+                .get(PRICE_PLAN_ID);
+    }
+
+    private static ElectricityReading reading(String time, double kw) {
+        return new ElectricityReading(Instant.parse(time), BigDecimal.valueOf(kw));
+    }
+}
@@ -0,0 +1,42 @@
+package uk.tw.energy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+
+public class EnergyIntegratorTest {
+
+    private final EnergyIntegrator integrator = new EnergyIntegrator();
+
+    /**
+     * Tests that each reading gives the area under the line joining it to the reading before it.
+     */
+    @Test
+    public void givenReadingsShouldGiveTheEnergyOfEachInterval() {
+        assertThat(integrator.add(reading("2024-04-28T10:00:00Z", "15"))).isZero();
+        // 15 kW falling to 5 kW over an hour is 10 kWh
+        assertThat(integrator.add(reading("2024-04-28T11:00:00Z", "5"))).isEqualTo(10.0);
+        // 5 kW rising to 7 kW over half an hour is 3 kWh
+        assertThat(integrator.add(reading("2024-04-28T11:30:00Z", "7"))).isEqualTo(3.0);
+    }
+
+    /**
+     * Tests that readings not later than the latest one add no energy and leave the next interval unchanged.
+     */
+    @Test
+    public void givenOutOfOrderReadingsShouldIgnoreThem() {
+        integrator.add(reading("2024-04-28T10:00:00Z", "2"));
+        integrator.add(reading("2024-04-28T11:00:00Z", "2"));
+
+        assertThat(integrator.add(reading("2024-04-28T10:30:00Z", "100"))).isZero();
+        assertThat(integrator.add(reading("2024-04-28T11:00:00Z", "100"))).isZero();
+        assertThat(integrator.add(reading("2024-04-28T12:00:00Z", "4"))).isEqualTo(3.0);
+    }
+
+    private static ElectricityReading reading(String time, String kw) {
+        return new ElectricityReading(Instant.parse(time), new BigDecimal(kw));
+    }
+}
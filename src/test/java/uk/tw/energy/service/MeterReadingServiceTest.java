@@ -2,11 +2,24 @@ package uk.tw.energy.service;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.storage.MapReadingStore;
+import uk.tw.energy.storage.ReadingChunk;
+import uk.tw.energy.validation.AnomalyDetectionStage;
+import uk.tw.energy.validation.QuarantineStore;
+import uk.tw.energy.validation.ReadingsStage;
 
 public class MeterReadingServiceTest {
 
@@ -35,4 +48,127 @@ public class MeterReadingServiceTest {
         meterReadingService.storeReadings("random-id", new ArrayList<>());
         assertThat(meterReadingService.getReadings("random-id")).isEqualTo(Optional.of(new ArrayList<>()));
     }
+
+    @Test
+    public void givenPipelineStagesShouldStoreOnlyTheReadingsTheyPassOn() {
+        // Test that every batch goes through the pipeline stages in order before it is stored
+        // Given: A stage dropping negative readings followed by a stage rounding readings to one decimal place
+        // When: Storing a batch with a negative reading
+        // Then: Only the rounded non-negative readings are stored
+        ReadingsStage dropNegative = (smartMeterId, readings) -> readings.stream()
+                .filter(reading -> reading.reading().signum() >= 0)
+                .toList();
+        ReadingsStage round = (smartMeterId, readings) -> readings.stream()
+                .map(reading ->
+                        new ElectricityReading(reading.time(), reading.reading().setScale(1, RoundingMode.HALF_UP)))
+                .toList();
+        meterReadingService =
+                new MeterReadingService(new MapReadingStore(new HashMap<>()), List.of(dropNegative, round));
+        Instant time = Instant.parse("2024-04-26T00:00:00Z");
+
+        meterReadingService.storeReadings(
+                "random-id",
+                List.of(
+                        new ElectricityReading(time, new BigDecimal("0.44")),
+                        new ElectricityReading(time.plusSeconds(10), new BigDecimal("-1"))));
+
+        assertThat(meterReadingService.getReadings("random-id"))
+                .isEqualTo(Optional.of(List.of(new ElectricityReading(time, new BigDecimal("0.4")))));
+    }
+
+    /**
+     * Tests that a stage keeping state per meter is registered as a listener and forgets a removed meter.
+     */
+    @Test
+    public void givenRemovedMeterShouldDropItsStateInTheStages() {
+        Instant now = Instant.parse("2024-04-26T12:00:00Z");
+        AnomalyDetectionStage anomalyDetectionStage = new AnomalyDetectionStage(
+                new QuarantineStore(100), 0.05, 6, 20, Duration.ofMinutes(5), Clock.fixed(now, ZoneOffset.UTC));
+        meterReadingService =
+                new MeterReadingService(new MapReadingStore(new HashMap<>()), List.of(anomalyDetectionStage));
+        meterReadingService.storeReadings("random-id", List.of(new ElectricityReading(now, BigDecimal.ONE)));
+
+        meterReadingService.removeReadings("random-id");
+        int stored = meterReadingService.storeReadings(
+                "random-id", List.of(new ElectricityReading(now.minusSeconds(60), BigDecimal.ONE)));
+
+        assertThat(stored).isEqualTo(1);
+    }
+
+    /**
+     * Tests that a meter's readings version only changes with its own readings, and is not given back after removal.
+     */
+    @Test
+    public void givenOtherMetersChangingShouldKeepReadingsVersion() {
+        List<ElectricityReading> readings = List.of(new ElectricityReading(Instant.now(), BigDecimal.ONE));
+        meterReadingService.storeReadings("random-id", readings);
+        long readingsVersion = meterReadingService.getReadingsVersion("random-id");
+
+        for (int i = 0; i < 10_000; i++) {
+            meterReadingService.storeReadings("other-id-" + i, readings);
+        }
+        assertThat(meterReadingService.getReadingsVersion("random-id")).isEqualTo(readingsVersion);
+
+        meterReadingService.removeReadings("random-id");
+        assertThat(meterReadingService.getReadingsVersion("random-id")).isEqualTo(0L);
+        meterReadingService.storeReadings("random-id", readings);
+        assertThat(meterReadingService.getReadingsVersion("random-id")).isGreaterThan(readingsVersion);
+    }
+
+    /**
+     * Tests that replacing a meter's readings notifies listeners once with the new readings, and only if anything
+     * changed.
+     */
+    @Test
+    public void givenReplacedReadingsShouldNotifyListenersOnce() {
+        Instant now = Instant.parse("2024-04-26T12:00:00Z");
+        meterReadingService.storeReadings("random-id", List.of(new ElectricityReading(now, BigDecimal.ONE)));
+        List<String> notifications = new ArrayList<>();
+        meterReadingService.addListener(new MeterReadingsListener() {
+            @Override
+            public void onReadingsStored(String smartMeterId, List<ElectricityReading> electricityReadings) {
+                notifications.add("stored " + smartMeterId);
+            }
+
+            @Override
+            public void onReadingsReplaced(String smartMeterId, List<ElectricityReading> electricityReadings) {
+                notifications.add("replaced " + smartMeterId + " with " + electricityReadings.size());
+            }
+        });
+        List<ElectricityReading> readings = List.of(
+                new ElectricityReading(now.plusSeconds(60), BigDecimal.TEN),
+                new ElectricityReading(now.plusSeconds(120), BigDecimal.TEN));
+
+        meterReadingService.replaceReadings("random-id", readings);
+        meterReadingService.replaceReadings("unknown-id", List.of());
+
+        assertThat(meterReadingService.getReadings("random-id")).isEqualTo(Optional.of(readings));
+        assertThat(notifications).isEqualTo(List.of("replaced random-id with 2"));
+    }
+
+    /**
+     * Tests that the readings of the heap store are read a chunk at a time, from any position.
+     */
+    @Test
+    public void givenChunksShouldReadStoredReadingsFromPosition() {
+        Instant start = Instant.parse("2024-04-26T00:00:00Z");
+        List<ElectricityReading> readings = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            readings.add(new ElectricityReading(start.plusSeconds(i), BigDecimal.valueOf(i)));
+        }
+        meterReadingService.storeReadings("random-id", readings);
+        ReadingChunk chunk = new ReadingChunk(4);
+
+        List<ElectricityReading> read = new ArrayList<>();
+        for (int from = 0; meterReadingService.readChunk("random-id", from, chunk) && chunk.size() > 0; from += 4) {
+            for (int i = 0; i < chunk.size(); i++) {
+                read.add(chunk.get(i));
+            }
+        }
+
+        assertThat(read).isEqualTo(readings);
+        assertThat(meterReadingService.readChunk("random-id", 8, chunk)).isTrue();
+        assertThat(chunk.size()).isEqualTo(2);
+        assertThat(meterReadingService.readChunk("unknown-id", 0, chunk)).isFalse();
+    }
 }
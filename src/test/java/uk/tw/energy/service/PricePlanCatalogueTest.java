@@ -0,0 +1,137 @@
+package uk.tw.energy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.tw.energy.domain.PricePlan;
+
+public class PricePlanCatalogueTest {
+
+    private static final String PRICE_PLAN_ID = "price-plan-id";
+    private static final String OTHER_PRICE_PLAN_ID = "other-price-plan-id";
+
+    @TempDir
+    Path tempDir;
+
+    private PricePlanCatalogue pricePlanCatalogue;
+
+    @BeforeEach
+    public void setUp() {
+        pricePlanCatalogue = new PricePlanCatalogue(List.of(pricePlan(PRICE_PLAN_ID, BigDecimal.ONE)));
+    }
+
+    @Test
+    public void givenPlanNameShouldLookUpPricePlan() {
+        // Given: A catalogue holding a single price plan
+        // When: Looking up known and unknown plan names
+        // Then: Only the known plan name should be found
+        assertThat(pricePlanCatalogue.getPricePlan(PRICE_PLAN_ID).map(PricePlan::getUnitRate))
+                .isEqualTo(Optional.of(BigDecimal.ONE));
+        assertThat(pricePlanCatalogue.getPricePlan("unknown")).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void givenReplacementShouldSwapSnapshotAndBumpVersion() {
+        // Given: A reader holding the current snapshot and a registered listener
+        // When: Replacing the price plans
+        // Then: The old snapshot is unchanged while the catalogue and listener see the new version
+        PricePlanCatalogue.Snapshot before = pricePlanCatalogue.getSnapshot();
+        List<Long> notifiedVersions = new ArrayList<>();
+        pricePlanCatalogue.addListener(snapshot -> notifiedVersions.add(snapshot.version()));
+
+        pricePlanCatalogue.replace(List.of(pricePlan(OTHER_PRICE_PLAN_ID, BigDecimal.TEN)));
+
+        assertThat(before.pricePlansByName()).containsOnlyKeys(PRICE_PLAN_ID);
+        assertThat(pricePlanCatalogue.getVersion()).isEqualTo(before.version() + 1);
+        assertThat(pricePlanCatalogue.getPricePlan(PRICE_PLAN_ID)).isEqualTo(Optional.empty());
+        assertThat(pricePlanCatalogue.getPricePlan(OTHER_PRICE_PLAN_ID)).isPresent();
+        assertThat(notifiedVersions).containsExactly(before.version() + 1);
+    }
+
+    @Test
+    public void givenConcurrentReplacementsShouldNotifyListenersInVersionOrder() throws Exception {
+        // Given: A listener recording the versions it is notified of
+        // When: Several threads replace the price plans at the same time
+        // Then: The listener sees every version once, in order
+        List<Long> notifiedVersions = Collections.synchronizedList(new ArrayList<>());
+        pricePlanCatalogue.addListener(snapshot -> notifiedVersions.add(snapshot.version()));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> replacements = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                replacements.add(executor.submit(() -> {
+                    for (int j = 0; j < 250; j++) {
+                        pricePlanCatalogue.replace(List.of(pricePlan(OTHER_PRICE_PLAN_ID, BigDecimal.TEN)));
+                    }
+                }));
+            }
+            for (Future<?> replacement : replacements) {
+                replacement.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(notifiedVersions).hasSize(1_000).isSorted();
+    }
+
+    @Test
+    public void givenDuplicatePlanNamesShouldRejectReplacementAndKeepCurrentVersion() {
+        // Given: Two price plans with the same name
+        // When: Replacing the price plans with them
+        // Then: The replacement is rejected and the current version stays in use
+        long version = pricePlanCatalogue.getVersion();
+
+        assertThatThrownBy(() -> pricePlanCatalogue.replace(
+                        List.of(pricePlan(OTHER_PRICE_PLAN_ID, BigDecimal.ONE), pricePlan(OTHER_PRICE_PLAN_ID, BigDecimal.TEN))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(pricePlanCatalogue.getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    public void givenPricePlanFileShouldLoadItAndReloadWhenItChanges() throws IOException {
+        // Given: A price plan file holding one plan
+        // When: Creating the catalogue and then rewriting the file
+        // Then: The catalogue starts from the file and picks up the rewritten plans on reload
+        Path pricePlansFile = tempDir.resolve("price-plans.json");
+        Files.writeString(pricePlansFile, """
+                [{"planName": "file-plan", "energySupplier": "Supplier", "unitRate": 3,
+                  "peakTimeMultipliers": [{"dayOfWeek": "MONDAY", "multiplier": 2}]}]
+                """);
+        PricePlanCatalogue fileCatalogue = new PricePlanCatalogue(
+                List.of(pricePlan(PRICE_PLAN_ID, BigDecimal.ONE)), new ObjectMapper(), pricePlansFile.toString());
+
+        assertThat(fileCatalogue.getSnapshot().pricePlansByName()).containsOnlyKeys("file-plan");
+
+        Files.writeString(pricePlansFile, """
+                [{"planName": "reloaded-plan", "energySupplier": "Supplier", "unitRate": 4}]
+                """);
+        assertThat(fileCatalogue.reloadFromFile().map(PricePlanCatalogue.Snapshot::version))
+                .isEqualTo(Optional.of(3L));
+        assertThat(fileCatalogue.getSnapshot().pricePlansByName()).containsOnlyKeys("reloaded-plan");
+    }
+
+    @Test
+    public void givenNoPricePlanFileShouldNotReload() {
+        assertThat(pricePlanCatalogue.reloadFromFile()).isEqualTo(Optional.empty());
+    }
+
+    private static PricePlan pricePlan(String planName, BigDecimal unitRate) {
+        return new PricePlan(planName, "Supplier", unitRate, List.of());
+    }
+}
@@ -0,0 +1,119 @@
+package uk.tw.energy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+
+public class PricePlanServiceTest {
+    private static final String SMART_METER_ID = "smart-meter";
+    private static final int CONCURRENT_REQUESTS = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+    private final AtomicInteger calculations = new AtomicInteger();
+    private final CountDownLatch firstCalculationStarted = new CountDownLatch(1);
+    private final CountDownLatch firstCalculationReleased = new CountDownLatch(1);
+    private MeterReadingService meterReadingService;
+    private PricePlanService pricePlanService;
+
+    @BeforeEach
+    public void setUp() {
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        meterReadingService.storeReadings(SMART_METER_ID, new ElectricityReadingsGenerator().generate(20));
+        // Holds the first calculation back until the test releases it.
+        ConsumptionCostCalculator calculator = new ConsumptionCostCalculator() {
+            @Override
+            public Map<String, BigDecimal> calculateCosts(
+                    List<ElectricityReading> electricityReadings, List<PricePlan> pricePlans) {
+                if (calculations.getAndIncrement() == 0) {
+                    firstCalculationStarted.countDown();
+                    try {
+                        firstCalculationReleased.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.calculateCosts(electricityReadings, pricePlans);
+            }
+        };
+        pricePlanService = new PricePlanService(
+                new PricePlanCatalogue(List.of(new PricePlan("price-plan", null, BigDecimal.ONE, null))),
+                meterReadingService,
+                calculator,
+                meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        firstCalculationReleased.countDown();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that concurrent requests for the same meter share a single calculation.
+     */
+    @Test
+    public void givenConcurrentRequestsForSameMeterShouldCalculateOnce() throws Exception {
+        List<Future<Optional<Map<String, BigDecimal>>>> responses = new ArrayList<>();
+        responses.add(executor.submit(this::compareAll));
+        firstCalculationStarted.await();
+        for (int i = 1; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(executor.submit(this::compareAll));
+        }
+        while (meterRegistry.find("energy.pricing.coalesced").counter().count() < CONCURRENT_REQUESTS - 1) {
+            Thread.onSpinWait();
+        }
+        firstCalculationReleased.countDown();
+
+        for (Future<Optional<Map<String, BigDecimal>>> response : responses) {
+            assertThat(response.get()).isPresent().isEqualTo(responses.get(0).get());
+        }
+        assertThat(calculations.get()).isEqualTo(1);
+        assertThat(meterRegistry.find("energy.pricing.computations").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find("energy.pricing.coalescing.ratio").gauge().value())
+                .isEqualTo(0.75);
+    }
+
+    /**
+     * Tests that a request arriving after the meter's readings changed doesn't wait for a calculation started before.
+     */
+    @Test
+    public void givenReadingsChangedDuringCalculationShouldCalculateAgain() throws Exception {
+        Future<Optional<Map<String, BigDecimal>>> earlier = executor.submit(this::compareAll);
+        firstCalculationStarted.await();
+        long readingsVersion = meterReadingService.getReadingsVersion(SMART_METER_ID);
+
+        meterReadingService.storeReadings(SMART_METER_ID, new ElectricityReadingsGenerator().generate(5));
+        Optional<Map<String, BigDecimal>> later = compareAll();
+        firstCalculationReleased.countDown();
+
+        assertThat(meterReadingService.getReadingsVersion(SMART_METER_ID)).isNotEqualTo(readingsVersion);
+        assertThat(later).isPresent();
+        assertThat(earlier.get()).isPresent();
+        assertThat(calculations.get()).isEqualTo(2);
+        assertThat(meterRegistry.find("energy.pricing.coalesced").counter().count())
+                .isEqualTo(0);
+    }
+
+    private Optional<Map<String, BigDecimal>> compareAll() {
+        return pricePlanService.getConsumptionCostOfElectricityReadingsForEachPricePlan(SMART_METER_ID);
+    }
+}
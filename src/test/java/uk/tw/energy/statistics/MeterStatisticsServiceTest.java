@@ -0,0 +1,133 @@
+package uk.tw.energy.statistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.service.MeterReadingService;
+
+public class MeterStatisticsServiceTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final LocalDate SECOND_DAY = LocalDate.of(2024, 1, 2);
+    private static final Duration MAX_AGE = Duration.ofDays(7);
+
+    private MeterReadingService meterReadingService;
+    private MeterStatisticsService meterStatisticsService;
+
+    @BeforeEach
+    public void setUp() {
+        meterReadingService = new MeterReadingService(new HashMap<>());
+        meterStatisticsService = new MeterStatisticsService(meterReadingService, 0.01, MAX_AGE);
+    }
+
+    /**
+     * Tests the statistics of each day and of the range, with a steady load broken by one peak.
+     */
+    @Test
+    public void givenReadingsShouldSummariseEachDay() {
+        List<ElectricityReading> readings = new ArrayList<>(hourly(FIRST_DAY, 24, "1.0"));
+        readings.add(reading("2024-01-01T12:30:00Z", "4.0"));
+        readings.add(reading("2024-01-02T00:00:00Z", "1.0"));
+        meterReadingService.storeReadings("smart-meter-0", readings);
+
+        ConsumptionStatistics statistics = meterStatisticsService
+                .getMeterStatistics("smart-meter-0", null, null)
+                .orElseThrow();
+
+        assertThat(statistics.from()).isEqualTo(FIRST_DAY);
+        assertThat(statistics.to()).isEqualTo(SECOND_DAY);
+        assertThat(statistics.meterCount()).isEqualTo(1);
+        assertThat(statistics.readingCount()).isEqualTo(26);
+        assertThat(statistics.p50()).isEqualByComparingTo("1.0");
+        assertThat(statistics.max()).isEqualByComparingTo("4.0");
+        assertThat(statistics.peakTime()).isEqualTo(Instant.parse("2024-01-01T12:30:00Z"));
+        assertThat(statistics.days()).hasSize(2);
+        assertThat(statistics.days().get(0).readingCount()).isEqualTo(25);
+        // 23 hours at 1 kW, then the 1 kW to 4 kW to 1 kW detour over the hour from 12:00.
+        assertThat(statistics.days().get(0).kwh()).isEqualByComparingTo("24.5");
+        assertThat(statistics.days().get(1).kwh()).isEqualByComparingTo("1.0");
+    }
+
+    /**
+     * Tests that a range only covers its own days.
+     */
+    @Test
+    public void givenRangeShouldOnlyCoverItsDays() {
+        meterReadingService.storeReadings("smart-meter-0", hourly(FIRST_DAY, 48, "1.0"));
+
+        ConsumptionStatistics statistics = meterStatisticsService
+                .getMeterStatistics("smart-meter-0", SECOND_DAY, SECOND_DAY)
+                .orElseThrow();
+
+        assertThat(statistics.days()).hasSize(1);
+        assertThat(statistics.readingCount()).isEqualTo(24);
+        assertThat(meterStatisticsService.getMeterStatistics("smart-meter-0", SECOND_DAY.plusDays(1), null))
+                .isEmpty();
+    }
+
+    /**
+     * Tests that fleet statistics merge the readings of every meter.
+     */
+    @Test
+    public void givenSeveralMetersShouldMergeFleetStatistics() {
+        meterReadingService.storeReadings("smart-meter-0", hourly(FIRST_DAY, 24, "1.0"));
+        meterReadingService.storeReadings("smart-meter-1", hourly(FIRST_DAY, 24, "3.0"));
+        meterReadingService.storeReadings("smart-meter-2", hourly(FIRST_DAY, 24, "3.0"));
+
+        ConsumptionStatistics statistics =
+                meterStatisticsService.getFleetStatistics(FIRST_DAY, FIRST_DAY).orElseThrow();
+
+        assertThat(statistics.meterCount()).isEqualTo(3);
+        assertThat(statistics.readingCount()).isEqualTo(72);
+        assertThat(statistics.p50().doubleValue()).isBetween(2.97, 3.03);
+        assertThat(statistics.kwh()).isEqualByComparingTo("161.0");
+    }
+
+    /**
+     * Tests that days older than the maximum age before the latest reading are dropped, and not created again.
+     */
+    @Test
+    public void givenDaysOlderThanMaxAgeShouldDropThem() {
+        LocalDate latestDay = FIRST_DAY.plusDays(MAX_AGE.toDays());
+        meterReadingService.storeReadings("smart-meter-0", hourly(FIRST_DAY, 24, "1.0"));
+        meterReadingService.storeReadings("smart-meter-0", hourly(latestDay, 1, "1.0"));
+
+        meterReadingService.storeReadings("smart-meter-0", hourly(FIRST_DAY, 1, "1.0"));
+
+        ConsumptionStatistics statistics = meterStatisticsService
+                .getMeterStatistics("smart-meter-0", null, null)
+                .orElseThrow();
+        assertThat(statistics.from()).isEqualTo(latestDay);
+        assertThat(statistics.readingCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenRemovedMeterShouldDropItsStatistics() {
+        meterReadingService.storeReadings("smart-meter-0", hourly(FIRST_DAY, 24, "1.0"));
+
+        meterReadingService.removeReadings("smart-meter-0");
+
+        assertThat(meterStatisticsService.getMeterStatistics("smart-meter-0", null, null)).isEmpty();
+    }
+
+    private static List<ElectricityReading> hourly(LocalDate from, int hours, String kw) {
+        Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        return IntStream.range(0, hours)
+                .mapToObj(hour -> new ElectricityReading(start.plusSeconds(hour * 3_600L), new BigDecimal(kw)))
+                .toList();
+    }
+
+    private static ElectricityReading reading(String time, String kw) {
+        return new ElectricityReading(Instant.parse(time), new BigDecimal(kw));
+    }
+}
@@ -0,0 +1,65 @@
+package uk.tw.energy.statistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class QuantileSketchTest {
+
+    /**
+     * Tests that every percentile is within the relative accuracy of the exact one, over values spanning decades.
+     */
+    @Test
+    public void givenValuesShouldEstimateQuantilesWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (int percentile = 0; percentile <= 100; percentile++) {
+            double exact = values[(int) (percentile / 100.0 * (values.length - 1))];
+            assertThat(sketch.quantile(percentile / 100.0)).isCloseTo(exact, within(exact * 0.01));
+        }
+        assertThat(sketch.quantile(1)).isEqualTo(values[values.length - 1]);
+        assertThat(sketch.count()).isEqualTo(values.length);
+    }
+
+    /**
+     * Tests that merged sketches answer as one sketch given every value would.
+     */
+    @Test
+    public void givenMergedSketchesShouldMatchSketchOfAllValues() {
+        Random random = new Random(7);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch merged = new QuantileSketch();
+        for (int part = 0; part < 10; part++) {
+            QuantileSketch sketch = new QuantileSketch();
+            for (int i = 0; i < 1_000; i++) {
+                double value = part == 3 && i % 10 == 0 ? 0 : random.nextDouble() * Math.pow(10, part - 5);
+                sketch.add(value);
+                all.add(value);
+            }
+            merged.merge(sketch);
+        }
+
+        for (double quantile : new double[] {0, 0.05, 0.5, 0.95, 0.99, 1}) {
+            assertThat(merged.quantile(quantile)).isEqualTo(all.quantile(quantile));
+        }
+        assertThat(merged.count()).isEqualTo(all.count());
+        assertThat(merged.min()).isEqualTo(0);
+    }
+
+    @Test
+    public void givenDifferentAccuraciesShouldRejectMerge() {
+        assertThatThrownBy(() -> new QuantileSketch(0.01).merge(new QuantileSketch(0.02)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
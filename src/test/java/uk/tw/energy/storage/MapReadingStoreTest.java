@@ -0,0 +1,78 @@
+package uk.tw.energy.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+
+public class MapReadingStoreTest {
+    private static final Instant START = Instant.parse("2024-04-26T00:00:00Z");
+    private static final int BATCHES = 2_000;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that the store neither changes nor holds on to the map it is seeded from.
+     */
+    @Test
+    public void givenSeededMapShouldCopyIt() {
+        List<ElectricityReading> seeded = List.of(new ElectricityReading(START, BigDecimal.ONE));
+        Map<String, List<ElectricityReading>> meterAssociatedReadings = new HashMap<>();
+        meterAssociatedReadings.put("smart-meter", seeded);
+        MapReadingStore readingStore = new MapReadingStore(meterAssociatedReadings);
+
+        readingStore.storeReadings(
+                "smart-meter", List.of(new ElectricityReading(START.plusSeconds(1), BigDecimal.TEN)));
+        readingStore.storeReadings("other-meter", List.of());
+
+        assertThat(meterAssociatedReadings).isEqualTo(Map.of("smart-meter", seeded));
+        assertThat(readingStore.getReadings("smart-meter").orElseThrow()).hasSize(2);
+    }
+
+    /**
+     * Tests that batches stored while older readings expire and while readers copy them are all kept.
+     */
+    @Test
+    public void givenReadingsStoredWhileExpiringShouldKeepEveryNewReading() throws Exception {
+        MapReadingStore readingStore = new MapReadingStore(new HashMap<>());
+        List<ElectricityReading> expected = new ArrayList<>();
+        for (int i = 0; i < BATCHES; i++) {
+            expected.add(new ElectricityReading(START.plusSeconds(BATCHES + i), BigDecimal.valueOf(i)));
+        }
+
+        Future<?> stored = executor.submit(() -> {
+            for (int i = 0; i < BATCHES; i++) {
+                readingStore.storeReadings(
+                        "smart-meter",
+                        List.of(new ElectricityReading(START.plusSeconds(i), BigDecimal.ZERO), expected.get(i)));
+            }
+        });
+        Future<?> expired = executor.submit(() -> {
+            while (!stored.isDone()) {
+                readingStore.removeReadingsBefore("smart-meter", START.plusSeconds(BATCHES));
+                readingStore.getReadings("smart-meter").ifPresent(List::size);
+            }
+        });
+        stored.get();
+        expired.get();
+        readingStore.removeReadingsBefore("smart-meter", START.plusSeconds(BATCHES));
+
+        assertThat(readingStore.getReadings("smart-meter")).isEqualTo(Optional.of(expected));
+    }
+}
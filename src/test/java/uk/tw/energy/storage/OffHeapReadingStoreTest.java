@@ -0,0 +1,210 @@
+package uk.tw.energy.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+
+public class OffHeapReadingStoreTest {
+
+    private static final int READINGS_PER_BLOCK = 4;
+    private static final int BLOCKS_PER_SLAB = 2;
+
+    private OffHeapReadingStore readingStore;
+
+    @BeforeEach
+    public void setUp() {
+        readingStore = new OffHeapReadingStore(READINGS_PER_BLOCK, BLOCKS_PER_SLAB);
+    }
+
+    /**
+     * Tests that an unknown smart meter has no readings.
+     */
+    @Test
+    public void givenMeterIdThatDoesNotExistShouldReturnEmpty() {
+        assertThat(readingStore.getReadings("unknown-id")).isEqualTo(Optional.empty());
+    }
+
+    /**
+     * Tests that readings spanning several blocks and batches come back unchanged and in order.
+     */
+    @Test
+    public void givenMultipleBatchesShouldReturnReadingsExactlyAsStored() {
+        List<ElectricityReading> firstBatch = new ElectricityReadingsGenerator().generate(7);
+        List<ElectricityReading> secondBatch = List.of(
+                new ElectricityReading(Instant.parse("2024-04-26T00:00:10.123456789Z"), new BigDecimal("10")),
+                new ElectricityReading(Instant.parse("2024-04-26T00:00:20Z"), new BigDecimal("0.0503")));
+
+        readingStore.storeReadings("smart-meter", firstBatch);
+        readingStore.storeReadings("smart-meter", secondBatch);
+
+        List<ElectricityReading> expected = new ArrayList<>(firstBatch);
+        expected.addAll(secondBatch);
+        assertThat(readingStore.getReadings("smart-meter")).isEqualTo(Optional.of(expected));
+    }
+
+    /**
+     * Tests that readings are copied out a chunk at a time, across block boundaries.
+     */
+    @Test
+    public void givenChunksShouldCopyReadingsFromPosition() {
+        List<ElectricityReading> readings = new ElectricityReadingsGenerator().generate(7);
+        readingStore.storeReadings("smart-meter", readings);
+        ReadingChunk chunk = new ReadingChunk(5);
+
+        assertThat(readingStore.readChunk("smart-meter", 3, chunk)).isTrue();
+        assertThat(chunk.size()).isEqualTo(4);
+        assertThat(chunk.get(0)).isEqualTo(readings.get(3));
+        assertThat(chunk.get(3)).isEqualTo(readings.get(6));
+        assertThat(readingStore.readChunk("smart-meter", 7, chunk)).isTrue();
+        assertThat(chunk.size()).isEqualTo(0);
+        assertThat(readingStore.readChunk("unknown-id", 0, chunk)).isFalse();
+    }
+
+    /**
+     * Tests that storing an empty batch registers the smart meter.
+     */
+    @Test
+    public void givenEmptyBatchShouldRegisterMeterWithoutReadings() {
+        readingStore.storeReadings("smart-meter", List.of());
+
+        assertThat(readingStore.getReadings("smart-meter")).isEqualTo(Optional.of(List.of()));
+        assertThat(readingStore.usedBytes()).isEqualTo(0L);
+    }
+
+    /**
+     * Tests that compaction moves live blocks into freed holes, releases empty slabs and keeps readings intact.
+     */
+    @Test
+    public void givenFreedMeterShouldCompactRemainingBlocksAndReleaseSlabs() {
+        ElectricityReadingsGenerator generator = new ElectricityReadingsGenerator();
+        List<ElectricityReading> removedReadings = generator.generate(READINGS_PER_BLOCK * 2);
+        List<ElectricityReading> keptReadings = generator.generate(READINGS_PER_BLOCK * 2);
+        readingStore.storeReadings("removed-meter", removedReadings);
+        readingStore.storeReadings("kept-meter", keptReadings);
+        assertThat(readingStore.reservedBytes()).isEqualTo(4L * READINGS_PER_BLOCK * OffHeapReadingStore.READING_BYTES);
+
+        assertThat(readingStore.removeReadings("removed-meter")).isTrue();
+        long released = readingStore.compact();
+
+        assertThat(released).isEqualTo(2L * READINGS_PER_BLOCK * OffHeapReadingStore.READING_BYTES);
+        assertThat(readingStore.reservedBytes()).isEqualTo(readingStore.usedBytes());
+        assertThat(readingStore.getReadings("removed-meter")).isEqualTo(Optional.empty());
+        assertThat(readingStore.getReadings("kept-meter")).isEqualTo(Optional.of(keptReadings));
+    }
+
+    /**
+     * Tests that removing the oldest readings shifts the kept ones down and frees the blocks left empty.
+     */
+    @Test
+    public void givenCutoffShouldRemoveOlderReadingsAndFreeEmptiedBlocks() {
+        Instant start = Instant.parse("2024-04-26T00:00:00Z");
+        List<ElectricityReading> readings = new ArrayList<>();
+        for (int i = 0; i < READINGS_PER_BLOCK * 2 + 1; i++) {
+            readings.add(new ElectricityReading(start.plusSeconds(i), BigDecimal.valueOf(i)));
+        }
+        readingStore.storeReadings("smart-meter", readings);
+
+        List<ElectricityReading> removed = readingStore.removeReadingsBefore("smart-meter", start.plusSeconds(6));
+
+        assertThat(removed).isEqualTo(readings.subList(0, 6));
+        assertThat(readingStore.getReadings("smart-meter")).isEqualTo(Optional.of(readings.subList(6, 9)));
+        assertThat(readingStore.usedBytes()).isEqualTo((long) READINGS_PER_BLOCK * OffHeapReadingStore.READING_BYTES);
+        assertThat(readingStore.removeReadingsBefore("smart-meter", start)).isEmpty();
+    }
+
+    /**
+     * Tests that a meter's version changes when readings are stored or expired, but not when none expire.
+     */
+    @Test
+    public void givenChangedReadingsShouldChangeVersion() {
+        Instant start = Instant.parse("2024-04-26T00:00:00Z");
+        assertThat(readingStore.getVersion("smart-meter")).isEqualTo(0L);
+        readingStore.storeReadings("smart-meter", List.of(new ElectricityReading(start, BigDecimal.ONE)));
+        long stored = readingStore.getVersion("smart-meter");
+
+        readingStore.removeReadingsBefore("smart-meter", start);
+        assertThat(readingStore.getVersion("smart-meter")).isEqualTo(stored);
+        readingStore.removeReadingsBefore("smart-meter", start.plusSeconds(1));
+        assertThat(readingStore.getVersion("smart-meter")).isGreaterThan(stored);
+    }
+
+    /**
+     * Tests that replacing a meter's readings frees its old blocks, and that replacing them with none removes it.
+     */
+    @Test
+    public void givenReplacedReadingsShouldHoldOnlyTheNewOnes() {
+        List<ElectricityReading> readings = new ElectricityReadingsGenerator().generate(READINGS_PER_BLOCK * 2 + 1);
+        readingStore.storeReadings("smart-meter", readings);
+        long stored = readingStore.getVersion("smart-meter");
+        List<ElectricityReading> newReadings = readings.subList(0, 2);
+
+        assertThat(readingStore.replaceReadings("smart-meter", newReadings)).isTrue();
+        assertThat(readingStore.getReadings("smart-meter")).isEqualTo(Optional.of(newReadings));
+        assertThat(readingStore.getVersion("smart-meter")).isGreaterThan(stored);
+        assertThat(readingStore.usedBytes()).isEqualTo((long) READINGS_PER_BLOCK * OffHeapReadingStore.READING_BYTES);
+
+        assertThat(readingStore.replaceReadings("smart-meter", List.of())).isTrue();
+        assertThat(readingStore.getReadings("smart-meter")).isEqualTo(Optional.empty());
+        assertThat(readingStore.replaceReadings("unknown-id", newReadings)).isFalse();
+    }
+
+    /**
+     * Tests that a meter whose readings all expired keeps accepting readings.
+     */
+    @Test
+    public void givenEveryReadingExpiredShouldStoreNewReadingsFromAnEmptyChain() {
+        List<ElectricityReading> readings = new ElectricityReadingsGenerator().generate(READINGS_PER_BLOCK + 1);
+        readingStore.storeReadings("smart-meter", readings);
+        readingStore.removeReadingsBefore("smart-meter", Instant.now().plusSeconds(60));
+        assertThat(readingStore.usedBytes()).isEqualTo(0L);
+
+        List<ElectricityReading> newReadings = List.of(new ElectricityReading(Instant.now(), BigDecimal.TEN));
+        readingStore.storeReadings("smart-meter", newReadings);
+
+        assertThat(readingStore.getReadings("smart-meter")).isEqualTo(Optional.of(newReadings));
+    }
+
+    /**
+     * Tests that a reading too precise for the fixed-width layout is rejected before anything is written.
+     */
+    @Test
+    public void givenReadingWithTooManyDigitsShouldRejectWholeBatch() {
+        List<ElectricityReading> readings = List.of(
+                new ElectricityReading(Instant.now(), BigDecimal.ONE),
+                new ElectricityReading(Instant.now(), new BigDecimal("1.2345678901234567890")));
+
+        assertThatThrownBy(() -> readingStore.storeReadings("smart-meter", readings))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(readingStore.getReadings("smart-meter")).isEqualTo(Optional.empty());
+    }
+
+    /**
+     * Tests that readings bound into columns are stored like any others, including those only held as objects.
+     */
+    @Test
+    public void givenReadingColumnsShouldStoreReadingsExactlyAsGiven() {
+        List<ElectricityReading> readings = new ElectricityReadingsGenerator().generate(6);
+        ReadingColumns columns = new ReadingColumns(2);
+        for (ElectricityReading reading : readings.subList(0, 5)) {
+            columns.add(
+                    reading.time().getEpochSecond(),
+                    reading.time().getNano(),
+                    reading.reading().scale(),
+                    reading.reading().unscaledValue().longValue());
+        }
+        columns.add(readings.get(5));
+
+        readingStore.storeReadings("smart-meter", columns);
+
+        assertThat(readingStore.getReadings("smart-meter")).isEqualTo(Optional.of(readings));
+    }
+}
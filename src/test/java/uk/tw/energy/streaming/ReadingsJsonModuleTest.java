@@ -0,0 +1,147 @@
+package uk.tw.energy.streaming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.MeterReadings;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+import uk.tw.energy.storage.ReadingColumns;
+
+public class ReadingsJsonModuleTest {
+    private static final String BODY = """
+            {"smartMeterId":"smart-meter-0","electricityReadings":[
+              {"time":"2024-02-29T23:59:59.123456789Z","reading":0.0503},
+              {"time":"1969-12-31T23:59:59.5Z","reading":-1},
+              {"time":1606636800,"reading":0.00},
+              {"time":1606636800.25,"reading":"0.25"},
+              {"time":"2024-04-26T01:00:10+01:00","reading":1E+3},
+              {"reading":12345678901234567890.5,"time":"2024-04-26T00:00:20Z"},
+              {"time":"2024-04-26T00:00:30Z","reading":null}
+            ]}""";
+
+    private final ObjectMapper defaultMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    private final ObjectMapper objectMapper = defaultMapper.copy().registerModule(new ReadingsJsonModule());
+
+    /**
+     * Tests that every form of time and value binds to what the default record deserializer binds it to.
+     */
+    @Test
+    public void givenBodyShouldBindSameReadingsAsObjectMapper() throws IOException {
+        MeterReadings expected = defaultMapper.readValue(BODY, MeterReadings.class);
+
+        MeterReadings meterReadings = objectMapper.readValue(BODY, MeterReadings.class);
+
+        assertThat(meterReadings).isEqualTo(expected);
+        assertThat(objectMapper.readValue("{\"time\":1606636800,\"reading\":0.0503}", ElectricityReading.class))
+                .isEqualTo(new ElectricityReading(Instant.ofEpochSecond(1606636800), new BigDecimal("0.0503")));
+    }
+
+    /**
+     * Tests that readings are bound into columns, except those without a value or with too many digits.
+     */
+    @Test
+    public void givenBodyShouldBindReadingsIntoColumns() throws IOException {
+        MeterReadings meterReadings = objectMapper.readValue(BODY, MeterReadings.class);
+
+        assertThat(meterReadings.electricityReadings()).isInstanceOf(ReadingColumns.class);
+        ReadingColumns columns = (ReadingColumns) meterReadings.electricityReadings();
+        assertThat(columns.inColumns(0)).isTrue();
+        assertThat(columns.epochSecond(0)).isEqualTo(Instant.parse("2024-02-29T23:59:59Z").getEpochSecond());
+        assertThat(columns.nano(0)).isEqualTo(123_456_789);
+        assertThat(columns.unscaledValue(0)).isEqualTo(503);
+        assertThat(columns.scale(0)).isEqualTo(4);
+        assertThat(columns.inColumns(4)).isTrue();
+        assertThat(columns.inColumns(5)).isFalse();
+        assertThat(columns.inColumns(6)).isFalse();
+    }
+
+    /**
+     * Tests that getting a reading creates every reading once and drops the columns, and that readings appended
+     * afterwards are kept as objects.
+     */
+    @Test
+    public void givenReadingGotShouldHoldEveryReadingAsObject() throws IOException {
+        List<ElectricityReading> expected = new ArrayList<>(
+                defaultMapper.readValue(BODY, MeterReadings.class).electricityReadings());
+        ReadingColumns columns =
+                (ReadingColumns) objectMapper.readValue(BODY, MeterReadings.class).electricityReadings();
+
+        ElectricityReading first = columns.get(0);
+        columns.add(1606636800, 0, 0, 7);
+        expected.add(new ElectricityReading(Instant.ofEpochSecond(1606636800), BigDecimal.valueOf(7)));
+
+        assertThat(columns.get(0)).isSameAs(first);
+        assertThat(columns.inColumns(0)).isFalse();
+        assertThat(columns.inColumns(7)).isFalse();
+        assertThat(columns).isEqualTo(expected);
+    }
+
+    /**
+     * Tests that readings are written as the default record serializer writes them.
+     */
+    @Test
+    public void givenReadingsShouldWriteSameJsonAsObjectMapper() throws IOException {
+        List<ElectricityReading> readings = new ArrayList<>(new ElectricityReadingsGenerator().generate(20));
+        readings.add(new ElectricityReading(Instant.parse("2024-02-29T12:00:00.000001Z"), new BigDecimal("1E+3")));
+        readings.add(new ElectricityReading(null, null));
+        MeterReadings meterReadings = new MeterReadings("smart-meter-0", readings);
+
+        assertThat(objectMapper.writeValueAsString(meterReadings))
+                .isEqualTo(defaultMapper.writeValueAsString(meterReadings));
+        ObjectMapper timestamps = objectMapper.copy().configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, true);
+        assertThat(timestamps.writeValueAsString(meterReadings))
+                .isEqualTo(defaultMapper
+                        .copy()
+                        .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, true)
+                        .writeValueAsString(meterReadings));
+    }
+
+    /**
+     * Tests that unknown properties are rejected or skipped as the mapper is configured to.
+     */
+    @Test
+    public void givenUnknownPropertiesShouldFollowMapperConfiguration() throws IOException {
+        String body = "{\"smartMeterId\":\"smart-meter-0\",\"source\":{\"id\":[1]},"
+                + "\"electricityReadings\":[{\"time\":1606636800,\"unit\":\"kW\",\"reading\":0.0503}]}";
+
+        assertThatThrownBy(() -> objectMapper.readValue(body, MeterReadings.class))
+                .isInstanceOf(UnrecognizedPropertyException.class);
+        MeterReadings meterReadings = objectMapper
+                .copy()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .readValue(body, MeterReadings.class);
+        assertThat(meterReadings.electricityReadings())
+                .containsExactly(
+                        new ElectricityReading(Instant.ofEpochSecond(1606636800), new BigDecimal("0.0503")));
+    }
+
+    /**
+     * Tests that a null reading and a time that isn't one are rejected.
+     */
+    @Test
+    public void givenInvalidReadingsShouldFail() {
+        assertThatThrownBy(() -> objectMapper.readValue(
+                        "{\"smartMeterId\":\"smart-meter-0\",\"electricityReadings\":[null]}", MeterReadings.class))
+                .isInstanceOf(MismatchedInputException.class);
+        assertThatThrownBy(() -> objectMapper.readValue(
+                        "{\"smartMeterId\":\"smart-meter-0\",\"electricityReadings\":"
+                                + "[{\"time\":\"2023-02-29T00:00:00Z\",\"reading\":1}]}",
+                        MeterReadings.class))
+                .isInstanceOf(IOException.class);
+    }
+}
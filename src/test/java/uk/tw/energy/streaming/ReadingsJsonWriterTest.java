@@ -0,0 +1,77 @@
+package uk.tw.energy.streaming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.generator.ElectricityReadingsGenerator;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.storage.OffHeapReadingStore;
+
+public class ReadingsJsonWriterTest {
+    private static final String SMART_METER_ID = "smart-meter";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+    /**
+     * Tests that the streamed readings are byte for byte what the ObjectMapper writes, across several chunks.
+     */
+    @Test
+    public void givenReadingsShouldWriteSameJsonAsObjectMapper() throws IOException {
+        List<ElectricityReading> readings = new ArrayList<>(new ElectricityReadingsGenerator().generate(20));
+        readings.add(new ElectricityReading(Instant.parse("1969-12-31T23:59:59.5Z"), new BigDecimal("-0.0000001")));
+        readings.add(new ElectricityReading(Instant.parse("2024-02-29T12:00:00.000001Z"), new BigDecimal("1E+3")));
+        readings.add(new ElectricityReading(Instant.parse("2024-04-26T00:00:10.123456789Z"), new BigDecimal("10")));
+        readings.add(new ElectricityReading(
+                Instant.parse("2024-04-26T00:00:20Z"), new BigDecimal("12345678901234567890.123456789")));
+        MeterReadingService meterReadingService = new MeterReadingService(new HashMap<>());
+        meterReadingService.storeReadings(SMART_METER_ID, readings);
+
+        assertThat(streamed(meterReadingService, 3)).isEqualTo(objectMapper.writeValueAsString(readings));
+    }
+
+    /**
+     * Tests that readings are streamed straight from the off-heap store.
+     */
+    @Test
+    public void givenOffHeapStoreShouldWriteSameJsonAsObjectMapper() throws IOException {
+        List<ElectricityReading> readings = new ElectricityReadingsGenerator().generate(50);
+        MeterReadingService meterReadingService = new MeterReadingService(new OffHeapReadingStore(8, 4));
+        meterReadingService.storeReadings(SMART_METER_ID, readings);
+
+        assertThat(streamed(meterReadingService, 16)).isEqualTo(objectMapper.writeValueAsString(readings));
+    }
+
+    /**
+     * Tests that a known meter without readings streams an empty array and an unknown meter streams nothing.
+     */
+    @Test
+    public void givenNoReadingsShouldWriteEmptyArray() throws IOException {
+        MeterReadingService meterReadingService = new MeterReadingService(new HashMap<>());
+        meterReadingService.storeReadings(SMART_METER_ID, List.of());
+
+        assertThat(streamed(meterReadingService, 4)).isEqualTo("[]");
+        assertThat(new ReadingsJsonWriter(meterReadingService, 4).stream("unknown-id")).isEmpty();
+    }
+
+    private static String streamed(MeterReadingService meterReadingService, int chunkSize) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new ReadingsJsonWriter(meterReadingService, chunkSize)
+                .stream(SMART_METER_ID)
+                .orElseThrow()
+                .writeTo(outputStream);
+        return outputStream.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package uk.tw.energy.tenancy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.PricePlanCatalogue;
+
+public class TenantBulkheadTest {
+
+    /**
+     * Tests that a supplier with every request slot in use is refused, while another supplier is still served.
+     */
+    @Test
+    public void givenSupplierAtLimitShouldRefuseOnlyThatSupplier() {
+        TenantResolver tenantResolver = new TenantResolver(
+                new AccountService(Map.of("meter-a", "plan-a", "meter-b", "plan-b")),
+                new PricePlanCatalogue(List.of(
+                        new PricePlan("plan-a", "supplier-a", BigDecimal.TEN, null),
+                        new PricePlan("plan-b", "supplier-b", BigDecimal.ONE, null))));
+        TenantBulkhead tenantBulkhead = new TenantBulkhead(tenantResolver, 1, new SimpleMeterRegistry());
+        boolean[] served = new boolean[1];
+
+        tenantBulkhead.run("meter-a", () -> {
+            assertThat(tenantBulkhead.getInFlight("supplier-a")).isEqualTo(1);
+            assertThatThrownBy(() -> tenantBulkhead.run("meter-a", () -> {}))
+                    .isInstanceOf(TenantBusyException.class)
+                    .hasMessageContaining("supplier-a");
+            tenantBulkhead.run("meter-b", () -> served[0] = true);
+        });
+
+        assertThat(served[0]).isTrue();
+        assertThat(tenantBulkhead.getInFlight("supplier-a")).isZero();
+        tenantBulkhead.run("meter-a", () -> {});
+    }
+
+    /**
+     * Tests that an asynchronous request keeps its slot until its future completes.
+     */
+    @Test
+    public void givenAsynchronousRequestShouldHoldItsSlotUntilItCompletes() {
+        TenantResolver tenantResolver =
+                new TenantResolver(new AccountService(Map.of()), new PricePlanCatalogue(List.of()));
+        TenantBulkhead tenantBulkhead = new TenantBulkhead(tenantResolver, 1, new SimpleMeterRegistry());
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> response = tenantBulkhead.callAsyncAs("supplier-a", () -> pending);
+
+        assertThat(tenantBulkhead.getInFlight("supplier-a")).isEqualTo(1);
+        assertThatThrownBy(() -> tenantBulkhead.callAs("supplier-a", () -> "refused"))
+                .isInstanceOf(TenantBusyException.class);
+        pending.complete("costed");
+        assertThat(response.join()).isEqualTo("costed");
+        assertThat(tenantBulkhead.getInFlight("supplier-a")).isZero();
+    }
+}
@@ -0,0 +1,109 @@
+package uk.tw.energy.tenancy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.domain.PricePlan;
+import uk.tw.energy.service.AccountService;
+import uk.tw.energy.service.PricePlanCatalogue;
+import uk.tw.energy.storage.OffHeapReadingStore;
+
+public class TenantPartitionedReadingStoreTest {
+    private static final Instant START = Instant.parse("2024-04-26T00:00:00Z");
+
+    private TenantPartitionedReadingStore readingStore;
+
+    @BeforeEach
+    public void setUp() {
+        AccountService accountService = new AccountService(Map.of(
+                "meter-a1", "plan-a",
+                "meter-a2", "plan-a",
+                "meter-b", "plan-b"));
+        PricePlanCatalogue pricePlanCatalogue = new PricePlanCatalogue(List.of(
+                new PricePlan("plan-a", "supplier-a", BigDecimal.TEN, null),
+                new PricePlan("plan-b", "supplier-b", BigDecimal.ONE, null)));
+        readingStore = new TenantPartitionedReadingStore(
+                new TenantResolver(accountService, pricePlanCatalogue),
+                () -> new OffHeapReadingStore(4, 2),
+                5,
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * Tests that a batch over its supplier's quota is refused as a whole, while other suppliers still store readings.
+     */
+    @Test
+    public void givenQuotaReachedShouldRefuseOnlyThatSupplier() {
+        readingStore.storeReadings("meter-a1", readings(0, 3));
+
+        assertThatThrownBy(() -> readingStore.storeReadings("meter-a2", readings(0, 3)))
+                .isInstanceOf(TenantQuotaExceededException.class)
+                .hasMessageContaining("supplier-a")
+                .hasMessageContaining("quota of 5 readings");
+        readingStore.storeReadings("meter-b", readings(0, 5));
+
+        assertThat(readingStore.getReadings("meter-a2")).isEqualTo(Optional.empty());
+        assertThat(readingStore.getReadings("meter-b")).isEqualTo(Optional.of(readings(0, 5)));
+        assertThat(readingStore.getReadingCounts()).isEqualTo(Map.of("supplier-a", 3L, "supplier-b", 5L));
+        assertThat(readingStore.getSmartMeterIds()).containsExactlyInAnyOrder("meter-a1", "meter-b");
+    }
+
+    /**
+     * Tests that removed and expired readings give their share of the quota back.
+     */
+    @Test
+    public void givenReadingsRemovedShouldFreeQuota() {
+        readingStore.storeReadings("meter-a1", readings(0, 3));
+        readingStore.storeReadings("meter-a2", readings(0, 2));
+
+        assertThat(readingStore.removeReadingsBefore("meter-a1", START.plusSeconds(120))).hasSize(2);
+        readingStore.storeReadings("meter-a2", readings(2, 2));
+        assertThat(readingStore.removeReadings("meter-a1")).isTrue();
+        readingStore.storeReadings("meter-a2", readings(4, 1));
+
+        assertThat(readingStore.getReadings("meter-a2")).isEqualTo(Optional.of(readings(0, 5)));
+        assertThat(readingStore.getReadingCounts()).isEqualTo(Map.of("supplier-a", 5L));
+    }
+
+    /**
+     * Tests that replacing a meter's readings counts only the difference against its supplier's quota.
+     */
+    @Test
+    public void givenReplacedReadingsShouldCountOnlyTheDifference() {
+        readingStore.storeReadings("meter-a1", readings(0, 3));
+
+        assertThat(readingStore.replaceReadings("meter-a1", readings(0, 5))).isTrue();
+        assertThat(readingStore.getReadingCounts()).isEqualTo(Map.of("supplier-a", 5L));
+        assertThat(readingStore.replaceReadings("meter-a1", readings(4, 1))).isTrue();
+
+        assertThat(readingStore.getReadings("meter-a1")).isEqualTo(Optional.of(readings(4, 1)));
+        assertThat(readingStore.getReadingCounts()).isEqualTo(Map.of("supplier-a", 1L));
+    }
+
+    /**
+     * Tests that meters without an account share the unassigned tenant's partition.
+     */
+    @Test
+    public void givenMeterWithoutAccountShouldStoreInUnassignedPartition() {
+        readingStore.storeReadings("meter-unknown", readings(0, 2));
+
+        assertThat(readingStore.getReadings("meter-unknown")).isEqualTo(Optional.of(readings(0, 2)));
+        assertThat(readingStore.getReadingCounts()).isEqualTo(Map.of(TenantResolver.UNASSIGNED_TENANT, 2L));
+    }
+
+    private static List<ElectricityReading> readings(int from, int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(i -> new ElectricityReading(START.plusSeconds(60L * i), BigDecimal.valueOf(i + 1, 1)))
+                .toList();
+    }
+}
@@ -0,0 +1,154 @@
+package uk.tw.energy.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.tw.energy.domain.ElectricityReading;
+
+public class AnomalyDetectionStageTest {
+
+    private static final String SMART_METER_ID = "smart-meter-0";
+    private static final Instant NOW = Instant.parse("2024-04-26T12:00:00Z");
+    private static final int WARM_UP_READINGS = 5;
+
+    private QuarantineStore quarantineStore;
+    private AnomalyDetectionStage stage;
+
+    @BeforeEach
+    public void setUp() {
+        quarantineStore = new QuarantineStore(100);
+        stage = new AnomalyDetectionStage(
+                quarantineStore, 0.1, 6, WARM_UP_READINGS, Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    /**
+     * Tests that a clean batch is passed on as it is.
+     */
+    @Test
+    public void givenCleanBatchShouldPassItOnUnchanged() {
+        List<ElectricityReading> batch = readings(0, "0.5", "0.6", "0.4");
+
+        assertThat(stage.process(SMART_METER_ID, batch)).isSameAs(batch);
+        assertThat(quarantineStore.getQuarantinedReadings(SMART_METER_ID)).isEqualTo(Optional.empty());
+    }
+
+    /**
+     * Tests that negative, out of order, duplicate and future readings are quarantined with their anomalies.
+     */
+    @Test
+    public void givenFaultyReadingsShouldQuarantineThem() {
+        ElectricityReading negative = reading(-300, "-1");
+        ElectricityReading first = reading(-200, "0.5");
+        ElectricityReading duplicate = reading(-200, "0.5");
+        ElectricityReading earlier = reading(-250, "0.5");
+        ElectricityReading future = reading(3_600, "0.5");
+        ElectricityReading missing = new ElectricityReading(null, BigDecimal.ONE);
+
+        List<ElectricityReading> accepted =
+                stage.process(SMART_METER_ID, List.of(negative, first, duplicate, earlier, future, missing));
+
+        assertThat(accepted).containsExactly(first);
+        assertThat(quarantineStore.getQuarantinedReadings(SMART_METER_ID).get())
+                .containsExactly(
+                        new QuarantinedReading(negative, Set.of(Anomaly.NEGATIVE), NOW),
+                        new QuarantinedReading(duplicate, Set.of(Anomaly.NOT_MONOTONIC), NOW),
+                        new QuarantinedReading(earlier, Set.of(Anomaly.NOT_MONOTONIC), NOW),
+                        new QuarantinedReading(future, Set.of(Anomaly.FUTURE_TIMESTAMP), NOW),
+                        new QuarantinedReading(missing, Set.of(Anomaly.MISSING_VALUE), NOW));
+    }
+
+    /**
+     * Tests that a spike is accepted while the meter warms up.
+     */
+    @Test
+    public void givenSpikeDuringWarmUpShouldAcceptIt() {
+        store(readings(-1_000, "0.5", "0.6", "0.5", "0.4"));
+
+        assertThat(stage.process(SMART_METER_ID, readings(-900, "50"))).hasSize(1);
+    }
+
+    /**
+     * Tests that a spike is quarantined once the meter is warmed up.
+     */
+    @Test
+    public void givenSpikeAfterWarmUpShouldQuarantineIt() {
+        store(readings(-1_000, "0.5", "0.6", "0.5", "0.4", "0.5", "0.6"));
+        List<ElectricityReading> spike = readings(-900, "50");
+
+        assertThat(stage.process(SMART_METER_ID, spike)).isEmpty();
+        assertThat(quarantineStore.getQuarantinedReadings(SMART_METER_ID).get())
+                .containsExactly(new QuarantinedReading(spike.get(0), Set.of(Anomaly.SPIKE), NOW));
+    }
+
+    /**
+     * Tests that a lasting change of load is accepted again after the warm-up number of spikes.
+     */
+    @Test
+    public void givenLastingChangeOfLoadShouldStartOver() {
+        store(readings(-1_000, "0.5", "0.6", "0.5", "0.4", "0.5", "0.6"));
+
+        List<ElectricityReading> higherLoad = stage.process(
+                SMART_METER_ID, readings(-900, "20", "21", "20", "19", "20", "21", "20"));
+
+        assertThat(higherLoad)
+                .extracting(ElectricityReading::reading)
+                .containsExactly(new BigDecimal("21"), new BigDecimal("20"));
+        assertThat(quarantineStore.getQuarantinedReadings(SMART_METER_ID).get()).hasSize(WARM_UP_READINGS);
+    }
+
+    /**
+     * Tests that a batch the store refused is checked again as if it had never been sent.
+     */
+    @Test
+    public void givenBatchNotStoredShouldAcceptItAgain() {
+        store(readings(-1_000, "0.5", "0.6"));
+        List<ElectricityReading> batch = readings(-900, "0.5", "0.6");
+        stage.process(SMART_METER_ID, batch);
+
+        assertThat(stage.process(SMART_METER_ID, batch)).isSameAs(batch);
+        assertThat(quarantineStore.getQuarantinedReadings(SMART_METER_ID)).isEqualTo(Optional.empty());
+    }
+
+    /**
+     * Tests that readings stored without going through the stage, such as imported ones, are checked against.
+     */
+    @Test
+    public void givenReadingsStoredWithoutTheStageShouldCheckAgainstThem() {
+        List<ElectricityReading> imported = readings(-1_000, "0.5", "0.6", "0.5", "0.4", "0.5", "0.6");
+        stage.onReadingsStored(SMART_METER_ID, imported);
+
+        assertThat(stage.process(SMART_METER_ID, List.of(imported.get(5), reading(-900, "50")))).isEmpty();
+        assertThat(quarantineStore.getQuarantinedReadings(SMART_METER_ID).get())
+                .extracting(QuarantinedReading::anomalies)
+                .containsExactly(Set.of(Anomaly.NOT_MONOTONIC), Set.of(Anomaly.SPIKE));
+    }
+
+    /**
+     * Checks readings and stores the ones passed on, as the service does.
+     */
+    private void store(List<ElectricityReading> readings) {
+        stage.onReadingsStored(SMART_METER_ID, stage.process(SMART_METER_ID, readings));
+    }
+
+    private static List<ElectricityReading> readings(long firstSecondFromNow, String... values) {
+        List<ElectricityReading> readings = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            readings.add(reading(firstSecondFromNow + i * 10L, values[i]));
+        }
+        return readings;
+    }
+
+    private static ElectricityReading reading(long secondsFromNow, String value) {
+        return new ElectricityReading(NOW.plusSeconds(secondsFromNow), new BigDecimal(value));
+    }
+}
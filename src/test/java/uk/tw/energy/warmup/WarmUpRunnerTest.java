@@ -0,0 +1,83 @@
+package uk.tw.energy.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.tw.energy.SeedingApplicationDataConfiguration;
+import uk.tw.energy.archive.ReadingArchiveService;
+import uk.tw.energy.domain.ElectricityReading;
+import uk.tw.energy.replication.MeterRange;
+import uk.tw.energy.service.MeterReadingService;
+import uk.tw.energy.service.PricePlanService;
+import uk.tw.energy.storage.MapReadingStore;
+import uk.tw.energy.validation.AnomalyDetectionStage;
+import uk.tw.energy.validation.QuarantineStore;
+
+public class WarmUpRunnerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    private final SeedingApplicationDataConfiguration seeding = new SeedingApplicationDataConfiguration();
+
+    @TempDir
+    private Path archives;
+
+    /**
+     * Tests that the warm-up stops after its last round and leaves the stored readings as they were.
+     */
+    @Test
+    public void givenSeededReadingsShouldWarmUpWithoutChangingThem() throws IOException {
+        Map<String, List<ElectricityReading>> seeded = seeding.perMeterElectricityReadings(20, 0, 2, "42");
+        Map<String, List<ElectricityReading>> expected = new HashMap<>(seeded);
+        QuarantineStore quarantineStore = new QuarantineStore(1_000);
+        MeterReadingService meterReadingService = new MeterReadingService(
+                new MapReadingStore(seeded),
+                List.of(new AnomalyDetectionStage(quarantineStore, 0.05, 6, 20, Duration.ofMinutes(5))));
+        WarmUpRunner warmUpRunner = new WarmUpRunner(
+                meterReadingService,
+                new PricePlanService(seeding.pricePlans(), meterReadingService),
+                new ReadingArchiveService(meterReadingService, archives.toString(), 1, 4_096),
+                objectMapper,
+                MeterRange.ALL,
+                new WarmUpSettings("", 2, 1_000, 5, Duration.ofMinutes(1)),
+                new SimpleMeterRegistry());
+
+        WarmUpResult result = warmUpRunner.warmUp();
+
+        assertThat(result.rounds()).isEqualTo(5);
+        assertThat(result.settled()).isFalse();
+        assertThat(meterReadingService.getSmartMeterIds()).isEqualTo(expected.keySet());
+        for (String smartMeterId : expected.keySet()) {
+            assertThat(meterReadingService.getReadings(smartMeterId)).contains(expected.get(smartMeterId));
+        }
+        assertThat(quarantineStore.getQuarantinedReadings("warm-up-meter-0")).isEmpty();
+    }
+
+    /**
+     * Tests that a seed gives the same readings whatever the number of seeding threads.
+     */
+    @Test
+    public void givenSeedShouldSeedSameReadingValuesOnAnyNumberOfThreads() {
+        Map<String, List<ElectricityReading>> sequential = seeding.perMeterElectricityReadings(50, 20, 1, "7");
+        Map<String, List<ElectricityReading>> parallel = seeding.perMeterElectricityReadings(50, 20, 8, "7");
+
+        assertThat(parallel).hasSize(25).containsKey("smart-meter-24");
+        parallel.forEach((smartMeterId, readings) -> assertThat(readings.stream()
+                        .map(ElectricityReading::reading)
+                        .toList())
+                .isEqualTo(sequential.get(smartMeterId).stream()
+                        .map(ElectricityReading::reading)
+                        .toList()));
+    }
+}